@@ -18,6 +18,7 @@
  */
 package org.jetel.component;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Iterator;
 
@@ -28,6 +29,7 @@ import org.jetel.data.DataRecord;
 import org.jetel.data.DataRecordFactory;
 import org.jetel.data.Defaults;
 import org.jetel.data.RecordKey;
+import org.jetel.data.tape.DataRecordTape;
 import org.jetel.exception.AttributeNotFoundException;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.ConfigurationStatus;
@@ -81,6 +83,10 @@ import org.w3c.dom.Element;
  *  <tr><td><b>equalNULL</b><br><i>optional</i></td><td>specifies whether two fields containing NULL values are considered equal. Default is FALSE.</td></tr>
  *  <tr><td><b>charset</b></td><td>character encoding of the input data stream for CRC32 and MD5 functions (if not specified, then value from defaultProperties DataFormatter.DEFAULT_CHARSET_ENCODER is used)</td>
  *  </tr>
+ *  <tr><td><b>memoryLimit</b><br><i>optional</i></td><td>maximal estimated size (in bytes) of aggregation groups of unsorted input
+ *  kept in memory. Records of groups which do not fit the limit are spilled to temporary files and aggregated in following passes,
+ *  so order of output records is not preserved in that case. If the limit is set, groups are also spilled when the graph's
+ *  memory manager refuses more memory or asks for spilling. Default is 0 - no limit.</td></tr>
  *  </table>
  *
  *  <h4>Example:</h4>
@@ -102,6 +108,7 @@ public class Aggregate extends Node {
 	// optional attributes
     private static final String XML_EQUAL_NULL_ATTRIBUTE = "equalNULL";
     private static final String XML_CHARSET_ATTRIBUTE = "charset";
+    private static final String XML_MEMORY_LIMIT_ATTRIBUTE = "memoryLimit";
 
 	// used ports
 	private final static int WRITE_TO_PORT = 0;
@@ -116,6 +123,8 @@ public class Aggregate extends Node {
 	
 	private boolean equalNULLs;
 	private String charset;
+	// maximal estimated size of aggregation groups of unsorted input, 0 means unlimited
+	private long memoryLimit = 0;
 
 	private AggregateProcessor processor;
 	private RecordKey recordKey;
@@ -219,20 +228,70 @@ public class Aggregate extends Node {
 			DataRecord currentRecord = DataRecordFactory.newRecord(inPort.getMetadata());
 			DataRecord outRecord = DataRecordFactory.newRecord(outPort.getMetadata());
 
+			SpillPartitions spilledPartitions = null;
+
 			// read all data from input port to aggregateRecord
 			while ((currentRecord = inPort.readRecord(currentRecord)) != null && runIt) {
-				processor.addRecord(currentRecord);
+				if (!processor.addRecord(currentRecord)) {
+					// a new group exceeds memory limit
+					if (spilledPartitions == null) {
+						spilledPartitions = new SpillPartitions(inPort.getMetadata(), recordKey.getKeyFields(), 0);
+					}
+					spilledPartitions.put(currentRecord);
+				}
 			}
 			
-			for (Iterator<DataRecord> results = processor.getUnsortedAggregationOutput(outRecord);
-				results.hasNext(); ) {
-				writeRecordBroadcast(results.next());
+			writeUnsortedResults(outRecord);
+			if (spilledPartitions != null) {
+				aggregateSpilled(spilledPartitions, DataRecordFactory.newRecord(inPort.getMetadata()), outRecord);
 			}
 		}
 		
 		broadcastEOF();
 		return runIt ? Result.FINISHED_OK : Result.ABORTED;
 	}
+
+	/**
+	 * Sends results of unsorted aggregation to output and resets the processor.
+	 */
+	private void writeUnsortedResults(DataRecord outRecord) throws IOException, InterruptedException {
+		for (Iterator<DataRecord> results = processor.getUnsortedAggregationOutput(outRecord);
+			results.hasNext() && runIt; ) {
+			writeRecordBroadcast(results.next());
+		}
+		processor.reset();
+	}
+
+	/**
+	 * Aggregates records spilled to temporary files partition by partition. Records of groups
+	 * which still do not fit the memory limit are spilled to partitions of next level.
+	 */
+	private void aggregateSpilled(SpillPartitions partitions, DataRecord record, DataRecord outRecord) throws Exception {
+		try {
+			for (int partition = 0; partition < SpillPartitions.PARTITIONS && runIt; partition++) {
+				DataRecordTape tape = partitions.rewind(partition);
+				if (tape == null) {
+					continue;
+				}
+				SpillPartitions spilledPartitions = null;
+				while (runIt && tape.get(record)) {
+					if (!processor.addRecord(record)) {
+						if (spilledPartitions == null) {
+							spilledPartitions = new SpillPartitions(record.getMetadata(), recordKey.getKeyFields(), partitions.getLevel() + 1);
+						}
+						spilledPartitions.put(record);
+					}
+				}
+				partitions.free(partition);
+				writeUnsortedResults(outRecord);
+				if (spilledPartitions != null) {
+					aggregateSpilled(spilledPartitions, record, outRecord);
+				}
+			}
+		} finally {
+			partitions.free();
+		}
+	}
 	
 	/* (non-Javadoc)
 	 * @see org.jetel.graph.Node#init()
@@ -267,6 +326,19 @@ public class Aggregate extends Node {
 		} catch (AggregationException e) {
 			throw new ComponentNotReadyException(e);
 		}
+		processor.setMemoryLimit(memoryLimit);
+		if (memoryLimit > 0) {
+			// output order is changed by spilling, so the memory manager is involved only if the user allows spilling
+			processor.setMemoryManager(getGraph().getMemoryManager());
+		}
+	}
+
+	@Override
+	public synchronized void free() {
+		super.free();
+		if (processor != null) {
+			processor.free();
+		}
 	}
 
 	/**
@@ -318,6 +390,9 @@ public class Aggregate extends Node {
         if (xattribs.exists(XML_CHARSET_ATTRIBUTE)){
         	aggregate.setCharset(xattribs.getString(XML_CHARSET_ATTRIBUTE));
         }
+        if (xattribs.exists(XML_MEMORY_LIMIT_ATTRIBUTE)){
+        	aggregate.setMemoryLimit(xattribs.getLong(XML_MEMORY_LIMIT_ATTRIBUTE));
+        }
         
 		return aggregate;
 	}
@@ -340,6 +415,10 @@ public class Aggregate extends Node {
         	status.addError(this, XML_CHARSET_ATTRIBUTE, "Charset " + charset + " not supported!");
         }
         
+        if (memoryLimit < 0) {
+        	status.addError(this, XML_MEMORY_LIMIT_ATTRIBUTE, "Memory limit must not be negative.");
+        }
+        
         if (newMapping == null && oldMapping == null) {
         	status.addError(this, XML_MAPPING_ATTRIBUTE, "Mapping not specified");
         	return status;
@@ -389,4 +468,18 @@ public class Aggregate extends Node {
 		this.charset = charset;
 	}
 
+	/**
+	 * @return the memory limit of unsorted aggregation
+	 */
+	public long getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	/**
+	 * @param memoryLimit maximal estimated size (in bytes) of aggregation groups of unsorted input, 0 means unlimited
+	 */
+	public void setMemoryLimit(long memoryLimit) {
+		this.memoryLimit = memoryLimit;
+	}
+
 }
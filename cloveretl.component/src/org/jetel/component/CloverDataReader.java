@@ -94,6 +94,7 @@ import org.w3c.dom.Element;
  *  <tr><td><b>fileURL</b></td><td>path to the data file. </td>
  *  <tr><td><b>startRecord</b><br><i>optional</i></td><td>index of first parsed record</td>
  *  <tr><td><b>finalRecord</b><br><i>optional</i></td><td>index of final parsed record</td>
+ *  <tr><td><b>memoryMapped</b><br><i>optional</i></td><td>local files are mapped into memory instead of being read by system calls; default is false</td>
  *  </tr>
  *  </table>
  *
@@ -127,6 +128,7 @@ public class CloverDataReader extends Node implements MultiFileListener, Metadat
 	private static final String XML_NUMRECORDS_ATTRIBUTE = "numRecords";
 	private static final String XML_SKIP_SOURCE_ROWS_ATTRIBUTE = "skipSourceRows";
 	private static final String XML_NUM_SOURCE_RECORDS_ATTRIBUTE = "numSourceRecords";
+	private static final String XML_MEMORY_MAPPED_ATTRIBUTE = "memoryMapped";
 
 	private final static int OUTPUT_PORT = 0;
 	private final static int INPUT_PORT = 0;
@@ -140,6 +142,7 @@ public class CloverDataReader extends Node implements MultiFileListener, Metadat
 	private int numRecords = -1;
 	private int skipSourceRows = -1;
 	private int numSourceRecords = -1;
+	private boolean memoryMapped;
     
 	/**
 	 * Used if there are no autofilled fields in the output metadata.
@@ -233,6 +236,7 @@ public class CloverDataReader extends Node implements MultiFileListener, Metadat
         reader.setPropertyRefResolver(getPropertyRefResolver());
         reader.setDictionary(graph.getDictionary());
         reader.setSkipSourceRows(skipSourceRows);
+        reader.setMemoryMapped(memoryMapped);
 
         reader.init(getOutputPort(OUTPUT_PORT).getMetadata());
 	}
@@ -262,6 +266,9 @@ public class CloverDataReader extends Node implements MultiFileListener, Metadat
 		if (xattribs.exists(XML_NUM_SOURCE_RECORDS_ATTRIBUTE)){
 			aDataReader.setNumSourceRecords(xattribs.getInteger(XML_NUM_SOURCE_RECORDS_ATTRIBUTE));
 		}
+		if (xattribs.exists(XML_MEMORY_MAPPED_ATTRIBUTE)){
+			aDataReader.setMemoryMapped(xattribs.getBoolean(XML_MEMORY_MAPPED_ATTRIBUTE));
+		}
 		
 		return aDataReader;
 	}
@@ -384,6 +391,13 @@ public class CloverDataReader extends Node implements MultiFileListener, Metadat
 	public void setNumSourceRecords(int numSourceRecords) {
 		this.numSourceRecords = Math.max(numSourceRecords, 0);
 	}
+
+	/**
+	 * @param memoryMapped whether local files are mapped into memory
+	 */
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
 	
 	@Override
 	public void fileChanged(Object newFile) {
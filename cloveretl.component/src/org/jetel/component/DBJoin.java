@@ -23,9 +23,13 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.sql.SQLException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -34,6 +38,7 @@ import org.jetel.connection.jdbc.DBConnectionImpl;
 import org.jetel.data.DataRecord;
 import org.jetel.data.DataRecordFactory;
 import org.jetel.data.Defaults;
+import org.jetel.data.HashKey;
 import org.jetel.data.NullRecord;
 import org.jetel.data.RecordKey;
 import org.jetel.data.lookup.Lookup;
@@ -42,6 +47,7 @@ import org.jetel.database.sql.DBConnection;
 import org.jetel.exception.AttributeNotFoundException;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.ConfigurationStatus;
+import org.jetel.exception.JetelException;
 import org.jetel.exception.TransformException;
 import org.jetel.exception.XMLConfigurationException;
 import org.jetel.graph.InputPort;
@@ -51,6 +57,7 @@ import org.jetel.graph.Result;
 import org.jetel.graph.TransformationGraph;
 import org.jetel.graph.modelview.MVMetadata;
 import org.jetel.graph.modelview.impl.MetadataPropagationResolver;
+import org.jetel.lookup.DBLookup;
 import org.jetel.lookup.DBLookupTable;
 import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.util.file.FileUtils;
@@ -119,6 +126,10 @@ import org.w3c.dom.Element;
  *  <tr><td><b>metadata</b><i>optional</i><td>metadata for data from database</td>
  *  <tr><td><b>maxCached</b><i>optional</i><td>number of sets of records with different key which will be stored in memory</td>
  *  <tr><td><b>leftOuterJoin</b><i>optional</i><td>true/false<I> default: FALSE</I> See description.</td>
+ *  <tr><td><b>batchSize</b><i>optional</i><td>number of driver records whose keys are looked up in database by a single query,
+ *  the next batch is looked up while the records of the previous one are joined. Only queries with simple WHERE clause
+ *  (<code>col1 = ? AND col2 = ?</code>) selecting the key columns and with numeric or date key fields can be batched,
+ *  other queries are executed in background key by key. <I>default: 0 (keys are looked up one by one)</I></td>
  *  <tr><td><b>errorActions </b><i>optional</i></td><td>defines if graph is to stop, when transformation returns negative value.
  *  Available actions are: STOP or CONTINUE. For CONTINUE action, error message is logged to console or file (if errorLog attribute
  *  is specified) and for STOP there is thrown TransformExceptions and graph execution is stopped. <br>
@@ -157,6 +168,7 @@ public class DBJoin extends Node implements MetadataProvider {
 	public static final String XML_DB_METADATA_ATTRIBUTE = "metadata"; //$NON-NLS-1$
 	public static final String XML_MAX_CACHED_ATTRIBUTE = "maxCached"; //$NON-NLS-1$
 	public static final String XML_LEFTOUTERJOIN_ATTRIBUTE = "leftOuterJoin"; //$NON-NLS-1$
+	public static final String XML_BATCH_SIZE_ATTRIBUTE = "batchSize"; //$NON-NLS-1$
 	private static final String XML_ERROR_ACTIONS_ATTRIBUTE = "errorActions"; //$NON-NLS-1$
     private static final String XML_ERROR_LOG_ATTRIBUTE = "errorLog"; //$NON-NLS-1$
 
@@ -178,6 +190,7 @@ public class DBJoin extends Node implements MetadataProvider {
 	private String metadataName;
 	private int maxCached;
 	private boolean leftOuterJoin = false;
+	private int batchSize = 0;
 
 	private String errorActionsString;
 	private Map<Integer, ErrorAction> errorActions = new HashMap<Integer, ErrorAction>();
@@ -227,80 +240,19 @@ public class DBJoin extends Node implements MetadataProvider {
 		DataRecord[] inRecords = new DataRecord[] {inRecord,null};
 		OutputPort rejectedPort = getOutputPort(REJECTED_PORT);
 
-		int counter = 0;
-		while (inRecord!=null && runIt) {
+		if (batchSize > 1) {
+			executeBatched(inRecords, outRecord, rejectedPort);
+		} else {
+			int counter = 0;
+			while (inRecord!=null && runIt) {
 				inRecord = inPort.readRecord(inRecord);
 				if (inRecord!=null) {
 					//find slave record in database
 					lookup.seek();
-					inRecords[1] = lookup.hasNext() ? lookup.next() : NullRecord.NULL_RECORD;
-					do{
-						if (transformation != null) {//transform driver and slave
-							if ((inRecords[1] != NullRecord.NULL_RECORD || leftOuterJoin)){
-								int transformResult = -1;
-
-								try {
-									transformResult = transformation.transform(inRecords, outRecord);
-								} catch (Exception exception) {
-									transformResult = transformation.transformOnError(exception, inRecords, outRecord);
-								}
-
-								if (transformResult >= 0) {
-									writeRecord(WRITE_TO_PORT, outRecord[0]);
-								} else{
-									ErrorAction action = errorActions.get(transformResult);
-									if (action == null) {
-										action = errorActions.get(Integer.MIN_VALUE);
-										if (action == null) {
-											action = ErrorAction.DEFAULT_ERROR_ACTION;
-										}
-									}
-									String message = "Transformation finished with code: " + transformResult + ". Error message: " +  //$NON-NLS-1$ //$NON-NLS-2$
-										transformation.getMessage();
-									if (action == ErrorAction.CONTINUE) {
-										if (errorLog != null){
-											errorLog.write(String.valueOf(counter));
-											errorLog.write(Defaults.Component.KEY_FIELDS_DELIMITER);
-											errorLog.write(String.valueOf(transformResult));
-											errorLog.write(Defaults.Component.KEY_FIELDS_DELIMITER);
-											message = transformation.getMessage();
-											if (message != null) {
-												errorLog.write(message);
-											}
-											errorLog.write(Defaults.Component.KEY_FIELDS_DELIMITER);
-											Object semiResult = transformation.getSemiResult();
-											if (semiResult != null) {
-												errorLog.write(semiResult.toString());
-											}
-											errorLog.write("\n"); //$NON-NLS-1$
-										} else {
-											//CL-2020
-											//if no error log is defined, the message is quietly ignored
-											//without messy logging in console
-											//only in case non empty message given from transformation, the message is printed out
-											if (!StringUtils.isEmpty(transformation.getMessage())) {
-												logger.warn(message);
-											}
-										}
-									} else {
-										throw new TransformException(message);
-									}
-								}
-							}else if (rejectedPort != null){
-								writeRecord(REJECTED_PORT, inRecord);
-							}
-						}else { 
-							if (inRecords[1] != NullRecord.NULL_RECORD){//send to output only records from DB
-								writeRecord(WRITE_TO_PORT, inRecords[1]);
-							}else if (rejectedPort != null){
-								writeRecord(REJECTED_PORT, inRecord);
-							}
-						}
-						//get next record from database with the same key
-						inRecords[1] = lookup.hasNext() ? lookup.next() : NullRecord.NULL_RECORD;		
-					}while (inRecords[1] !=  NullRecord.NULL_RECORD);
+					joinRecord(inRecords, outRecord, rejectedPort, counter);
 				}
 				counter++;
+			}
 		}
 
 		if (errorLog != null){
@@ -310,6 +262,150 @@ public class DBJoin extends Node implements MetadataProvider {
 		broadcastEOF();
         return runIt ? Result.FINISHED_OK : Result.ABORTED;
 	}
+
+	/**
+	 * Driver records are read by batches, keys of a batch are looked up in background
+	 * while the records of the previous batch are joined.
+	 */
+	private void executeBatched(DataRecord[] inRecords, DataRecord[] outRecord, OutputPort rejectedPort) throws Exception {
+		DBLookup dbLookup = (DBLookup) lookup;
+		List<DataRecord> batch = readBatch(new ArrayList<DataRecord>(batchSize));
+		List<DataRecord> nextBatch = new ArrayList<DataRecord>(batchSize);
+		Future<Map<HashKey, List<DataRecord>>> pending = batch.isEmpty() ? null : dbLookup.fetchAsync(batch);
+		int counter = 0;
+		try {
+			while (pending != null && runIt) {
+				// records of the fetched batch must not be overwritten, so the next batch is read into other records
+				readBatch(nextBatch);
+				Map<HashKey, List<DataRecord>> fetched = getFetched(pending);
+				pending = nextBatch.isEmpty() ? null : dbLookup.fetchAsync(nextBatch);
+				for (DataRecord record : batch) {
+					if (!runIt) {
+						break;
+					}
+					//find slave records fetched from database
+					dbLookup.seek(record, fetched);
+					inRecords[0] = record;
+					joinRecord(inRecords, outRecord, rejectedPort, counter++);
+				}
+				List<DataRecord> tmp = batch;
+				batch = nextBatch;
+				nextBatch = tmp;
+			}
+		} finally {
+			if (pending != null) {
+				// the lookup can't be closed while the fetch is running
+				try {
+					pending.get();
+				} catch (ExecutionException e) {
+					// ignored, the processing has already failed or been aborted
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads next batch of driver records, the records of the given list are reused.
+	 * 
+	 * @return the given list with the read records, empty list if there are no more records
+	 */
+	private List<DataRecord> readBatch(List<DataRecord> batch) throws IOException, InterruptedException {
+		int size = 0;
+		while (size < batchSize && runIt) {
+			if (size == batch.size()) {
+				batch.add(DataRecordFactory.newRecord(inPort.getMetadata()));
+			}
+			if (inPort.readRecord(batch.get(size)) == null) {
+				break;
+			}
+			size++;
+		}
+		while (batch.size() > size) {
+			batch.remove(batch.size() - 1);
+		}
+		return batch;
+	}
+
+	private Map<HashKey, List<DataRecord>> getFetched(Future<Map<HashKey, List<DataRecord>>> pending) throws JetelException, InterruptedException {
+		try {
+			return pending.get();
+		} catch (ExecutionException e) {
+			throw new JetelException("Lookup of driver records failed.", e.getCause());
+		}
+	}
+
+	/**
+	 * Joins driver record inRecords[0] with the slave records found by the lookup.
+	 */
+	private void joinRecord(DataRecord[] inRecords, DataRecord[] outRecord, OutputPort rejectedPort, int counter)
+			throws IOException, InterruptedException, TransformException {
+		inRecords[1] = lookup.hasNext() ? lookup.next() : NullRecord.NULL_RECORD;
+		do{
+			if (transformation != null) {//transform driver and slave
+				if ((inRecords[1] != NullRecord.NULL_RECORD || leftOuterJoin)){
+					int transformResult = -1;
+
+					try {
+						transformResult = transformation.transform(inRecords, outRecord);
+					} catch (Exception exception) {
+						transformResult = transformation.transformOnError(exception, inRecords, outRecord);
+					}
+
+					if (transformResult >= 0) {
+						writeRecord(WRITE_TO_PORT, outRecord[0]);
+					} else{
+						ErrorAction action = errorActions.get(transformResult);
+						if (action == null) {
+							action = errorActions.get(Integer.MIN_VALUE);
+							if (action == null) {
+								action = ErrorAction.DEFAULT_ERROR_ACTION;
+							}
+						}
+						String message = "Transformation finished with code: " + transformResult + ". Error message: " +  //$NON-NLS-1$ //$NON-NLS-2$
+							transformation.getMessage();
+						if (action == ErrorAction.CONTINUE) {
+							if (errorLog != null){
+								errorLog.write(String.valueOf(counter));
+								errorLog.write(Defaults.Component.KEY_FIELDS_DELIMITER);
+								errorLog.write(String.valueOf(transformResult));
+								errorLog.write(Defaults.Component.KEY_FIELDS_DELIMITER);
+								message = transformation.getMessage();
+								if (message != null) {
+									errorLog.write(message);
+								}
+								errorLog.write(Defaults.Component.KEY_FIELDS_DELIMITER);
+								Object semiResult = transformation.getSemiResult();
+								if (semiResult != null) {
+									errorLog.write(semiResult.toString());
+								}
+								errorLog.write("\n"); //$NON-NLS-1$
+							} else {
+								//CL-2020
+								//if no error log is defined, the message is quietly ignored
+								//without messy logging in console
+								//only in case non empty message given from transformation, the message is printed out
+								if (!StringUtils.isEmpty(transformation.getMessage())) {
+									logger.warn(message);
+								}
+							}
+						} else {
+							throw new TransformException(message);
+						}
+					}
+				}else if (rejectedPort != null){
+					writeRecord(REJECTED_PORT, inRecords[0]);
+				}
+			}else { 
+				if (inRecords[1] != NullRecord.NULL_RECORD){//send to output only records from DB
+					writeRecord(WRITE_TO_PORT, inRecords[1]);
+				}else if (rejectedPort != null){
+					writeRecord(REJECTED_PORT, inRecords[0]);
+				}
+			}
+			//get next record from database with the same key
+			inRecords[1] = lookup.hasNext() ? lookup.next() : NullRecord.NULL_RECORD;		
+		}while (inRecords[1] !=  NullRecord.NULL_RECORD);
+	}
 	
 	@Override
 	public void free() {
@@ -439,6 +535,7 @@ public class DBJoin extends Node implements MetadataProvider {
 		lookupTable = new DBLookupTable("LOOKUP_TABLE_FROM_" + this.getId(), (DBConnection) conn, dbMetadata, query, maxCached); //$NON-NLS-1$
 		lookupTable.setGraph(getGraph());
 		lookupTable.setStoreNulls(true);
+		lookupTable.setBatchSize(batchSize);
 		lookupTable.checkConfig(null);
 		lookupTable.init();
 
@@ -600,6 +697,7 @@ public class DBJoin extends Node implements MetadataProvider {
 			dbjoin.setLeftOuterJoin(xattribs.getBoolean(XML_LEFTOUTERJOIN_ATTRIBUTE));
 		}
 		dbjoin.setMaxCached(xattribs.getInteger(XML_MAX_CACHED_ATTRIBUTE,100));
+		dbjoin.setBatchSize(xattribs.getInteger(XML_BATCH_SIZE_ATTRIBUTE, 0));
 		if (xattribs.exists(XML_ERROR_ACTIONS_ATTRIBUTE)){
 			dbjoin.setErrorActions(xattribs.getString(XML_ERROR_ACTIONS_ATTRIBUTE));
 		}
@@ -639,6 +737,10 @@ public class DBJoin extends Node implements MetadataProvider {
 		this.leftOuterJoin = leftOuterJoin;
 	}
 
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
 	public String getCharset() {
 		return charset;
 	}
@@ -25,6 +25,12 @@ import java.sql.Savepoint;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -52,6 +58,8 @@ import org.jetel.graph.Node;
 import org.jetel.graph.OutputPort;
 import org.jetel.graph.Result;
 import org.jetel.graph.TransformationGraph;
+import org.jetel.graph.runtime.CloverWorker;
+import org.jetel.graph.runtime.FutureOfRunnable;
 import org.jetel.graph.modelview.MVMetadata;
 import org.jetel.graph.modelview.impl.MetadataPropagationResolver;
 import org.jetel.metadata.DataFieldMetadata;
@@ -155,6 +163,11 @@ import org.w3c.dom.Element;
  *   <tr><td><b>maxErrors</b><br><i>optional</i></td><td>maximum number of allowed SQL errors. Default: 0 (zero). If exceeded, component stops with error. If set to <b>-1</b>(minus one) all errors are ignored.</td></tr>
  *   <tr><td><b>errorAction</b><br><i>optional</i></td><td>ROLLBACK or COMMIT (case sensitive!!!). Default: COMMIT. 
  *   Action performed when exceeded maximum number of records or execution of the component is aborted.</td></tr>
+ *   <tr><td><b>parallelConnections</b><br><i>optional</i></td><td>number of DB connections sending batches in parallel. Default: 1.<br>
+ *   Records are read and prepared in batches by the component while the batches are executed by worker threads, each of them
+ *   using its own connection and committing its own transaction every <i>commit</i> records. Used only in batch mode without
+ *   <i>atomicSQL</i>, rejected records port and auto-generated keys port and only if the DB connection provides
+ *   thread-safe connections.</td></tr>
  *  </table>
  *
  *  <h4>Example:</h4>
@@ -242,6 +255,7 @@ public class DBOutputTable extends Node implements MetadataProvider {
 	public static final String XML_AUTOGENERATEDCOLUMNS_ATTRIBUTE = "autoGeneratedColumns";
 	public static final String XML_ACTION_ON_ERROR = "errorAction";
 	public static final String XML_ATOMIC_RECORD_STATEMENT_ATTRIBUTE="atomicSQL";
+	public static final String XML_PARALLEL_CONNECTIONS_ATTRIBUTE = "parallelConnections";
 
 	private DBConnection dbConnection;
 	private SqlConnection connection;
@@ -262,6 +276,8 @@ public class DBOutputTable extends Node implements MetadataProvider {
 	private boolean[] returnResult;
 	private ConnectionAction errorAction = ConnectionAction.COMMIT;
 	private boolean atomicSQL;
+	private int parallelConnections = 1;
+	private boolean parallelWriting;
 	ReadableChannelIterator channelReadingIterator; // for reading the query from dictionary
 	
 	private InputPort inPort;
@@ -273,6 +289,7 @@ public class DBOutputTable extends Node implements MetadataProvider {
 	private int failedBatches;
 	private Savepoint savepoint;
 	private static final String SAVEPOINT_NAME = "svpnt";
+	private static final String PARALLEL_CONNECTION_ID_SUFFIX = "_parallel";
 	
 	public final static String COMPONENT_TYPE = "DB_OUTPUT_TABLE";
 	private final static int READ_FROM_PORT = 0;
@@ -282,6 +299,7 @@ public class DBOutputTable extends Node implements MetadataProvider {
 	private final static int RECORDS_IN_BATCH = 25;
 	private final static int MAX_ALLOWED_ERRORS = 0;
 	private final static int MAX_WARNINGS = 3;
+	private final static int BATCHES_PER_CONNECTION = 2;
 	
 	static Log logger = LogFactory.getLog(DBOutputTable.class);
 
@@ -372,6 +390,14 @@ public class DBOutputTable extends Node implements MetadataProvider {
     this.atomicSQL = atomicSQL;
   }
 
+	/**
+	 * Sets number of connections used for sending batches to DB in parallel.
+	 * @param parallelConnections
+	 */
+	public void setParallelConnections(int parallelConnections) {
+		this.parallelConnections = parallelConnections;
+	}
+
 	/**
 	 *  Sets the cloverFields attribute of the DBOutputTable object
 	 *
@@ -603,6 +629,18 @@ public class DBOutputTable extends Node implements MetadataProvider {
 				}
 			}
 
+			// parallel connections write batches independently, records need to be processed in order for the other cases
+			parallelWriting = false;
+			if (parallelConnections > 1) {
+				if (!useBatch || atomicSQL || keysRecord != null || rejectedPort != null) {
+					logger.warn("Parallel connections are supported only in batch mode without atomic SQL, rejected records and generated keys -> using single connection !");
+				} else if (!dbConnection.isThreadSafeConnections()) {
+					logger.warn("DB connection does not provide thread-safe connections -> using single connection !");
+				} else {
+					parallelWriting = true;
+				}
+			}
+
 			// it is probably wise to have COMMIT size multiplication of BATCH size
 			// except situation when commit size is MAX_INTEGER -> we never commit in this situation;
 			if (useBatch && recordsInCommit != Integer.MAX_VALUE && (recordsInCommit % batchSize != 0)) {
@@ -649,6 +687,11 @@ public class DBOutputTable extends Node implements MetadataProvider {
 			if (recordsInCommit != Integer.MAX_VALUE) {
 				// CLO-6100: do not close the connection, as we expect the graph to perform commit
 				dbConnection.closeConnection(getId(), OperationType.WRITE);
+				if (parallelWriting) {
+					for (int i = 0; i < parallelConnections; i++) {
+						dbConnection.closeConnection(getParallelConnectionId(i), OperationType.WRITE);
+					}
+				}
 			}
 		} finally {
 			ReadableChannelIterator.postExecute(channelReadingIterator);
@@ -679,7 +722,9 @@ public class DBOutputTable extends Node implements MetadataProvider {
 		 * Run main processing loop
 		 */
 		try{
-			if (useBatch){
+			if (useBatch && parallelWriting){
+				runInParallelBatchMode();
+			}else if (useBatch){
 				runInBatchMode();
 			}else{
 				runInNormalMode();
@@ -1123,6 +1168,308 @@ public class DBOutputTable extends Node implements MetadataProvider {
         //clear errors
         Arrays.fill(ex, null);
     }
+
+	private String getParallelConnectionId(int index) {
+		return getId() + PARALLEL_CONNECTION_ID_SUFFIX + index;
+	}
+
+	/**
+	 * Reads input records into batches, which are executed by {@link BatchWriter}s. Reading and copying
+	 * of the next batches overlaps with execution of previous ones on the DB side.
+	 */
+	private void runInParallelBatchMode() throws SQLException, InterruptedException, IOException, JetelException {
+		BatchWriters writers = new BatchWriters(parallelConnections);
+		boolean finished = false;
+		try {
+			RecordBatch batch = writers.takeEmptyBatch();
+			while (runIt && inPort.readRecord(batch.records[batch.size]) != null) {
+				if (++batch.size == batchSize) {
+					writers.submit(batch);
+					batch = writers.takeEmptyBatch();
+				}
+				recCount++;
+			}
+			if (runIt) {
+				if (batch.size > 0) {
+					writers.submit(batch);
+				}
+				writers.finish();
+				finished = true;
+				if (writers.failedBatches.get() > 0) {
+					logger.warn("Number of failed batches: " + writers.failedBatches.get());
+				}
+			}
+		} finally {
+			if (!finished) {
+				// the writers perform the error action on their connections
+				writers.cancel();
+				logger.info("Number of commited records: " + writers.committedRecords.get());
+				logger.info("Number of failed batches: " + writers.failedBatches.get());
+			}
+		}
+	}
+
+	/**
+	 * Records read from the input port, which are executed together in one batch.
+	 */
+	private static class RecordBatch {
+
+		private final DataRecord[] records;
+		private int size;
+
+		public RecordBatch(DataRecordMetadata metadata, int capacity) {
+			records = new DataRecord[capacity];
+			for (int i = 0; i < capacity; i++) {
+				records[i] = DataRecordFactory.newRecord(metadata);
+			}
+		}
+	}
+
+	private static final RecordBatch END_OF_DATA = new RecordBatch(null, 0);
+
+	/**
+	 * Pool of worker threads with their own connections. Full batches are taken by the first idle worker,
+	 * so the order of records written to DB is not preserved.
+	 */
+	private class BatchWriters {
+
+		private final List<FutureOfRunnable<BatchWriter>> futures = new ArrayList<FutureOfRunnable<BatchWriter>>();
+		private final BlockingQueue<RecordBatch> fullBatches;
+		private final BlockingQueue<RecordBatch> emptyBatches;
+		private final AtomicInteger errors = new AtomicInteger();
+		private final AtomicInteger failedBatches = new AtomicInteger();
+		private final AtomicInteger committedRecords = new AtomicInteger();
+
+		public BatchWriters(int writerCount) throws SQLException, JetelException {
+			int batchCount = writerCount * BATCHES_PER_CONNECTION;
+			fullBatches = new ArrayBlockingQueue<RecordBatch>(batchCount + writerCount);
+			emptyBatches = new ArrayBlockingQueue<RecordBatch>(batchCount);
+			for (int i = 0; i < batchCount; i++) {
+				emptyBatches.add(new RecordBatch(inPort.getMetadata(), batchSize));
+			}
+			List<BatchWriter> writers = new ArrayList<BatchWriter>(writerCount);
+			try {
+				for (int i = 0; i < writerCount; i++) {
+					writers.add(new BatchWriter(this, i));
+				}
+			} catch (SQLException | JetelException e) {
+				for (BatchWriter writer : writers) {
+					writer.closeStatements();
+				}
+				throw e;
+			}
+			for (BatchWriter writer : writers) {
+				futures.add(CloverWorker.startWorker(writer));
+			}
+		}
+
+		public RecordBatch takeEmptyBatch() throws InterruptedException, JetelException {
+			RecordBatch batch;
+			while ((batch = emptyBatches.poll(1, TimeUnit.SECONDS)) == null) {
+				checkWriters();
+			}
+			batch.size = 0;
+			return batch;
+		}
+
+		public void submit(RecordBatch batch) throws InterruptedException, JetelException {
+			while (!fullBatches.offer(batch, 1, TimeUnit.SECONDS)) {
+				checkWriters();
+			}
+			checkWriters();
+		}
+
+		/**
+		 * Throws exception of the first failed writer, the remaining writers would not drain the queue anyway.
+		 */
+		private void checkWriters() throws InterruptedException, JetelException {
+			for (FutureOfRunnable<BatchWriter> future : futures) {
+				if (future.isDone()) {
+					getResult(future);
+					throw new JetelException("Batch writer " + future.getRunnable().getName() + " finished unexpectedly.");
+				}
+			}
+		}
+
+		private void getResult(FutureOfRunnable<BatchWriter> future) throws InterruptedException, JetelException {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				throw new JetelException("Batch writer " + future.getRunnable().getName() + " failed.", e.getCause());
+			}
+			Exception exception = future.getRunnable().getException();
+			if (exception != null) {
+				throw new JetelException("Batch writer " + future.getRunnable().getName() + " failed.", exception);
+			}
+		}
+
+		/**
+		 * Waits until all submitted batches are executed and committed.
+		 */
+		public void finish() throws InterruptedException, JetelException {
+			for (int i = 0; i < futures.size(); i++) {
+				fullBatches.put(END_OF_DATA);
+			}
+			for (FutureOfRunnable<BatchWriter> future : futures) {
+				getResult(future);
+			}
+		}
+
+		/**
+		 * Interrupts writers which have not finished yet, e.g. if the component has been aborted.
+		 */
+		public void cancel() {
+			for (FutureOfRunnable<BatchWriter> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Executes batches on its own connection and commits every <i>recordsInCommit</i> records.
+	 */
+	private class BatchWriter extends CloverWorker {
+
+		private final BatchWriters writers;
+		private final SqlConnection connection;
+		private final DataRecord record;
+		private final SQLCloverStatement[] statements;
+
+		public BatchWriter(BatchWriters writers, int index) throws SQLException, JetelException {
+			super(DBOutputTable.this, "BatchWriter#" + index);
+			this.writers = writers;
+			connection = dbConnection.getConnection(getParallelConnectionId(index), OperationType.WRITE);
+			record = DataRecordFactory.newRecord(inPort.getMetadata());
+			statements = new SQLCloverStatement[statement.length];
+			try {
+				for (int i = 0; i < statements.length; i++) {
+					statements[i] = new SQLCloverStatement(connection, statement[i].getQuery(), record, statement[i].getCloverInputFields());
+					statements[i].setLogger(logger);
+					statements[i].init();
+					statements[i].setBatchUpdate(true);
+				}
+			} catch (ComponentNotReadyException e) {
+				closeStatements();
+				throw new JetelException("Statement initialization failed.", e);
+			} catch (SQLException e) {
+				closeStatements();
+				throw e;
+			}
+		}
+
+		@Override
+		public void work() throws InterruptedException, SQLException, JetelException {
+			boolean finished = false;
+			int uncommitted = 0;
+			try {
+				RecordBatch batch;
+				while ((batch = writers.fullBatches.take()) != END_OF_DATA) {
+					execute(batch);
+					uncommitted += batch.size;
+					writers.emptyBatches.put(batch);
+					if (uncommitted >= recordsInCommit) {
+						connection.commit();
+						writers.committedRecords.addAndGet(uncommitted);
+						uncommitted = 0;
+					}
+				}
+				// unless we have option never to commit, commit at the end of processing
+				if (recordsInCommit != Integer.MAX_VALUE) {
+					connection.commit();
+					writers.committedRecords.addAndGet(uncommitted);
+				}
+				finished = true;
+			} finally {
+				if (!finished && (errorAction == ConnectionAction.ROLLBACK || recordsInCommit != Integer.MAX_VALUE)) {
+					try {
+						errorAction.perform(connection);
+					} catch (SQLException e) {
+						logger.warn("Failed to perform " + errorAction + " on " + getName(), e);
+					}
+				}
+				closeStatements();
+			}
+		}
+
+		private void execute(RecordBatch batch) throws SQLException, JetelException {
+			for (int i = 0; i < batch.size; i++) {
+				record.copyFrom(batch.records[i]);
+				for (SQLCloverStatement eachStatement : statements) {
+					try {
+						eachStatement.addBatch(null);
+					} catch (SQLException ex) {
+						// for this record statement won't be executed
+						countErrors(1, "Exception thrown by: " + eachStatement.getQuery() + ". Message: " + ExceptionUtils.getMessage(ex), ex);
+					}
+				}
+			}
+			boolean useSavepoints = connection.getJdbcSpecific().useSavepoints();
+			for (SQLCloverStatement eachStatement : statements) {
+				Savepoint savepoint = null;
+				try {
+					if (useSavepoints) {
+						try {
+							savepoint = connection.setSavepoint(SAVEPOINT_NAME);
+						} catch (SQLException e) {
+							logger.warn("Failed to set SAVEPOINT; rest of transaction may be lost", e);
+						}
+					}
+					eachStatement.executeBatch();
+					eachStatement.clearBatch();
+				} catch (BatchUpdateException ex) {
+					eachStatement.clearBatch();
+					if (savepoint != null) {
+						connection.rollback(savepoint);
+					}
+					writers.failedBatches.incrementAndGet();
+					String errmes = "Exception thrown by: " + eachStatement.getQuery() + ". Message: " + ExceptionUtils.getMessage(ex);
+					if (ex.getNextException() != null) {
+						// With PostgreSQL, 1. exception is good for nothing, append next one
+						errmes += "\n  Caused by: " + ExceptionUtils.getMessage(ex.getNextException());
+					}
+					countErrors(countFailedRecords(ex, batch.size), errmes, ex);
+				}
+			}
+		}
+
+		/**
+		 * @return number of records without successful update count
+		 */
+		private int countFailedRecords(BatchUpdateException ex, int batchSize) {
+			int[] updateCounts = ex.getUpdateCounts();
+			int failed = Math.max(batchSize - updateCounts.length, 0);
+			for (int updateCount : updateCounts) {
+				if (updateCount == Statement.EXECUTE_FAILED) {
+					failed++;
+				}
+			}
+			return Math.max(failed, 1);
+		}
+
+		private void countErrors(int count, String errmes, SQLException exception) throws JetelException {
+			int errorCount = writers.errors.addAndGet(count);
+			if (errorCount - count < MAX_WARNINGS) {
+				logger.warn(errmes);
+			} else if (errorCount - count == MAX_WARNINGS) {
+				logger.warn("more errors...");
+			}
+			if (errorCount > maxErrors && maxErrors != -1) {
+				throw new JetelException("Maximum # of errors exceeded when executing batch. " + errmes, exception);
+			}
+		}
+
+		private void closeStatements() {
+			for (SQLCloverStatement eachStatement : statements) {
+				if (eachStatement != null) {
+					try {
+						eachStatement.close();
+					} catch (SQLException exception) {
+						logger.warn("SQLException when closing statement", exception);
+					}
+				}
+			}
+		}
+	}
 	
 	/**
 	 *  Description of the Method
@@ -1209,6 +1556,9 @@ public class DBOutputTable extends Node implements MetadataProvider {
 		if (xattribs.exists(XML_CHARSET_ATTRIBUTE)){
 			outputTable.setCharset(xattribs.getString(XML_CHARSET_ATTRIBUTE));
 		}
+		if (xattribs.exists(XML_PARALLEL_CONNECTIONS_ATTRIBUTE)){
+			outputTable.setParallelConnections(xattribs.getInteger(XML_PARALLEL_CONNECTIONS_ATTRIBUTE));
+		}
 		
 		return outputTable;
 	}
@@ -1222,6 +1572,9 @@ public class DBOutputTable extends Node implements MetadataProvider {
         	 return status;
          }
          
+         if (parallelConnections < 1) {
+         	status.addError(this, XML_PARALLEL_CONNECTIONS_ATTRIBUTE, "Number of parallel connections must be positive.");
+         }
          if (sqlQuery == null && queryURL == null && dbTableName == null) {
          	status.addError(this, null,
          			"One of " + XML_SQLQUERY_ATRIBUTE + ", " + XML_URL_ATTRIBUTE + " or " + XML_DBTABLE_ATTRIBUTE + " must be specified.");
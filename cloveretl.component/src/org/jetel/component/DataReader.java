@@ -30,6 +30,7 @@ import org.jetel.data.DataRecord;
 import org.jetel.data.DataRecordFactory;
 import org.jetel.data.Defaults;
 import org.jetel.data.IntegerDataField;
+import org.jetel.data.parser.ParallelTextFileParser;
 import org.jetel.data.parser.TextParser;
 import org.jetel.data.parser.TextParserConfiguration;
 import org.jetel.data.parser.TextParserFactory;
@@ -53,6 +54,7 @@ import org.jetel.util.DataRecordUtils;
 import org.jetel.util.ExceptionUtils;
 import org.jetel.util.MultiFileReader;
 import org.jetel.util.SynchronizeUtils;
+import org.jetel.util.file.FileUtils;
 import org.jetel.util.property.ComponentXMLAttributes;
 import org.jetel.util.property.RefResFlag;
 import org.jetel.util.string.QuotingDecoder;
@@ -100,6 +102,11 @@ import org.w3c.dom.Element;
  *  <tr><td><b>quotedStrings</b></td><td>string field can be quoted by '' or ""</td>
  *  <tr><td><b>treatMultipleDelimitersAsOne</b></td><td>if this option is true, then multiple delimiters are recognize as one delimiter</td>
  *  <tr><td><b>verbose</b></td><td>verbose mode provides more comprehensive error notification; default is true</td>
+ *  <tr><td><b>parallelism</b><br><i>optional</i></td><td>number of threads parsing a single local delimited file; default is 1.
+ *  The file is split into chunks of complete records which are parsed concurrently, see {@link ParallelTextFileParser}.
+ *  If the parallel parsing is not available for the configuration, the file is parsed by a single thread.</td>
+ *  <tr><td><b>preserveOrder</b><br><i>optional</i></td><td>whether records parsed in parallel are sent in the original order; default is true</td>
+ *  <tr><td><b>memoryMapped</b><br><i>optional</i></td><td>local files are mapped into memory instead of being read by system calls; default is false</td>
  *  </tr>
  *  </table>
  *
@@ -138,6 +145,9 @@ public class DataReader extends Node {
 	private static final String XML_INCREMENTAL_KEY_ATTRIBUTE = "incrementalKey";
 	private static final String XML_PARSER_ATTRIBUTE = "parser";
 	private static final String XML_VERBOSE_ATTRIBUTE = "verbose";
+	private static final String XML_PARALLELISM_ATTRIBUTE = "parallelism";
+	private static final String XML_PRESERVE_ORDER_ATTRIBUTE = "preserveOrder";
+	private static final String XML_MEMORY_MAPPED_ATTRIBUTE = "memoryMapped";
 
 	private final static int OUTPUT_PORT = 0;
 	private final static int INPUT_PORT = 0;
@@ -156,6 +166,7 @@ public class DataReader extends Node {
 
 	protected TextParser parser;
     private MultiFileReader reader;
+    private ParallelTextFileParser parallelParser;
     private String policyTypeStr;
     private PolicyType policyType = PolicyType.STRICT;
 
@@ -168,6 +179,9 @@ public class DataReader extends Node {
 	private Boolean skipTrailingBlanks;
 	private Boolean trim;
 	private boolean quotedStringsHasDefaultValue = true;
+	private int parallelism = 1;
+	private boolean preserveOrder = true;
+	private boolean memoryMapped;
 	
 	//is the second port attached? - logging is enabled
 	boolean logging = false;
@@ -230,6 +244,7 @@ public class DataReader extends Node {
         updateSkipSourceRowsByMetadata();
 		prepareParser();
         prepareMultiFileReader();
+        prepareParallelParser();
 	}
 
 	/* (non-Javadoc)
@@ -239,12 +254,21 @@ public class DataReader extends Node {
 	public void preExecute() throws ComponentNotReadyException {
 		super.preExecute();
 
-        try {
-            reader.preExecute();
-        } catch(ComponentNotReadyException e) {
-            e.setAttributeName(XML_FILE_ATTRIBUTE);
-            throw e;
-        }
+		if (parallelParser != null) {
+			try {
+				parallelParser.setDataSource(FileUtils.getJavaFile(getContextURL(), fileURL), getSkipSourceRows());
+			} catch (IOException e) {
+				throw new ComponentNotReadyException(this, "Input file cannot be opened.", e, XML_FILE_ATTRIBUTE);
+			}
+			return;
+		}
+
+        try {
+            reader.preExecute();
+        } catch(ComponentNotReadyException e) {
+            e.setAttributeName(XML_FILE_ATTRIBUTE);
+            throw e;
+        }
 	}
 	
 	@Override
@@ -266,7 +290,7 @@ public class DataReader extends Node {
 		try {
 			while (runIt) {
 				try {
-					if ((reader.getNext(record)) == null) {
+					if (((parallelParser != null) ? parallelParser.getNext(record) : reader.getNext(record)) == null) {
 						break;
 					}
 					outPort.writeRecord(record);
@@ -285,11 +309,11 @@ public class DataReader extends Node {
 							setCharSequenceToField(bdfe.getRawRecord(), logRecord.getField(2));
 							setCharSequenceToField(ExceptionUtils.getMessage(bdfe), logRecord.getField(3));
 							if (hasFileNameField) {
-								setCharSequenceToField(reader.getSourceName(), logRecord.getField(4));
+								setCharSequenceToField(getSourceName(), logRecord.getField(4));
 							}
 							writeRecord(LOG_PORT, logRecord);
 						} else {
-							logger.warn(ExceptionUtils.getMessage("Error in input source: " + reader.getSourceName(), bdfe));
+							logger.warn(ExceptionUtils.getMessage("Error in input source: " + getSourceName(), bdfe));
 						}
 						if (maxErrorCount != -1 && ++errorCount > maxErrorCount) {
 							throw new JetelRuntimeException("Max error count exceeded.", bdfe);
@@ -306,6 +330,10 @@ public class DataReader extends Node {
         return runIt ? Result.FINISHED_OK : Result.ABORTED;
 	}
 	
+	private String getSourceName() {
+		return (parallelParser != null) ? fileURL : reader.getSourceName();
+	}
+
 	private void setCharSequenceToField(CharSequence charSeq, DataField field) {
 		if (charSeq == null) {
 			field.setNull(true);
@@ -337,7 +365,15 @@ public class DataReader extends Node {
 	public void postExecute() throws ComponentNotReadyException {
 		super.postExecute();
 		
-		reader.postExecute();
+		if (parallelParser != null) {
+			try {
+				parallelParser.close();
+			} catch (IOException e) {
+				throw new ComponentNotReadyException(this, "Input file cannot be closed.", e);
+			}
+		} else {
+			reader.postExecute();
+		}
 	}
 	
 	@Override
@@ -410,9 +446,53 @@ public class DataReader extends Node {
         reader.setCharset(charset);
         reader.setPropertyRefResolver(getPropertyRefResolver());
         reader.setDictionary(graph.getDictionary());
-        reader.setSkipSourceRows(skipSourceRows > 0 ? skipSourceRows : (skipFirstLine ? 1 : 0));
-
-        reader.init(getOutputPort(OUTPUT_PORT).getMetadata());
+        reader.setSkipSourceRows(getSkipSourceRows());
+        reader.setMemoryMapped(memoryMapped);
+
+        reader.init(getOutputPort(OUTPUT_PORT).getMetadata());
+	}
+
+	private int getSkipSourceRows() {
+		return skipSourceRows > 0 ? skipSourceRows : (skipFirstLine ? 1 : 0);
+	}
+
+	/**
+	 * Creates parallel parser if more threads are requested and the input can be parsed in parallel.
+	 */
+	private void prepareParallelParser() throws ComponentNotReadyException {
+		parallelParser = null;
+		if (parallelism <= 1) {
+			return;
+		}
+		String reason = null;
+		if (incrementalFile != null || incrementalKey != null) {
+			reason = "incremental reading is used";
+		} else if (skipRows > 0 || numRecords > 0 || numSourceRecords > 0) {
+			reason = "number of skipped or read records is limited";
+		} else if (getInputPort(INPUT_PORT) != null || FileUtils.isMultiURL(fileURL) || !FileUtils.isLocalFile(getContextURL(), fileURL)) {
+			reason = "input is not a single local file";
+		} else if (!getOutputPort(OUTPUT_PORT).getMetadata().hasFieldWithoutAutofilling()
+				|| hasAutofilledField(getOutputPort(OUTPUT_PORT).getMetadata())) {
+			reason = "metadata contain autofilled fields";
+		} else if (!ParallelTextFileParser.isSupported(parser.getConfiguration())) {
+			reason = "the metadata or parser settings are not supported";
+		}
+		if (reason != null) {
+			logger.info("Component " + getId() + " parses input by a single thread, parallel parsing is not available - " + reason);
+			return;
+		}
+		parallelParser = new ParallelTextFileParser(parser.getConfiguration(), parserClassName, parserClassLoader,
+				policyType, parallelism, preserveOrder);
+		parallelParser.init();
+	}
+
+	private static boolean hasAutofilledField(DataRecordMetadata metadata) {
+		for (DataFieldMetadata field : metadata.getFields()) {
+			if (field.isAutoFilled()) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 
@@ -502,6 +582,15 @@ public class DataReader extends Node {
 		if (xattribs.exists(XML_PARSER_ATTRIBUTE)){
 			aDataReader.setParserClassName(xattribs.getString(XML_PARSER_ATTRIBUTE));
 		}
+		if (xattribs.exists(XML_PARALLELISM_ATTRIBUTE)){
+			aDataReader.setParallelism(xattribs.getInteger(XML_PARALLELISM_ATTRIBUTE));
+		}
+		if (xattribs.exists(XML_PRESERVE_ORDER_ATTRIBUTE)){
+			aDataReader.setPreserveOrder(xattribs.getBoolean(XML_PRESERVE_ORDER_ATTRIBUTE));
+		}
+		if (xattribs.exists(XML_MEMORY_MAPPED_ATTRIBUTE)){
+			aDataReader.setMemoryMapped(xattribs.getBoolean(XML_MEMORY_MAPPED_ATTRIBUTE));
+		}
 
 		return aDataReader;
 	}
@@ -566,6 +655,10 @@ public class DataReader extends Node {
         if (charset != null && !Charset.isSupported(charset)) {
         	status.addError(this, XML_CHARSET_ATTRIBUTE, "Charset " + charset + " not supported!");
         }
+
+        if (parallelism < 1) {
+        	status.addError(this, XML_PARALLELISM_ATTRIBUTE, "Parallelism has to be positive number.");
+        }
         
         if (StringUtils.isEmpty(fileURL)) {
             status.addError(this, XML_FILE_ATTRIBUTE, "Missing file URL attribute.");
@@ -648,6 +741,9 @@ public class DataReader extends Node {
 	    	if (reader != null) {
 	    		reader.close();
 	    	}
+	    	if (parallelParser != null) {
+	    		parallelParser.free();
+	    	}
 		} catch (Exception e){
 			logger.error(e);
 		}
@@ -704,4 +800,28 @@ public class DataReader extends Node {
 		this.parserClassName = parserClassName;
 		this.parserClassLoader = parserClassLoader;
 	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public boolean isPreserveOrder() {
+		return preserveOrder;
+	}
+
+	public void setPreserveOrder(boolean preserveOrder) {
+		this.preserveOrder = preserveOrder;
+	}
+
+	public boolean isMemoryMapped() {
+		return memoryMapped;
+	}
+
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
 }
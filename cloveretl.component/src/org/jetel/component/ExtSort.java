@@ -261,8 +261,10 @@ public class ExtSort extends Node {
 		super.init();
 		try {
 			// create sorter
-			sorter = new ExternalSortDataRecord(getInputPort(READ_FROM_PORT).getMetadata(),
+			ExternalSortDataRecord externalSorter = new ExternalSortDataRecord(getInputPort(READ_FROM_PORT).getMetadata(),
 					sortKeysNames, sortOrderings, internalBufferCapacity, DEFAULT_NUMBER_OF_TAPES, localeStr, caseSensitive);
+			externalSorter.setMemoryManager(getGraph().getMemoryManager());
+			sorter = externalSorter;
 		} catch (Exception e) {
             throw new ComponentNotReadyException(e);
 		}
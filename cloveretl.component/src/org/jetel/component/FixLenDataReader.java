@@ -93,6 +93,7 @@ import org.w3c.dom.Element;
  *  <tr><td><b>skipFirstLine</b></td><td>specifies whether first record/line should be skipped. Default value is FALSE. If record delimiter is specified than skip one record else first line of flat file.</td>
  *  <tr><td><b>skipRows</b><br><i>optional</i></td><td>specifies how many records/rows should be skipped from the source file. Good for handling files where first rows is a header not a real data. Dafault is 0.</td>
  *  <tr><td><b>numRecords</b></td><td>max number of parsed records</td>
+ *  <tr><td><b>memoryMapped</b><br><i>optional</i></td><td>local files are mapped into memory instead of being read by system calls; default is false</td>
  *  </tr>
  *  </table>
  *
@@ -120,6 +121,7 @@ public class FixLenDataReader extends Node {
 	private static final String XML_TRIM_ATTRIBUTE = "trim";
 	private static final String XML_INCREMENTAL_FILE_ATTRIBUTE = "incrementalFile";
 	private static final String XML_INCREMENTAL_KEY_ATTRIBUTE = "incrementalKey";
+	private static final String XML_MEMORY_MAPPED_ATTRIBUTE = "memoryMapped";
 
 	
 	static Log logger = LogFactory.getLog(FixLenDataReader.class);
@@ -149,6 +151,7 @@ public class FixLenDataReader extends Node {
 	private Boolean skipLeadingBlanks = null;
 	private Boolean skipTrailingBlanks = null;
 	private Boolean trim = null;
+	private boolean memoryMapped;
 
 	/**
 	 *Constructor for the FixLenDataReaderNIO object
@@ -286,6 +289,7 @@ public class FixLenDataReader extends Node {
         reader.setCharset(charset);
         reader.setPropertyRefResolver(getPropertyRefResolver());
         reader.setDictionary(graph.getDictionary());
+        reader.setMemoryMapped(memoryMapped);
 		reader.init(getOutputPort(OUTPUT_PORT).getMetadata());
 	}
 
@@ -370,6 +374,9 @@ public class FixLenDataReader extends Node {
 		if (xattribs.exists(XML_INCREMENTAL_KEY_ATTRIBUTE)){
 			aFixLenDataReaderNIO.setIncrementalKey(xattribs.getString(XML_INCREMENTAL_KEY_ATTRIBUTE));
 		}
+		if (xattribs.exists(XML_MEMORY_MAPPED_ATTRIBUTE)){
+			aFixLenDataReaderNIO.setMemoryMapped(xattribs.getBoolean(XML_MEMORY_MAPPED_ATTRIBUTE));
+		}
 
 		return aFixLenDataReaderNIO;
 	}
@@ -478,6 +485,10 @@ public class FixLenDataReader extends Node {
 	public void setSkipTrailingBlanks(Boolean skipTrailingBlanks) {
 		this.skipTrailingBlanks = skipTrailingBlanks;
 	}
+
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
     
 }
 
@@ -36,10 +36,13 @@ import org.jetel.data.DataRecordMap.DataRecordIterator;
 import org.jetel.data.DataRecordMap.DataRecordLookup;
 import org.jetel.data.Defaults;
 import org.jetel.data.NullRecord;
+import org.jetel.data.OffHeapDataRecordMap;
 import org.jetel.data.RecordKey;
+import org.jetel.data.tape.DataRecordTape;
 import org.jetel.exception.AttributeNotFoundException;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.ConfigurationStatus;
+import org.jetel.exception.JetelException;
 import org.jetel.exception.TransformException;
 import org.jetel.exception.XMLConfigurationException;
 import org.jetel.graph.InputPort;
@@ -50,6 +53,7 @@ import org.jetel.graph.TransformationGraph;
 import org.jetel.graph.modelview.MVMetadata;
 import org.jetel.graph.modelview.impl.MetadataPropagationResolver;
 import org.jetel.graph.runtime.CloverWorker;
+import org.jetel.graph.runtime.MemoryReservation;
 import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.util.SynchronizeUtils;
 import org.jetel.util.file.FileUtils;
@@ -100,7 +104,11 @@ import org.w3c.dom.Element;
  *  (there is one hashtable per each slave input), especially
  *	when you expect the number to be really great. It is better to specify slightly greater number to ensure
  *	that rehashing won't occure. For small record sets - up to 512 records, there is no need to specify the
- *	size.
+ *	size.<br>
+ *  If slave records of a single slave input do not fit into memory, a memory limit can be specified.
+ *  Once the slave records exceed the limit, records of both slave and driver inputs are partitioned
+ *  by join key to temporary files and the join is performed partition by partition
+ *  (hybrid hash join). Slave inputs which fit into the limit are joined in memory as usual.
  *      </td>
  *    </tr>
  *    <tr><td><h4><i>Inputs:</i> </h4></td>
@@ -139,6 +147,14 @@ import org.w3c.dom.Element;
  *  <tr><td><b>charset</b><i>optional</i></td><td>encoding of extern source</td></tr>
  *    <tr><td><b>joinType</b><br><i>optional</i></td><td>inner/leftOuter/fullOuter Specifies type of join operation. Default is inner.</td></tr>
  *    <tr><td><b>hashTableSize</b><br><i>optional</i></td><td>how many records are expected (roughly) to be in hashtable.</td></tr>
+ *    <tr><td><b>slaveMemoryLimit</b><br><i>optional</i></td><td>maximal size (in bytes of serialized records) of slave records kept in memory.
+ *    When the limit is exceeded, slave and driver records are spilled to temporary files and joined partition by partition.
+ *    If the limit is set, slave records are also spilled when the graph's memory manager refuses more memory or asks for spilling.
+ *    Order of driver records is not preserved in both cases. Supported for a single slave input only.
+ *    Default is 0 - no limit, all slave records are kept in memory.</td></tr>
+ *    <tr><td><b>slaveOffHeap</b><br><i>optional</i></td><td>true/false - keep slave records serialized in direct (off-heap) memory
+ *    instead of heap objects. It saves heap and garbage collection time for big slave inputs at the cost of record
+ *    deserialization on each hit. Default is false.</td></tr>
  *    <tr><td><b>slaveDuplicates</b><br><i>optional</i></td><td>true/false - allow records on slave port with duplicate keys. Default is false - multiple
  *    duplicate records are discarded - only the first one is used for join.</td></tr>
  *  <tr><td><b>errorActions </b><i>optional</i></td><td>defines if graph is to stop, when transformation returns negative value.
@@ -199,6 +215,8 @@ public class HashJoin extends Node implements MetadataProvider {
 	private static final String XML_TRANSFORMURL_ATTRIBUTE = "transformURL";
 	private static final String XML_CHARSET_ATTRIBUTE = "charset";
 	private static final String XML_ALLOW_SLAVE_DUPLICATES_ATTRIBUTE = "slaveDuplicates";
+	private static final String XML_SLAVE_MEMORY_LIMIT_ATTRIBUTE = "slaveMemoryLimit";
+	private static final String XML_SLAVE_OFF_HEAP_ATTRIBUTE = "slaveOffHeap";
 	// legacy attributes
 	private static final String XML_LEFTOUTERJOIN_ATTRIBUTE = "leftOuterJoin";
 	private static final String XML_SLAVEOVERRIDEKEY_ATTRIBUTE = "slaveOverrideKey";
@@ -215,6 +233,9 @@ public class HashJoin extends Node implements MetadataProvider {
 	private final static int DRIVER_ON_PORT = 0;
 	private final static int FIRST_SLAVE_PORT = 1;
 
+	/** Maximal number of recursive splits of a spilled partition which still exceeds memory limit. */
+	private final static int MAX_SPILL_LEVEL = 3;
+
 	private String transformClassName;
 
 	private RecordTransform transformation = null;
@@ -235,6 +256,12 @@ public class HashJoin extends Node implements MetadataProvider {
 
 	private DataRecordMap[] hashMap;
 	private int hashTableInitialCapacity;
+	/** maximal size of slave records (serialized) kept in memory, 0 means unlimited */
+	private long slaveMemoryLimit = 0;
+	/** slave records are kept in off-heap memory */
+	private boolean slaveOffHeap = false;
+	/** memory of slave records reserved from the memory manager, available only for single slave */
+	private MemoryReservation slaveMemoryReservation;
 
 	private Properties transformationParameters;
 
@@ -328,6 +355,35 @@ public class HashJoin extends Node implements MetadataProvider {
 		}
 	}
 
+	/**
+	 * Sets maximal size of slave records kept in memory. If the limit is exceeded, slave and driver
+	 * records are spilled to temporary files and joined partition by partition.
+	 * 
+	 * @param slaveMemoryLimit
+	 *            maximal size (in bytes) of serialized slave records, 0 means unlimited
+	 */
+	public void setSlaveMemoryLimit(long slaveMemoryLimit) {
+		this.slaveMemoryLimit = slaveMemoryLimit;
+	}
+
+	public long getSlaveMemoryLimit() {
+		return slaveMemoryLimit;
+	}
+
+	/**
+	 * Sets whether slave records are kept serialized in off-heap memory.
+	 * 
+	 * @param slaveOffHeap
+	 *            true to use {@link OffHeapDataRecordMap}, false to keep slave records as heap objects
+	 */
+	public void setSlaveOffHeap(boolean slaveOffHeap) {
+		this.slaveOffHeap = slaveOffHeap;
+	}
+
+	public boolean isSlaveOffHeap() {
+		return slaveOffHeap;
+	}
+
 	@Override
 	public void init() throws ComponentNotReadyException {
 		if (isInitialized())
@@ -398,12 +454,20 @@ public class HashJoin extends Node implements MetadataProvider {
 		try {
 			hashMap = new DataRecordMap[slaveCnt];
 			for (int idx = 0; idx < slaveCnt; idx++) {
-				hashMap[idx] = new DataRecordMap(slaveKeys[idx], slaveDuplicates, hashTableInitialCapacity, false);
+				if (slaveOffHeap) {
+					hashMap[idx] = new OffHeapDataRecordMap(slaveKeys[idx], slaveDuplicates, hashTableInitialCapacity, false);
+				} else {
+					hashMap[idx] = new DataRecordMap(slaveKeys[idx], slaveDuplicates, hashTableInitialCapacity, false);
+				}
 			}
 		} catch (OutOfMemoryError ex) {
 			logger.fatal(ex);
 			throw new ComponentNotReadyException("Can't allocate HashMap of size: " + hashTableInitialCapacity);
 		}
+		if (slaveCnt == 1 && slaveMemoryLimit > 0) {
+			// output order is changed by spilling, so the memory manager is involved only if the user allows spilling
+			slaveMemoryReservation = new MemoryReservation(getGraph().getMemoryManager());
+		}
 
 		// init transformation
 		if (transformation == null) {
@@ -464,6 +528,10 @@ public class HashJoin extends Node implements MetadataProvider {
 	@Override
 	public void free() {
 		hashMap = null;
+		if (slaveMemoryReservation != null) {
+			slaveMemoryReservation.close();
+			slaveMemoryReservation = null;
+		}
 	}
 
 	/**
@@ -476,12 +544,17 @@ public class HashJoin extends Node implements MetadataProvider {
 
 	/**
 	 * read records from all slave input ports and stores them to hashtables
+	 * 
+	 * @return partitions of spilled slave records or null if all slave records are stored in hashtables
+	 * @throws JetelException if reading or spilling of slave records failed
 	 */
-	private void loadSlaveData() {
+	private SpillPartitions loadSlaveData() throws JetelException, IOException, InterruptedException {
 		InputReader[] slaveReader = new InputReader[slaveCnt];
+		// spilling is available only for single slave, driver records can be partitioned just by one key
+		long memoryLimit = slaveCnt == 1 ? slaveMemoryLimit : 0;
 		// read slave ports in separate threads
 		for (int idx = 0; idx < slaveCnt; idx++) {
-			slaveReader[idx] = new InputReader(idx);
+			slaveReader[idx] = new InputReader(idx, memoryLimit, slaveMemoryReservation);
 			slaveReader[idx].startWorker();
 		}
 		// wait for slave input threads to finish their job
@@ -501,6 +574,15 @@ public class HashJoin extends Node implements MetadataProvider {
 				}
 			}
 		}
+		for (int idx = 0; idx < slaveCnt; idx++) {
+			if (slaveReader[idx].getException() != null) {
+				if (slaveReader[idx].getSpilledPartitions() != null) {
+					slaveReader[idx].getSpilledPartitions().free();
+				}
+				throw new JetelException(getId() + ": reading of slave records failed", slaveReader[idx].getException());
+			}
+		}
+		return slaveCnt == 1 ? slaveReader[0].getSpilledPartitions() : null;
 	}
 
 	/**
@@ -557,120 +639,208 @@ public class HashJoin extends Node implements MetadataProvider {
 	private void flush() throws TransformException, IOException, InterruptedException {
 		DataRecord driverRecord = inRecords[0];
 		masterCounter = 0;
-		// move to preExecute/init?
+		DataRecordLookup[] mapLookups = createLookups(driverRecord);
+		DataRecordIterator[] iterators = new DataRecordIterator[slaveCnt];
+
+		while (runIt && driverPort.readRecord(driverRecord) != null) {
+			joinDriverRecord(mapLookups, iterators, driverRecord);
+		}
+	}
+
+	private DataRecordLookup[] createLookups(DataRecord driverRecord) {
 		DataRecordLookup[] mapLookups = new DataRecordLookup[slaveCnt];
 		for (int i = 0; i < slaveCnt; i++) {
 			mapLookups[i] = hashMap[i].createDataRecordLookup(driverKeys[i], driverRecord);
 		}
-		// end of move
+		return mapLookups;
+	}
 
+	private void joinDriverRecord(DataRecordLookup[] mapLookups, DataRecordIterator[] iterators, DataRecord driverRecord)
+			throws TransformException, IOException, InterruptedException {
 		if (slaveDuplicates)
-			flushMulti(mapLookups, driverRecord);
+			joinMulti(mapLookups, iterators, driverRecord);
 		else
-			flushSingle(mapLookups, driverRecord);
+			joinSingle(mapLookups, driverRecord);
 	}
 
 	/**
 	 * @param mapLookups
 	 */
-	private void flushSingle(DataRecordLookup[] mapLookups, DataRecord driverRecord) throws TransformException,
+	private void joinSingle(DataRecordLookup[] mapLookups, DataRecord driverRecord) throws TransformException,
 			IOException, InterruptedException {
-		while (runIt && driverPort.readRecord(driverRecord) != null) {
-			int slaveIdx;
+		int slaveIdx;
 
-			for (slaveIdx = 0; slaveIdx < slaveCnt; slaveIdx++) {
-				inRecords[1 + slaveIdx] = mapLookups[slaveIdx].getAndMark();
-				if (inRecords[1 + slaveIdx] == null) {
-					if (join == Join.INNER) { // missing slave
-						break;
-					}
-					inRecords[1 + slaveIdx] = NullRecord.NULL_RECORD;
+		for (slaveIdx = 0; slaveIdx < slaveCnt; slaveIdx++) {
+			inRecords[1 + slaveIdx] = mapLookups[slaveIdx].getAndMark();
+			if (inRecords[1 + slaveIdx] == null) {
+				if (join == Join.INNER) { // missing slave
+					break;
 				}
+				inRecords[1 + slaveIdx] = NullRecord.NULL_RECORD;
 			}
-			if (slaveIdx < slaveCnt) { // missing slaves
-				if (rejectedPort != null) {
-					rejectedPort.writeRecord(driverRecord);
-				}
-				continue; // read next driver
+		}
+		if (slaveIdx < slaveCnt) { // missing slaves
+			if (rejectedPort != null) {
+				rejectedPort.writeRecord(driverRecord);
 			}
+			return; // read next driver
+		}
 
-			int transformResult = -1;
+		int transformResult = -1;
 
-			try {
-				transformResult = transformation.transform(inRecords, outRecords);
-			} catch (Exception exception) {
-				transformResult = transformation.transformOnError(exception, inRecords, outRecords);
-			}
+		try {
+			transformResult = transformation.transform(inRecords, outRecords);
+		} catch (Exception exception) {
+			transformResult = transformation.transformOnError(exception, inRecords, outRecords);
+		}
 
-			if (transformResult < 0) {
-				handleException(transformation, transformResult, masterCounter);
-			} else {
-				outPort.writeRecord(outRecords[0]);
-			}
+		if (transformResult < 0) {
+			handleException(transformation, transformResult, masterCounter);
+		} else {
+			outPort.writeRecord(outRecords[0]);
+		}
 
-			outRecords[0].reset();
+		outRecords[0].reset();
 
-			SynchronizeUtils.cloverYield();
-			masterCounter++;
-		}
+		SynchronizeUtils.cloverYield();
+		masterCounter++;
 	}
 
 	/**
 	 * @param mapLookups
 	 */
-	private void flushMulti(DataRecordLookup[] mapLookups, DataRecord driverRecord) throws TransformException,
-			IOException, InterruptedException {
-		DataRecordIterator[] iterators = new DataRecordIterator[slaveCnt];
-		while (runIt && driverPort.readRecord(driverRecord) != null) {
-			int slaveIdx;
-
-			for (slaveIdx = 0; slaveIdx < slaveCnt; slaveIdx++) {
-				iterators[slaveIdx] = mapLookups[slaveIdx].getAllAndMark();
-				if (iterators[slaveIdx] == null) {
-					if (join == Join.INNER) { // missing slave
-						break;
-					}
-					iterators[slaveIdx] = hashMap[0].getNULLIterator();
+	private void joinMulti(DataRecordLookup[] mapLookups, DataRecordIterator[] iterators, DataRecord driverRecord)
+			throws TransformException, IOException, InterruptedException {
+		int slaveIdx;
+
+		for (slaveIdx = 0; slaveIdx < slaveCnt; slaveIdx++) {
+			iterators[slaveIdx] = mapLookups[slaveIdx].getAllAndMark();
+			if (iterators[slaveIdx] == null) {
+				if (join == Join.INNER) { // missing slave
+					break;
 				}
+				iterators[slaveIdx] = hashMap[0].getNULLIterator();
 			}
-			if (slaveIdx < slaveCnt) { // missing slaves
-				if (rejectedPort != null) {
-					rejectedPort.writeRecord(driverRecord);
-				}
-				continue; // read next driver
+		}
+		if (slaveIdx < slaveCnt) { // missing slaves
+			if (rejectedPort != null) {
+				rejectedPort.writeRecord(driverRecord);
 			}
+			return; // read next driver
+		}
 
-			for (int i = 0; i < iterators.length; i++) {
-				inRecords[i + 1] = iterators[i].next();
-			}
-			int currentIterator = iterators.length - 1;
+		for (int i = 0; i < iterators.length; i++) {
+			inRecords[i + 1] = iterators[i].next();
+		}
+		int currentIterator = iterators.length - 1;
 
-			while (currentIterator >= 0) {
-				transform();
+		while (currentIterator >= 0) {
+			transform();
 
-				while (iterators[currentIterator].hasNext()) {
+			while (iterators[currentIterator].hasNext()) {
+				inRecords[currentIterator + 1] = iterators[currentIterator].next();
+				transform();
+			}
+			currentIterator--;
+			while (currentIterator >= 0) {
+				if (iterators[currentIterator].hasNext()) {
 					inRecords[currentIterator + 1] = iterators[currentIterator].next();
-					transform();
+
+					for (int i = currentIterator + 1; i < iterators.length; i++) {
+						iterators[i].reset();
+						inRecords[i + 1] = iterators[i].next();
+					}
+
+					currentIterator = iterators.length - 1;
+					break;
 				}
 				currentIterator--;
-				while (currentIterator >= 0) {
-					if (iterators[currentIterator].hasNext()) {
-						inRecords[currentIterator + 1] = iterators[currentIterator].next();
+			}
+		}
+		SynchronizeUtils.cloverYield();
+		masterCounter++;
+	}
 
-						for (int i = currentIterator + 1; i < iterators.length; i++) {
-							iterators[i].reset();
-							inRecords[i + 1] = iterators[i].next();
-						}
+	/**
+	 * Partitions all driver records the same way as the spilled slave records were partitioned
+	 * and joins corresponding partitions one by one.
+	 * 
+	 * @param slavePartitions
+	 *            spilled slave records
+	 * @throws TransformException
+	 * @throws InterruptedException
+	 * @throws IOException
+	 */
+	private void flushSpilled(SpillPartitions slavePartitions) throws TransformException, IOException, InterruptedException {
+		DataRecord driverRecord = inRecords[0];
+		masterCounter = 0;
+		SpillPartitions driverPartitions = new SpillPartitions(driverPort.getMetadata(), driverKeys[0].getKeyFields(), 0);
+		try {
+			while (runIt && driverPort.readRecord(driverRecord) != null) {
+				driverPartitions.put(driverRecord);
+			}
+			joinPartitions(slavePartitions, driverPartitions, driverRecord);
+		} finally {
+			driverPartitions.free();
+		}
+	}
 
-						currentIterator = iterators.length - 1;
-						break;
+	private void joinPartitions(SpillPartitions slavePartitions, SpillPartitions driverPartitions, DataRecord driverRecord)
+			throws TransformException, IOException, InterruptedException {
+		for (int partition = 0; partition < SpillPartitions.PARTITIONS && runIt; partition++) {
+			if (driverPartitions.getSize(partition) == 0 && join != Join.FULL_OUTER) {
+				// no driver can be joined with slaves of this partition
+			} else if (slaveMemoryLimit > 0 && slavePartitions.getSize(partition) > slaveMemoryLimit
+					&& slavePartitions.getLevel() < MAX_SPILL_LEVEL) {
+				// partition still does not fit into memory, split it by another hash
+				SpillPartitions slaveSubPartitions = slavePartitions.split(partition);
+				try {
+					SpillPartitions driverSubPartitions = driverPartitions.split(partition);
+					try {
+						joinPartitions(slaveSubPartitions, driverSubPartitions, driverRecord);
+					} finally {
+						driverSubPartitions.free();
 					}
-					currentIterator--;
+				} finally {
+					slaveSubPartitions.free();
 				}
+			} else {
+				joinPartition(slavePartitions, driverPartitions, partition, driverRecord);
+			}
+			slavePartitions.free(partition);
+			driverPartitions.free(partition);
+		}
+	}
+
+	/**
+	 * Loads slave records of the given partition to hashtable and joins driver records of the same partition.
+	 */
+	private void joinPartition(SpillPartitions slavePartitions, SpillPartitions driverPartitions, int partition,
+			DataRecord driverRecord) throws TransformException, IOException, InterruptedException {
+		DataRecordMap map = hashMap[0];
+		DataRecordTape slaveTape = slavePartitions.rewind(partition);
+		if (slaveTape != null) {
+			DataRecord slaveRecord = DataRecordFactory.newRecord(getInputPort(FIRST_SLAVE_PORT).getMetadata());
+			while (slaveTape.get(slaveRecord)) {
+				map.putCopy(slaveRecord);
+			}
+		}
+
+		// driver record could be replaced by NULL record in flushOrphaned() of previous partition
+		inRecords[0] = driverRecord;
+		DataRecordTape driverTape = driverPartitions.rewind(partition);
+		if (driverTape != null) {
+			DataRecordLookup[] mapLookups = createLookups(driverRecord);
+			DataRecordIterator[] iterators = new DataRecordIterator[slaveCnt];
+			while (runIt && driverTape.get(driverRecord)) {
+				joinDriverRecord(mapLookups, iterators, driverRecord);
 			}
-			SynchronizeUtils.cloverYield();
-			masterCounter++;
 		}
+
+		if (join == Join.FULL_OUTER) {
+			flushOrphaned();
+		}
+		map.clear();
 	}
 
 	private void transform() throws TransformException, IOException, InterruptedException {
@@ -732,11 +902,19 @@ public class HashJoin extends Node implements MetadataProvider {
 
 	@Override
 	public Result execute() throws Exception {
-		loadSlaveData();
-		flush();
+		SpillPartitions slavePartitions = loadSlaveData();
+		if (slavePartitions == null) {
+			flush();
 
-		if (join == Join.FULL_OUTER) {
-			flushOrphaned();
+			if (join == Join.FULL_OUTER) {
+				flushOrphaned();
+			}
+		} else {
+			try {
+				flushSpilled(slavePartitions);
+			} finally {
+				slavePartitions.free();
+			}
 		}
 
 		if (errorLog != null) {
@@ -757,6 +935,9 @@ public class HashJoin extends Node implements MetadataProvider {
 				mapItem.clear();
 			}
 		}
+		if (slaveMemoryReservation != null) {
+			slaveMemoryReservation.release();
+		}
 
 		transformation.postExecute();
 		transformation.finished();
@@ -844,13 +1025,19 @@ public class HashJoin extends Node implements MetadataProvider {
 		if (xattribs.exists(XML_ALLOW_SLAVE_DUPLICATES_ATTRIBUTE)) {
 			join.setSlaveDuplicates(xattribs.getBoolean(XML_ALLOW_SLAVE_DUPLICATES_ATTRIBUTE));
 		}
+		if (xattribs.exists(XML_SLAVE_MEMORY_LIMIT_ATTRIBUTE)) {
+			join.setSlaveMemoryLimit(xattribs.getLong(XML_SLAVE_MEMORY_LIMIT_ATTRIBUTE));
+		}
+		if (xattribs.exists(XML_SLAVE_OFF_HEAP_ATTRIBUTE)) {
+			join.setSlaveOffHeap(xattribs.getBoolean(XML_SLAVE_OFF_HEAP_ATTRIBUTE));
+		}
 		if (xattribs.exists(XML_ERROR_ACTIONS_ATTRIBUTE)) {
 			join.setErrorActions(xattribs.getString(XML_ERROR_ACTIONS_ATTRIBUTE));
 		}
 		if (xattribs.exists(XML_ERROR_LOG_ATTRIBUTE)) {
 			join.setErrorLog(xattribs.getString(XML_ERROR_LOG_ATTRIBUTE));
 		}
-		join.setTransformationParameters(xattribs.attributes2Properties(new String[] { XML_ID_ATTRIBUTE, XML_JOINKEY_ATTRIBUTE, XML_TRANSFORM_ATTRIBUTE, XML_TRANSFORMCLASS_ATTRIBUTE, XML_JOINTYPE_ATTRIBUTE, XML_HASHTABLESIZE_ATTRIBUTE, XML_ALLOW_SLAVE_DUPLICATES_ATTRIBUTE }));
+		join.setTransformationParameters(xattribs.attributes2Properties(new String[] { XML_ID_ATTRIBUTE, XML_JOINKEY_ATTRIBUTE, XML_TRANSFORM_ATTRIBUTE, XML_TRANSFORMCLASS_ATTRIBUTE, XML_JOINTYPE_ATTRIBUTE, XML_HASHTABLESIZE_ATTRIBUTE, XML_ALLOW_SLAVE_DUPLICATES_ATTRIBUTE, XML_SLAVE_MEMORY_LIMIT_ATTRIBUTE, XML_SLAVE_OFF_HEAP_ATTRIBUTE }));
 		return join;
 	}
 
@@ -904,6 +1091,12 @@ public class HashJoin extends Node implements MetadataProvider {
 
 		int slaveCnt = inPorts.size() - FIRST_SLAVE_PORT;
 
+		if (slaveMemoryLimit < 0) {
+			status.addError(this, XML_SLAVE_MEMORY_LIMIT_ATTRIBUTE, "Slave memory limit must not be negative.");
+		} else if (slaveMemoryLimit > 0 && slaveCnt > 1) {
+			status.addWarning(this, XML_SLAVE_MEMORY_LIMIT_ATTRIBUTE, "Slave memory limit is ignored, it is supported for a single slave input only.");
+		}
+
 		try {
 
 			driverPort = getInputPort(DRIVER_ON_PORT);
@@ -1010,34 +1203,75 @@ public class HashJoin extends Node implements MetadataProvider {
 		private InputPort inPort;
 		private DataRecordMap map;
 		DataRecordMetadata metadata;
-
-		public InputReader(int slaveIdx) {
+		private RecordKey key;
+		/** maximal size of records kept in the map, 0 means unlimited */
+		private long memoryLimit;
+		/** memory of records kept in the map reserved from the memory manager, can be null */
+		private MemoryReservation memoryReservation;
+		private volatile SpillPartitions spilledPartitions;
+
+		public InputReader(int slaveIdx, long memoryLimit, MemoryReservation memoryReservation) {
 			super(HashJoin.this, "InputThread#" + slaveIdx);
 			runIt = true;
 			map = hashMap[slaveIdx];
+			key = slaveKeys[slaveIdx];
 			inPort = getInputPort(FIRST_SLAVE_PORT + slaveIdx);
 			metadata = inPort.getMetadata();
+			this.memoryLimit = memoryLimit;
+			this.memoryReservation = memoryReservation;
 		}
 
 		@Override
 		public void work() throws Exception, InterruptedException {
 			DataRecord record = DataRecordFactory.newRecord(metadata);
+			long usedMemory = 0;
 
+			// failures are reported by the component thread, see loadSlaveData()
 			while (runIt) {
-				try {
-					if (inPort.readRecord(record) == null) { // no more input data
-						return;
-					}
-					map.put(record.duplicate());
-				} catch (InterruptedException e) {
-					logger.debug(getId() + ": thread forcibly aborted", e);
-					return;
-				} catch (IOException e) {
-					logger.error(getId() + ": thread failed", e);
+				if (inPort.readRecord(record) == null) { // no more input data
 					return;
 				}
+				if (spilledPartitions != null) {
+					spilledPartitions.put(record);
+				} else {
+					map.putCopy(record);
+					if (memoryLimit > 0 || memoryReservation != null) {
+						long recordSize = record.getSizeSerialized();
+						usedMemory += recordSize;
+						if ((memoryLimit > 0 && usedMemory > memoryLimit)
+								|| (memoryReservation != null && !memoryReservation.add(recordSize))) {
+							spill();
+						}
+					}
+				}
 			} // while
 		}
+
+		/**
+		 * Moves all records stored so far from the map to temporary files,
+		 * all following records are written directly to temporary files.
+		 * Called if the memory limit is exceeded or the memory manager refuses more memory.
+		 */
+		private void spill() throws IOException, InterruptedException {
+			logger.info(getId() + ": slave records do not fit into available memory, spilling to temporary files");
+			SpillPartitions partitions = new SpillPartitions(metadata, key.getKeyFields(), 0);
+			Iterator<DataRecord> itor = map.valueIterator();
+			while (itor.hasNext()) {
+				partitions.put(itor.next());
+			}
+			map.clear();
+			if (memoryReservation != null) {
+				memoryReservation.release();
+			}
+			spilledPartitions = partitions;
+		}
+
+		/**
+		 * @return partitions of spilled records or null if all records are stored in the map
+		 */
+		public SpillPartitions getSpilledPartitions() {
+			return spilledPartitions;
+		}
 	}
 
 	public String getCharset() {
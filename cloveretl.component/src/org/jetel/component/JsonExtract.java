@@ -35,7 +35,7 @@ import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
 import org.jetel.data.Defaults;
-import org.jetel.data.parser.JsonSaxParser;
+import org.jetel.data.parser.JsonMappingParser;
 import org.jetel.data.parser.Parser.DataSourceType;
 import org.jetel.data.parser.XmlSaxParser;
 import org.jetel.data.parser.XmlSaxParser.MyHandler;
@@ -244,7 +244,7 @@ public class JsonExtract extends Node {
 
 	private NodeList mappingNodes;
 
-	private XmlSaxParser parser = new XmlSaxParser(null, this);
+	private JsonMappingParser parser = new JsonMappingParser(null, this);
 
 	// autofilling support
 	private AutoFilling autoFilling = parser.getAutoFilling();
@@ -322,7 +322,6 @@ public class JsonExtract extends Node {
 
 		parser.setGraph(getGraph());
 		parser.init();
-		parser.setParser(new JsonSaxParser());
 	}
 
 	@Override
@@ -24,17 +24,22 @@ import org.jetel.data.DataRecord;
 import org.jetel.data.DataRecordFactory;
 import org.jetel.data.Defaults;
 import org.jetel.data.RecordKey;
+import org.jetel.data.SerializedRecordComparator;
 import org.jetel.exception.AttributeNotFoundException;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.ConfigurationStatus;
 import org.jetel.exception.XMLConfigurationException;
 import org.jetel.graph.InputPort;
+import org.jetel.graph.InputPortDirect;
 import org.jetel.graph.Node;
 import org.jetel.graph.OutputPort;
+import org.jetel.graph.OutputPortDirect;
 import org.jetel.graph.Result;
 import org.jetel.graph.TransformationGraph;
 import org.jetel.graph.runtime.tracker.BasicComponentTokenTracker;
 import org.jetel.graph.runtime.tracker.ComponentTokenTracker;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.bytes.CloverBuffer;
 import org.jetel.util.property.ComponentXMLAttributes;
 import org.w3c.dom.Element;
 
@@ -91,6 +96,9 @@ public class Merge extends Node {
 
 	private RecordKey comparisonKey;
 
+	/** comparator of serialized records, <code>null</code> if the merge key cannot be compared in serialized form */
+	private SerializedRecordComparator directComparator;
+
 	/**
 	 *  Constructor for the Merge object
 	 *
@@ -149,6 +157,28 @@ public class Merge extends Node {
 		return lowest;
 	}
 
+	/**
+	 *  Serialized counterpart of {@link #getLowestRecIndex(DataRecord[], boolean[])}.
+	 */
+	private int getLowestRecIndex(CloverBuffer[] inputBuffers, boolean[] isEOF) {
+		int lowest;
+		int compareTo;
+
+		if ((lowest = getNextOpen(isEOF, 0)) == -1) {
+			return -1;
+		}
+		compareTo = getNextOpen(isEOF, lowest + 1);
+
+		while (compareTo < isEOF.length && compareTo != -1) {
+			if (directComparator.compare(inputBuffers[lowest], inputBuffers[compareTo]) == 1) {
+				lowest = compareTo;// we have new lowest
+			}
+			compareTo = getNextOpen(isEOF, compareTo + 1);
+		}
+
+		return lowest;
+	}
+
 
 
 	/**
@@ -174,8 +204,27 @@ public class Merge extends Node {
 		return numActive;
 	}
 
+	/**
+	 *  Serialized counterpart of {@link #populateRecords(DataRecord[], InputPort[], boolean[])}.
+	 */
+	private int populateRecords(CloverBuffer[] inputBuffers, InputPortDirect[] inPorts, boolean[] isEOF)
+			 throws IOException, InterruptedException {
+		int numActive = 0;
+		for (int i = 0; i < inPorts.length; i++) {
+			if (!inPorts[i].readRecordDirect(inputBuffers[i])) {
+				isEOF[i] = true;
+			} else {
+				numActive++;
+			}
+		}
+		return numActive;
+	}
+
 	@Override
 	public Result execute() throws Exception {
+		if (directComparator != null) {
+			return executeDirect();
+		}
 		/*
 		 *  we need to keep track of all input ports - if they contain data or
 		 *  signalized that they are empty.
@@ -219,6 +268,35 @@ public class Merge extends Node {
         return runIt ? Result.FINISHED_OK : Result.ABORTED;
 	}
 
+	/**
+	 *  Merges serialized records - records are neither deserialized nor serialized again,
+	 *  the merge key is compared directly in the serialized form.
+	 */
+	private Result executeDirect() throws Exception {
+		OutputPortDirect outPort = getOutputPortDirect(WRITE_TO_PORT);
+
+		InputPortDirect[] inPorts = getInPorts().toArray(new InputPortDirect[0]);
+		CloverBuffer[] inputBuffers = new CloverBuffer[inPorts.length];
+		boolean[] isEOF = new boolean[inPorts.length];
+		for (int i = 0; i < inPorts.length; i++) {
+			inputBuffers[i] = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+		}
+
+		int numActive = populateRecords(inputBuffers, inPorts, isEOF);
+		while (runIt && numActive > 0) {
+			int index = getLowestRecIndex(inputBuffers, isEOF);
+			if (index != -1) {
+				outPort.writeRecordDirect(inputBuffers[index]);
+				if (!inPorts[index].readRecordDirect(inputBuffers[index])) {
+					numActive--;
+					isEOF[index] = true;
+				}
+			}
+		}
+		setEOF(WRITE_TO_PORT);
+        return runIt ? Result.FINISHED_OK : Result.ABORTED;
+	}
+
 
 	/**
 	 *  Description of the Method
@@ -239,6 +317,19 @@ public class Merge extends Node {
 		} catch (Exception e) {
 			throw new ComponentNotReadyException(this, XML_MERGEKEY_ATTRIBUTE, e);
 		}
+
+		// merge key of serialized records can be compared directly if all inputs have the same structure
+		// and no collator is used
+		DataRecordMetadata metadata = getInputPort(0).getMetadata();
+		boolean sameMetadata = true;
+		for (InputPort inPort : getInPorts()) {
+			sameMetadata &= metadata.equals(inPort.getMetadata(), false);
+		}
+		directComparator = new SerializedRecordComparator(metadata, comparisonKey.getKeyFields());
+		directComparator.setEqualNULLs(true);
+		if (!sameMetadata || comparisonKey.isUseCollator() || !directComparator.isSupported()) {
+			directComparator = null;
+		}
 	}
 
 	/**
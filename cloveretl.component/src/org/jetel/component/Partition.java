@@ -73,7 +73,9 @@ import org.w3c.dom.Element;
  *  <b>NOR </b><code>partitionKey</code> is  specified/defined, RoundRobin algorithm is used.
  * <li>If <code>partitionKey</code> <b>IS</b> specified and <b>NO</b> <code>ranges</code>
  * <b>NOR </b><code>partitionClass</code> <b>NOR </b> <code>partitionSource</code> is specified, then
- * partition by calculated hash value is used. The formula used is: <code>hashValue / MAX_HASH_VALUE * #connected_output_ports) MOD #connected_output_ports</code>
+ * partition by calculated hash value is used. The formula used is: <code>hashValue / MAX_HASH_VALUE * #connected_output_ports) MOD #connected_output_ports</code>.
+ * The hash value is MurmurHash3 of serialized key fields, so records are distributed to the output ports differently
+ * than by older versions, which used <code>abs(hashCode MOD #connected_output_ports)</code>.
  * <li>If <b>BOTH</b> <code>partitionKey</code> and <code>ranges</code> are specified 
  * (but not <code>partitionClass</code> nor <code>partitionSource</code>), then partition by
  * range is used</i>
@@ -33,6 +33,7 @@ import org.jetel.data.Defaults;
 import org.jetel.data.DoubleRecordBuffer;
 import org.jetel.data.HashKey;
 import org.jetel.data.RecordKey;
+import org.jetel.data.tape.DataRecordTape;
 import org.jetel.exception.AttributeNotFoundException;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.ConfigurationStatus;
@@ -44,6 +45,7 @@ import org.jetel.graph.InputPort;
 import org.jetel.graph.Node;
 import org.jetel.graph.Result;
 import org.jetel.graph.TransformationGraph;
+import org.jetel.graph.runtime.MemoryReservation;
 import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.util.SynchronizeUtils;
 import org.jetel.util.property.ComponentXMLAttributes;
@@ -143,6 +145,18 @@ import org.w3c.dom.Element;
  *   </td>
  *   <td>Flag specifying whether the null values are considered equal or not.</td>
  * </tr>
+ * <tr>
+ *   <td>
+ *     <b>memoryLimit</b><br>
+ *     <i>optional</i>
+ *   </td>
+ *   <td>
+ *      Maximal estimated size (in bytes) of groups of unsorted input kept in memory. Records of groups which
+ *      do not fit the limit are spilled to temporary files and processed in following passes, so order of output
+ *      records is not preserved in that case. If the limit is set, groups are also spilled when the graph's memory
+ *      manager refuses more memory or asks for spilling. Default is 0 - no limit.
+ *   </td>
+ * </tr>
  * </table>
  *
  * @author Martin Janik, Javlin a.s. &lt;martin.janik@javlin.eu&gt;
@@ -176,6 +190,8 @@ public class Rollup extends Node {
     public static final String XML_INPUT_SORTED_ATTRIBUTE = "inputSorted";
     /** the name of an XML attribute used to store the "equal NULL" flag */
     public static final String XML_EQUAL_NULL_ATTRIBUTE = "equalNULL";
+    /** the name of an XML attribute used to store the memory limit of unsorted input */
+    public static final String XML_MEMORY_LIMIT_ATTRIBUTE = "memoryLimit";
 
     //
     // constants used during execution
@@ -183,6 +199,8 @@ public class Rollup extends Node {
 
     /** the port index used for data record input */
     private static final int INPUT_PORT_NUMBER = 0;
+    /** rough estimate of heap occupied by a group of unsorted input besides its key and accumulator records */
+    private static final int GROUP_OVERHEAD = 256;
 
     /**
      * Creates an instance of the <code>Rollup</code> component from an XML element.
@@ -218,10 +236,11 @@ public class Rollup extends Node {
         		XML_TYPE_ATTRIBUTE, XML_ID_ATTRIBUTE, XML_GROUP_KEY_FIELDS_ATTRIBUTE,
         		XML_GROUP_ACCUMULATOR_METADATA_ID_ATTRIBUTE, XML_TRANSFORM_ATTRIBUTE, XML_TRANSFORM_URL_ATTRIBUTE,
         		XML_TRANSFORM_URL_CHARSET_ATTRIBUTE, XML_TRANSFORM_CLASS_NAME_ATTRIBUTE, XML_INPUT_SORTED_ATTRIBUTE,
-        		XML_EQUAL_NULL_ATTRIBUTE }));
+        		XML_EQUAL_NULL_ATTRIBUTE, XML_MEMORY_LIMIT_ATTRIBUTE }));
 
         rollup.setInputSorted(componentAttributes.getBoolean(XML_INPUT_SORTED_ATTRIBUTE, true));
         rollup.setEqualNULL(componentAttributes.getBoolean(XML_EQUAL_NULL_ATTRIBUTE, true));
+        rollup.setMemoryLimit(componentAttributes.getLong(XML_MEMORY_LIMIT_ATTRIBUTE, 0));
 
         return rollup;
     }
@@ -251,6 +270,8 @@ public class Rollup extends Node {
     private boolean inputSorted = true;
     /** the flag specifying whether the null values are considered equal or not */
     private boolean equalNULL = true;
+    /** the maximal estimated size of groups of unsorted input kept in memory, 0 means unlimited */
+    private long memoryLimit = 0;
 
     //
     // runtime attributes initialized in the init() method
@@ -262,6 +283,8 @@ public class Rollup extends Node {
     private RecordRollup recordRollup;
     /** the data records used for output */
     private DataRecord[] outputRecords;
+    /** the memory of groups of unsorted input reserved from the memory manager */
+    private MemoryReservation memoryReservation;
 
     /**
      * Constructs an instance of the <code>Rollup</code> component with the given ID.
@@ -313,6 +336,10 @@ public class Rollup extends Node {
         this.equalNULL = equalNULL;
     }
 
+    public void setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
     @Override
     public ConfigurationStatus checkConfig(ConfigurationStatus status) {
         super.checkConfig(status);
@@ -340,6 +367,10 @@ public class Rollup extends Node {
         if (transformUrlCharset != null && !Charset.isSupported(transformUrlCharset)) {
             status.addError(this, XML_TRANSFORM_URL_CHARSET_ATTRIBUTE, "The transform URL character set is not supported!");
         }
+
+        if (memoryLimit < 0) {
+            status.addError(this, XML_MEMORY_LIMIT_ATTRIBUTE, "The memory limit must not be negative!");
+        }
         
         //check transformation
         if (recordRollup == null) {
@@ -375,6 +406,11 @@ public class Rollup extends Node {
         for (int i = 0; i < outputRecords.length; i++) {
             outputRecords[i] = DataRecordFactory.newRecord(getOutputPort(i).getMetadata());
         }
+
+        if (!inputSorted && groupKey != null && memoryLimit > 0) {
+            // output order is changed by spilling, so the memory manager is involved only if the user allows spilling
+            memoryReservation = new MemoryReservation(getGraph().getMemoryManager());
+        }
     }
 
 	private TransformFactory<RecordRollup> getTransformFactory() {
@@ -538,21 +574,100 @@ public class Rollup extends Node {
 
         DataRecord inputRecord = DataRecordFactory.newRecord(inputPort.getMetadata());
 
+        SpillPartitions spilledPartitions = executeInputUnsorted(null, inputRecord, 0);
+
+        if (spilledPartitions != null) {
+            executeSpilled(spilledPartitions, inputRecord);
+        }
+    }
+
+    /**
+     * Processes records of spilled groups partition by partition.
+     *
+     * @param partitions the partitions of spilled records
+     * @param inputRecord the data record used for reading
+     *
+     * @throws TransformException if an error occurred during the transformation
+     * @throws IOException if an error occurred while reading or writing data records
+     * @throws InterruptedException if an error occurred while reading or writing data records
+     */
+    private void executeSpilled(SpillPartitions partitions, DataRecord inputRecord)
+            throws TransformException, IOException, InterruptedException {
+        try {
+            for (int partition = 0; partition < SpillPartitions.PARTITIONS && runIt; partition++) {
+                DataRecordTape tape = partitions.rewind(partition);
+
+                if (tape != null) {
+                    SpillPartitions spilledPartitions = executeInputUnsorted(tape, inputRecord, partitions.getLevel() + 1);
+                    partitions.free(partition);
+
+                    if (spilledPartitions != null) {
+                        executeSpilled(spilledPartitions, inputRecord);
+                    }
+                }
+            }
+        } finally {
+            partitions.free();
+        }
+    }
+
+    /**
+     * Processes data records of unsorted input which are read either from the input port or from a tape.
+     * Groups are kept in memory until the memory limit is exceeded, records of groups created later
+     * are spilled to temporary files.
+     *
+     * @param tape the tape records are read from or <code>null</code> if the input port should be read
+     * @param inputRecord the data record used for reading
+     * @param level the level of partitions spilled records are distributed to
+     *
+     * @return the partitions of spilled records or <code>null</code> if all groups fit the memory limit
+     *
+     * @throws TransformException if an error occurred during the transformation
+     * @throws IOException if an error occurred while reading or writing data records
+     * @throws InterruptedException if an error occurred while reading or writing data records
+     */
+    private SpillPartitions executeInputUnsorted(DataRecordTape tape, DataRecord inputRecord, int level)
+            throws TransformException, IOException, InterruptedException {
+        InputPort inputPort = getInputPort(INPUT_PORT_NUMBER);
+
         DataRecordMetadata groupAccumulatorMetadata = (groupAccumulatorMetadataId != null)
                 ? getGraph().getDataRecordMetadata(groupAccumulatorMetadataId) : null;
         Map<HashKey, DataRecord> groupAccumulators = new LinkedHashMap<HashKey, DataRecord>();
 
         HashKey lookupKey = new HashKey(groupKey, inputRecord);
+        SpillPartitions spilledPartitions = null;
+        long usedMemory = 0;
+        boolean memoryExhausted = false;
 
-        while (runIt && inputPort.readRecord(inputRecord) != null) {
+        while (runIt && ((tape != null) ? tape.get(inputRecord) : inputPort.readRecord(inputRecord) != null)) {
             DataRecord groupAccumulator = groupAccumulators.get(lookupKey);
 
             if (groupAccumulator == null && !groupAccumulators.containsKey(lookupKey)) {
+                if (memoryExhausted || (memoryLimit > 0 && usedMemory >= memoryLimit)) {
+                    // a new group exceeds the memory limit
+                    if (spilledPartitions == null) {
+                        spilledPartitions = new SpillPartitions(inputRecord.getMetadata(), groupKey.getKeyFields(), level);
+                    }
+
+                    spilledPartitions.put(inputRecord);
+                    continue;
+                }
+
                 if (groupAccumulatorMetadata != null) {
                     groupAccumulator = DataRecordFactory.newRecord(groupAccumulatorMetadata);
                 }
 
-                groupAccumulators.put(new HashKey(groupKey, inputRecord.duplicate()), groupAccumulator);
+                DataRecord keyRecord = inputRecord.duplicate();
+                groupAccumulators.put(new HashKey(groupKey, keyRecord), groupAccumulator);
+
+                long groupSize = keyRecord.getSizeSerialized() + GROUP_OVERHEAD
+                        + ((groupAccumulator != null) ? groupAccumulator.getSizeSerialized() : 0);
+                usedMemory += groupSize;
+
+                if (memoryReservation != null && !memoryReservation.add(groupSize)) {
+                    // the memory manager refused more groups or asked for spilling, the group is kept
+                    memoryExhausted = true;
+                }
 
                 try {
                 	recordRollup.initGroup(inputRecord, groupAccumulator);
@@ -594,6 +709,12 @@ public class Rollup extends Node {
                 transform(entry.getKey().getDataRecord(), entry.getValue());
             }
         }
+
+        if (memoryReservation != null) {
+            memoryReservation.release();
+        }
+
+        return spilledPartitions;
     }
 
     /**
@@ -705,6 +826,11 @@ public class Rollup extends Node {
         recordRollup = null;
         outputRecords = null;
 
+        if (memoryReservation != null) {
+            memoryReservation.close();
+            memoryReservation = null;
+        }
+
         super.free();
     }
 
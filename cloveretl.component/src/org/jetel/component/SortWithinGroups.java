@@ -18,17 +18,21 @@
  */
 package org.jetel.component;
 
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
 import org.jetel.data.Defaults;
 import org.jetel.data.DoubleRecordBuffer;
 import org.jetel.data.ExternalSortDataRecord;
 import org.jetel.data.ISortDataRecord;
 import org.jetel.data.RecordKey;
+import org.jetel.data.SerializedRecordComparator;
 import org.jetel.exception.AttributeNotFoundException;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.ConfigurationStatus;
 import org.jetel.exception.NotInitializedException;
 import org.jetel.exception.XMLConfigurationException;
 import org.jetel.graph.InputPort;
+import org.jetel.graph.InputPortDirect;
 import org.jetel.graph.Node;
 import org.jetel.graph.Result;
 import org.jetel.graph.TransformationGraph;
@@ -344,8 +348,10 @@ public class SortWithinGroups extends Node {
         super.init();
 
         try {
-            dataRecordSorter = new ExternalSortDataRecord(getInputPort(INPUT_PORT_NUMBER).getMetadata(),
+            ExternalSortDataRecord externalSorter = new ExternalSortDataRecord(getInputPort(INPUT_PORT_NUMBER).getMetadata(),
                     sortKeyFields, sortKeyOrdering, bufferCapacity, numberOfTapes);
+            externalSorter.setMemoryManager(getGraph().getMemoryManager());
+            dataRecordSorter = externalSorter;
         } catch (Exception exception) {
             throw new ComponentNotReadyException("Error creating a data record sorter!", exception);
         }
@@ -373,8 +379,25 @@ public class SortWithinGroups extends Node {
 
         InputPort inputPort = getInputPort(INPUT_PORT_NUMBER);
 
-        RecordKey groupKey = new RecordKey(groupKeyFields, inputPort.getMetadata());
-        
+        RecordKey groupKey = new RecordKey(groupKeyFields, inputPort.getMetadata());
+        SerializedRecordComparator groupComparator = new SerializedRecordComparator(inputPort.getMetadata(), groupKey.getKeyFields());
+
+        if (!groupKey.isUseCollator() && groupComparator.isSupported()) {
+            executeDirect(groupComparator);
+        } else {
+            executeRecords(groupKey);
+        }
+
+        broadcastEOF();
+
+        return (runIt ? Result.FINISHED_OK : Result.ABORTED);
+    }
+
+    /**
+     * Reads records and detects group boundaries by comparison of deserialized records.
+     */
+    private void executeRecords(RecordKey groupKey) throws Exception {
+        InputPort inputPort = getInputPort(INPUT_PORT_NUMBER);
         DoubleRecordBuffer inputRecords = new DoubleRecordBuffer(inputPort.getMetadata());
 
         if (inputPort.readRecord(inputRecords.getCurrent()) != null) {
@@ -383,14 +406,7 @@ public class SortWithinGroups extends Node {
 
             while (runIt && inputPort.readRecord(inputRecords.getCurrent()) != null) {
                 if (!groupKey.equals(inputRecords.getCurrent(), inputRecords.getPrevious())) {
-                    dataRecordSorter.sort();
-
-                    while (runIt && dataRecordSorter.get(dataRecordBuffer)) {
-                        writeRecordBroadcastDirect(dataRecordBuffer);
-                        dataRecordBuffer.clear();
-                    }
-
-                    dataRecordSorter.reset();
+                    writeSortedGroup();
                 }
 
                 dataRecordSorter.put(inputRecords.getCurrent());
@@ -399,17 +415,55 @@ public class SortWithinGroups extends Node {
                 SynchronizeUtils.cloverYield();
             }
 
-            dataRecordSorter.sort();
+            writeSortedGroup();
+        }
+    }
 
-            while (runIt && dataRecordSorter.get(dataRecordBuffer)) {
-                writeRecordBroadcastDirect(dataRecordBuffer);
-                dataRecordBuffer.clear();
+    /**
+     * Reads serialized records and detects group boundaries by comparison of the group key
+     * in the serialized form, so the previous record does not need to be kept deserialized.
+     */
+    private void executeDirect(SerializedRecordComparator groupComparator) throws Exception {
+        InputPortDirect inputPort = getInputPortDirect(INPUT_PORT_NUMBER);
+        DataRecord inputRecord = DataRecordFactory.newRecord(inputPort.getMetadata());
+        CloverBuffer currentBuffer = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+        CloverBuffer previousBuffer = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+        boolean first = true;
+
+        while (runIt && inputPort.readRecordDirect(currentBuffer)) {
+            if (!first && groupComparator.compare(currentBuffer, previousBuffer) != 0) {
+                writeSortedGroup();
             }
+            first = false;
+
+            inputRecord.deserialize(currentBuffer);
+            currentBuffer.rewind();
+            dataRecordSorter.put(inputRecord);
+
+            CloverBuffer tmp = previousBuffer;
+            previousBuffer = currentBuffer;
+            currentBuffer = tmp;
+
+            SynchronizeUtils.cloverYield();
         }
 
-        broadcastEOF();
+        if (!first) {
+            writeSortedGroup();
+        }
+    }
 
-        return (runIt ? Result.FINISHED_OK : Result.ABORTED);
+    /**
+     * Sorts the records of the current group, sends them to the output ports and resets the sorter.
+     */
+    private void writeSortedGroup() throws Exception {
+        dataRecordSorter.sort();
+
+        while (runIt && dataRecordSorter.get(dataRecordBuffer)) {
+            writeRecordBroadcastDirect(dataRecordBuffer);
+            dataRecordBuffer.clear();
+        }
+
+        dataRecordSorter.reset();
     }
 
     @Override
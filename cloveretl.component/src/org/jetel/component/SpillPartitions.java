@@ -0,0 +1,139 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component;
+
+import java.io.IOException;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.tape.DataRecordTape;
+import org.jetel.metadata.DataRecordMetadata;
+
+/**
+ * Temporary files records are distributed to according to hash of their key.
+ * Used by components which keep records in memory (hash join, unsorted aggregation) to spill
+ * records which exceed memory limit. Records with equal keys always fall to the partition with the same
+ * index, so each partition can be processed separately.<br>
+ * Tape of a partition is created lazily with the first record of the partition.
+ *
+ * @created 17. 10. 2026
+ */
+class SpillPartitions {
+
+	/** Number of partitions (temporary files). */
+	public static final int PARTITIONS = 16;
+
+	private final DataRecordMetadata metadata;
+	private final int[] keyFields;
+	/** level of recursive split, different levels use different hash functions */
+	private final int level;
+	private final DataRecordTape[] tapes = new DataRecordTape[PARTITIONS];
+
+	/**
+	 * @param metadata metadata of partitioned records
+	 * @param keyFields indexes of key fields
+	 * @param level level of recursive split, partitions of a level are independent on partitions of other levels
+	 */
+	public SpillPartitions(DataRecordMetadata metadata, int[] keyFields, int level) {
+		this.metadata = metadata;
+		this.keyFields = keyFields;
+		this.level = level;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	public void put(DataRecord record) throws IOException, InterruptedException {
+		int partition = getPartition(record);
+		DataRecordTape tape = tapes[partition];
+		if (tape == null) {
+			tape = new DataRecordTape();
+			tape.open();
+			tape.addDataChunk();
+			tapes[partition] = tape;
+		}
+		tape.put(record);
+	}
+
+	/**
+	 * @return size of the partition in bytes
+	 */
+	public long getSize(int partition) {
+		return tapes[partition] != null ? tapes[partition].getChunkLength(0) : 0;
+	}
+
+	/**
+	 * Prepares the partition for reading.
+	 *
+	 * @return tape of the partition or null if the partition is empty
+	 */
+	public DataRecordTape rewind(int partition) throws IOException, InterruptedException {
+		DataRecordTape tape = tapes[partition];
+		if (tape != null) {
+			tape.rewind();
+		}
+		return tape;
+	}
+
+	/**
+	 * Distributes records of the given partition to partitions of next level.
+	 */
+	public SpillPartitions split(int partition) throws IOException, InterruptedException {
+		SpillPartitions result = new SpillPartitions(metadata, keyFields, level + 1);
+		DataRecordTape tape = rewind(partition);
+		if (tape != null) {
+			DataRecord record = DataRecordFactory.newRecord(metadata);
+			while (tape.get(record)) {
+				result.put(record);
+			}
+		}
+		return result;
+	}
+
+	public void free(int partition) throws IOException, InterruptedException {
+		DataRecordTape tape = tapes[partition];
+		if (tape != null) {
+			tapes[partition] = null;
+			tape.close();
+		}
+	}
+
+	public void free() throws IOException, InterruptedException {
+		for (int i = 0; i < tapes.length; i++) {
+			free(i);
+		}
+	}
+
+	private int getPartition(DataRecord record) {
+		// the same hash as in DataRecordMap and HashKey, so equal keys of different records are matched the same way
+		int hash = 1;
+		for (int keyField : keyFields) {
+			hash = 31 * hash + record.getField(keyField).hashCode();
+		}
+		// mix the bits, partitions have to be independent on buckets of hash tables and on previous levels
+		hash ^= level * 0x9E3779B9;
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		hash *= 0xC2B2AE35;
+		hash ^= hash >>> 16;
+		return (hash & Integer.MAX_VALUE) % PARTITIONS;
+	}
+}
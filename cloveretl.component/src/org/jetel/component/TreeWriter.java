@@ -19,7 +19,6 @@
 package org.jetel.component;
 
 import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -41,7 +40,6 @@ import org.jetel.component.tree.writer.model.design.MappingProperty;
 import org.jetel.component.tree.writer.model.design.TreeWriterMapping;
 import org.jetel.component.tree.writer.model.runtime.PortBinding;
 import org.jetel.component.tree.writer.model.runtime.WritableMapping;
-import org.jetel.component.tree.writer.portdata.CacheRecordManager;
 import org.jetel.component.tree.writer.portdata.DataIterator;
 import org.jetel.component.tree.writer.portdata.PortData;
 import org.jetel.component.tree.writer.util.AbstractMappingValidator;
@@ -57,13 +55,13 @@ import org.jetel.exception.AttributeNotFoundException;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.ConfigurationStatus;
 import org.jetel.exception.ConfigurationStatus.Severity;
-import org.jetel.exception.TempFileCreationException;
 import org.jetel.exception.XMLConfigurationException;
 import org.jetel.graph.InputPort;
 import org.jetel.graph.Node;
 import org.jetel.graph.Result;
 import org.jetel.graph.TransformationGraph;
 import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.MemoryUtils;
 import org.jetel.util.MultiFileWriter;
 import org.jetel.util.file.FileUtils;
 import org.jetel.util.property.ComponentXMLAttributes;
@@ -158,7 +156,6 @@ public abstract class TreeWriter extends Node {
 
 	private String mappingString;
 	private String mappingURL;
-	private File tempDirectory;
 	private long cacheSize = DEFAULT_CACHE_SIZE;
 	private boolean cacheInMemory;
 
@@ -167,7 +164,6 @@ public abstract class TreeWriter extends Node {
 	protected TreeWriterMapping designMapping;
 	private WritableMapping engineMapping;
 	private Map<Integer, PortData> portDataMap;
-	private CacheRecordManager sharedCache;
 
 	protected int recordsPerFile;
 	protected int recordsCount;
@@ -206,9 +202,11 @@ public abstract class TreeWriter extends Node {
 		if (sortedInput && sortHintsString == null) {
 			status.addError(this, XML_SORTKEYS_ATTRIBUTE, "Sort keys is not set");
 		}
-		if (cacheSize > Runtime.getRuntime().maxMemory()) {
+		// records cached outside of the heap are buffered in direct memory
+		if (cacheSize > MemoryUtils.getDirectMemorySize()) {
 			status.addError(this, XML_CACHE_SIZE,
-					"Cache size has a value of " + cacheSize + " but the JVM" + " is only configured for " + Runtime.getRuntime().maxMemory());
+					"Cache size has a value of " + cacheSize + " but the JVM" + " is only configured for " + MemoryUtils.getDirectMemorySize()
+					+ " bytes of direct memory");
 		}
 
 		return status;
@@ -438,21 +436,10 @@ public abstract class TreeWriter extends Node {
 	@Override
 	public void preExecute() throws ComponentNotReadyException {
 		super.preExecute();
-		if (!cacheInMemory) {
-			try {
-				// Init new cache record manager
-				tempDirectory = getGraph().getAuthorityProxy().newTempDir("tree-writer-cache-", -1);
-				File file = new File(tempDirectory, "jdbm-cache");
-				sharedCache = CacheRecordManager.createInstance(file.getAbsolutePath(), cacheSize);
-			} catch (IOException e) {
-				throw new ComponentNotReadyException(e);
-			} catch (TempFileCreationException e) {
-				throw new ComponentNotReadyException(e);
-			}
-		}
-		
+		// the cache size is shared by all the ports, each cached port has its own direct write buffer
+		long portCacheSize = cacheSize / Math.max(1, portDataMap.size());
 		for (PortData portData : portDataMap.values()) {
-			portData.setSharedCache(sharedCache);
+			portData.setCacheSize(portCacheSize);
 			portData.preExecute();
 		}
 	}
@@ -546,17 +533,6 @@ public abstract class TreeWriter extends Node {
 		for (PortData portData : portDataMap.values()) {
 			portData.postExecute();
 		}
-		
-		if (!cacheInMemory) {
-			try {
-				sharedCache.close();
-				if (tempDirectory != null) {
-					FileUtils.deleteRecursively(tempDirectory);
-				}
-			} catch (IOException e) {
-				LOGGER.error("Error while closing record cache.", e);
-			}
-		}
 		try {
 			writer.close();
 		} catch (IOException e) {
@@ -31,6 +31,8 @@ import org.jetel.data.DataRecord;
 import org.jetel.data.Defaults;
 import org.jetel.data.HashKey;
 import org.jetel.data.RecordKey;
+import org.jetel.graph.runtime.MemoryManager;
+import org.jetel.graph.runtime.MemoryReservation;
 import org.jetel.metadata.DataRecordMetadata;
 
 /**
@@ -40,6 +42,11 @@ import org.jetel.metadata.DataRecordMetadata;
  *         (c) Javlin Consulting (www.javlinconsulting.cz)
  */
 public class AggregateProcessor {
+	// rough estimate of heap occupied by an aggregation group of unsorted input, besides its stored record
+	private static final int GROUP_OVERHEAD = 256;
+	// rough estimate of heap occupied by an aggregate function instance
+	private static final int FUNCTION_OVERHEAD = 64;
+
 	// registry of available aggregate functions
 	private FunctionRegistry functionRegistry = new FunctionRegistry();
 	// function mapping
@@ -58,6 +65,14 @@ public class AggregateProcessor {
 	private HashKey hashKey;
 	private Map<HashKey, AggregationGroup> unsortedGroups;
 	private DataRecord previousRecord;
+	// maximal estimated size of aggregation groups of unsorted input, 0 means unlimited
+	private long memoryLimit;
+	// estimated size of current aggregation groups of unsorted input
+	private long usedMemory;
+	// memory of aggregation groups of unsorted input reserved from the memory manager, can be null
+	private MemoryReservation memoryReservation;
+	// true if the memory manager refused more aggregation groups
+	private boolean memoryExhausted;
 	
 	// aggregation key
 	private RecordKey recordKey;
@@ -116,6 +131,46 @@ public class AggregateProcessor {
 		if (unsortedGroups != null) {
 			unsortedGroups.clear();
 		}
+		usedMemory = 0;
+		memoryExhausted = false;
+		if (memoryReservation != null) {
+			memoryReservation.release();
+		}
+	}
+
+	/**
+	 * Releases memory reserved from the memory manager.
+	 */
+	public void free() {
+		if (memoryReservation != null) {
+			memoryReservation.close();
+			memoryReservation = null;
+		}
+	}
+
+	/**
+	 * Sets the memory limit of unsorted aggregation. If the estimated size of aggregation groups exceeds the limit,
+	 * records of new groups are refused by {@link #addRecord(DataRecord)}; records of existing groups are still
+	 * aggregated. At least one group is always accepted.
+	 * 
+	 * @param memoryLimit maximal estimated size (in bytes) of aggregation groups, 0 means unlimited
+	 */
+	public void setMemoryLimit(long memoryLimit) {
+		this.memoryLimit = memoryLimit;
+	}
+
+	/**
+	 * Sets the memory manager which the memory of aggregation groups of unsorted input is reserved from.
+	 * If the reservation fails or the manager asks for spilling, new groups are refused
+	 * by {@link #addRecord(DataRecord)} the same way as if the memory limit was exceeded.
+	 * 
+	 * @param memoryManager
+	 */
+	public void setMemoryManager(MemoryManager memoryManager) {
+		free();
+		if (memoryManager != null && !sorted) {
+			memoryReservation = new MemoryReservation(memoryManager);
+		}
 	}
 	
 	/**
@@ -131,9 +186,11 @@ public class AggregateProcessor {
 	 * Processes a record from the input.
 	 * 
 	 * @param inputRecord record from the input.
+	 * @return <tt>false</tt> if the record of unsorted input starts a new aggregation group which does not fit
+	 * the memory limit, the record is not processed in that case; <tt>true</tt> otherwise.
 	 * @throws Exception 
 	 */
-	public void addRecord(DataRecord inputRecord) throws Exception {
+	public boolean addRecord(DataRecord inputRecord) throws Exception {
 		if (sorted) {
 			if (previousRecord == null) {
 				// first run
@@ -150,16 +207,28 @@ public class AggregateProcessor {
 			hashKey.setDataRecord(inputRecord);
 			AggregationGroup group = unsortedGroups.get(hashKey);
 			if (group == null) {
+				if (memoryExhausted || (memoryLimit > 0 && usedMemory >= memoryLimit)) {
+					return false;
+				}
 				DataRecord storedRecord = inputRecord.duplicate();
 				AggregationGroup newGroup = new AggregationGroup(storedRecord);
 				unsortedGroups.put(new HashKey(recordKey, storedRecord), newGroup);
 				newGroup.update(inputRecord);
+				if (memoryLimit > 0 || memoryReservation != null) {
+					long groupSize = storedRecord.getSizeSerialized() + GROUP_OVERHEAD + functionMapping.size() * FUNCTION_OVERHEAD;
+					usedMemory += groupSize;
+					if (memoryReservation != null && !memoryReservation.add(groupSize)) {
+						// the group is kept, groups created later are refused until reset
+						memoryExhausted = true;
+					}
+				}
 			} else {
 				group.update(inputRecord);
 			}
 		}
 		
 		sortedGroupChanged = false;
+		return true;
 	}
 	
 	/**
@@ -41,6 +41,15 @@ public class Avg extends AggregateFunction {
 	// Count of fields
 	private int count = 0;
 
+	// Type of the primitive accumulator, see PrimitiveAccumulators
+	private char primitiveType = PrimitiveAccumulators.UNRESOLVED;
+	// Sum of integer and long values
+	private long longSum;
+	// Sum of number values
+	private double doubleSum;
+	// Was a value accumulated in the primitive accumulator?
+	private boolean hasPrimitiveSum;
+
 	// Is input nullable?
 	private boolean nullableInput;
 
@@ -88,11 +97,14 @@ public class Avg extends AggregateFunction {
 	 */
 	@Override
 	public void storeResult(DataField outputField) {
-		if (sum == null) {
+		if (hasPrimitiveSum) {
+			PrimitiveAccumulators.store(outputField, longSum, doubleSum, primitiveType);
+		} else if (sum == null) {
 			outputField.setNull(true);
 			return;
-		}
-		outputField.setValue(sum);
+		} else {
+			outputField.setValue(sum);
+		}
 		((Numeric) outputField).div(new CloverInteger(count));
 	}
 
@@ -105,6 +117,22 @@ public class Avg extends AggregateFunction {
 		if (input.isNull()) {
 			return;
 		}
+		if (primitiveType == PrimitiveAccumulators.UNRESOLVED) {
+			primitiveType = PrimitiveAccumulators.getSumType(inputFieldMetadata, outputFieldMetadata);
+		}
+		switch (primitiveType) {
+		case DataFieldMetadata.INTEGER_FIELD:
+		case DataFieldMetadata.LONG_FIELD:
+			longSum = hasPrimitiveSum ? PrimitiveAccumulators.add(longSum, input.getLong(), primitiveType) : input.getLong();
+			hasPrimitiveSum = true;
+			count++;
+			return;
+		case DataFieldMetadata.NUMERIC_FIELD:
+			doubleSum = hasPrimitiveSum ? doubleSum + input.getDouble() : input.getDouble();
+			hasPrimitiveSum = true;
+			count++;
+			return;
+		}
 		if (sum == null) {
 			// Fix of CL-1509: Devise field type from output field metadata -> overflow could possibly be avoided
 			// Fix of CL-1508: Factory creates overflow checking Numerics
@@ -130,6 +158,7 @@ public class Avg extends AggregateFunction {
 	@Override
 	public void clear() {
 		sum = null;
+		hasPrimitiveSum = false;
 		count = 0;
 	}
 }
@@ -20,6 +20,7 @@ package org.jetel.component.aggregate;
 
 import org.jetel.data.DataField;
 import org.jetel.data.DataRecord;
+import org.jetel.data.primitive.Numeric;
 import org.jetel.metadata.DataFieldMetadata;
 
 /**
@@ -36,6 +37,15 @@ public class Max extends AggregateFunction {
 
 	private DataField max;
 
+	// Type of the primitive accumulator, see PrimitiveAccumulators
+	private char primitiveType = PrimitiveAccumulators.UNRESOLVED;
+	// Maximum of integer and long values
+	private long longMax;
+	// Maximum of number values
+	private double doubleMax;
+	// Was a value accumulated in the primitive accumulator?
+	private boolean hasPrimitiveMax;
+
 	// Is input nullable?
 	private boolean nullableInput;
 
@@ -85,6 +95,10 @@ public class Max extends AggregateFunction {
 	 */
 	@Override
 	public void storeResult(DataField outputField) {
+		if (hasPrimitiveMax) {
+			PrimitiveAccumulators.store(outputField, longMax, doubleMax, primitiveType);
+			return;
+		}
 		if (max == null) {
 			outputField.setNull(true);
 			return;
@@ -102,6 +116,27 @@ public class Max extends AggregateFunction {
 			return;
 		}
 		
+		if (primitiveType == PrimitiveAccumulators.UNRESOLVED) {
+			primitiveType = PrimitiveAccumulators.getComparisonType(inputFieldMetadata);
+		}
+		switch (primitiveType) {
+		case DataFieldMetadata.INTEGER_FIELD:
+		case DataFieldMetadata.LONG_FIELD:
+			long longValue = ((Numeric) input).getLong();
+			if (!hasPrimitiveMax || longValue > longMax) {
+				longMax = longValue;
+			}
+			hasPrimitiveMax = true;
+			return;
+		case DataFieldMetadata.NUMERIC_FIELD:
+			double doubleValue = ((Numeric) input).getDouble();
+			if (!hasPrimitiveMax || Double.compare(doubleValue, doubleMax) > 0) {
+				doubleMax = doubleValue;
+			}
+			hasPrimitiveMax = true;
+			return;
+		}
+
 		if (max == null) {
 			max = input.duplicate();
 		} else if (input.compareTo(max) == 1) {
@@ -123,5 +158,6 @@ public class Max extends AggregateFunction {
 	@Override
 	public void clear() {
 		max = null;
+		hasPrimitiveMax = false;
 	}
 }
@@ -20,6 +20,7 @@ package org.jetel.component.aggregate;
 
 import org.jetel.data.DataField;
 import org.jetel.data.DataRecord;
+import org.jetel.data.primitive.Numeric;
 import org.jetel.metadata.DataFieldMetadata;
 
 /**
@@ -36,6 +37,15 @@ public class Min extends AggregateFunction {
 
 	private DataField min;
 
+	// Type of the primitive accumulator, see PrimitiveAccumulators
+	private char primitiveType = PrimitiveAccumulators.UNRESOLVED;
+	// Minimum of integer and long values
+	private long longMin;
+	// Minimum of number values
+	private double doubleMin;
+	// Was a value accumulated in the primitive accumulator?
+	private boolean hasPrimitiveMin;
+
 	// Is input nullable?
 	private boolean nullableInput;
 
@@ -86,6 +96,10 @@ public class Min extends AggregateFunction {
 	 */
 	@Override
 	public void storeResult(DataField outputField) {
+		if (hasPrimitiveMin) {
+			PrimitiveAccumulators.store(outputField, longMin, doubleMin, primitiveType);
+			return;
+		}
 		if (min == null) {
 			outputField.setNull(true);
 			return;
@@ -103,6 +117,27 @@ public class Min extends AggregateFunction {
 			return;
 		}
 		
+		if (primitiveType == PrimitiveAccumulators.UNRESOLVED) {
+			primitiveType = PrimitiveAccumulators.getComparisonType(inputFieldMetadata);
+		}
+		switch (primitiveType) {
+		case DataFieldMetadata.INTEGER_FIELD:
+		case DataFieldMetadata.LONG_FIELD:
+			long longValue = ((Numeric) input).getLong();
+			if (!hasPrimitiveMin || longValue < longMin) {
+				longMin = longValue;
+			}
+			hasPrimitiveMin = true;
+			return;
+		case DataFieldMetadata.NUMERIC_FIELD:
+			double doubleValue = ((Numeric) input).getDouble();
+			if (!hasPrimitiveMin || Double.compare(doubleValue, doubleMin) < 0) {
+				doubleMin = doubleValue;
+			}
+			hasPrimitiveMin = true;
+			return;
+		}
+
 		if (min == null) {
 			min = input.duplicate();
 		} else if (input.compareTo(min) == -1) {
@@ -124,5 +159,6 @@ public class Min extends AggregateFunction {
 	@Override
 	public void clear() {
 		min = null;
+		hasPrimitiveMin = false;
 	}
 }
@@ -0,0 +1,124 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component.aggregate;
+
+import org.jetel.data.DataField;
+import org.jetel.data.primitive.Numeric;
+import org.jetel.metadata.DataFieldMetadata;
+
+/**
+ * Helper methods for aggregate functions which accumulate integer, long and number values
+ * in primitive variables instead of a {@link Numeric} data field allocated for each aggregation group.
+ * Arithmetic overflow is detected the same way as in {@link AggregateIntegerNumeric} and {@link AggregateLongNumeric}.
+ *
+ * @created 17. 10. 2026
+ */
+final class PrimitiveAccumulators {
+
+	/** The type of the accumulator has not been resolved yet. */
+	static final char UNRESOLVED = 0;
+
+	/** Primitive accumulator cannot be used, the type is not supported. */
+	static final char NONE = DataFieldMetadata.UNKNOWN_FIELD;
+
+	private PrimitiveAccumulators() {
+	}
+
+	/**
+	 * Type of a primitive sum accumulator. The sum is computed in the type of the output field,
+	 * so a primitive accumulator can be used if the input values fit the output type.
+	 *
+	 * @return {@link DataFieldMetadata#INTEGER_FIELD}, {@link DataFieldMetadata#LONG_FIELD},
+	 * {@link DataFieldMetadata#NUMERIC_FIELD} or {@link #NONE}
+	 */
+	static char getSumType(DataFieldMetadata inputField, DataFieldMetadata outputField) {
+		if (inputField == null || outputField == null) {
+			return NONE;
+		}
+		char inputType = inputField.getType();
+		switch (outputField.getType()) {
+		case DataFieldMetadata.INTEGER_FIELD:
+			return inputType == DataFieldMetadata.INTEGER_FIELD ? DataFieldMetadata.INTEGER_FIELD : NONE;
+		case DataFieldMetadata.LONG_FIELD:
+			return (inputType == DataFieldMetadata.INTEGER_FIELD || inputType == DataFieldMetadata.LONG_FIELD)
+					? DataFieldMetadata.LONG_FIELD : NONE;
+		case DataFieldMetadata.NUMERIC_FIELD:
+			return (inputType == DataFieldMetadata.INTEGER_FIELD || inputType == DataFieldMetadata.LONG_FIELD
+					|| inputType == DataFieldMetadata.NUMERIC_FIELD) ? DataFieldMetadata.NUMERIC_FIELD : NONE;
+		default:
+			return NONE;
+		}
+	}
+
+	/**
+	 * Type of a primitive accumulator of min/max functions, the same as the type of the input field.
+	 *
+	 * @return {@link DataFieldMetadata#INTEGER_FIELD}, {@link DataFieldMetadata#LONG_FIELD},
+	 * {@link DataFieldMetadata#NUMERIC_FIELD} or {@link #NONE}
+	 */
+	static char getComparisonType(DataFieldMetadata inputField) {
+		if (inputField == null) {
+			return NONE;
+		}
+		switch (inputField.getType()) {
+		case DataFieldMetadata.INTEGER_FIELD:
+		case DataFieldMetadata.LONG_FIELD:
+		case DataFieldMetadata.NUMERIC_FIELD:
+			return inputField.getType();
+		default:
+			return NONE;
+		}
+	}
+
+	/**
+	 * Adds two values of the given type.
+	 *
+	 * @throws ArithmeticException if the result overflows the type
+	 */
+	static long add(long value, long paramValue, char type) {
+		long sum = value + paramValue;
+		if (type == DataFieldMetadata.INTEGER_FIELD) {
+			// Integer.MIN_VALUE is reserved for null
+			if (sum > Integer.MAX_VALUE || sum <= Integer.MIN_VALUE) {
+				throw new ArithmeticException("Integer overflow (" + value + " + " + paramValue + " = " + (int) sum + ")");
+			}
+		} else if ((value > 0 && paramValue > 0 && sum < 0) || (value < 0 && paramValue < 0 && sum > 0) || sum == Long.MIN_VALUE) {
+			throw new ArithmeticException("Integer overflow (" + value + " + " + paramValue + " = " + sum + ")");
+		}
+		return sum;
+	}
+
+	/**
+	 * Stores a value accumulated in a primitive variable of the given type into a numeric field.
+	 */
+	static void store(DataField outputField, long longValue, double doubleValue, char type) {
+		Numeric output = (Numeric) outputField;
+		switch (type) {
+		case DataFieldMetadata.INTEGER_FIELD:
+			output.setValue((int) longValue);
+			break;
+		case DataFieldMetadata.LONG_FIELD:
+			output.setValue(longValue);
+			break;
+		default:
+			output.setValue(doubleValue);
+		}
+	}
+
+}
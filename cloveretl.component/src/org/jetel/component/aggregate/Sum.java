@@ -38,6 +38,15 @@ public class Sum extends AggregateFunction {
 	// Sum
 	private Numeric sum;
 
+	// Type of the primitive accumulator, see PrimitiveAccumulators
+	private char primitiveType = PrimitiveAccumulators.UNRESOLVED;
+	// Sum of integer and long values
+	private long longSum;
+	// Sum of number values
+	private double doubleSum;
+	// Was a value accumulated in the primitive accumulator?
+	private boolean hasPrimitiveSum;
+
 	// Is input nullable?
 	private boolean nullableInput;
 
@@ -86,6 +95,10 @@ public class Sum extends AggregateFunction {
 	 */
 	@Override
 	public void storeResult(DataField outputField) {
+		if (hasPrimitiveSum) {
+			PrimitiveAccumulators.store(outputField, longSum, doubleSum, primitiveType);
+			return;
+		}
 		if (sum == null) {
 			outputField.setNull(true);
 			return;
@@ -103,6 +116,21 @@ public class Sum extends AggregateFunction {
 			return;
 		}
 
+		if (primitiveType == PrimitiveAccumulators.UNRESOLVED) {
+			primitiveType = PrimitiveAccumulators.getSumType(inputFieldMetadata, outputFieldMetadata);
+		}
+		switch (primitiveType) {
+		case DataFieldMetadata.INTEGER_FIELD:
+		case DataFieldMetadata.LONG_FIELD:
+			longSum = hasPrimitiveSum ? PrimitiveAccumulators.add(longSum, input.getLong(), primitiveType) : input.getLong();
+			hasPrimitiveSum = true;
+			return;
+		case DataFieldMetadata.NUMERIC_FIELD:
+			doubleSum = hasPrimitiveSum ? doubleSum + input.getDouble() : input.getDouble();
+			hasPrimitiveSum = true;
+			return;
+		}
+
 		if (sum == null) {
 			// Fix of CL-1509: Devise field type from output field metadata -> overflow could possibly be avoided
 			// Fix of CL-1508: Factory creates overflow checking Numerics
@@ -127,5 +155,6 @@ public class Sum extends AggregateFunction {
 	@Override
 	public void clear() {
 		sum = null;
+		hasPrimitiveSum = false;
 	}
 }
@@ -22,8 +22,8 @@ import java.nio.ByteBuffer;
 import java.util.Properties;
 
 import org.jetel.data.DataRecord;
-import org.jetel.data.HashKey;
 import org.jetel.data.RecordKey;
+import org.jetel.data.SerializedKeyHash;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.TransformException;
 import org.jetel.graph.Node;
@@ -36,13 +36,18 @@ import org.jetel.util.bytes.CloverBuffer;
  * specified key. The hash is then split to intervals. Number of
  * intervals is based specified number
  *  
+ * The hash is calculated from serialized key fields by {@link SerializedKeyHash},
+ * so serialized records can be partitioned without deserialization if metadata allow it.
+ * Note that the distribution of keys to the partitions differs from the former
+ * <code>Math.abs(hashKey.hashCode() % numPorts)</code>, so partitions written by older
+ * versions do not match the partitions written now.
  * 
  * @author david
  * @since  1.3.2005
  */
 public class HashPartition implements PartitionFunction{
     int numPorts;
-    HashKey hashKey;
+    SerializedKeyHash keyHash;
     
     public HashPartition() {
     }
@@ -55,7 +60,7 @@ public class HashPartition implements PartitionFunction{
 	@Override
 	public void init(int numPartitions, RecordKey partitionKey, Properties parameters, DataRecordMetadata metadata) {
         this.numPorts = numPartitions;
-        hashKey = new HashKey(partitionKey, null);
+        keyHash = new SerializedKeyHash(metadata, partitionKey.getKeyFields());
 	}
 
 	@Override
@@ -68,10 +73,7 @@ public class HashPartition implements PartitionFunction{
 
     @Override
 	public int getOutputPort(DataRecord record){
-        hashKey.setDataRecord(record);
-        //int hash=hashKey.hashCode(); 
-        //int value=(hash)&0x0FF;//// take only last 8 bits
-        return Math.abs(hashKey.hashCode() % numPorts);
+        return SerializedKeyHash.getBucket(keyHash.hash(record), numPorts);
     }
     
 	@Override
@@ -113,7 +115,7 @@ public class HashPartition implements PartitionFunction{
 
     @Override
 	public int getOutputPort(CloverBuffer directRecord) {
-		throw new UnsupportedOperationException();
+		return SerializedKeyHash.getBucket(keyHash.hash(directRecord), numPorts);
 	}
 
 	@Override
@@ -124,12 +126,12 @@ public class HashPartition implements PartitionFunction{
 
 	@Override
 	public int getOutputPortOnError(Exception exception, CloverBuffer directRecord) throws TransformException {
-		throw new UnsupportedOperationException();
+		throw new TransformException("Partitioning failed!", exception);
 	}
 
 	@Override
 	public boolean supportsDirectRecord() {
-		return false;
+		return keyHash.supportsSerializedRecord();
 	}
 
 	@Override
@@ -19,52 +19,46 @@
 package org.jetel.component.tree.writer.portdata;
 
 import java.io.IOException;
-import java.io.Serializable;
-import java.util.Comparator;
+import java.nio.BufferOverflowException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
-import jdbm.Serializer;
-import jdbm.SerializerInput;
-import jdbm.SerializerOutput;
-import jdbm.helper.Tuple;
-
 import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
 import org.jetel.data.Defaults;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.graph.InputPort;
+import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.util.bytes.CloverBuffer;
 
 /**
+ * Port data cached in a temporary file. Serialized records are appended to a {@link MappedRecordStore},
+ * for each key there is a {@link SortedKeyIndex} of record positions. Both are sealed and memory mapped
+ * once all the records are read, i.e. when the first iterator is requested.
+ * Records are iterated in the order they were read from the input port.
+ * 
  * @author lkrejci (info@cloveretl.com)
  *         (c) Javlin, a.s. (www.cloveretl.com)
  *
  * @created 12 Sep 2011
  */
-abstract class ExternalPortData extends PortData {
-	
-	private static final byte[] SERIALIZED_LONG_ZERO = toByteArray(0L);
-
-	protected static final int PAGE_SIZE = 64;
-	protected static final int SERIALIZED_COUNTER_LENGTH = 8;
+class ExternalPortData extends PortData {
 	
-	protected EntrySerializer serializer;
-	protected RecordKeyComparator recordKeyComparator;
+	private CloverBuffer recordBuffer;
+	private int writeBufferSize = Defaults.Record.RECORDS_BUFFER_SIZE;
 
-	protected String fileName;
+	private MappedRecordStore recordStore;
+	/** indexes of records by keys, the same order as {@link #primaryKey} */
+	private SortedKeyIndex[] indexes;
 
-	protected CloverBuffer recordBuffer;
-	protected long keyCounter = 0;
-
-	protected CacheRecordManager sharedCache;
-	
 	ExternalPortData(InputPort inPort, Set<List<String>> keys) {
 		super(inPort, keys);
 	}
 
 	@Override
-	public void setSharedCache(CacheRecordManager sharedCache) {
-		this.sharedCache = sharedCache;
+	public void setCacheSize(long cacheSize) {
+		this.writeBufferSize = (int) Math.max(Math.min(cacheSize, Integer.MAX_VALUE), Defaults.Record.RECORD_INITIAL_SIZE);
 	}
 
 	@Override
@@ -76,101 +70,214 @@ abstract class ExternalPortData extends PortData {
 	public void init() throws ComponentNotReadyException {
 		super.init();
 		recordBuffer = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
-		serializer = new EntrySerializer();
-		recordKeyComparator = new RecordKeyComparator();
 	}
 
-	protected byte[] getDatabaseKey(DataRecord record, int[] key, DataRecord parentRecord, int[] parentKey) {
+	@Override
+	public void preExecute() throws ComponentNotReadyException {
+		super.preExecute();
+		recordStore = new MappedRecordStore();
+		indexes = new SortedKeyIndex[primaryKey.length];
+		try {
+			recordStore.init(writeBufferSize);
+			for (int i = 0; i < indexes.length; i++) {
+				indexes[i] = new SortedKeyIndex();
+				indexes[i].init();
+			}
+		} catch (IOException e) {
+			throw new ComponentNotReadyException("Could not initialize record store.", e);
+		}
+	}
+
+	@Override
+	public void postExecute() throws ComponentNotReadyException {
+		super.postExecute();
+		try {
+			close();
+		} catch (IOException e) {
+			throw new ComponentNotReadyException("Could not delete record store.", e);
+		}
+	}
+
+	@Override
+	public void free() {
+		super.free();
+		try {
+			close();
+		} catch (IOException e) {
+			// ignore, temp files are deleted by the graph anyway
+		}
+	}
+
+	private void close() throws IOException {
+		if (indexes != null) {
+			for (SortedKeyIndex index : indexes) {
+				if (index != null) {
+					index.close();
+				}
+			}
+			indexes = null;
+		}
+		if (recordStore != null) {
+			recordStore.close();
+			recordStore = null;
+		}
+	}
+
+	@Override
+	public void put(DataRecord record) throws IOException {
+		try {
+			record.serializeUnitary(recordBuffer);
+		} catch (BufferOverflowException ex) {
+			throw new IOException("Internal buffer is not big enough to accomodate data record ! (See RECORD_LIMIT_SIZE parameter)");
+		}
+		recordBuffer.flip();
+		long position = recordStore.append(recordBuffer);
+		recordBuffer.clear();
+
+		for (int i = 0; i < primaryKey.length; i++) {
+			record.serializeUnitary(recordBuffer, primaryKey[i]);
+			recordBuffer.flip();
+			indexes[i].add(recordBuffer, position);
+			recordBuffer.clear();
+		}
+	}
+
+	@Override
+	public DataIterator iterator(int[] key, int[] parentKey, DataRecord keyData, DataRecord nextKeyData) throws IOException {
+		if (!recordStore.isSealed()) {
+			recordStore.seal();
+			for (SortedKeyIndex index : indexes) {
+				index.seal();
+			}
+		}
+		if (key == null) {
+			return new SimpleDataIterator();
+		} else {
+			return new KeyDataIterator(getIndex(key), key, parentKey, keyData);
+		}
+	}
+
+	private SortedKeyIndex getIndex(int[] key) {
+		for (int i = 0; i < primaryKey.length; i++) {
+			if (Arrays.equals(primaryKey[i], key)) {
+				return indexes[i];
+			}
+		}
+		if (indexes.length == 1) {
+			return indexes[0];
+		}
+		throw new IllegalArgumentException("Unknown key " + Arrays.toString(key));
+	}
+
+	private CloverBuffer getSearchKey(DataRecord record, int[] key, DataRecord parentRecord, int[] parentKey) {
 		for (int i = 0; i < parentKey.length; i++) {
 			record.getField(key[i]).setValue(parentRecord.getField(parentKey[i]));
 		}
 		
 		record.serializeUnitary(recordBuffer, key);
-		recordBuffer.put(SERIALIZED_LONG_ZERO);
-		int dataLength = recordBuffer.position();
 		recordBuffer.flip();
-		byte[] serializedKey = new byte[dataLength];
+		byte[] serializedKey = new byte[recordBuffer.remaining()];
 		recordBuffer.get(serializedKey);
 		recordBuffer.clear();
 
-		return serializedKey;
-	} 
-		
-	protected static boolean equalsKey(Tuple<byte[], byte[]> tuple, byte[] key) {
-		byte[] foundKey = tuple.getKey();
-		
-		if (key.length != foundKey.length) {
-			return false;
+		return CloverBuffer.wrap(serializedKey);
+	}
+
+	private class KeyDataIterator implements DataIterator {
+
+		private DataRecord current;
+		private DataRecord next;
+		private DataRecord temp;
+
+		private SortedKeyIndex index;
+		private CloverBuffer searchKey;
+		private int position;
+
+		public KeyDataIterator(SortedKeyIndex index, int[] key, int[] parentKey, DataRecord keyData) {
+			DataRecordMetadata metadata = inPort.getMetadata();
+
+			current = DataRecordFactory.newRecord(metadata);
+			next = DataRecordFactory.newRecord(metadata);
+
+			this.index = index;
+			searchKey = getSearchKey(current, key, keyData, parentKey);
+			position = index.find(searchKey);
+			readNext();
 		}
-		for (int i = 0; i < key.length - SERIALIZED_COUNTER_LENGTH; i++) {
-			if (foundKey[i] != key[i]) {
-				return false;
+
+		private void readNext() {
+			if (index.matches(position, searchKey)) {
+				recordStore.read(index.getRecordPosition(position++), next);
+			} else {
+				next = null;
 			}
 		}
-		return true;
-	}
-	
-	protected static byte[] toByteArray(long data) {
-		return new byte[] {
-	        (byte)((data >> 56) & 0xff),
-	        (byte)((data >> 48) & 0xff),
-	        (byte)((data >> 40) & 0xff),
-	        (byte)((data >> 32) & 0xff),
-	        (byte)((data >> 24) & 0xff),
-	        (byte)((data >> 16) & 0xff),
-	        (byte)((data >> 8) & 0xff),
-	        (byte)(data & 0xff),
-	    };
-	}
-	
-	protected static long fromByteArray(byte[] data, int pos) {
-		return (((long) (data[pos + 0] & 0xff) << 56) |
-				((long) (data[pos + 1] & 0xff) << 48) |
-				((long) (data[pos + 2] & 0xff) << 40) |
-				((long) (data[pos + 3] & 0xff) << 32) |
-				((long) (data[pos + 4] & 0xff) << 24) |
-				((long) (data[pos + 5] & 0xff) << 16) |
-				((long) (data[pos + 6] & 0xff) << 8) |
-				((long) (data[pos + 7] & 0xff)));
-	}
 
-	private static class EntrySerializer implements Serializer<byte[]> {
+		@Override
+		public DataRecord next() throws IOException {
+			temp = current;
+			current = next;
+			next = temp;
+
+			readNext();
+			return current;
+		}
 
 		@Override
-		public void serialize(SerializerOutput out, byte[] obj) throws IOException {
-			out.write(obj);
+		public boolean hasNext() {
+			return next != null;
 		}
 
 		@Override
-		public byte[] deserialize(SerializerInput in) throws IOException, ClassNotFoundException {
-			byte[] data = new byte[in.available()];
-			in.read(data);
-			return data;
+		public DataRecord peek() {
+			return next;
 		}
 	}
+	
+	private class SimpleDataIterator implements DataIterator {
 
-	private static class RecordKeyComparator implements Comparator<byte[]>, Serializable {
-		private static final long serialVersionUID = -8678623124738984233L;
+		private DataRecord current;
+		private DataRecord next;
+		private DataRecord temp;
 
-		@Override
-		public int compare(byte[] key1, byte[] key2) {
-			if (key1 == null) {
-				throw new IllegalArgumentException("Argument 'key1' is null");
-			}
-			if (key2 == null) {
-				throw new IllegalArgumentException("Argument 'key2' is null");
-			}
-			
-			if (key1.length != key2.length) {
-				return key1.length - key2.length;
-			}
-			for (int i = 0; i < key1.length - SERIALIZED_COUNTER_LENGTH; i++) {
-				if (key1[i] != key2[i]) {
-					return key1[i] - key2[i]; 
-				}
+		private long position;
+
+		public SimpleDataIterator() {
+			DataRecordMetadata metadata = inPort.getMetadata();
+
+			current = DataRecordFactory.newRecord(metadata);
+			next = DataRecordFactory.newRecord(metadata);
+
+			position = recordStore.first();
+			readNext();
+		}
+
+		private void readNext() {
+			if (position >= 0) {
+				position = recordStore.next(recordStore.read(position, next));
+			} else {
+				next = null;
 			}
-			long result = fromByteArray(key1, key1.length - 8) - fromByteArray(key2, key2.length - 8); 
-			return result > 0 ? 1 : result < 0 ? -1 : 0;
+		}
+
+		@Override
+		public DataRecord next() throws IOException {
+			temp = current;
+			current = next;
+			next = temp;
+
+			readNext();
+			return current;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public DataRecord peek() {
+			return next;
 		}
 	}
 }
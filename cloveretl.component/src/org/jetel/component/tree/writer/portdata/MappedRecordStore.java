@@ -0,0 +1,251 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component.tree.writer.portdata;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import org.jetel.data.DataRecord;
+import org.jetel.exception.TempFileCreationException;
+import org.jetel.graph.ContextProvider;
+import org.jetel.graph.runtime.IAuthorityProxy;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * Append-only store of serialized data backed by a temporary file. Data are appended through a direct
+ * write buffer, once the store is sealed the file is memory mapped read-only by segments and entries
+ * are read directly from the mapped pages without any copying or system calls.
+ *
+ * An entry never crosses a segment boundary - if it does not fit into the rest of the current segment,
+ * it is written at the start of the next one. Entries are addressed by their position in the file.
+ *
+ * Life cycle: init() append()* seal() (read() | next())* close()
+ *
+ * @created 17. 10. 2026
+ */
+class MappedRecordStore {
+
+	/** default size of a mapped segment */
+	static final int DEFAULT_SEGMENT_SIZE = 256 * 1024 * 1024;
+
+	private final static String TMP_FILE_PREFIX = "fbufmrs";
+	private final static String TMP_FILE_SUFFIX = ".tmp";
+	private final static String TMP_FILE_MODE = "rw";
+
+	private final int segmentSize;
+
+	private File tmpFile;
+	private FileChannel tmpFileChannel;
+
+	private CloverBuffer writeBuffer;
+	/** position in the file where content of the write buffer belongs */
+	private long writeBufferPosition;
+	/** position of the next appended entry */
+	private long writePosition;
+
+	/** length of data in each segment */
+	private int[] segmentLimits = new int[0];
+	private ByteBuffer[] segments;
+	private CloverBuffer[] segmentBuffers;
+
+	MappedRecordStore() {
+		this(DEFAULT_SEGMENT_SIZE);
+	}
+
+	MappedRecordStore(int segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	public void init(int writeBufferSize) throws IOException {
+		try {
+			tmpFile = IAuthorityProxy.getAuthorityProxy(ContextProvider.getGraph()).newTempFile(TMP_FILE_PREFIX, TMP_FILE_SUFFIX, -1);
+		} catch (TempFileCreationException e) {
+			throw new IOException("Could not create temp file.", e);
+		}
+		tmpFileChannel = new RandomAccessFile(tmpFile, TMP_FILE_MODE).getChannel();
+		writeBuffer = CloverBuffer.allocateDirect(Math.min(writeBufferSize, segmentSize));
+	}
+
+	/**
+	 * Appends remaining content of the given buffer to the store.
+	 *
+	 * @param data
+	 * @return position of the appended entry
+	 * @throws IOException
+	 */
+	public long append(CloverBuffer data) throws IOException {
+		if (segments != null) {
+			throw new IllegalStateException("Store is already sealed");
+		}
+		int length = data.remaining();
+		if (length > segmentSize) {
+			throw new IOException("Entry of " + length + " bytes does not fit into a segment of " + segmentSize + " bytes");
+		}
+		int offset = (int) (writePosition % segmentSize);
+		if (offset + length > segmentSize) {
+			// skip the rest of the segment
+			int segment = (int) (writePosition / segmentSize);
+			setSegmentLimit(segment, offset);
+			flushBuffer();
+			writePosition = (long) (segment + 1) * segmentSize;
+			writeBufferPosition = writePosition;
+		}
+		if (writeBuffer.remaining() < length) {
+			flushBuffer();
+		}
+		long position = writePosition;
+		if (writeBuffer.remaining() < length) {
+			// entry is bigger than the write buffer
+			writeFully(data.buf(), position);
+			writeBufferPosition += length;
+		} else {
+			writeBuffer.put(data);
+		}
+		writePosition += length;
+
+		return position;
+	}
+
+	private void setSegmentLimit(int segment, int limit) {
+		if (segment >= segmentLimits.length) {
+			int oldLength = segmentLimits.length;
+			segmentLimits = Arrays.copyOf(segmentLimits, Math.max(segment + 1, oldLength * 2));
+			Arrays.fill(segmentLimits, oldLength, segmentLimits.length, segmentSize);
+		}
+		segmentLimits[segment] = limit;
+	}
+
+	private void flushBuffer() throws IOException {
+		writeBuffer.flip();
+		int length = writeBuffer.remaining();
+		writeFully(writeBuffer.buf(), writeBufferPosition);
+		writeBufferPosition += length;
+		writeBuffer.clear();
+	}
+
+	private void writeFully(ByteBuffer data, long position) throws IOException {
+		while (data.hasRemaining()) {
+			position += tmpFileChannel.write(data, position);
+		}
+	}
+
+	/**
+	 * Flushes the written data and maps the file into memory. No data can be appended afterwards.
+	 *
+	 * @throws IOException
+	 */
+	public void seal() throws IOException {
+		if (segments != null) {
+			return;
+		}
+		flushBuffer();
+		writeBuffer = null;
+
+		int segmentCount = (int) ((writePosition + segmentSize - 1) / segmentSize);
+		if (segmentCount > 0) {
+			setSegmentLimit(segmentCount - 1, (int) (writePosition - (long) (segmentCount - 1) * segmentSize));
+		}
+		segments = new ByteBuffer[segmentCount];
+		segmentBuffers = new CloverBuffer[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = tmpFileChannel.map(FileChannel.MapMode.READ_ONLY, (long) i * segmentSize, segmentLimits[i]);
+			segmentBuffers[i] = CloverBuffer.wrap(segments[i].duplicate());
+		}
+	}
+
+	public boolean isSealed() {
+		return segments != null;
+	}
+
+	/**
+	 * @return position of the first entry, can be passed to {@link #next(long)}
+	 */
+	public long first() {
+		return next(0);
+	}
+
+	/**
+	 * Skips the unused end of a segment.
+	 *
+	 * @param position position just after an entry
+	 * @return position of the following entry or -1 if there is no more entries
+	 */
+	public long next(long position) {
+		int segment = (int) (position / segmentSize);
+		if (segment < segments.length && position - (long) segment * segmentSize >= segmentLimits[segment]) {
+			position = (long) (segment + 1) * segmentSize;
+		}
+		return position < writePosition ? position : -1;
+	}
+
+	/**
+	 * Deserializes a record stored at the given position.
+	 *
+	 * @param position
+	 * @param record
+	 * @return position just after the record
+	 */
+	public long read(long position, DataRecord record) {
+		int segment = (int) (position / segmentSize);
+		int offset = (int) (position - (long) segment * segmentSize);
+		CloverBuffer buffer = segmentBuffers[segment];
+		buffer.position(offset);
+		record.deserializeUnitary(buffer);
+
+		return position + buffer.position() - offset;
+	}
+
+	/**
+	 * @param position
+	 * @return mapped segment containing the given position, use {@link #offset(long)} to access the position
+	 */
+	ByteBuffer segment(long position) {
+		return segments[(int) (position / segmentSize)];
+	}
+
+	/**
+	 * @param position
+	 * @return offset of the given position in its segment
+	 */
+	int offset(long position) {
+		return (int) (position % segmentSize);
+	}
+
+	public long size() {
+		return writePosition;
+	}
+
+	public void close() throws IOException {
+		segments = null;
+		segmentBuffers = null;
+		writeBuffer = null;
+		if (tmpFileChannel != null) {
+			tmpFileChannel.close();
+			tmpFileChannel = null;
+		}
+		if (tmpFile != null) {
+			tmpFile.delete();
+			tmpFile = null;
+		}
+	}
+}
@@ -65,11 +65,7 @@ public abstract class PortData {
 					return new InternalComplexPortData(inPort, keys);
 				}
 			} else {
-				if (keys.size() > 1) {
-					return new ExternalComplexPortData(inPort, keys);
-				} else {
-					return new ExternalSimplePortData(inPort, keys);
-				}
+				return new ExternalPortData(inPort, keys);
 			}
 		} else {
 			if (hasNullKeyOnly(keys)) {
@@ -136,7 +132,11 @@ public abstract class PortData {
 	public void free() {
 	}
 	
-	public void setSharedCache(CacheRecordManager sharedCache) {
+	/**
+	 * Sets size of the memory used to buffer records cached outside of the heap.
+	 * @param cacheSize size of the buffer of this port, the cache size of the component is split among its ports
+	 */
+	public void setCacheSize(long cacheSize) {
 		//ignore
 	}
 	
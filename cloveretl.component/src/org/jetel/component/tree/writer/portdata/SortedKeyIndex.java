@@ -0,0 +1,227 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component.tree.writer.portdata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.jetel.data.Defaults;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * Index of records by a serialized key. Index entries <code>[int key length][key][long record position]</code>
+ * are appended to a {@link MappedRecordStore}, positions of the entries are kept in a primitive array which is
+ * sorted by the key once the index is sealed. Entries with equal keys keep the order they were added in.
+ * If the entries are added in key order, no sorting is necessary - i.e. sorted input is bulk-loaded.
+ *
+ * Life cycle: init() add()* seal() (find() matches() getRecordPosition())* close()
+ *
+ * @created 17. 10. 2026
+ */
+class SortedKeyIndex {
+
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int INSERTION_SORT_THRESHOLD = 7;
+
+	private final MappedRecordStore entryStore;
+	private CloverBuffer entryBuffer;
+
+	/** positions of entries in the entry store */
+	private long[] entries = new long[INITIAL_CAPACITY];
+	private int size;
+
+	/** key of the last added entry, used to detect unsorted input */
+	private CloverBuffer lastKey;
+	private boolean sorted = true;
+
+	SortedKeyIndex() {
+		this(new MappedRecordStore());
+	}
+
+	SortedKeyIndex(MappedRecordStore entryStore) {
+		this.entryStore = entryStore;
+	}
+
+	public void init() throws IOException {
+		entryStore.init(Defaults.Record.RECORDS_BUFFER_SIZE);
+		entryBuffer = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+		lastKey = CloverBuffer.allocate(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+	}
+
+	/**
+	 * Adds record position under the given key.
+	 *
+	 * @param key serialized key, bytes between position and limit are used
+	 * @param recordPosition
+	 * @throws IOException
+	 */
+	public void add(CloverBuffer key, long recordPosition) throws IOException {
+		if (sorted && size > 0) {
+			lastKey.flip();
+			sorted = compare(lastKey.buf(), 0, lastKey.limit(), key.buf(), key.position(), key.remaining()) <= 0;
+		}
+		if (sorted) {
+			lastKey.clear();
+			lastKey.put(key.buf().duplicate());
+		}
+
+		entryBuffer.clear();
+		entryBuffer.putInt(key.remaining());
+		entryBuffer.put(key.buf().duplicate());
+		entryBuffer.putLong(recordPosition);
+		entryBuffer.flip();
+
+		if (size == entries.length) {
+			entries = Arrays.copyOf(entries, size * 2);
+		}
+		entries[size++] = entryStore.append(entryBuffer);
+	}
+
+	/**
+	 * Maps the entries and sorts them by the key unless they were added in key order.
+	 *
+	 * @throws IOException
+	 */
+	public void seal() throws IOException {
+		if (entryStore.isSealed()) {
+			return;
+		}
+		entryStore.seal();
+		entryBuffer = null;
+		lastKey = null;
+		if (!sorted) {
+			long[] src = Arrays.copyOf(entries, size);
+			mergeSort(src, entries, 0, size);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param key serialized key, bytes between position and limit are used
+	 * @return index of the first entry with a key which is not smaller than the given key
+	 */
+	public int find(CloverBuffer key) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compareEntry(entries[mid], key) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param index
+	 * @param key
+	 * @return <code>true</code> if an entry with the given index exists and has the given key
+	 */
+	public boolean matches(int index, CloverBuffer key) {
+		return index < size && compareEntry(entries[index], key) == 0;
+	}
+
+	/**
+	 * @param index
+	 * @return position of the record indexed by the entry with the given index
+	 */
+	public long getRecordPosition(int index) {
+		long entry = entries[index];
+		ByteBuffer segment = entryStore.segment(entry);
+		int offset = entryStore.offset(entry);
+		return segment.getLong(offset + 4 + segment.getInt(offset));
+	}
+
+	public void close() throws IOException {
+		entries = new long[INITIAL_CAPACITY];
+		size = 0;
+		sorted = true;
+		entryStore.close();
+	}
+
+	private int compareEntry(long entry, CloverBuffer key) {
+		ByteBuffer segment = entryStore.segment(entry);
+		int offset = entryStore.offset(entry);
+		return compare(segment, offset + 4, segment.getInt(offset), key.buf(), key.position(), key.remaining());
+	}
+
+	private int compareEntries(long entry1, long entry2) {
+		ByteBuffer segment1 = entryStore.segment(entry1);
+		int offset1 = entryStore.offset(entry1);
+		ByteBuffer segment2 = entryStore.segment(entry2);
+		int offset2 = entryStore.offset(entry2);
+		return compare(segment1, offset1 + 4, segment1.getInt(offset1), segment2, offset2 + 4, segment2.getInt(offset2));
+	}
+
+	/**
+	 * Compares bytes as unsigned values, shorter sequence is smaller if it is a prefix of the longer one.
+	 */
+	private static int compare(ByteBuffer buffer1, int offset1, int length1, ByteBuffer buffer2, int offset2, int length2) {
+		int length = Math.min(length1, length2);
+		for (int i = 0; i < length; i++) {
+			int b1 = buffer1.get(offset1 + i) & 0xff;
+			int b2 = buffer2.get(offset2 + i) & 0xff;
+			if (b1 != b2) {
+				return b1 - b2;
+			}
+		}
+		return length1 - length2;
+	}
+
+	/**
+	 * Stable merge sort of entries, <code>src</code> and <code>dest</code> contain the same entries at the beginning.
+	 */
+	private void mergeSort(long[] src, long[] dest, int low, int high) {
+		int length = high - low;
+		if (length < INSERTION_SORT_THRESHOLD) {
+			for (int i = low + 1; i < high; i++) {
+				for (int j = i; j > low && compareEntries(dest[j - 1], dest[j]) > 0; j--) {
+					long temp = dest[j];
+					dest[j] = dest[j - 1];
+					dest[j - 1] = temp;
+				}
+			}
+			return;
+		}
+
+		int mid = (low + high) >>> 1;
+		mergeSort(dest, src, low, mid);
+		mergeSort(dest, src, mid, high);
+
+		if (compareEntries(src[mid - 1], src[mid]) <= 0) {
+			// halves are already in order
+			System.arraycopy(src, low, dest, low, length);
+			return;
+		}
+
+		for (int i = low, p = low, q = mid; i < high; i++) {
+			if (q >= high || (p < mid && compareEntries(src[p], src[q]) <= 0)) {
+				dest[i] = src[p++];
+			} else {
+				dest[i] = src[q++];
+			}
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.enums.EdgeTypeEnum;
+import org.jetel.graph.Edge;
+import org.jetel.graph.Phase;
+import org.jetel.graph.Result;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * Compares results of unsorted aggregation in memory with results of aggregation
+ * which spills groups exceeding the memory limit to temporary files.
+ *
+ * @created 17. 10. 2026
+ */
+public class AggregateTest extends CloverTestCase {
+
+	private static final String MAPPING = "$key:=$key;$recordCount:=count();$total:=sum($value);"
+			+ "$minimum:=min($value);$maximum:=max($value);$average:=avg($value);";
+
+	private static final int KEYS = 200;
+	private static final int RECORDS_PER_KEY = 5;
+
+	private DataRecordMetadata inMetadata;
+	private DataRecordMetadata outMetadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		inMetadata = new DataRecordMetadata("in", DataRecordMetadata.DELIMITED_RECORD);
+		inMetadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		inMetadata.addField(new DataFieldMetadata("value", DataFieldType.LONG, "\n"));
+
+		outMetadata = new DataRecordMetadata("out", DataRecordMetadata.DELIMITED_RECORD);
+		outMetadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		outMetadata.addField(new DataFieldMetadata("recordCount", DataFieldType.LONG, ";"));
+		outMetadata.addField(new DataFieldMetadata("total", DataFieldType.LONG, ";"));
+		outMetadata.addField(new DataFieldMetadata("minimum", DataFieldType.LONG, ";"));
+		outMetadata.addField(new DataFieldMetadata("maximum", DataFieldType.LONG, ";"));
+		outMetadata.addField(new DataFieldMetadata("average", DataFieldType.NUMBER, "\n"));
+	}
+
+	public void testSpill() throws Exception {
+		List<String> expected = runAggregate(0);
+		assertEquals(KEYS, expected.size());
+
+		// each group is aggregated just once, either in memory or in a spill pass
+		assertEquals(expected, runAggregate(5000));
+		// only one group fits the limit, so the spilled records are split recursively
+		assertEquals(expected, runAggregate(1));
+	}
+
+	/**
+	 * @param memoryLimit memory limit of the aggregation groups, 0 means unlimited
+	 * @return sorted results of aggregation
+	 */
+	private List<String> runAggregate(long memoryLimit) throws Exception {
+		TransformationGraph graph = new TransformationGraph("TestAggregateGraph");
+		Phase phase = new Phase(0);
+		graph.addPhase(phase);
+
+		Properties componentProperties = new Properties();
+		componentProperties.setProperty("id", "TestAggregate");
+		componentProperties.setProperty("aggregateKey", "key");
+		componentProperties.setProperty("mapping", MAPPING);
+		componentProperties.setProperty("sorted", "false");
+		componentProperties.setProperty("memoryLimit", String.valueOf(memoryLimit));
+		Aggregate aggregate = (Aggregate) ComponentFactory.createComponent(graph, Aggregate.COMPONENT_TYPE, componentProperties);
+		phase.addNode(aggregate);
+
+		componentProperties.clear();
+		componentProperties.setProperty("id", "TestTrash");
+		Trash trash = (Trash) ComponentFactory.createComponent(graph, Trash.COMPONENT_TYPE, componentProperties);
+		phase.addNode(trash);
+
+		Edge inEdge = new Edge("InEdge", inMetadata);
+		inEdge.setEdgeType(EdgeTypeEnum.BUFFERED);
+		aggregate.addInputPort(0, inEdge);
+		Edge outEdge = new Edge("OutEdge", outMetadata);
+		outEdge.setEdgeType(EdgeTypeEnum.BUFFERED);
+		aggregate.addOutputPort(0, outEdge);
+		trash.addInputPort(0, outEdge);
+		graph.addEdge(outEdge);
+
+		inEdge.init();
+		graph.init();
+		graph.preExecute();
+
+		aggregate.preExecute();
+		trash.preExecute();
+		inEdge.preExecute();
+		outEdge.preExecute();
+
+		DataRecord record = DataRecordFactory.newRecord(inMetadata);
+		for (int i = 0; i < RECORDS_PER_KEY; i++) {
+			for (int key = 0; key < KEYS; key++) {
+				record.getField(0).setValue(key);
+				record.getField(1).setValue((long) key * i - 1000);
+				inEdge.writeRecord(record);
+			}
+		}
+		inEdge.eof();
+
+		assertEquals("Aggregate execution failed!", Result.FINISHED_OK, aggregate.execute());
+
+		List<String> result = new ArrayList<String>();
+		record = DataRecordFactory.newRecord(outMetadata);
+		while (outEdge.readRecord(record) != null) {
+			result.add(record.toString());
+		}
+		aggregate.postExecute();
+		aggregate.free();
+		// spilled groups are aggregated by partitions, so the order of output records differs
+		Collections.sort(result);
+		return result;
+	}
+
+}
@@ -0,0 +1,412 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jetel.connection.jdbc.DBConnectionImpl;
+import org.jetel.connection.jdbc.specific.conn.BasicSqlConnection;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.database.sql.JdbcSpecific.OperationType;
+import org.jetel.database.sql.SqlConnection;
+import org.jetel.enums.EdgeTypeEnum;
+import org.jetel.exception.ComponentNotReadyException;
+import org.jetel.exception.JetelException;
+import org.jetel.graph.Edge;
+import org.jetel.graph.Phase;
+import org.jetel.graph.Result;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.graph.runtime.SimpleThreadManager;
+import org.jetel.graph.runtime.WatchDog;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * Tests of DBOutputTable writing batches by parallel connections. The database is replaced
+ * by {@link DBConnectionMock}, which keeps inserted rows in memory.
+ *
+ * @created 17. 10. 2026
+ */
+public class DBOutputTableTest extends CloverTestCase {
+
+	private static final String COMPONENT_ID = "TestDBOutputTable";
+	private static final String CONNECTION_ID = "TestConnection";
+
+	private static final int RECORDS = 1000;
+	private static final int BATCH_SIZE = 10;
+	private static final int RECORDS_IN_COMMIT = 100;
+	private static final int PARALLEL_CONNECTIONS = 3;
+
+	private DataRecordMetadata metadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		metadata = new DataRecordMetadata("record", DataRecordMetadata.DELIMITED_RECORD);
+		metadata.addField(new DataFieldMetadata("id", DataFieldType.INTEGER, "\n"));
+	}
+
+	public void testParallelWriting() throws Exception {
+		DBConnectionMock dbConnection = new DBConnectionMock(CONNECTION_ID, true);
+		assertEquals(Result.FINISHED_OK, runOutput(dbConnection, createOutput(0), false));
+
+		// each writer has its own connection
+		List<String> connectionIds = new ArrayList<String>();
+		connectionIds.add(COMPONENT_ID);
+		for (int i = 0; i < PARALLEL_CONNECTIONS; i++) {
+			connectionIds.add(COMPONENT_ID + "_parallel" + i);
+		}
+		assertEquals(connectionIds, dbConnection.getConnectionIds());
+		assertEquals(getRows(RECORDS), dbConnection.getCommittedRows());
+	}
+
+	public void testFallback() throws Exception {
+		List<String> connectionIds = Arrays.asList(COMPONENT_ID);
+
+		// connections cannot be used by several threads
+		DBConnectionMock dbConnection = new DBConnectionMock(CONNECTION_ID, false);
+		assertEquals(Result.FINISHED_OK, runOutput(dbConnection, createOutput(0), false));
+		assertEquals(connectionIds, dbConnection.getConnectionIds());
+		assertEquals(getRows(RECORDS), dbConnection.getCommittedRows());
+
+		// rejected records are written in the order of input records
+		dbConnection = new DBConnectionMock(CONNECTION_ID, true);
+		assertEquals(Result.FINISHED_OK, runOutput(dbConnection, createOutput(0), true));
+		assertEquals(connectionIds, dbConnection.getConnectionIds());
+		assertEquals(getRows(RECORDS), dbConnection.getCommittedRows());
+
+		// records are not written in batches
+		dbConnection = new DBConnectionMock(CONNECTION_ID, true);
+		DBOutputTable output = createOutput(0);
+		output.setUseBatch(false);
+		assertEquals(Result.FINISHED_OK, runOutput(dbConnection, output, false));
+		assertEquals(connectionIds, dbConnection.getConnectionIds());
+		assertEquals(getRows(RECORDS), dbConnection.getCommittedRows());
+	}
+
+	public void testMaxErrors() throws Exception {
+		// the first record of each of the first batches fails, the batches are executed by different writers
+		DBConnectionMock dbConnection = new DBConnectionMock(CONNECTION_ID, true);
+		for (int i = 0; i < PARALLEL_CONNECTIONS; i++) {
+			dbConnection.addFailingBatch(i * BATCH_SIZE);
+		}
+		assertEquals(Result.FINISHED_OK, runOutput(dbConnection, createOutput(PARALLEL_CONNECTIONS), false));
+		List<Integer> rows = getRows(RECORDS);
+		for (int i = 0; i < PARALLEL_CONNECTIONS; i++) {
+			rows.remove(Integer.valueOf(i * BATCH_SIZE));
+		}
+		assertEquals(rows, dbConnection.getCommittedRows());
+
+		// errors of all writers are counted together, so the limit is exceeded even if each writer fails just once
+		dbConnection = new DBConnectionMock(CONNECTION_ID, true);
+		for (int i = 0; i < PARALLEL_CONNECTIONS; i++) {
+			dbConnection.addFailingBatch(i * BATCH_SIZE);
+		}
+		try {
+			runOutput(dbConnection, createOutput(PARALLEL_CONNECTIONS - 1), false);
+			fail("Exceeded number of errors has not been reported.");
+		} catch (JetelException e) {
+			assertNotNull(e.getCause());
+			assertTrue(e.getCause().getMessage(), e.getCause().getMessage().startsWith("Maximum # of errors exceeded"));
+		}
+	}
+
+	private DBOutputTable createOutput(int maxErrors) {
+		DBOutputTable output = new DBOutputTable(COMPONENT_ID, CONNECTION_ID, "test_table");
+		output.setUseBatch(true);
+		output.setBatchSize(BATCH_SIZE);
+		output.setRecordsInCommit(RECORDS_IN_COMMIT);
+		output.setParallelConnections(PARALLEL_CONNECTIONS);
+		output.setMaxErrors(maxErrors);
+		return output;
+	}
+
+	/**
+	 * @param rejectedPort whether the port for rejected records is connected
+	 * @return result of execution of the component
+	 */
+	private Result runOutput(DBConnectionMock dbConnection, DBOutputTable output, boolean rejectedPort) throws Exception {
+		TransformationGraph graph = new TransformationGraph("TestDBOutputTableGraph");
+		Phase phase = new Phase(0);
+		graph.addPhase(phase);
+		WatchDog watchDog = new WatchDog(graph, graph.getRuntimeContext());
+		watchDog.setThreadManager(new SimpleThreadManager());
+		graph.addConnection(dbConnection);
+		phase.addNode(output);
+
+		Edge inEdge = new Edge("InEdge", metadata);
+		inEdge.setEdgeType(EdgeTypeEnum.BUFFERED);
+		output.addInputPort(0, inEdge);
+
+		Trash trash = null;
+		Edge rejectedEdge = null;
+		if (rejectedPort) {
+			Properties componentProperties = new Properties();
+			componentProperties.setProperty("id", "TestTrash");
+			trash = (Trash) ComponentFactory.createComponent(graph, Trash.COMPONENT_TYPE, componentProperties);
+			phase.addNode(trash);
+
+			rejectedEdge = new Edge("RejectedEdge", metadata);
+			rejectedEdge.setEdgeType(EdgeTypeEnum.BUFFERED);
+			output.addOutputPort(0, rejectedEdge);
+			trash.addInputPort(0, rejectedEdge);
+			graph.addEdge(rejectedEdge);
+		}
+
+		inEdge.init();
+		graph.init();
+		graph.preExecute();
+
+		output.preExecute();
+		inEdge.preExecute();
+		if (rejectedPort) {
+			trash.preExecute();
+			rejectedEdge.preExecute();
+		}
+
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		for (int i = 0; i < RECORDS; i++) {
+			record.getField(0).setValue(i);
+			inEdge.writeRecord(record);
+		}
+		inEdge.eof();
+
+		return output.execute();
+	}
+
+	private static List<Integer> getRows(int count) {
+		List<Integer> rows = new ArrayList<Integer>(count);
+		for (int i = 0; i < count; i++) {
+			rows.add(i);
+		}
+		return rows;
+	}
+
+	/**
+	 * DB connection without JDBC driver. Connections insert value of the first parameter of statements
+	 * into a single in-memory table, which is visible after commit.
+	 */
+	private static class DBConnectionMock extends DBConnectionImpl {
+
+		private final List<String> connectionIds = Collections.synchronizedList(new ArrayList<String>());
+		private final List<Integer> committedRows = new ArrayList<Integer>();
+		private final Set<Object> failingRows = new HashSet<Object>();
+		/** batches with failing rows wait for each other, so each of them is executed by another connection */
+		private CountDownLatch failingBatches;
+
+		public DBConnectionMock(String id, boolean threadSafeConnections) {
+			super(id, new Properties());
+			setThreadSafeConnections(threadSafeConnections);
+		}
+
+		/**
+		 * @param row value of the row, which fails in its batch
+		 */
+		public void addFailingBatch(int row) {
+			failingRows.add(row);
+			failingBatches = new CountDownLatch(failingRows.size());
+		}
+
+		public List<String> getConnectionIds() {
+			return connectionIds;
+		}
+
+		/**
+		 * @return sorted committed rows
+		 */
+		public List<Integer> getCommittedRows() {
+			synchronized (committedRows) {
+				List<Integer> result = new ArrayList<Integer>(committedRows);
+				Collections.sort(result);
+				return result;
+			}
+		}
+
+		@Override
+		public synchronized void init() throws ComponentNotReadyException {
+			// no JDBC driver is loaded, connections are created by connect()
+		}
+
+		@Override
+		public synchronized SqlConnection getConnection(String elementId, OperationType operationType) throws JetelException {
+			connectionIds.add(elementId);
+			return super.getConnection(elementId, operationType);
+		}
+
+		@Override
+		protected SqlConnection connect(OperationType operationType) throws JetelException {
+			return new BasicSqlConnection(this, newProxy(Connection.class, new ConnectionHandler()), operationType);
+		}
+
+		private static <T> T newProxy(Class<T> type, InvocationHandler handler) {
+			return type.cast(Proxy.newProxyInstance(DBConnectionMock.class.getClassLoader(), new Class<?>[] { type }, handler));
+		}
+
+		/**
+		 * Implements methods used by the component, other methods return default values.
+		 */
+		private static abstract class MockHandler implements InvocationHandler {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return getClass().getSimpleName();
+				default:
+					return handle(method, args);
+				}
+			}
+
+			protected Object handle(Method method, Object[] args) throws Exception {
+				Class<?> type = method.getReturnType();
+				if (type == boolean.class) {
+					return false;
+				} else if (type == int.class) {
+					return 0;
+				} else if (type == long.class) {
+					return 0L;
+				}
+				return null;
+			}
+		}
+
+		private class ConnectionHandler extends MockHandler {
+
+			private final List<Integer> uncommittedRows = new ArrayList<Integer>();
+
+			@Override
+			protected Object handle(Method method, Object[] args) throws Exception {
+				switch (method.getName()) {
+				case "prepareStatement":
+					return newProxy(PreparedStatement.class, new StatementHandler(uncommittedRows));
+				case "getMetaData":
+					return newProxy(DatabaseMetaData.class, new MockHandler() {
+						@Override
+						protected Object handle(Method method, Object[] args) throws Exception {
+							return method.getName().equals("supportsBatchUpdates") ? true : super.handle(method, args);
+						}
+					});
+				case "getTransactionIsolation":
+					return Connection.TRANSACTION_READ_COMMITTED;
+				case "isValid":
+					return true;
+				case "commit":
+					synchronized (committedRows) {
+						committedRows.addAll(uncommittedRows);
+					}
+					uncommittedRows.clear();
+					return null;
+				case "rollback":
+					uncommittedRows.clear();
+					return null;
+				default:
+					return super.handle(method, args);
+				}
+			}
+		}
+
+		private class StatementHandler extends MockHandler {
+
+			private final List<Integer> uncommittedRows;
+			private final List<Integer> batch = new ArrayList<Integer>();
+			private Integer value;
+
+			public StatementHandler(List<Integer> uncommittedRows) {
+				this.uncommittedRows = uncommittedRows;
+			}
+
+			@Override
+			protected Object handle(Method method, Object[] args) throws Exception {
+				switch (method.getName()) {
+				case "setInt":
+					value = (Integer) args[1];
+					return null;
+				case "setNull":
+					value = null;
+					return null;
+				case "executeUpdate":
+					if (failingRows.contains(value)) {
+						throw new SQLException("Row " + value + " failed.");
+					}
+					uncommittedRows.add(value);
+					return 1;
+				case "addBatch":
+					batch.add(value);
+					return null;
+				case "clearBatch":
+					batch.clear();
+					return null;
+				case "executeBatch":
+					return executeBatch();
+				default:
+					return super.handle(method, args);
+				}
+			}
+
+			private int[] executeBatch() throws SQLException, InterruptedException {
+				int[] updateCounts = new int[batch.size()];
+				boolean failed = false;
+				for (int i = 0; i < updateCounts.length; i++) {
+					if (failingRows.contains(batch.get(i))) {
+						updateCounts[i] = Statement.EXECUTE_FAILED;
+						failed = true;
+					} else {
+						updateCounts[i] = 1;
+						uncommittedRows.add(batch.get(i));
+					}
+				}
+				if (failed) {
+					failingBatches.countDown();
+					if (!failingBatches.await(10, TimeUnit.SECONDS)) {
+						throw new SQLException("Failing batches have not been executed in parallel.");
+					}
+					throw new BatchUpdateException(updateCounts);
+				}
+				return updateCounts;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.jetel.component.HashJoin.Join;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.NullRecord;
+import org.jetel.enums.EdgeTypeEnum;
+import org.jetel.exception.TransformException;
+import org.jetel.graph.Edge;
+import org.jetel.graph.Phase;
+import org.jetel.graph.Result;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.graph.runtime.SimpleThreadManager;
+import org.jetel.graph.runtime.WatchDog;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * Compares records joined in memory with records joined after the slave records
+ * have been spilled to temporary files.
+ *
+ * @created 17. 10. 2026
+ */
+public class HashJoinTest extends CloverTestCase {
+
+	private static final int DRIVER_RECORDS = 3000;
+	private static final int DRIVER_KEYS = 1000;
+	/** slave keys overlap driver keys only partially, so there are orphaned drivers and slaves */
+	private static final int FIRST_SLAVE_KEY = 500;
+	private static final int SLAVE_KEYS = 1000;
+	private static final int SLAVE_DUPLICATES = 3;
+
+	private DataRecordMetadata driverMetadata;
+	private DataRecordMetadata slaveMetadata;
+	private DataRecordMetadata outMetadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		driverMetadata = new DataRecordMetadata("driver", DataRecordMetadata.DELIMITED_RECORD);
+		driverMetadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		driverMetadata.addField(new DataFieldMetadata("value", DataFieldType.STRING, "\n"));
+
+		slaveMetadata = new DataRecordMetadata("slave", DataRecordMetadata.DELIMITED_RECORD);
+		slaveMetadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		slaveMetadata.addField(new DataFieldMetadata("value", DataFieldType.STRING, "\n"));
+
+		outMetadata = new DataRecordMetadata("out", DataRecordMetadata.DELIMITED_RECORD);
+		outMetadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		outMetadata.addField(new DataFieldMetadata("driverValue", DataFieldType.STRING, ";"));
+		outMetadata.addField(new DataFieldMetadata("slaveValue", DataFieldType.STRING, "\n"));
+	}
+
+	public void testSpill() throws Exception {
+		for (Join join : Join.values()) {
+			for (boolean slaveDuplicates : new boolean[] { true, false }) {
+				String message = join + ", slaveDuplicates=" + slaveDuplicates;
+				List<String> expected = runHashJoin(join, slaveDuplicates, 0);
+				assertFalse(message, expected.isEmpty());
+
+				// the limit is exceeded in the middle of the slave data
+				assertEquals(message, expected, runHashJoin(join, slaveDuplicates, 20000));
+				// no partition fits into the limit, so the partitions are split recursively up to the maximal level
+				assertEquals(message, expected, runHashJoin(join, slaveDuplicates, 1));
+			}
+		}
+	}
+
+	public void testJoinTypes() throws Exception {
+		int matchedDrivers = 0;
+		for (int i = 0; i < DRIVER_RECORDS; i++) {
+			if (i % DRIVER_KEYS >= FIRST_SLAVE_KEY) {
+				matchedDrivers++;
+			}
+		}
+		int orphanedSlaveKeys = FIRST_SLAVE_KEY + SLAVE_KEYS - DRIVER_KEYS;
+
+		assertEquals(matchedDrivers * SLAVE_DUPLICATES, runHashJoin(Join.INNER, true, 1).size());
+		assertEquals(matchedDrivers, runHashJoin(Join.INNER, false, 1).size());
+		assertEquals(DRIVER_RECORDS + matchedDrivers * (SLAVE_DUPLICATES - 1), runHashJoin(Join.LEFT_OUTER, true, 1).size());
+		assertEquals(DRIVER_RECORDS + matchedDrivers * (SLAVE_DUPLICATES - 1) + orphanedSlaveKeys * SLAVE_DUPLICATES,
+				runHashJoin(Join.FULL_OUTER, true, 1).size());
+	}
+
+	/**
+	 * @param slaveMemoryLimit maximal size of slave records kept in memory, 0 means unlimited
+	 * @return sorted joined records
+	 */
+	private List<String> runHashJoin(Join join, boolean slaveDuplicates, long slaveMemoryLimit) throws Exception {
+		TransformationGraph graph = new TransformationGraph("TestHashJoinGraph");
+		Phase phase = new Phase(0);
+		graph.addPhase(phase);
+		WatchDog watchDog = new WatchDog(graph, graph.getRuntimeContext());
+		watchDog.setThreadManager(new SimpleThreadManager());
+
+		HashJoin hashJoin = new HashJoin("TestHashJoin", new String[][] { { "key" } }, new String[][] { { "key" } },
+				new JoinTransform(), join, false);
+		hashJoin.setSlaveDuplicates(slaveDuplicates);
+		hashJoin.setSlaveMemoryLimit(slaveMemoryLimit);
+		phase.addNode(hashJoin);
+
+		Properties componentProperties = new Properties();
+		componentProperties.setProperty("id", "TestTrash");
+		Trash trash = (Trash) ComponentFactory.createComponent(graph, Trash.COMPONENT_TYPE, componentProperties);
+		phase.addNode(trash);
+
+		Edge driverEdge = new Edge("DriverEdge", driverMetadata);
+		driverEdge.setEdgeType(EdgeTypeEnum.BUFFERED);
+		hashJoin.addInputPort(0, driverEdge);
+		Edge slaveEdge = new Edge("SlaveEdge", slaveMetadata);
+		slaveEdge.setEdgeType(EdgeTypeEnum.BUFFERED);
+		hashJoin.addInputPort(1, slaveEdge);
+		Edge outEdge = new Edge("OutEdge", outMetadata);
+		outEdge.setEdgeType(EdgeTypeEnum.BUFFERED);
+		hashJoin.addOutputPort(0, outEdge);
+		trash.addInputPort(0, outEdge);
+		graph.addEdge(outEdge);
+
+		driverEdge.init();
+		slaveEdge.init();
+		graph.init();
+		graph.preExecute();
+
+		hashJoin.preExecute();
+		trash.preExecute();
+		driverEdge.preExecute();
+		slaveEdge.preExecute();
+		outEdge.preExecute();
+
+		DataRecord record = DataRecordFactory.newRecord(driverMetadata);
+		for (int i = 0; i < DRIVER_RECORDS; i++) {
+			record.getField(0).setValue(i % DRIVER_KEYS);
+			record.getField(1).setValue("driver_" + i);
+			driverEdge.writeRecord(record);
+		}
+		driverEdge.eof();
+		record = DataRecordFactory.newRecord(slaveMetadata);
+		for (int i = 0; i < SLAVE_KEYS; i++) {
+			for (int j = 0; j < SLAVE_DUPLICATES; j++) {
+				record.getField(0).setValue(FIRST_SLAVE_KEY + i);
+				record.getField(1).setValue("slave_" + i + "_" + j);
+				slaveEdge.writeRecord(record);
+			}
+		}
+		slaveEdge.eof();
+
+		assertEquals("HashJoin execution failed!", Result.FINISHED_OK, hashJoin.execute());
+
+		List<String> result = new ArrayList<String>();
+		record = DataRecordFactory.newRecord(outMetadata);
+		while (outEdge.readRecord(record) != null) {
+			result.add(record.getField(0) + ";" + record.getField(1) + ";" + record.getField(2));
+		}
+		hashJoin.postExecute();
+		hashJoin.free();
+		// spilled records are joined by partitions, so the order of output records differs
+		Collections.sort(result);
+		return result;
+	}
+
+	private static class JoinTransform extends DataRecordTransform {
+
+		@Override
+		public int transform(DataRecord[] inputRecords, DataRecord[] outputRecords) throws TransformException {
+			if (inputRecords[0] != NullRecord.NULL_RECORD) {
+				outputRecords[0].getField(0).setValue(inputRecords[0].getField(0).getValue());
+				outputRecords[0].getField(1).setValue(inputRecords[0].getField(1).getValue());
+			} else {
+				outputRecords[0].getField(0).setValue(inputRecords[1].getField(0).getValue());
+			}
+			if (inputRecords[1] != NullRecord.NULL_RECORD) {
+				outputRecords[0].getField(2).setValue(inputRecords[1].getField(1).getValue());
+			}
+			return ALL;
+		}
+
+	}
+
+}
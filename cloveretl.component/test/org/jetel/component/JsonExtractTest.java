@@ -0,0 +1,178 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.Defaults;
+import org.jetel.enums.EdgeTypeEnum;
+import org.jetel.graph.Edge;
+import org.jetel.graph.OutputPort;
+import org.jetel.graph.Phase;
+import org.jetel.graph.Result;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.metadata.DataFieldContainerType;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * Compares records extracted by the direct JSON mapping with records extracted from SAX events.
+ *
+ * @created 17. 10. 2026
+ */
+public class JsonExtractTest extends CloverTestCase {
+
+	private static final String JSON = "{\"people\": [{\"firstName\": \"John\", \"lastName\": \"Smith\", \"age\": 25, \"note\": null,"
+			+ " \"address\": {\"streetAddress\": \"21 2nd Street\", \"city\": \"New York\", \"postalCode\": 10021},"
+			+ " \"phoneNumbers\": [{\"type\": \"home\", \"number\": \"212 555-1234\"}, {\"type\": \"fax\", \"number\": \"646 555-4567\"}],"
+			+ " \"tags\": [\"a\", \"b\", [\"c\", \"d\"]], \"last name\": \"x\"},"
+			+ " {\"firstName\": \"Jane\", \"lastName\": \"Doe\", \"age\": 31, \"address\": {\"city\": \"Boston\"}, \"phoneNumbers\": [], \"tags\": []}]}";
+
+	private static final String MAPPING = "<Mappings>"
+			+ "<Mapping element=\"people\" outPort=\"0\" xmlFields=\"{}age;{}lastName\" cloverFields=\"age;surname\">"
+			+ "<Mapping element=\"address\" useParentRecord=\"true\" xmlFields=\"{}streetAddress\" cloverFields=\"street\"/>"
+			+ "<Mapping element=\"phoneNumbers\" outPort=\"1\" parentKey=\"firstName;surname\" generatedKey=\"firstName;surname\"/>"
+			+ "</Mapping>"
+			+ "</Mappings>";
+
+	private DataRecordMetadata personMetadata;
+	private DataRecordMetadata phoneMetadata;
+	private File jsonFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		personMetadata = new DataRecordMetadata("person", DataRecordMetadata.DELIMITED_RECORD);
+		personMetadata.addField(new DataFieldMetadata("firstName", DataFieldType.STRING, ";"));
+		personMetadata.addField(new DataFieldMetadata("surname", DataFieldType.STRING, ";"));
+		personMetadata.addField(new DataFieldMetadata("age", DataFieldType.INTEGER, ";"));
+		personMetadata.addField(new DataFieldMetadata("note", DataFieldType.STRING, ";"));
+		personMetadata.addField(new DataFieldMetadata("street", DataFieldType.STRING, ";"));
+		personMetadata.addField(new DataFieldMetadata("city", DataFieldType.STRING, ";"));
+		personMetadata.addField(new DataFieldMetadata("postalCode", DataFieldType.LONG, ";"));
+		personMetadata.addField(new DataFieldMetadata("address", DataFieldType.STRING, ";"));
+		DataFieldMetadata tags = new DataFieldMetadata("tags", DataFieldType.STRING, ";");
+		tags.setContainerType(DataFieldContainerType.LIST);
+		personMetadata.addField(tags);
+		personMetadata.addField(new DataFieldMetadata("last_name", DataFieldType.STRING, "\n"));
+
+		phoneMetadata = new DataRecordMetadata("phone", DataRecordMetadata.DELIMITED_RECORD);
+		phoneMetadata.addField(new DataFieldMetadata("type", DataFieldType.STRING, ";"));
+		phoneMetadata.addField(new DataFieldMetadata("number", DataFieldType.STRING, ";"));
+		phoneMetadata.addField(new DataFieldMetadata("firstName", DataFieldType.STRING, ";"));
+		phoneMetadata.addField(new DataFieldMetadata("surname", DataFieldType.STRING, "\n"));
+
+		jsonFile = File.createTempFile("JsonExtractTest", ".json");
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(jsonFile), "UTF-8")) {
+			writer.write(JSON);
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Defaults.DataParser.JSON_DIRECT_MAPPING = true;
+		if (jsonFile != null) {
+			jsonFile.delete();
+		}
+		super.tearDown();
+	}
+
+	public void testDirectMapping() throws Exception {
+		Defaults.DataParser.JSON_DIRECT_MAPPING = false;
+		List<List<String>> expected = runJsonExtract(true);
+		Defaults.DataParser.JSON_DIRECT_MAPPING = true;
+		List<List<String>> actual = runJsonExtract(true);
+
+		assertEquals(2, expected.get(0).size());
+		assertEquals(2, expected.get(1).size());
+		assertEquals(expected, actual);
+
+		Defaults.DataParser.JSON_DIRECT_MAPPING = false;
+		expected = runJsonExtract(false);
+		Defaults.DataParser.JSON_DIRECT_MAPPING = true;
+		actual = runJsonExtract(false);
+		assertEquals(expected, actual);
+	}
+
+	private List<List<String>> runJsonExtract(boolean useNestedNodes) throws Exception {
+		TransformationGraph graph = new TransformationGraph("TestJsonExtractGraph");
+		Phase phase = new Phase(0);
+		graph.addPhase(phase);
+
+		Properties componentProperties = new Properties();
+		componentProperties.setProperty("id", "TestJsonExtract");
+
+		JsonExtract jsonExtract = (JsonExtract) ComponentFactory.createComponent(graph, JsonExtract.COMPONENT_TYPE, componentProperties);
+		jsonExtract.setInputFile(jsonFile.getAbsolutePath());
+		jsonExtract.setMapping(MAPPING);
+		jsonExtract.setUseNestedNodes(useNestedNodes);
+		phase.addNode(jsonExtract);
+
+		componentProperties.clear();
+		componentProperties.setProperty("id", "TestTrash");
+
+		Trash trash = (Trash) ComponentFactory.createComponent(graph, Trash.COMPONENT_TYPE, componentProperties);
+		phase.addNode(trash);
+
+		DataRecordMetadata[] edgesMetadata = { personMetadata, phoneMetadata };
+		for (int i = 0; i < edgesMetadata.length; i++) {
+			Edge edge = new Edge("Edge" + i, edgesMetadata[i]);
+			edge.setEdgeType(EdgeTypeEnum.BUFFERED);
+			jsonExtract.addOutputPort(i, edge);
+			trash.addInputPort(i, edge);
+			graph.addEdge(edge);
+		}
+
+		graph.init();
+		graph.preExecute();
+
+		jsonExtract.preExecute();
+		trash.preExecute();
+		for (OutputPort outputPort : jsonExtract.getOutputPorts().values()) {
+			outputPort.getEdge().preExecute();
+		}
+
+		assertEquals("JsonExtract execution failed!", Result.FINISHED_OK, jsonExtract.execute());
+
+		List<List<String>> result = new ArrayList<List<String>>();
+		for (OutputPort outputPort : jsonExtract.getOutputPorts().values()) {
+			Edge edge = (Edge) outputPort;
+			List<String> records = new ArrayList<String>();
+			DataRecord record = DataRecordFactory.newRecord(edge.getMetadata());
+			while (edge.readRecord(record) != null) {
+				records.add(record.toString());
+			}
+			result.add(records);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.jetel.component.rollup.DataRecordRollup;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.enums.EdgeTypeEnum;
+import org.jetel.exception.TransformException;
+import org.jetel.graph.Edge;
+import org.jetel.graph.Phase;
+import org.jetel.graph.Result;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * Compares results of rollup of unsorted input in memory with results of rollup
+ * which spills groups exceeding the memory limit to temporary files.
+ *
+ * @created 17. 10. 2026
+ */
+public class RollupTest extends CloverTestCase {
+
+	private static final int KEYS = 200;
+	private static final int RECORDS_PER_KEY = 5;
+
+	private DataRecordMetadata inMetadata;
+	private DataRecordMetadata accumulatorMetadata;
+	private DataRecordMetadata outMetadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		inMetadata = new DataRecordMetadata("in", DataRecordMetadata.DELIMITED_RECORD);
+		inMetadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		inMetadata.addField(new DataFieldMetadata("value", DataFieldType.LONG, "\n"));
+
+		accumulatorMetadata = new DataRecordMetadata("accumulator", DataRecordMetadata.DELIMITED_RECORD);
+		accumulatorMetadata.addField(new DataFieldMetadata("recordCount", DataFieldType.LONG, ";"));
+		accumulatorMetadata.addField(new DataFieldMetadata("total", DataFieldType.LONG, "\n"));
+
+		outMetadata = new DataRecordMetadata("out", DataRecordMetadata.DELIMITED_RECORD);
+		outMetadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		outMetadata.addField(new DataFieldMetadata("recordCount", DataFieldType.LONG, ";"));
+		outMetadata.addField(new DataFieldMetadata("total", DataFieldType.LONG, "\n"));
+	}
+
+	public void testSpill() throws Exception {
+		List<String> expected = runRollup(0);
+		assertEquals(KEYS, expected.size());
+
+		// each group is rolled up just once, either in memory or in a spill pass
+		assertEquals(expected, runRollup(5000));
+		// only one group fits the limit, so the spilled records are split recursively
+		assertEquals(expected, runRollup(1));
+	}
+
+	/**
+	 * @param memoryLimit memory limit of the groups, 0 means unlimited
+	 * @return sorted results of rollup
+	 */
+	private List<String> runRollup(long memoryLimit) throws Exception {
+		TransformationGraph graph = new TransformationGraph("TestRollupGraph");
+		Phase phase = new Phase(0);
+		graph.addPhase(phase);
+		graph.addDataRecordMetadata(accumulatorMetadata);
+
+		Rollup rollup = new Rollup("TestRollup", new SumRollup());
+		rollup.setGroupKeyFields(new String[] { "key" });
+		rollup.setGroupAccumulatorMetadataId(accumulatorMetadata.getName());
+		rollup.setInputSorted(false);
+		rollup.setMemoryLimit(memoryLimit);
+		phase.addNode(rollup);
+
+		Properties componentProperties = new Properties();
+		componentProperties.setProperty("id", "TestTrash");
+		Trash trash = (Trash) ComponentFactory.createComponent(graph, Trash.COMPONENT_TYPE, componentProperties);
+		phase.addNode(trash);
+
+		Edge inEdge = new Edge("InEdge", inMetadata);
+		inEdge.setEdgeType(EdgeTypeEnum.BUFFERED);
+		rollup.addInputPort(0, inEdge);
+		Edge outEdge = new Edge("OutEdge", outMetadata);
+		outEdge.setEdgeType(EdgeTypeEnum.BUFFERED);
+		rollup.addOutputPort(0, outEdge);
+		trash.addInputPort(0, outEdge);
+		graph.addEdge(outEdge);
+
+		inEdge.init();
+		graph.init();
+		graph.preExecute();
+
+		rollup.preExecute();
+		trash.preExecute();
+		inEdge.preExecute();
+		outEdge.preExecute();
+
+		DataRecord record = DataRecordFactory.newRecord(inMetadata);
+		for (int i = 0; i < RECORDS_PER_KEY; i++) {
+			for (int key = 0; key < KEYS; key++) {
+				record.getField(0).setValue(key);
+				record.getField(1).setValue((long) key * i);
+				inEdge.writeRecord(record);
+			}
+		}
+		inEdge.eof();
+
+		assertEquals("Rollup execution failed!", Result.FINISHED_OK, rollup.execute());
+
+		List<String> result = new ArrayList<String>();
+		record = DataRecordFactory.newRecord(outMetadata);
+		while (outEdge.readRecord(record) != null) {
+			result.add(record.toString());
+		}
+		rollup.free();
+		// spilled groups are rolled up by partitions, so the order of output records differs
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Counts and sums values of each group.
+	 */
+	private static class SumRollup extends DataRecordRollup {
+
+		@Override
+		public void initGroup(DataRecord inputRecord, DataRecord groupAccumulator) throws TransformException {
+			groupAccumulator.getField(0).setValue(0L);
+			groupAccumulator.getField(1).setValue(0L);
+		}
+
+		@Override
+		public boolean updateGroup(DataRecord inputRecord, DataRecord groupAccumulator) throws TransformException {
+			groupAccumulator.getField(0).setValue((Long) groupAccumulator.getField(0).getValue() + 1);
+			groupAccumulator.getField(1).setValue((Long) groupAccumulator.getField(1).getValue()
+					+ (Long) inputRecord.getField(1).getValue());
+			return false;
+		}
+
+		@Override
+		public boolean finishGroup(DataRecord inputRecord, DataRecord groupAccumulator) throws TransformException {
+			return true;
+		}
+
+		@Override
+		public int updateTransform(int counter, DataRecord inputRecord, DataRecord groupAccumulator,
+				DataRecord[] outputRecords) throws TransformException {
+			return SKIP;
+		}
+
+		@Override
+		public int transform(int counter, DataRecord inputRecord, DataRecord groupAccumulator, DataRecord[] outputRecords)
+				throws TransformException {
+			if (counter > 0) {
+				return SKIP;
+			}
+			outputRecords[0].getField(0).setValue(inputRecord.getField(0).getValue());
+			outputRecords[0].getField(1).setValue(groupAccumulator.getField(0).getValue());
+			outputRecords[0].getField(2).setValue(groupAccumulator.getField(1).getValue());
+			return ALL;
+		}
+
+	}
+
+}
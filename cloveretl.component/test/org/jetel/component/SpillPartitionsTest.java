@@ -0,0 +1,162 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.tape.DataRecordTape;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class SpillPartitionsTest extends CloverTestCase {
+
+	private static final int KEYS = 1000;
+	private static final int RECORDS_PER_KEY = 3;
+
+	private DataRecordMetadata metadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		metadata = new DataRecordMetadata("record", DataRecordMetadata.DELIMITED_RECORD);
+		metadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		metadata.addField(new DataFieldMetadata("value", DataFieldType.STRING, "\n"));
+	}
+
+	public void testPartitions() throws Exception {
+		SpillPartitions partitions = createPartitions();
+		try {
+			List<Set<Integer>> keys = readKeys(partitions);
+
+			// records with equal keys fall to the same partition and all partitions are used
+			Set<Integer> allKeys = new HashSet<Integer>();
+			for (Set<Integer> partitionKeys : keys) {
+				assertFalse(partitionKeys.isEmpty());
+				for (Integer key : partitionKeys) {
+					assertTrue("Key " + key + " is in several partitions", allKeys.add(key));
+				}
+			}
+			assertEquals(KEYS, allKeys.size());
+
+			// partitions can be read repeatedly
+			assertEquals(keys, readKeys(partitions));
+		} finally {
+			partitions.free();
+		}
+	}
+
+	public void testSplit() throws Exception {
+		SpillPartitions partitions = createPartitions();
+		try {
+			Map<Integer, Integer> records = readRecordCounts(partitions, 0);
+
+			SpillPartitions subPartitions = partitions.split(0);
+			try {
+				assertEquals(1, subPartitions.getLevel());
+				// next level uses another hash, so the records are distributed to more partitions again
+				int usedPartitions = 0;
+				Map<Integer, Integer> subRecords = new HashMap<Integer, Integer>();
+				for (int partition = 0; partition < SpillPartitions.PARTITIONS; partition++) {
+					Map<Integer, Integer> partitionRecords = readRecordCounts(subPartitions, partition);
+					if (!partitionRecords.isEmpty()) {
+						usedPartitions++;
+					}
+					for (Map.Entry<Integer, Integer> entry : partitionRecords.entrySet()) {
+						assertNull("Key " + entry.getKey() + " is in several partitions", subRecords.put(entry.getKey(), entry.getValue()));
+					}
+				}
+				assertTrue(usedPartitions > 1);
+				assertEquals(records, subRecords);
+			} finally {
+				subPartitions.free();
+			}
+		} finally {
+			partitions.free();
+		}
+	}
+
+	public void testFree() throws Exception {
+		SpillPartitions partitions = createPartitions();
+		assertTrue(partitions.getSize(0) > 0);
+		partitions.free(0);
+		assertEquals(0, partitions.getSize(0));
+		assertNull(partitions.rewind(0));
+		assertNotNull(partitions.rewind(1));
+		partitions.free();
+		for (int partition = 0; partition < SpillPartitions.PARTITIONS; partition++) {
+			assertNull(partitions.rewind(partition));
+		}
+	}
+
+	private SpillPartitions createPartitions() throws Exception {
+		SpillPartitions partitions = new SpillPartitions(metadata, new int[] { 0 }, 0);
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		for (int i = 0; i < RECORDS_PER_KEY; i++) {
+			for (int key = 0; key < KEYS; key++) {
+				record.getField(0).setValue(key);
+				record.getField(1).setValue("value_" + i);
+				partitions.put(record);
+			}
+		}
+		return partitions;
+	}
+
+	private List<Set<Integer>> readKeys(SpillPartitions partitions) throws Exception {
+		List<Set<Integer>> result = new ArrayList<Set<Integer>>();
+		for (int partition = 0; partition < SpillPartitions.PARTITIONS; partition++) {
+			result.add(readRecordCounts(partitions, partition).keySet());
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of records of each key stored in the partition
+	 */
+	private Map<Integer, Integer> readRecordCounts(SpillPartitions partitions, int partition) throws Exception {
+		Map<Integer, Integer> result = new HashMap<Integer, Integer>();
+		DataRecordTape tape = partitions.rewind(partition);
+		if (tape != null) {
+			DataRecord record = DataRecordFactory.newRecord(metadata);
+			while (tape.get(record)) {
+				Integer key = (Integer) record.getField(0).getValue();
+				Integer count = result.get(key);
+				result.put(key, count == null ? 1 : count + 1);
+			}
+		}
+		for (Integer count : result.values()) {
+			assertEquals(RECORDS_PER_KEY, count.intValue());
+		}
+		return result;
+	}
+
+}
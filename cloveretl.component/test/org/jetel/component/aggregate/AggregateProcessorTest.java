@@ -0,0 +1,151 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component.aggregate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.RecordKey;
+import org.jetel.graph.runtime.MemoryManager;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * Tests of the memory limit of unsorted aggregation.
+ *
+ * @created 17. 10. 2026
+ */
+public class AggregateProcessorTest extends CloverTestCase {
+
+	private static final String MAPPING = "$key:=$key;$recordCount:=count();$total:=sum($value);";
+
+	private DataRecordMetadata inMetadata;
+	private DataRecordMetadata outMetadata;
+	private AggregateProcessor processor;
+	private DataRecord record;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		inMetadata = new DataRecordMetadata("in", DataRecordMetadata.DELIMITED_RECORD);
+		inMetadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		inMetadata.addField(new DataFieldMetadata("value", DataFieldType.LONG, "\n"));
+
+		outMetadata = new DataRecordMetadata("out", DataRecordMetadata.DELIMITED_RECORD);
+		outMetadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		outMetadata.addField(new DataFieldMetadata("recordCount", DataFieldType.LONG, ";"));
+		outMetadata.addField(new DataFieldMetadata("total", DataFieldType.LONG, "\n"));
+
+		RecordKey recordKey = new RecordKey(new String[] { "key" }, inMetadata);
+		processor = new AggregateProcessor(MAPPING, false, recordKey, false, inMetadata, outMetadata, null);
+		record = DataRecordFactory.newRecord(inMetadata);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		processor.free();
+		super.tearDown();
+	}
+
+	public void testMemoryLimit() throws Exception {
+		// the limit is exceeded by the first group, which is always accepted
+		processor.setMemoryLimit(1);
+
+		assertTrue(addRecord(1, 10));
+		assertFalse(addRecord(2, 20));
+		// records of existing groups are still aggregated
+		assertTrue(addRecord(1, 5));
+		assertFalse(addRecord(3, 30));
+
+		Map<Integer, String> results = getResults();
+		assertEquals(1, results.size());
+		assertEquals("2;15", results.get(1));
+
+		// groups of the next pass are accepted after reset
+		processor.reset();
+		assertTrue(addRecord(2, 20));
+		assertTrue(addRecord(2, 1));
+		assertFalse(addRecord(3, 30));
+		results = getResults();
+		assertEquals(1, results.size());
+		assertEquals("2;21", results.get(2));
+	}
+
+	public void testMemoryManager() throws Exception {
+		MemoryManager memoryManager = new MemoryManager("graph", 0, null);
+		processor.setMemoryManager(memoryManager);
+
+		assertTrue(addRecord(1, 10));
+		assertTrue(addRecord(2, 20));
+		assertTrue(memoryManager.getReservedMemory() > 0);
+
+		// the spill request is noticed by the next new group, which is kept
+		memoryManager.spill();
+		assertTrue(addRecord(3, 30));
+		assertFalse(addRecord(4, 40));
+		assertTrue(addRecord(1, 1));
+		Map<Integer, String> results = getResults();
+		assertEquals(3, results.size());
+		assertEquals("2;11", results.get(1));
+
+		processor.reset();
+		assertEquals(0, memoryManager.getReservedMemory());
+		assertTrue(addRecord(4, 40));
+
+		processor.free();
+		assertEquals(0, memoryManager.getReservedMemory());
+	}
+
+	public void testRefusedReservation() throws Exception {
+		// the manager refuses the first reservation, the group is kept anyway
+		processor.setMemoryManager(new MemoryManager("graph", 1, null));
+
+		assertTrue(addRecord(1, 10));
+		assertFalse(addRecord(2, 20));
+		assertTrue(addRecord(1, 10));
+		assertEquals("2;20", getResults().get(1));
+	}
+
+	private boolean addRecord(int key, long value) throws Exception {
+		record.getField(0).setValue(key);
+		record.getField(1).setValue(value);
+		return processor.addRecord(record);
+	}
+
+	/**
+	 * @return "recordCount;total" of each group
+	 */
+	private Map<Integer, String> getResults() {
+		Map<Integer, String> results = new LinkedHashMap<Integer, String>();
+		DataRecord outRecord = DataRecordFactory.newRecord(outMetadata);
+		for (Iterator<DataRecord> iterator = processor.getUnsortedAggregationOutput(outRecord); iterator.hasNext(); ) {
+			DataRecord result = iterator.next();
+			results.put((Integer) result.getField(0).getValue(), result.getField(1) + ";" + result.getField(2));
+		}
+		return results;
+	}
+
+}
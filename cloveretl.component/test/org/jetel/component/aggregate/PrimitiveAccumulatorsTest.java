@@ -0,0 +1,158 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component.aggregate;
+
+import org.jetel.data.DataField;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * Tests of sum, avg, min and max functions accumulating values in primitive variables.
+ *
+ * @created 17. 10. 2026
+ */
+public class PrimitiveAccumulatorsTest extends CloverTestCase {
+
+	private static final int INTEGER = 0;
+	private static final int LONG = 1;
+	private static final int NUMBER = 2;
+
+	private DataRecordMetadata metadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		metadata = new DataRecordMetadata("record", DataRecordMetadata.DELIMITED_RECORD);
+		metadata.addField(new DataFieldMetadata("integerField", DataFieldType.INTEGER, ";"));
+		metadata.addField(new DataFieldMetadata("longField", DataFieldType.LONG, ";"));
+		metadata.addField(new DataFieldMetadata("numberField", DataFieldType.NUMBER, "\n"));
+	}
+
+	public void testSum() throws Exception {
+		assertEquals(6, aggregate(new Sum(), INTEGER, INTEGER, 1, 2, null, 3).getValue());
+		assertEquals(6L, aggregate(new Sum(), INTEGER, LONG, 1, 2, null, 3).getValue());
+		assertEquals(-4L, aggregate(new Sum(), LONG, LONG, 1L, -5L).getValue());
+		assertEquals(3.0, aggregate(new Sum(), LONG, NUMBER, 1L, null, 2L).getValue());
+		assertEquals(0.75, aggregate(new Sum(), NUMBER, NUMBER, 0.5, 0.25).getValue());
+	}
+
+	public void testSumOverflow() throws Exception {
+		try {
+			aggregate(new Sum(), INTEGER, INTEGER, Integer.MAX_VALUE, 1);
+			fail("Integer overflow has not been detected.");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		// the sum is computed in the type of the output field
+		assertEquals((long) Integer.MAX_VALUE + 1, aggregate(new Sum(), INTEGER, LONG, Integer.MAX_VALUE, 1).getValue());
+		try {
+			aggregate(new Sum(), LONG, LONG, Long.MAX_VALUE, 1L);
+			fail("Long overflow has not been detected.");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		try {
+			// the minimal value is reserved for null
+			aggregate(new Sum(), LONG, LONG, -Long.MAX_VALUE, -1L);
+			fail("Long overflow has not been detected.");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
+	public void testAdd() {
+		assertEquals(Integer.MAX_VALUE, PrimitiveAccumulators.add(Integer.MAX_VALUE - 1, 1, DataFieldMetadata.INTEGER_FIELD));
+		assertEquals(Integer.MIN_VALUE + 1, PrimitiveAccumulators.add(Integer.MIN_VALUE + 2, -1, DataFieldMetadata.INTEGER_FIELD));
+		try {
+			PrimitiveAccumulators.add(Integer.MIN_VALUE + 1, -1, DataFieldMetadata.INTEGER_FIELD);
+			fail("Integer overflow has not been detected.");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		assertEquals(Long.MIN_VALUE + 1, PrimitiveAccumulators.add(Long.MIN_VALUE + 2, -1, DataFieldMetadata.LONG_FIELD));
+	}
+
+	public void testAvg() throws Exception {
+		assertEquals(1.5, aggregate(new Avg(), INTEGER, NUMBER, 1, null, 2).getValue());
+		assertEquals(2.0, aggregate(new Avg(), LONG, NUMBER, 1L, 2L, 3L).getValue());
+		assertEquals(0.25, aggregate(new Avg(), NUMBER, NUMBER, 0.5, 0.0).getValue());
+	}
+
+	public void testMinMax() throws Exception {
+		assertEquals(-3, aggregate(new Min(), INTEGER, INTEGER, 1, null, -3, 2).getValue());
+		assertEquals(2, aggregate(new Max(), INTEGER, INTEGER, 1, null, -3, 2).getValue());
+		assertEquals(Long.MIN_VALUE + 1, aggregate(new Min(), LONG, LONG, Long.MIN_VALUE + 1, 0L).getValue());
+		assertEquals(Long.MAX_VALUE, aggregate(new Max(), LONG, LONG, Long.MAX_VALUE, 0L).getValue());
+		assertEquals(-0.5, aggregate(new Min(), NUMBER, NUMBER, 0.5, -0.5).getValue());
+		assertEquals(0.5, aggregate(new Max(), NUMBER, NUMBER, 0.5, -0.5).getValue());
+	}
+
+	public void testNulls() throws Exception {
+		assertTrue(aggregate(new Sum(), INTEGER, INTEGER, (Object) null).isNull());
+		assertTrue(aggregate(new Avg(), LONG, NUMBER, null, null).isNull());
+		assertTrue(aggregate(new Min(), NUMBER, NUMBER).isNull());
+		assertTrue(aggregate(new Max(), LONG, LONG, (Object) null).isNull());
+	}
+
+	public void testClear() throws Exception {
+		// functions are reused for next aggregation groups
+		AggregateFunction[] functions = { new Sum(), new Avg(), new Min(), new Max() };
+		for (AggregateFunction function : functions) {
+			assertEquals(function.getName(), 5.0, aggregate(function, INTEGER, NUMBER, 5).getValue());
+			function.clear();
+			assertTrue(function.getName(), result(function, NUMBER).isNull());
+			update(function, INTEGER, 7);
+			assertEquals(function.getName(), 7.0, result(function, NUMBER).getValue());
+		}
+	}
+
+	/**
+	 * Aggregates the given values of the input field and returns the result stored into the output field.
+	 */
+	private DataField aggregate(AggregateFunction function, int inputField, int outputField, Object... values) throws Exception {
+		function.setInputFieldIndex(inputField);
+		function.setInputFieldMetadata(metadata.getField(inputField));
+		function.setOutputFieldIndex(outputField);
+		function.setOutputFieldMetadata(metadata.getField(outputField));
+		function.init();
+		update(function, inputField, values);
+		return result(function, outputField);
+	}
+
+	private void update(AggregateFunction function, int inputField, Object... values) throws Exception {
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		for (Object value : values) {
+			record.getField(inputField).setValue(value);
+			function.update(record);
+		}
+	}
+
+	private DataField result(AggregateFunction function, int outputField) {
+		DataField result = DataRecordFactory.newRecord(metadata).getField(outputField);
+		function.storeResult(result);
+		return result;
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *  
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.component.tree.writer.portdata;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.Defaults;
+import org.jetel.data.DynamicRecordBuffer1Test;
+import org.jetel.test.CloverTestCase;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class MappedRecordStoreTest extends CloverTestCase {
+
+	private static final int NUM_RECORDS = 100;
+	private static final int SEGMENT_SIZE = 8 * 1024;
+
+	public void testRecords() throws IOException {
+		MappedRecordStore store = new MappedRecordStore(SEGMENT_SIZE);
+		store.init(1024);
+
+		CloverBuffer cloverBuffer = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+		DataRecord record = DataRecordFactory.newRecord(DynamicRecordBuffer1Test.getMetadata());
+
+		List<Long> positions = new ArrayList<Long>();
+		for (int i = 0; i < NUM_RECORDS; i++) {
+			DynamicRecordBuffer1Test.populateDataRecord(record, i, i % 3 == 0);
+			record.serializeUnitary(cloverBuffer);
+			cloverBuffer.flip();
+			positions.add(store.append(cloverBuffer));
+			cloverBuffer.clear();
+		}
+		store.seal();
+		assertTrue(store.size() > SEGMENT_SIZE);
+
+		// random access
+		for (int i = NUM_RECORDS - 1; i >= 0; i--) {
+			store.read(positions.get(i), record);
+			DynamicRecordBuffer1Test.checkDataRecord(record, i, i % 3 == 0);
+		}
+
+		// sequential access
+		int count = 0;
+		for (long position = store.first(); position >= 0; position = store.next(store.read(position, record))) {
+			assertEquals(positions.get(count).longValue(), position);
+			DynamicRecordBuffer1Test.checkDataRecord(record, count, count % 3 == 0);
+			count++;
+		}
+		assertEquals(NUM_RECORDS, count);
+
+		store.close();
+	}
+
+	public void testEmpty() throws IOException {
+		MappedRecordStore store = new MappedRecordStore(SEGMENT_SIZE);
+		store.init(1024);
+		store.seal();
+		assertEquals(-1, store.first());
+		store.close();
+	}
+
+	public void testUnsortedIndex() throws IOException {
+		SortedKeyIndex index = new SortedKeyIndex(new MappedRecordStore(SEGMENT_SIZE));
+		index.init();
+		for (int i = 0; i < NUM_RECORDS; i++) {
+			index.add(key(i % 7), i);
+		}
+		index.seal();
+		assertEquals(NUM_RECORDS, index.size());
+
+		for (int k = 0; k < 7; k++) {
+			CloverBuffer key = key(k);
+			int i = index.find(key);
+			// records with the same key are in insertion order
+			for (int expected = k; expected < NUM_RECORDS; expected += 7) {
+				assertTrue(index.matches(i, key));
+				assertEquals(expected, index.getRecordPosition(i++));
+			}
+			assertFalse(index.matches(i, key));
+		}
+		CloverBuffer missing = key(100);
+		assertFalse(index.matches(index.find(missing), missing));
+
+		index.close();
+	}
+
+	public void testSortedIndex() throws IOException {
+		SortedKeyIndex index = new SortedKeyIndex(new MappedRecordStore(SEGMENT_SIZE));
+		index.init();
+		for (int i = 0; i < NUM_RECORDS; i++) {
+			index.add(key(i / 10), i);
+		}
+		index.seal();
+
+		CloverBuffer key = key(5);
+		int i = index.find(key);
+		for (int expected = 50; expected < 60; expected++) {
+			assertTrue(index.matches(i, key));
+			assertEquals(expected, index.getRecordPosition(i++));
+		}
+		assertFalse(index.matches(i, key));
+
+		index.close();
+	}
+
+	private static CloverBuffer key(int value) {
+		return CloverBuffer.wrap(("key" + value).getBytes());
+	}
+
+}
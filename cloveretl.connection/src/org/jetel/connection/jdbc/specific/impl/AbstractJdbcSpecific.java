@@ -653,4 +653,63 @@ abstract public class AbstractJdbcSpecific implements JdbcSpecific {
 	public boolean supportsTerminatingSemicolons() {
 		return true;
 	}
+
+	@Override
+	public String getKeysCondition(String[] columns, int keyCount) {
+		StringBuilder condition = new StringBuilder();
+		if (columns.length == 1) {
+			condition.append(columns[0]).append(" IN (");
+			for (int i = 0; i < keyCount; i++) {
+				condition.append(i > 0 ? ", ?" : "?");
+			}
+			return condition.append(')').toString();
+		}
+		for (int i = 0; i < keyCount; i++) {
+			condition.append(i > 0 ? " OR (" : "(");
+			for (int j = 0; j < columns.length; j++) {
+				if (j > 0) {
+					condition.append(" AND ");
+				}
+				condition.append(columns[j]).append(" = ?");
+			}
+			condition.append(')');
+		}
+		return condition.toString();
+	}
+
+	/**
+	 * Creates row value condition <code>(col1, col2) IN ((?, ?), (?, ?), ...)</code>, which can be used
+	 * by databases supporting row value constructors.
+	 */
+	protected String getRowValueKeysCondition(String[] columns, int keyCount) {
+		if (columns.length == 1) {
+			return getKeysCondition(columns, keyCount);
+		}
+		StringBuilder row = new StringBuilder("(");
+		for (int j = 0; j < columns.length; j++) {
+			row.append(j > 0 ? ", ?" : "?");
+		}
+		row.append(')');
+		StringBuilder condition = new StringBuilder("(");
+		for (int j = 0; j < columns.length; j++) {
+			if (j > 0) {
+				condition.append(", ");
+			}
+			condition.append(columns[j]);
+		}
+		condition.append(") IN (");
+		for (int i = 0; i < keyCount; i++) {
+			if (i > 0) {
+				condition.append(", ");
+			}
+			condition.append(row);
+		}
+		return condition.append(')').toString();
+	}
+
+	@Override
+	public int getMaxKeysCount(int columnCount) {
+		// Oracle accepts at most 1000 items of IN list, MS SQL at most 2100 parameters of a statement
+		return columnCount == 1 ? 1000 : Math.max(1, 2000 / columnCount);
+	}
 }
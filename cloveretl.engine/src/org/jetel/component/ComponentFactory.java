@@ -223,6 +223,10 @@ public class ComponentFactory {
 			if (xattribs != null) {
                 component.setAttributes(xattribs.attributes2Properties(new String[0], RefResFlag.ALL_OFF));
 			}
+			//keep whole definition including child elements of components which will be cloned, see TransformationGraphAnalyzer.expandParallelNodes()
+			if (xattribs != null && xattribs.exists(Node.XML_PARALLELISM_ATTRIBUTE)) {
+				component.setParallelismTemplate((Element) nodeXML.cloneNode(true));
+			}
         } catch (Exception e) {
         	throw createException(xattribs, e);
         }
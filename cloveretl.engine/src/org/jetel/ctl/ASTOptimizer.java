@@ -0,0 +1,262 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.ctl;
+
+import org.jetel.ctl.ASTnode.CLVFAddNode;
+import org.jetel.ctl.ASTnode.CLVFAnd;
+import org.jetel.ctl.ASTnode.CLVFArguments;
+import org.jetel.ctl.ASTnode.CLVFBlock;
+import org.jetel.ctl.ASTnode.CLVFComparison;
+import org.jetel.ctl.ASTnode.CLVFConditionalExpression;
+import org.jetel.ctl.ASTnode.CLVFDivNode;
+import org.jetel.ctl.ASTnode.CLVFFunctionCall;
+import org.jetel.ctl.ASTnode.CLVFIIfNode;
+import org.jetel.ctl.ASTnode.CLVFIfStatement;
+import org.jetel.ctl.ASTnode.CLVFIsNullNode;
+import org.jetel.ctl.ASTnode.CLVFLiteral;
+import org.jetel.ctl.ASTnode.CLVFModNode;
+import org.jetel.ctl.ASTnode.CLVFMulNode;
+import org.jetel.ctl.ASTnode.CLVFNVL2Node;
+import org.jetel.ctl.ASTnode.CLVFNVLNode;
+import org.jetel.ctl.ASTnode.CLVFOr;
+import org.jetel.ctl.ASTnode.CLVFSubNode;
+import org.jetel.ctl.ASTnode.CLVFUnaryExpression;
+import org.jetel.ctl.ASTnode.CLVFUnaryNonStatement;
+import org.jetel.ctl.ASTnode.CLVFWhileStatement;
+import org.jetel.ctl.ASTnode.CastNode;
+import org.jetel.ctl.ASTnode.SimpleNode;
+import org.jetel.ctl.data.TLType;
+import org.jetel.ctl.extensions.TLFunctionCallContext;
+import org.jetel.graph.TransformationGraph;
+
+/**
+ * Optimization pass over type-checked AST, performed by {@link TLCompiler} before
+ * the code is handed to the interpreter.
+ *
+ * <ul>
+ * <li>Constant sub-expressions (operators, casts and conditional expressions with literal operands)
+ * are evaluated once and replaced by literals. The expressions are evaluated by {@link TransformLangExecutor}
+ * so the result is identical to the evaluation at runtime. An expression, which fails, is left untouched
+ * and the error is reported at runtime as before.</li>
+ * <li>Conditional expressions, <code>&amp;&amp;</code> and <code>||</code> with constant condition
+ * are replaced by the selected operand.</li>
+ * <li><code>if</code> statements without <code>else</code> branch and <code>while</code> loops
+ * with constant false condition are removed from blocks.</li>
+ * <li>Function arguments folded into literals are marked as literals in {@link TLFunctionCallContext},
+ * so functions with init method (formatters, patterns, ...) prepare their state once instead of per call.</li>
+ * </ul>
+ *
+ * Expressions with field access, variables or function calls are never moved or merged,
+ * they can have side effects and their values change between records.
+ *
+ * @created 17. 10. 2026
+ */
+public class ASTOptimizer {
+
+	private final TransformLangExecutor executor;
+
+	private int foldedCount;
+
+	private int removedCount;
+
+	public ASTOptimizer(TransformLangParser parser, TransformationGraph graph) {
+		this.executor = new TransformLangExecutor(parser, graph);
+	}
+
+	/**
+	 * Optimizes given AST in place.
+	 *
+	 * @param ast root of the tree (CLVFStart or CLVFStartExpression)
+	 */
+	public void optimize(SimpleNode ast) {
+		optimizeChildren(ast);
+		updateFunctionContexts(ast);
+	}
+
+	/**
+	 * @return number of expressions replaced by literals or by one of their operands
+	 */
+	public int getFoldedCount() {
+		return foldedCount;
+	}
+
+	/**
+	 * @return number of removed statements
+	 */
+	public int getRemovedCount() {
+		return removedCount;
+	}
+
+	private void optimizeChildren(SimpleNode node) {
+		int i = 0;
+		while (i < node.jjtGetNumChildren()) {
+			SimpleNode child = (SimpleNode) node.jjtGetChild(i);
+			optimizeChildren(child);
+			if (isRemovable(child)) {
+				node.removeChild(i);
+				removedCount++;
+				continue;
+			}
+			SimpleNode replacement = simplify(child);
+			if (replacement != child) {
+				node.jjtAddChild(replacement, i);
+				replacement.jjtSetParent(node);
+				foldedCount++;
+			}
+			i++;
+		}
+	}
+
+	/**
+	 * Statements, which are never executed. Only children of blocks can be removed,
+	 * other statements keep the structure expected by the interpreter.
+	 */
+	private boolean isRemovable(SimpleNode node) {
+		if (!(node.jjtGetParent() instanceof CLVFBlock)) {
+			return false;
+		}
+		if (node instanceof CLVFIfStatement && node.jjtGetNumChildren() == 2) {
+			return isConstant(node.jjtGetChild(0), Boolean.FALSE);
+		}
+		if (node instanceof CLVFWhileStatement) {
+			return isConstant(node.jjtGetChild(0), Boolean.FALSE);
+		}
+		return false;
+	}
+
+	/**
+	 * @return replacement of the node or the node itself
+	 */
+	private SimpleNode simplify(SimpleNode node) {
+		if (node instanceof CLVFAnd || node instanceof CLVFOr) {
+			// lazy evaluation - the right operand is not evaluated if the left one decides
+			boolean decisive = node instanceof CLVFOr;
+			SimpleNode lhs = (SimpleNode) node.jjtGetChild(0);
+			if (isConstant(lhs, decisive)) {
+				return lhs;
+			}
+			if (isConstant(lhs, !decisive)) {
+				return sameType((SimpleNode) node.jjtGetChild(1), node);
+			}
+		} else if (node instanceof CLVFConditionalExpression && node.jjtGetNumChildren() == 3) {
+			SimpleNode condition = (SimpleNode) node.jjtGetChild(0);
+			if (isConstant(condition, Boolean.TRUE)) {
+				return sameType((SimpleNode) node.jjtGetChild(1), node);
+			} else if (isConstant(condition, Boolean.FALSE)) {
+				return sameType((SimpleNode) node.jjtGetChild(2), node);
+			}
+		} else if (node instanceof CLVFIIfNode) {
+			SimpleNode args = (SimpleNode) node.jjtGetChild(0);
+			SimpleNode condition = (SimpleNode) args.jjtGetChild(0);
+			if (isConstant(condition, Boolean.TRUE)) {
+				return sameType((SimpleNode) args.jjtGetChild(1), node);
+			} else if (isConstant(condition, Boolean.FALSE)) {
+				return sameType((SimpleNode) args.jjtGetChild(2), node);
+			}
+		}
+		if (isFoldable(node)) {
+			return fold(node);
+		}
+		return node;
+	}
+
+	/**
+	 * Operand can replace the whole expression only if it provides value of the same type.
+	 */
+	private SimpleNode sameType(SimpleNode operand, SimpleNode node) {
+		return operand.getType() == node.getType() ? operand : node;
+	}
+
+	private boolean isFoldable(SimpleNode node) {
+		if (!(node instanceof CLVFAddNode || node instanceof CLVFSubNode || node instanceof CLVFMulNode
+				|| node instanceof CLVFDivNode || node instanceof CLVFModNode || node instanceof CLVFComparison
+				|| node instanceof CLVFAnd || node instanceof CLVFOr || node instanceof CLVFUnaryExpression
+				|| node instanceof CLVFUnaryNonStatement || node instanceof CastNode || node instanceof CLVFConditionalExpression
+				|| node instanceof CLVFIIfNode || node instanceof CLVFIsNullNode || node instanceof CLVFNVLNode
+				|| node instanceof CLVFNVL2Node)) {
+			return false;
+		}
+		if (!isImmutableType(node.getType())) {
+			return false;
+		}
+		for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+			SimpleNode child = (SimpleNode) node.jjtGetChild(i);
+			if (child instanceof CLVFArguments) {
+				for (int j = 0; j < child.jjtGetNumChildren(); j++) {
+					if (!(child.jjtGetChild(j) instanceof CLVFLiteral)) {
+						return false;
+					}
+				}
+			} else if (!(child instanceof CLVFLiteral)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Literal values are shared by all evaluations, so only immutable values can be folded.
+	 */
+	private boolean isImmutableType(TLType type) {
+		return type != null && (type.isInteger() || type.isLong() || type.isDouble() || type.isDecimal()
+				|| type.isBoolean() || type.isString());
+	}
+
+	private SimpleNode fold(SimpleNode node) {
+		Object value;
+		try {
+			value = executor.executeExpression(node);
+		} catch (RuntimeException e) {
+			// e.g. division by zero - leave it for runtime
+			return node;
+		}
+		CLVFLiteral literal = new CLVFLiteral(TransformLangParserTreeConstants.JJTLITERAL);
+		literal.setValueDirect(value);
+		literal.setType(node.getType());
+		literal.begin(node.getBegin().getLine(), node.getBegin().getColumn());
+		literal.end(node.getEnd().getLine(), node.getEnd().getColumn());
+		return literal;
+	}
+
+	private static boolean isConstant(Object node, Boolean value) {
+		return node instanceof CLVFLiteral && value.equals(((CLVFLiteral) node).getValue());
+	}
+
+	/**
+	 * Arguments folded into literals are passed to init methods of the functions.
+	 */
+	private void updateFunctionContexts(SimpleNode node) {
+		if (node instanceof CLVFFunctionCall) {
+			TLFunctionCallContext context = ((CLVFFunctionCall) node).getFunctionCallContext();
+			SimpleNode args = (SimpleNode) node.jjtGetChild(0);
+			if (context != null && args instanceof CLVFArguments) {
+				for (int i = 0; i < args.jjtGetNumChildren() && i < context.getLiteralsSize(); i++) {
+					if (args.jjtGetChild(i) instanceof CLVFLiteral && !context.isLiteral(i)) {
+						context.setLiteral(i);
+						context.setParamValue(i, ((CLVFLiteral) args.jjtGetChild(i)).getValue());
+					}
+				}
+			}
+		}
+		for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+			updateFunctionContexts((SimpleNode) node.jjtGetChild(i));
+		}
+	}
+
+}
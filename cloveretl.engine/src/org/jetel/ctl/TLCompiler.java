@@ -67,6 +67,7 @@ public class TLCompiler implements ITLCompiler {
 	private String sourceId;
 	private List<TLFunctionCallContext> functionContexts;
 	protected boolean lenient = false;
+	protected boolean optimize = Defaults.CTL.OPTIMIZE;
 
 	
 	/**
@@ -355,6 +356,9 @@ public class TLCompiler implements ITLCompiler {
 	public List<ErrorMessage> compile(Reader input, Class<?> targetInterface, String componentId) {
 		setComponentId(componentId);
 		validate(input);
+		if (problemReporter.errorCount() == 0 && isOptimizationEnabled()) {
+			optimize();
+		}
 		return getDiagnosticMessages();
 	}
 	
@@ -445,6 +449,34 @@ public class TLCompiler implements ITLCompiler {
 		this.lenient = lenient;
 	}
 
+	/**
+	 * Enables or disables optimization of the compiled code, see {@link ASTOptimizer}.
+	 * Enabled by default, unless {@link Defaults.CTL#OPTIMIZE} is false.
+	 */
+	public void setOptimize(boolean optimize) {
+		this.optimize = optimize;
+	}
+
+	/**
+	 * Optimization is not performed for CTL debugging,
+	 * the debugger has to step through the code as it has been written.
+	 */
+	protected boolean isOptimizationEnabled() {
+		return optimize && (graph == null || !graph.getRuntimeContext().isCtlDebug());
+	}
+
+	/**
+	 * Optimizes AST of successfully validated code.
+	 */
+	protected void optimize() {
+		ASTOptimizer optimizer = new ASTOptimizer(parser, graph);
+		optimizer.optimize(ast);
+		if (logger != null && (optimizer.getFoldedCount() > 0 || optimizer.getRemovedCount() > 0)) {
+			logger.trace("CTL optimizer folded " + optimizer.getFoldedCount() + " expression(s) and removed "
+					+ optimizer.getRemovedCount() + " statement(s)");
+		}
+	}
+
 	/**
 	 * @return	Expression AST root created during {@link #validateExpression(InputStream)}
 	 */
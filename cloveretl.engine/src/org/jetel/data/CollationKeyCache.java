@@ -0,0 +1,189 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of collation keys of string values. A collation key is computed by the collator just once
+ * for repeated values, comparison of two collation keys is a plain comparison of their bits and gives
+ * the same result as {@link Collator#compare(String, String)}.
+ *
+ * The cache is cleared when it is full, see {@link Defaults.Data#COLLATION_KEY_CACHE_SIZE}. If less than
+ * {@link #MIN_HIT_RATIO} of the lookups hit the cache until it is full, the values are considered mostly unique
+ * and the caching is turned off - compared values are then passed to the collator directly, which is cheaper
+ * than creation of two collation keys.
+ * Collators are not thread safe and neither are instances of this class.
+ *
+ * @created 17. 10. 2026
+ */
+public class CollationKeyCache {
+
+	/** minimal ratio of cache hits to cache misses which keeps the caching on */
+	static final double MIN_HIT_RATIO = 0.1;
+
+	private final Collator collator;
+
+	private final int capacity;
+
+	private Map<String, CollationKey> cache;
+
+	/** number of cache hits since the cache has been cleared */
+	private int hits;
+
+	/**
+	 * @param collator collator used to create collation keys
+	 */
+	public CollationKeyCache(Collator collator) {
+		this(collator, Defaults.Data.COLLATION_KEY_CACHE_SIZE);
+	}
+
+	/**
+	 * @param collator collator used to create collation keys
+	 * @param capacity maximal number of cached keys, zero or negative value turns the caching off
+	 */
+	public CollationKeyCache(Collator collator, int capacity) {
+		this.collator = collator;
+		this.capacity = capacity;
+		if (capacity > 0) {
+			cache = new HashMap<String, CollationKey>();
+		}
+	}
+
+	/**
+	 * @param value
+	 * @return collation key of the given value, <code>null</code> for <code>null</code> value
+	 */
+	public CollationKey getCollationKey(CharSequence value) {
+		if (value == null) {
+			return null;
+		}
+		String string = value.toString();
+		if (cache == null) {
+			return collator.getCollationKey(string);
+		}
+		CollationKey key = cache.get(string);
+		if (key != null) {
+			hits++;
+			return key;
+		}
+		key = collator.getCollationKey(string);
+		if (cache.size() >= capacity) {
+			if (hits < capacity * MIN_HIT_RATIO) {
+				// mostly unique values, the caching doesn't pay off
+				cache = null;
+				return key;
+			}
+			cache.clear();
+			hits = 0;
+		}
+		cache.put(string, key);
+		return key;
+	}
+
+	/**
+	 * Compares the given fields using collation keys. The result is the same as the result
+	 * of <code>field1.compareTo(field2, collator)</code>.
+	 *
+	 * @param field1
+	 * @param field2 string field or other object comparable with a string field
+	 * @return -1 ; 0 ; 1
+	 * @see StringDataField#compareTo(Object, java.text.RuleBasedCollator)
+	 */
+	public int compare(StringDataField field1, Object field2) {
+		if (field1.isNull()) return -1;
+		if (field2 == null) return 1;
+
+		CharSequence value2;
+		if (field2 instanceof StringDataField) {
+			if (((StringDataField) field2).isNull()) {
+				return 1;
+			}
+			value2 = ((StringDataField) field2).getValue();
+		} else if (field2 instanceof CharSequence) {
+			value2 = (CharSequence) field2;
+		} else {
+			throw new ClassCastException("Can't compare StringDataField to " + field2.getClass().getName());
+		}
+
+		if (cache == null) {
+			return Integer.signum(collator.compare(field1.getValue().toString(), value2.toString()));
+		}
+		return Integer.signum(getCollationKey(field1.getValue()).compareTo(getCollationKey(value2)));
+	}
+
+	/**
+	 * @return the collator used to create collation keys
+	 */
+	public Collator getCollator() {
+		return collator;
+	}
+
+	/**
+	 * @return <code>true</code> if the collation keys are cached
+	 */
+	boolean isCaching() {
+		return cache != null;
+	}
+
+	/**
+	 * @return number of cached collation keys
+	 */
+	int size() {
+		return cache != null ? cache.size() : 0;
+	}
+
+	/**
+	 * Caches of collation keys for collators of key fields, used by {@link RecordKey} and {@link RecordComparator}.
+	 * A cache is created lazily and it is replaced when the collator of its key field changes.
+	 */
+	static final class KeyFieldCaches {
+
+		private CollationKeyCache[] caches;
+
+		/**
+		 * @param collators collators of the key fields
+		 * @param keyField index of the key field
+		 * @return cache of collation keys for the collator of the given key field
+		 */
+		CollationKeyCache get(Collator[] collators, int keyField) {
+			if (caches == null || caches.length != collators.length) {
+				caches = new CollationKeyCache[collators.length];
+			}
+			CollationKeyCache cache = caches[keyField];
+			if (cache == null || cache.getCollator() != collators[keyField]) {
+				cache = new CollationKeyCache(collators[keyField]);
+				caches[keyField] = cache;
+			}
+			return cache;
+		}
+
+		/**
+		 * Compares string field by the collator of the given key field.
+		 * The result is the same as the result of <code>field1.compareTo(field2, collators[keyField])</code>.
+		 */
+		int compare(Collator[] collators, int keyField, StringDataField field1, Object field2) {
+			return get(collators, keyField).compare(field1, field2);
+		}
+	}
+
+}
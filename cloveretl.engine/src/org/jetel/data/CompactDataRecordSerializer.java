@@ -0,0 +1,150 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.nio.BufferOverflowException;
+
+import org.jetel.util.bytes.ByteBufferUtils;
+import org.jetel.util.bytes.CloverBuffer;
+import org.jetel.util.string.CloverString;
+
+/**
+ * {@link DataRecordSerializer} with compact encoding of string data fields, intended for records
+ * passed through edges and record buffers.<br>
+ * Strings which contain only Latin-1 characters (which includes ASCII) are stored in one byte per character,
+ * other strings are stored in two bytes per character as in the default {@link StringDataField} serialization.
+ * So a serialized string field is never bigger than with the default serialization and no charset encoder
+ * is involved. Keys of map fields are still encoded in UTF-8 by the inherited {@link #encodeString(CloverBuffer, CharSequence)},
+ * which takes up to three bytes per character, so the size guarantee does not hold for map keys.<br>
+ * Header of a string is the encoded length - zero for null value, <code>2 * length + 1</code> for Latin-1 string
+ * and <code>2 * length + 2</code> for UTF-16 string.<br>
+ * Serialization and deserialization use distinct internal buffers, so single instance can be used
+ * by one writing and one reading thread concurrently.
+ *
+ * @created 17. 10. 2026
+ * @see CompressingDataRecordSerializer
+ */
+public class CompactDataRecordSerializer extends CompressingDataRecordSerializer {
+
+	private static final char MAX_LATIN1_CHAR = 0xFF;
+
+	private static final int INITIAL_ARRAY_SIZE = 64;
+
+	private char[] serializationChars = new char[INITIAL_ARRAY_SIZE];
+	private byte[] serializationBytes = new byte[INITIAL_ARRAY_SIZE];
+
+	private char[] deserializationChars = new char[INITIAL_ARRAY_SIZE];
+	private byte[] deserializationBytes = new byte[INITIAL_ARRAY_SIZE];
+
+	@Override
+	public void serialize(CloverBuffer buffer, StringDataField field) {
+		try {
+			if (field.isNull()) {
+				ByteBufferUtils.encodeLength(buffer, 0);
+				return;
+			}
+			final CloverString value = field.value;
+			final int length = value.length();
+			if (serializationChars.length < length) {
+				serializationChars = new char[Math.max(length, serializationChars.length << 1)];
+				serializationBytes = new byte[serializationChars.length];
+			}
+			final char[] chars = serializationChars;
+			final byte[] bytes = serializationBytes;
+			value.getChars(0, length, chars, 0);
+
+			int i = 0;
+			for (; i < length; i++) {
+				final char c = chars[i];
+				if (c > MAX_LATIN1_CHAR) {
+					break;
+				}
+				bytes[i] = (byte) c;
+			}
+
+			if (i == length) {
+				ByteBufferUtils.encodeLength(buffer, (length << 1) + 1);
+				buffer.put(bytes, 0, length);
+			} else {
+				ByteBufferUtils.encodeLength(buffer, (length << 1) + 2);
+				if (isBulkOperation(buffer, length, Defaults.Data.StringDataField.DIRECT_BULK_SERIALIZATION_THRESHOLD,
+						Defaults.Data.StringDataField.NON_DIRECT_BULK_SERIALIZATION_THRESHOLD)) {
+					int doubledLength = length << 1;
+					buffer.expand(doubledLength);
+					buffer.asCharBuffer().put(chars, 0, length);
+					buffer.skip(doubledLength);
+				} else {
+					for (int counter = 0; counter < length; counter++) {
+						buffer.putChar(chars[counter]);
+					}
+				}
+			}
+		} catch (BufferOverflowException e) {
+			throw new RuntimeException("The size of data buffer is only " + buffer.maximumCapacity() + ". Set appropriate parameter in defaultProperties file.", e);
+		}
+	}
+
+	@Override
+	public void deserialize(CloverBuffer buffer, StringDataField field) {
+		final int header = ByteBufferUtils.decodeLength(buffer);
+
+		// empty value - so we can store new string
+		field.value.setLength(0);
+
+		if (header == 0) {
+			field.setNull(true);
+			return;
+		}
+		final int length = (header - 1) >> 1;
+		if ((header & 1) != 0) {
+			// Latin-1 string
+			if (deserializationChars.length < length) {
+				deserializationChars = new char[Math.max(length, deserializationChars.length << 1)];
+				deserializationBytes = new byte[deserializationChars.length];
+			}
+			final char[] chars = deserializationChars;
+			final byte[] bytes = deserializationBytes;
+			buffer.get(bytes, 0, length);
+			for (int i = 0; i < length; i++) {
+				chars[i] = (char) (bytes[i] & 0xFF);
+			}
+			field.value.append(chars, 0, length);
+		} else {
+			// UTF-16 string
+			if (isBulkOperation(buffer, length, Defaults.Data.StringDataField.DIRECT_BULK_DESERIALIZATION_THRESHOLD,
+					Defaults.Data.StringDataField.NON_DIRECT_BULK_DESERIALIZATION_THRESHOLD)) {
+				field.value.append(buffer.buf().asCharBuffer(), length);
+				buffer.skip(length << 1);
+			} else {
+				for (int counter = 0; counter < length; counter++) {
+					field.value.append(buffer.getChar());
+				}
+			}
+		}
+		field.setNull(false);
+	}
+
+	/**
+	 * Is bulk operation worth enough? The same thresholds as in {@link StringDataField} are used.
+	 */
+	private static boolean isBulkOperation(CloverBuffer buffer, int length, int directThreshold, int nonDirectThreshold) {
+		return length > (buffer.isDirect() ? directThreshold : nonDirectThreshold);
+	}
+
+}
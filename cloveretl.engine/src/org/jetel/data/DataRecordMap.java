@@ -173,6 +173,17 @@ public class DataRecordMap {
 		addEntry(hash, record, i);
 		return;
 	}
+
+	/**
+	 * Inserts a copy of the record into hash map, the given record can be reused by the caller.
+	 * 
+	 * @param record
+	 * 			record to be inserted
+	 * @see #put(DataRecord)
+	 */
+	public void putCopy(DataRecord record) {
+		put(record.duplicate());
+	}
 	
 	/**
 	 * Retrieves DataRecord which is stored under key specified by given RecordKey and DataRecord
@@ -507,7 +518,7 @@ public class DataRecordMap {
 	public class DataRecordLookup {
 
 		protected int[] keyFieldsIndexes;
-		private DataField[] keyFields;
+		protected DataField[] keyFields;
 
 		DataRecordLookup(RecordKey key, DataRecord record) {
 			this.keyFieldsIndexes = key.getKeyFields();
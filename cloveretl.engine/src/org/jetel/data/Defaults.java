@@ -252,6 +252,7 @@ public final class Defaults {
         USE_DIRECT_MEMORY = getBooleanProperties("USE_DIRECT_MEMORY", true);
         USE_DYNAMIC_COMPILER = getBooleanProperties("USE_DYNAMIC_COMPILER", true);
         MAX_MAPPED_FILE_TRANSFER_SIZE = getIntProperties("MAX_MAPPED_FILE_TRANSFER_SIZE", 8388608);
+        MAX_MAPPED_FILE_WINDOW_SIZE = getIntProperties("MAX_MAPPED_FILE_WINDOW_SIZE", 67108864);
         CLOVER_BUFFER_DIRECT_MEMORY_LIMIT_SIZE = getLongProperties("CLOVER_BUFFER_DIRECT_MEMORY_LIMIT_SIZE", MemoryUtils.getDirectMemorySize() / 2);
         
         
@@ -288,6 +289,12 @@ public final class Defaults {
 	 */
 	public static int MAX_MAPPED_FILE_TRANSFER_SIZE; // = 8 MB;
 
+	/**
+	 * Size of a window of a file mapped into memory by readers in memory mapped mode.
+	 * Bigger files are mapped by several consecutive windows.
+	 */
+	public static int MAX_MAPPED_FILE_WINDOW_SIZE; // = 64 MB;
+
 	/**
 	 * Default path to external binary files.
 	 */
@@ -498,6 +505,11 @@ public final class Defaults {
 		public static void init() {
 			FIELD_BUFFER_LENGTH = getIntProperties(FIELD_BUFFER_LENGTH_KEY, 512);
 			DEFAULT_CHARSET_DECODER = getStringProperties(DEFAULT_CHARSET_DECODER_KEY, "UTF-8");
+			PARALLEL_CHUNK_SIZE = getIntProperties("DataParser.PARALLEL_CHUNK_SIZE", 4194304);
+			JSON_DIRECT_MAPPING = getBooleanProperties("DataParser.JSON_DIRECT_MAPPING", true);
+			XLSX_STREAMING = getBooleanProperties("DataParser.XLSX_STREAMING", true);
+			CLOVER_DATA_DECOMPRESSION_THREADS = Math.min(getIntProperties("DataParser.CLOVER_DATA_DECOMPRESSION_THREADS", 4),
+					Runtime.getRuntime().availableProcessors());
 		}
 
 		/**
@@ -512,6 +524,30 @@ public final class Defaults {
 		 * default character-decoder to be used if not specified
 		 */
 		public static String DEFAULT_CHARSET_DECODER;// = "UTF-8";
+
+		/**
+		 * Size (in bytes) of a chunk of input file parsed by one thread of parallel text file parser.
+		 * A chunk is extended if a single record does not fit into it.
+		 */
+		public static int PARALLEL_CHUNK_SIZE;// = 4194304;
+
+		/**
+		 * If true, JSON data are mapped to records straight from JSON tokens, unless the mapping uses
+		 * a feature which needs the JSON converted to XML SAX events.
+		 */
+		public static boolean JSON_DIRECT_MAPPING;// = true;
+
+		/**
+		 * If true, XLSReader reads XLSX sheets row by row from the sheet XML instead of loading
+		 * the whole workbook into memory.
+		 */
+		public static boolean XLSX_STREAMING;// = true;
+
+		/**
+		 * Number of threads decompressing blocks of compressed clover binary data ahead of the reader,
+		 * the value is limited by number of available processors. Value lower than 2 turns off the read-ahead.
+		 */
+		public static int CLOVER_DATA_DECOMPRESSION_THREADS;// = 4;
 	}
 
 	/**
@@ -531,6 +567,9 @@ public final class Defaults {
 			FIELD_BUFFER_LENGTH = getIntProperties(FIELD_BUFFER_LENGTH_KEY, 512);
 			DELIMITER_DELIMITERS_REGEX = getStringProperties(DELIMITER_DELIMITERS_REGEX_KEY, "\\\\\\|");
 			DELIMITER_DELIMITERS = getStringProperties(DELIMITER_DELIMITERS_KEY, "\\\\|");
+			XLSX_ROW_ACCESS_WINDOW = getIntProperties("DataFormatter.XLSX_ROW_ACCESS_WINDOW", 1000);
+			CLOVER_DATA_COMPRESSION_THREADS = Math.min(getIntProperties("DataFormatter.CLOVER_DATA_COMPRESSION_THREADS", 4),
+					Runtime.getRuntime().availableProcessors());
 		}
 
 		/**
@@ -555,6 +594,20 @@ public final class Defaults {
 		 * just a string representation of delimiter of delimiters  
 		 */
 		public static String DELIMITER_DELIMITERS;// = "\\\\|";
+
+		/**
+		 * Number of rows of a sheet kept in memory by XLSX formatter when a new workbook is written,
+		 * older rows are flushed to a temporary file. Non-positive value keeps the whole workbook in memory.
+		 * Workbooks with auto-sized columns (sheets selected by field values) are always kept in memory.
+		 */
+		public static int XLSX_ROW_ACCESS_WINDOW;// = 1000;
+
+		/**
+		 * Number of threads compressing blocks of clover binary data in parallel with the writer,
+		 * the value is limited by number of available processors. Value lower than 2 compresses
+		 * the blocks in the writer thread.
+		 */
+		public static int CLOVER_DATA_COMPRESSION_THREADS;// = 4;
 	}
 
 	/**
@@ -595,6 +648,7 @@ public final class Defaults {
 			StringDataField.init();
 			DATA_RECORDS_BUFFER_SIZE = getIntProperties("Data.DATA_RECORDS_BUFFER_SIZE", 10 * 1048576);
 			MAX_BUFFERS_ALLOCATED = getShortProperties("Data.MAX_BUFFERS_ALLOCATED", (short) 99);
+			COLLATION_KEY_CACHE_SIZE = getIntProperties("Data.COLLATION_KEY_CACHE_SIZE", 10000);
 		}
 
 		public final static class StringDataField {
@@ -628,6 +682,12 @@ public final class Defaults {
 		@Deprecated
 		public static short MAX_BUFFERS_ALLOCATED;// = 99;
 		// all together up to 990 MB
+
+		/**
+		 * Maximal number of collation keys of string values cached by one locale-aware comparator,
+		 * zero turns the caching off. See {@link org.jetel.data.CollationKeyCache}.
+		 */
+		public static int COLLATION_KEY_CACHE_SIZE;// = 10000;
 	}
 
 	/**
@@ -655,6 +715,9 @@ public final class Defaults {
 			DEFAULT_WATCHDOG_TRACKING_INTERVAL = getIntProperties("WatchDog.DEFAULT_WATCHDOG_TRACKING_INTERVAL", 5000);
 			NUMBER_OF_TICKS_BETWEEN_STATUS_CHECKS = getIntProperties("WatchDog.NUMBER_OF_TICKS_BETWEEN_STATUS_CHECKS",
 					1);
+			MAX_NODE_THREADS = getIntProperties("WatchDog.MAX_NODE_THREADS", 0);
+			THREAD_KEEP_ALIVE_TIME = getIntProperties("WatchDog.THREAD_KEEP_ALIVE_TIME", 60000);
+			MAX_TASK_THREADS = getIntProperties("WatchDog.MAX_TASK_THREADS", 0);
 		}
 
 		/**
@@ -680,6 +743,25 @@ public final class Defaults {
 		 */
 		public static int NUMBER_OF_TICKS_BETWEEN_STATUS_CHECKS;// = 1;
 
+		/**
+		 * Maximal number of concurrently running component threads of all graphs in the JVM.
+		 * If positive, component threads are recycled by a shared PooledThreadManager, otherwise
+		 * a new thread is created for each component in each phase. Graphs started by components
+		 * (e.g. RunGraph) are not limited, graphs with a phase bigger than the limit are refused.
+		 */
+		public static int MAX_NODE_THREADS;// = 0;
+
+		/**
+		 * How long (in milliseconds) an idle pooled thread waits for a new task before termination.
+		 */
+		public static int THREAD_KEEP_ALIVE_TIME;// = 60000;
+
+		/**
+		 * Maximal number of threads of the pool shared by parallel sorting, parsing, compression
+		 * and lookup fetching of all graphs in the JVM. Zero or negative value means number of available processors.
+		 */
+		public static int MAX_TASK_THREADS;// = 0;
+
 	}
 
 	public final static class RequestParameters {
@@ -728,12 +810,20 @@ public final class Defaults {
 		public static void init() {
 			DEFAULT_INTERNAL_SORT_BUFFER_CAPACITY = getIntProperties(
 					"InternalSortDataRecord.DEFAULT_INTERNAL_SORT_BUFFER_CAPACITY", 2000);
+			SORT_PARALLELISM = getIntProperties(
+					"InternalSortDataRecord.SORT_PARALLELISM", 0);
 		}
 
 		/**
 		 * Size of internal buffer of internal record sorter. Specified in record count.
 		 */
 		public static int DEFAULT_INTERNAL_SORT_BUFFER_CAPACITY;
+
+		/**
+		 * Maximal number of threads used for sorting of one in-memory buffer of internal record sorter.
+		 * Zero or negative value means number of available processors, 1 turns off parallel sorting.
+		 */
+		public static int SORT_PARALLELISM;
 	}
 
 	public final static class Graph {
@@ -742,8 +832,16 @@ public final class Defaults {
 					Defaults.Record.RECORD_INITIAL_SIZE * 4);
 			BUFFERED_EDGE_INTERNAL_BUFFER_SIZE = getIntProperties("Graph.BUFFERED_EDGE_INTERNAL_BUFFER_SIZE",
 					Defaults.Record.RECORD_INITIAL_SIZE * 10);
+			DIRECT_EDGE_ADAPTIVE_BUFFER = getBooleanProperties("Graph.DIRECT_EDGE_ADAPTIVE_BUFFER", true);
+			DIRECT_EDGE_MAX_INTERNAL_BUFFER_SIZE = getIntProperties("Graph.DIRECT_EDGE_MAX_INTERNAL_BUFFER_SIZE",
+					DIRECT_EDGE_INTERNAL_BUFFER_SIZE * 16);
+			EDGE_BUFFER_MEMORY_BUDGET = getLongProperties("Graph.EDGE_BUFFER_MEMORY_BUDGET", 64L * 1024 * 1024); // 64MB
+			MEMORY_LIMIT = getLongProperties("Graph.MEMORY_LIMIT", 0);
+			JVM_MEMORY_LIMIT = getLongProperties("Graph.JVM_MEMORY_LIMIT", Runtime.getRuntime().maxMemory() / 2);
 			DIRECT_EDGE_FAST_PROPAGATE_NUM_INTERNAL_BUFFERS = getIntProperties(
 					"Graph.DIRECT_EDGE_FAST_PROPAGATE_NUM_INTERNAL_BUFFERS", 4);
+			DIRECT_EDGE_LOCK_FREE_RING_SIZE = getIntProperties(
+					"Graph.DIRECT_EDGE_LOCK_FREE_RING_SIZE", 64);
 		    DEFAULT_EDGE_DEBUGGING_MAX_RECORDS = getIntProperties(
 					"Graph.DEFAULT_EDGE_DEBUGGING_MAX_RECORDS", 1000);
 		    DEFAULT_EDGE_DEBUGGING_MAX_BYTES = getIntProperties(
@@ -757,6 +855,37 @@ public final class Defaults {
 		 */
 		public static int DIRECT_EDGE_INTERNAL_BUFFER_SIZE;
 
+		/**
+		 * Are the internal buffers of DirectEdge resized according to the observed fill level and waiting of the reader
+		 * and writer threads? The buffers start with {@link #DIRECT_EDGE_INTERNAL_BUFFER_SIZE} and grow up to
+		 * {@link #DIRECT_EDGE_MAX_INTERNAL_BUFFER_SIZE} within {@link #EDGE_BUFFER_MEMORY_BUDGET} of the graph.
+		 */
+		public static boolean DIRECT_EDGE_ADAPTIVE_BUFFER;
+
+		/**
+		 * Maximal size of internal buffer of DirectEdge reachable by adaptive resizing.
+		 */
+		public static int DIRECT_EDGE_MAX_INTERNAL_BUFFER_SIZE;
+
+		/**
+		 * Memory in bytes which can be allocated by adaptive edge buffers of a graph above their initial size.
+		 * Memory released by shrunk buffers can be used by other edges of the graph.
+		 */
+		public static long EDGE_BUFFER_MEMORY_BUDGET;
+
+		/**
+		 * Memory in bytes which can be reserved by components and edges of a graph from its
+		 * {@link org.jetel.graph.runtime.MemoryManager}. Zero or negative value means the graph is limited
+		 * only by {@link #JVM_MEMORY_LIMIT}.
+		 */
+		public static long MEMORY_LIMIT;
+
+		/**
+		 * Memory in bytes which can be reserved by all graphs running in the JVM together. Zero or negative value
+		 * means no limit. Default is half of the maximal heap size.
+		 */
+		public static long JVM_MEMORY_LIMIT;
+
 		/**
 		 * Size of internal buffer of BufferedEdge for storing/caching data records. BufferedEdge is used when engine
 		 * needs to compensate fact that component reads data from two different ports and there might be some
@@ -771,6 +900,12 @@ public final class Defaults {
 		 * speed but not much.
 		 */
 		public static int DIRECT_EDGE_FAST_PROPAGATE_NUM_INTERNAL_BUFFERS;
+
+		/**
+		 * Number of record slots of the lock-free ring used by DirectEdgeLockFree. One slot can store one data record.
+		 * The value is rounded up to the nearest power of two. Default is 64.
+		 */
+		public static int DIRECT_EDGE_LOCK_FREE_RING_SIZE;
 		
 	    /**
 	     * Maximal number of records persisted on an edge for default edge debugging.
@@ -819,6 +954,7 @@ public final class Defaults {
 		public static void init() {
 			VOID_METADATA_NAME = getStringProperties("TLCompiler.VOID_METADATA_NAME", "VoidMetadata");
 			DECIMAL_PRECISION = getIntProperties("CTL.DECIMAL_PRECISION", 32);
+			OPTIMIZE = getBooleanProperties("CTL.OPTIMIZE", true);
 		}
 
 		/** The name of void metadata used by Rollup transforms when no group accumulator is used. */
@@ -830,6 +966,13 @@ public final class Defaults {
 		 */
 		public static int DECIMAL_PRECISION; // = 32
 
+		/**
+		 * Enables optimization of interpreted CTL code - folding of constant expressions
+		 * and removal of unreachable statements.
+		 * @see org.jetel.ctl.ASTOptimizer
+		 */
+		public static boolean OPTIMIZE; // = true
+
 	}
 
 	/**
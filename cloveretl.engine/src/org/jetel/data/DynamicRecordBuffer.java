@@ -99,6 +99,13 @@ public class DynamicRecordBuffer {
      * This variable can be changed only before {@link #init()} method invocation.
      */
     private boolean sequentialUsage = false;
+    
+    /**
+     * Serializer used by {@link #writeRecord(DataRecord)} and {@link #readRecord(DataRecord)},
+     * null means the default record serialization. Records written and read in serialized form
+     * are passed as they are.
+     */
+    private DataRecordSerializer serializer;
     
 	/**
 	 * Constructor of the DynamicRecordBuffer with tmp file
@@ -304,7 +311,11 @@ public class DynamicRecordBuffer {
         }
 
         tmpDataRecord.clear();
-        record.serialize(tmpDataRecord);
+        if (serializer != null) {
+        	record.serialize(tmpDataRecord, serializer);
+        } else {
+        	record.serialize(tmpDataRecord);
+        }
         tmpDataRecord.flip();
         
         return writeRecord(tmpDataRecord);
@@ -439,7 +450,11 @@ public class DynamicRecordBuffer {
             return null;
         }
             
-        record.deserialize(readDataBuffer);
+        if (serializer != null) {
+        	record.deserialize(readDataBuffer, serializer);
+        } else {
+        	record.deserialize(readDataBuffer);
+        }
         bufferedRecords.decrementAndGet();
         
         return record;
@@ -582,6 +597,16 @@ public class DynamicRecordBuffer {
 		this.verbose = verbose;
 	}
 
+	/**
+	 * Sets serializer of records written by {@link #writeRecord(DataRecord)} and read
+	 * by {@link #readRecord(DataRecord)}.
+	 * @param serializer record serializer or null for the default record serialization
+	 */
+	public void setSerializer(DataRecordSerializer serializer) {
+		this.serializer = serializer;
+	}
+
+
 	/**
 	 * Available only in verbose mode.
 	 * @return aggregated time how long the reader thread waits for data
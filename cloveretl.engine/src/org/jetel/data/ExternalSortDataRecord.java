@@ -24,6 +24,8 @@ import java.nio.ByteBuffer;
 import org.jetel.data.tape.DataRecordTape;
 import org.jetel.data.tape.TapeCarousel;
 import org.jetel.exception.JetelRuntimeException;
+import org.jetel.graph.runtime.MemoryConsumer;
+import org.jetel.graph.runtime.MemoryManager;
 import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.util.SynchronizeUtils;
 import org.jetel.util.bytes.CloverBuffer;
@@ -40,10 +42,15 @@ import org.jetel.util.bytes.CloverBuffer;
  *  for merging phase.
  *  
  *  Now reading can start - during this phase, data are read
- *  from the disk from tapes and merged together.
+ *  from the disk from tapes and merged together (by {@link LoserTree}).
  *  
  *  If size of incoming data is not bigger than defined limit,
  *  in-memory sorting occurs.
+ *
+ *  If a {@link MemoryManager} is set, memory of the in-memory buffer
+ *  (estimated by serialized size of the records) is reserved from it.
+ *  If the reservation fails or the manager asks for spilling, the buffer
+ *  is flushed to the disk earlier and its records are released.
  *  
  *  Standard way of working with ExtSortDataRecordInternal (same as ExtSortDataRecordInternal):<br>
  *  <ol>
@@ -55,7 +62,7 @@ import org.jetel.util.bytes.CloverBuffer;
  *@see	      org.jetel.data.RecordKey
  */
 
-public class ExternalSortDataRecord implements ISortDataRecord {
+public class ExternalSortDataRecord implements ISortDataRecord, MemoryConsumer {
 
 	private boolean doMerge = false;
 	private InternalSortDataRecord sorter;
@@ -69,7 +76,16 @@ public class ExternalSortDataRecord implements ISortDataRecord {
 	private CloverBuffer recordBuffer;
 	private boolean[] sourceRecordsFlags;
 	private DataRecord[] sourceRecords;
+	private LoserTree mergeTree;
 	int prevIndex;
+	private MemoryManager memoryManager;
+	/** estimated size of records stored in the sorter */
+	private long usedMemory;
+	private volatile long reservedMemory;
+	private volatile boolean spillRequested;
+
+	/** memory is reserved from the memory manager in chunks of this size at least */
+	private final static long MEMORY_RESERVATION_CHUNK = 1024 * 1024;
 	
 	public ExternalSortDataRecord() {
 		super();
@@ -129,17 +145,52 @@ public class ExternalSortDataRecord implements ISortDataRecord {
 
         //initialize sourceRecordsFlags
         sourceRecordsFlags = new boolean[numberOfTapes];
+        
+        mergeTree = new LoserTree(numberOfTapes, new LoserTree.Sources() {
+			@Override
+			public boolean hasHead(int source) {
+				return sourceRecordsFlags[source];
+			}
+			
+			@Override
+			public int compareHeads(int source1, int source2) {
+				return sortKey.compare(sourceRecords[source1], sourceRecords[source2]);
+			}
+		});
+	}
+
+	/**
+	 * Sets memory manager, which the memory for in-memory sorting is reserved from.
+	 * @param memoryManager
+	 */
+	public void setMemoryManager(MemoryManager memoryManager) {
+		if (this.memoryManager != null) {
+			releaseMemory();
+			this.memoryManager.unregister(this);
+		}
+		this.memoryManager = memoryManager;
+		if (memoryManager != null) {
+			memoryManager.register(this);
+		}
 	}
 
 	@Override
 	public boolean put(DataRecord record) throws IOException, InterruptedException {
-		if (!sorter.put(record)) {
+		boolean memoryAvailable = reserveMemory(record);
+		if (!memoryAvailable || !sorter.put(record)) {
 			// we need to sort & flush buffer on to tape and merge it
 			// later
 			doMerge = true;
 			sorter.sort();
 			flushToTapeSynchronously();			
 			sorter.reset();
+			usedMemory = 0;
+			if (!memoryAvailable) {
+				// let the records be garbage collected
+				sorter.postExecute();
+				releaseMemory();
+			}
+			reserveMemory(record);
 			if (!sorter.put(record)) {
 				throw new RuntimeException(
 						"Can't store record into sorter !");
@@ -148,6 +199,56 @@ public class ExternalSortDataRecord implements ISortDataRecord {
 		return true;
 	}
 	
+	/**
+	 * Accounts the record stored into the sorter.
+	 * @return false if the records stored in the sorter should be flushed to release memory
+	 */
+	private boolean reserveMemory(DataRecord record) {
+		if (memoryManager == null) {
+			return true;
+		}
+		if (spillRequested) {
+			spillRequested = false;
+			if (sorter.getRecCounter() > 0) {
+				return false;
+			}
+			// nothing to flush, just release records kept for reuse
+			sorter.postExecute();
+			releaseMemory();
+		}
+		usedMemory += record.getSizeSerialized();
+		if (usedMemory > reservedMemory) {
+			long bytes = Math.max(MEMORY_RESERVATION_CHUNK, usedMemory - reservedMemory);
+			if (memoryManager.reserve(bytes, this)) {
+				reservedMemory += bytes;
+			} else if (sorter.getRecCounter() > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the reserved memory to the memory manager, the records must not be held by the sorter anymore.
+	 */
+	private void releaseMemory() {
+		if (memoryManager != null && reservedMemory > 0) {
+			memoryManager.release(reservedMemory);
+		}
+		reservedMemory = 0;
+		usedMemory = 0;
+	}
+
+	@Override
+	public long getReservedMemory() {
+		return reservedMemory;
+	}
+
+	@Override
+	public void spill() {
+		spillRequested = true;
+	}
+
 	@Override
 	public void sort() throws IOException, InterruptedException {
 		if (doMerge) {
@@ -172,11 +273,10 @@ public class ExternalSortDataRecord implements ISortDataRecord {
 				if (!tapeCarousel.getTape(prevIndex).get(sourceRecords[prevIndex])) {
 	                sourceRecordsFlags[prevIndex] = false;
 	            }
+				mergeTree.replay(prevIndex);
 			}
 			
-	        if (hasAnyData(sourceRecordsFlags)) {
-	        	
-	            index = getLowestIndex(sourceRecords, sourceRecordsFlags);
+	        if ((index = mergeTree.getWinner()) >= 0) {
 
 	            prevIndex = index;
 	            
@@ -223,6 +323,7 @@ public class ExternalSortDataRecord implements ISortDataRecord {
 		carouselInitialized = false;
 		recordBuffer.clear();
 		this.prevIndex = -1;
+		usedMemory = 0;
 
 	}
 	
@@ -238,11 +339,13 @@ public class ExternalSortDataRecord implements ISortDataRecord {
 			}
 		}
 		sorter.postExecute();
+		releaseMemory();
 	}
 	
 	@Override
 	public void free() {
 		sorter.free();
+		setMemoryManager(null);
 	}
 	
 	private void flushToTapeSynchronously() throws IOException, InterruptedException {
@@ -322,9 +425,7 @@ public class ExternalSortDataRecord implements ISortDataRecord {
                 } else {
                     break;
                 }
-                while (hasAnyData(sourceRecordsFlags)) {
-                    index = getLowestIndex(sourceRecords,
-                                sourceRecordsFlags);
+                while ((index = mergeTree.getWinner()) >= 0) {
                     // write record to target tape
                     recordBuffer.clear();
                     sourceRecords[index].serialize(recordBuffer);
@@ -335,6 +436,7 @@ public class ExternalSortDataRecord implements ISortDataRecord {
                     if (!tapeCarousel.getTape(index).get(sourceRecords[index])) {
                         sourceRecordsFlags[index] = false;
                     }
+                    mergeTree.replay(index);
                     SynchronizeUtils.cloverYield();
                 }
                 targetTape.flush(false);
@@ -376,34 +478,10 @@ public class ExternalSortDataRecord implements ISortDataRecord {
         
     }
     
-    /**
-     * Returns index of the lowest record from the specified record array
-     * 
-     * @param sourceRecords array of source records
-     * @param flags array indicating which source records contain valid data
-     * @return index of the lowest record within source records array of -1 if no such record
-     * exists - i.e. there is no valid record
-     */
-    private final int getLowestIndex(DataRecord[] sourceRecords, boolean[] flags) {
-        int lowest = -1;
-        for (int i = 0; i < flags.length; i++) {
-            if (flags[i]) {
-                lowest = i;
-                break;
-            }
-        }
-        for (int i = lowest + 1; i < sourceRecords.length; i++) {
-            if (flags[i]
-                    && sortKey.compare(sourceRecords[lowest], sourceRecords[i]) == 1) {
-                lowest = i;
-            }
-        }
-        return lowest;
-    }
-    
     /**
      * Populates source records array with records from individual tapes (included in
      * tape carousel). Sets flags in flags array for those records which contain valid data.
+     * Merge tree is initialized for the loaded records.
      * 
      * @param tapeCarousel
      * @param sourceRecords
@@ -422,6 +500,7 @@ public class ExternalSortDataRecord implements ISortDataRecord {
                 sourceRecordsFlags[i] = false;
             }
         }
+        mergeTree.init();
     }
 
     /**
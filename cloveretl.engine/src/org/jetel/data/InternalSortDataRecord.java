@@ -19,15 +19,21 @@
 package org.jetel.data;
 
 import java.nio.ByteBuffer;
+import java.text.CollationKey;
 import java.text.Collator;
 import java.text.RuleBasedCollator;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.jetel.exception.JetelRuntimeException;
+import org.jetel.graph.runtime.SharedTaskExecutor;
 import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.util.MiscUtils;
 import org.jetel.util.bytes.CloverBuffer;
@@ -38,7 +44,10 @@ import org.jetel.util.bytes.CloverBuffer;
  *  Buffers are allocated on the fly with increasing capacity
  *  up to defined limit.<br>
  *  When storing phase is finished, sort method sorts the
- *  records in ascending order(java.util.Arrays.sort method is used).<br>
+ *  records in ascending order(java.util.Arrays.sort method is used).
+ *  Big buffers are split into segments which are sorted concurrently
+ *  and merged afterwards, see {@link Defaults.InternalSortDataRecord#SORT_PARALLELISM}.
+ *  Locale-sensitive keys are compared by collation keys computed once per record.<br>
  *  After sorting is finished, reading can start. If descending order
  *  is specified, the records returned by get() method are in descending order.<br>
  *  Standard way of working with SortDataRecordInternal:<br>
@@ -76,6 +85,12 @@ public class InternalSortDataRecord implements ISortDataRecord {
 	 */
 	private final static int COLLECTION_GROW_FACTOR = 16; 
 
+	/**
+	 * Minimal number of records in one segment sorted by a separate thread.
+	 * Smaller buffers are sorted by the calling thread.
+	 */
+	private final static int MIN_PARALLEL_SEGMENT_SIZE = 16384;
+
 
 	/**
 	 * Constructor for the SortDataRecordInternal
@@ -192,24 +207,148 @@ public class InternalSortDataRecord implements ISortDataRecord {
 	
 	@Override
 	public void sort() {
-        if (useCollator){
-            comparator=new RecordOrderedComparator(key.getKeyFields(), this.sortOrderings, collator);
-            comparator.updateCollators(metadata);
-        }else{
-            comparator=new RecordOrderedComparator(key.getKeyFields(), this.sortOrderings);
-        }
-        comparator.setEqualNULLs(true);
+        comparator = createComparator(collator);
         DataRecordCol recordArray;
 	    for (Iterator<DataRecordCol> iterator = recordColList.iterator(); iterator.hasNext();) {
 	        recordArray=((DataRecordCol)iterator.next());
 	        // sort it now
-	        java.util.Arrays.sort(recordArray.getRecordArray(), 0, recordArray.noItems,comparator);
+	        sortRecords(recordArray.getRecordArray(), recordArray.noItems);
 	        recordArray.rewind(); // rewind to position reader pointer properly (first/last depending on sort order)
 	    }
 	    // for faster access, convert list to array
 	    recordColArray=(DataRecordCol[])recordColList.toArray(new DataRecordCol[0]);
 	}
 
+	private RecordOrderedComparator createComparator(RuleBasedCollator collator) {
+		RecordOrderedComparator result;
+        if (useCollator){
+        	result=new RecordOrderedComparator(key.getKeyFields(), this.sortOrderings, collator);
+        	result.updateCollators(metadata);
+        }else{
+        	result=new RecordOrderedComparator(key.getKeyFields(), this.sortOrderings);
+        }
+        result.setEqualNULLs(true);
+        return result;
+	}
+
+	/**
+	 * Sorts first <code>size</code> records of the given array. Big arrays are split into segments,
+	 * the segments are sorted concurrently and merged by {@link LoserTree}. The sort is stable
+	 * in both cases.
+	 */
+	private void sortRecords(final DataRecord[] records, int size) {
+		if (comparator.isUseCollator()) {
+			sortCollatedRecords(records, size);
+		} else {
+			sortItems(records, size, comparator);
+		}
+	}
+
+	/**
+	 * Collation keys of the records are computed just once before sorting, the records are
+	 * compared by the keys, so no collator is invoked by the comparisons.
+	 */
+	private void sortCollatedRecords(DataRecord[] records, int size) {
+		CollatedRecord[] items = new CollatedRecord[size];
+		for (int i = 0; i < size; i++) {
+			items[i] = new CollatedRecord(records[i], comparator.getCollationKeys(records[i]));
+		}
+		final RecordOrderedComparator recordComparator = comparator;
+		sortItems(items, size, new Comparator<CollatedRecord>() {
+			@Override
+			public int compare(CollatedRecord item1, CollatedRecord item2) {
+				return recordComparator.compare(item1.record, item1.collationKeys, item2.record, item2.collationKeys);
+			}
+		});
+		for (int i = 0; i < size; i++) {
+			records[i] = items[i].record;
+		}
+	}
+
+	/**
+	 * Sorts first <code>size</code> items of the given array, possibly in concurrent segments.
+	 * The comparator must not be modified by the comparisons.
+	 */
+	private static <T> void sortItems(final T[] items, int size, final Comparator<? super T> itemComparator) {
+		int numSegments = Math.min(getSortParallelism(), size / MIN_PARALLEL_SEGMENT_SIZE);
+		if (numSegments <= 1) {
+			Arrays.sort(items, 0, size, itemComparator);
+			return;
+		}
+
+		final int[] segmentStarts = new int[numSegments + 1];
+		for (int i = 0; i <= numSegments; i++) {
+			segmentStarts[i] = (int) ((long) size * i / numSegments);
+		}
+		List<Future<?>> futures = new ArrayList<Future<?>>(numSegments);
+		try {
+			for (int i = 0; i < numSegments; i++) {
+				final int from = segmentStarts[i];
+				final int to = segmentStarts[i + 1];
+				futures.add(SharedTaskExecutor.getInstance().submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						Arrays.sort(items, from, to, itemComparator);
+						return null;
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JetelRuntimeException("Sorting interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new JetelRuntimeException("Sorting failed.", e.getCause());
+		} finally {
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+		}
+
+		mergeSegments(items, segmentStarts, itemComparator);
+	}
+
+	/**
+	 * Merges sorted segments of the given array.
+	 * @param items array of items with sorted segments
+	 * @param segmentStarts start indexes of the segments, the last item is end of the last segment
+	 * @param itemComparator
+	 */
+	private static <T> void mergeSegments(final T[] items, int[] segmentStarts, final Comparator<? super T> itemComparator) {
+		final int numSegments = segmentStarts.length - 1;
+		final int[] positions = Arrays.copyOf(segmentStarts, numSegments);
+		final int[] ends = Arrays.copyOfRange(segmentStarts, 1, numSegments + 1);
+		LoserTree tree = new LoserTree(numSegments, new LoserTree.Sources() {
+			@Override
+			public boolean hasHead(int source) {
+				return positions[source] < ends[source];
+			}
+
+			@Override
+			public int compareHeads(int source1, int source2) {
+				return itemComparator.compare(items[positions[source1]], items[positions[source2]]);
+			}
+		});
+		tree.init();
+
+		int size = segmentStarts[numSegments];
+		Object[] merged = new Object[size];
+		int winner;
+		for (int i = 0; (winner = tree.getWinner()) >= 0; i++) {
+			merged[i] = items[positions[winner]++];
+			tree.replay(winner);
+		}
+		System.arraycopy(merged, 0, items, 0, size);
+	}
+
+	private static int getSortParallelism() {
+		int parallelism = Defaults.InternalSortDataRecord.SORT_PARALLELISM;
+		return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+	}
+
+
 	@Override
 	public DataRecord get() {
 	    // optimization - if only 1 sorted buffer, then no merge sorting
@@ -277,6 +416,19 @@ public class InternalSortDataRecord implements ISortDataRecord {
         return recCounter;
     }
 	
+	/**
+	 * Record with precomputed collation keys of its key fields.
+	 */
+	private static class CollatedRecord {
+		final DataRecord record;
+		final CollationKey[] collationKeys;
+
+		CollatedRecord(DataRecord record, CollationKey[] collationKeys) {
+			this.record = record;
+			this.collationKeys = collationKeys;
+		}
+	}
+
 	/**
 	 * Helper class which stores array of data records.
 	 * rewind() should be called after storing part is completed
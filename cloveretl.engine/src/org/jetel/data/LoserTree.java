@@ -0,0 +1,145 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+/**
+ * Tournament (loser) tree for k-way merge of sorted sources.<br>
+ * Each source is identified by its index and exposes a head - the current lowest item.
+ * The tree finds the source with the lowest head in O(1) and after the head of
+ * the winning source is advanced, the new winner is found in O(log k) comparisons,
+ * unlike a linear scan over all sources which needs k-1 comparisons.<br>
+ * Ties are resolved in favour of the source with lower index, so the merge is stable.
+ * <br>
+ * Standard way of working with LoserTree:<br>
+ * <ol>
+ * <li>load the first item of all sources
+ * <li>{@link #init()}
+ * <li>{@link #getWinner()}, consume and advance the winning source, {@link #replay(int)} - n-times
+ * </ol>
+ *
+ * @created 17. 10. 2026
+ */
+public final class LoserTree {
+
+	/**
+	 * Access to heads of merged sources.
+	 */
+	public interface Sources {
+
+		/**
+		 * @param source index of a source
+		 * @return true if the source has a head item, false if the source is exhausted
+		 */
+		public boolean hasHead(int source);
+
+		/**
+		 * Compares heads of two non-exhausted sources.
+		 * @return negative number, zero or positive number if head of source1 is lower, equal or greater
+		 * than head of source2
+		 */
+		public int compareHeads(int source1, int source2);
+	}
+
+	private final int numSources;
+
+	private final Sources sources;
+
+	/** losers[0] is the overall winner, losers[1..numSources-1] are losers of inner nodes */
+	private final int[] losers;
+
+	/**
+	 * @param numSources number of merged sources
+	 * @param sources access to heads of the sources
+	 */
+	public LoserTree(int numSources, Sources sources) {
+		if (numSources < 1) {
+			throw new IllegalArgumentException("At least one source is required.");
+		}
+		this.numSources = numSources;
+		this.sources = sources;
+		this.losers = new int[numSources];
+	}
+
+	/**
+	 * Builds the tree from current heads of all sources.
+	 */
+	public void init() {
+		losers[0] = build(1);
+	}
+
+	private int build(int node) {
+		if (node >= numSources) {
+			// leaf
+			return node - numSources;
+		}
+		int left = build(2 * node);
+		int right = build(2 * node + 1);
+		if (precedes(left, right)) {
+			losers[node] = right;
+			return left;
+		} else {
+			losers[node] = left;
+			return right;
+		}
+	}
+
+	/**
+	 * @return index of the source with the lowest head or -1 if all sources are exhausted
+	 */
+	public int getWinner() {
+		int winner = losers[0];
+		return sources.hasHead(winner) ? winner : -1;
+	}
+
+	/**
+	 * Updates the tree after head of the given source has been changed.
+	 * Only the last winner can be replayed.
+	 * @param source index of the source
+	 */
+	public void replay(int source) {
+		int winner = source;
+		for (int node = (source + numSources) / 2; node > 0; node /= 2) {
+			if (precedes(losers[node], winner)) {
+				int tmp = losers[node];
+				losers[node] = winner;
+				winner = tmp;
+			}
+		}
+		losers[0] = winner;
+	}
+
+	/**
+	 * @return true if head of source1 should be taken before head of source2
+	 */
+	private boolean precedes(int source1, int source2) {
+		boolean hasHead1 = sources.hasHead(source1);
+		boolean hasHead2 = sources.hasHead(source2);
+		if (hasHead1 && hasHead2) {
+			int result = sources.compareHeads(source1, source2);
+			if (result != 0) {
+				return result < 0;
+			}
+		} else if (hasHead1 != hasHead2) {
+			// exhausted source always loses
+			return hasHead1;
+		}
+		return source1 < source2;
+	}
+
+}
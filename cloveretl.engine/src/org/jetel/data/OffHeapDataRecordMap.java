@@ -0,0 +1,615 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * {@link DataRecordMap} which keeps records serialized in direct (off-heap) memory slabs.<br>
+ * The index is an open-addressing hash table (linear probing) built from primitive arrays - hash of the key
+ * and address of the first and the last record stored under the key. Records with duplicate keys are chained
+ * by addresses stored in front of each serialized record. So no object is allocated per stored record
+ * and heap occupied by the map is about 30 bytes per distinct key.<br>
+ * Records are deserialized into a record owned by the lookup object or iterator on each hit,
+ * so a returned record is valid only until the next call of the lookup object or iterator which returned it.
+ * Memory of removed or overwritten records is not reused until the map is cleared. Slabs are kept
+ * by {@link #clear()} and filled again, so a map refilled repeatedly does not allocate new direct memory.<br>
+ * The map can be read by more threads concurrently, each using its own lookup object, but it must not be
+ * modified concurrently. Iterators of this map do not support removal.
+ *
+ * @created 17. 10. 2026
+ * @see DataRecordMap
+ */
+public class OffHeapDataRecordMap extends DataRecordMap {
+
+	/** Size of a memory slab records are serialized to. Bigger records get their own slab. */
+	private static final int SLAB_SIZE = 1 << 20;
+
+	/** Size of the entry header - address of the next record with the same key. */
+	private static final int ENTRY_HEADER_SIZE = 8;
+
+	/** Empty slot of the index and the end of a duplicate chain. */
+	private static final long NO_ENTRY = -1;
+
+	private static final float LOAD_FACTOR = 0.75f;
+	private static final int DEFAULT_INITIAL_CAPACITY = 16;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+	private final DataRecordMetadata metadata;
+	private final boolean equalNULLs;
+	private final boolean duplicate;
+	private final boolean overwrite;
+
+	/** hash of the key stored in a slot */
+	private int[] hashes;
+	/** address of the first record stored under the key of a slot */
+	private long[] heads;
+	/** address of the last record stored under the key of a slot, new duplicates are appended to keep the order */
+	private long[] tails;
+	/** true if the records of a slot were retrieved by getAndMark() or getAllAndMark() */
+	private boolean[] retrieved;
+
+	private int size;
+	private int duplicates;
+	private int threshold;
+
+	private final List<ByteBuffer> slabs = new ArrayList<ByteBuffer>();
+	private ByteBuffer currentSlab;
+	/** index of the current slab, slabs following it are empty and wait for reuse */
+	private int currentSlabIndex = -1;
+	/** incremented by {@link #clear()}, readers drop their views of former slabs */
+	private int slabsGeneration;
+
+	private final CloverBuffer serializationBuffer;
+	private final DataField[] putKey;
+	/** reader used by put and by lookups performed directly on the map */
+	private final EntryReader mapReader;
+
+	/**
+	 * Constructs OffHeapDataRecordMap object with initial capacity of DEFAULT_INITIAL_CAPACITY (16).
+	 *
+	 * @param key
+	 * 			The general key for put operation.
+	 * @param duplicate
+	 * 			If set to true, more values can be stored under one key
+	 */
+	public OffHeapDataRecordMap(RecordKey key, boolean duplicate) {
+		this(key, duplicate, DEFAULT_INITIAL_CAPACITY, true);
+	}
+
+	/**
+	 * Constructs OffHeapDataRecordMap object with the specified initial capacity.
+	 *
+	 * @param key
+	 * 			The general key for put operation.
+	 * @param duplicate
+	 * 			If set to true, more values can be stored under one key
+	 * @param initialCapacity
+	 * 			the initial capacity
+	 * @param overwrite
+	 * 			Flag which changes behaviour of put operation
+	 * 			True (default) - existing value is overwritten by the new one
+	 * 			False - existing value remains, new is scrapped
+	 */
+	public OffHeapDataRecordMap(RecordKey key, boolean duplicate, int initialCapacity, boolean overwrite) {
+		// the table of the superclass is not used
+		super(key, duplicate, 0, overwrite);
+		if (initialCapacity > MAXIMUM_CAPACITY)
+			initialCapacity = MAXIMUM_CAPACITY;
+
+		int capacity = 1;
+		while (capacity < initialCapacity)
+			capacity <<= 1;
+		allocateIndex(capacity);
+
+		this.metadata = key.getMetadata();
+		this.equalNULLs = key.isEqualNULLs();
+		this.duplicate = duplicate;
+		this.overwrite = overwrite;
+		this.serializationBuffer = CloverBuffer.allocate(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+		this.putKey = new DataField[putKeyFields.length];
+		this.mapReader = new EntryReader();
+	}
+
+	private void allocateIndex(int capacity) {
+		hashes = new int[capacity];
+		heads = new long[capacity];
+		tails = new long[capacity];
+		retrieved = new boolean[capacity];
+		Arrays.fill(heads, NO_ENTRY);
+		threshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * Serializes the record into the map. The record is not referenced by the map,
+	 * so it can be reused by the caller.
+	 */
+	@Override
+	public void put(DataRecord record) {
+		if (record == null) {
+			throw new NullPointerException("NULL can not be inserted");
+		}
+		for (int i = 0; i < putKeyFields.length; i++) {
+			putKey[i] = record.getField(putKeyFields[i]);
+		}
+		int hash = hash(putKey);
+		int slot = findSlot(hash, putKey, mapReader);
+		if (slot >= 0) {
+			if (duplicate) {
+				long address = store(record);
+				setNext(tails[slot], address);
+				tails[slot] = address;
+				duplicates++;
+			} else if (overwrite) {
+				heads[slot] = tails[slot] = store(record);
+			}
+			return;
+		}
+
+		slot = -slot - 1;
+		hashes[slot] = hash;
+		heads[slot] = tails[slot] = store(record);
+		retrieved[slot] = false;
+		if (++size > threshold) {
+			resize(2 * heads.length);
+		}
+	}
+
+	@Override
+	public void putCopy(DataRecord record) {
+		// record is serialized, no copy is necessary
+		put(record);
+	}
+
+	@Override
+	public DataRecord get(RecordKey key, DataRecord record) {
+		DataField[] keyFields = getKeyFields(key, record);
+		if (keyFields == null) {
+			return null;
+		}
+		// the matching record is loaded in the reader by findSlot()
+		return findSlot(hash(keyFields), keyFields, mapReader) >= 0 ? mapReader.record : null;
+	}
+
+	@Override
+	public DataRecordIterator getAll(RecordKey key, DataRecord record) {
+		DataField[] keyFields = getKeyFields(key, record);
+		if (keyFields == null) {
+			return null;
+		}
+		int slot = findSlot(hash(keyFields), keyFields, mapReader);
+		return slot >= 0 ? new OffHeapDataRecordIterator(mapReader, heads[slot]) : null;
+	}
+
+	private DataField[] getKeyFields(RecordKey key, DataRecord record) {
+		if (key == null) {
+			throw new NullPointerException("Get key can not be NULL");
+		} else if (record == null) {
+			throw new NullPointerException("Get record can not be NULL");
+		} else if (putKeyFields.length != key.getKeyFields().length) {
+			return null;
+		}
+		int[] keyFieldsIndexes = key.getKeyFields();
+		DataField[] keyFields = new DataField[keyFieldsIndexes.length];
+		for (int i = 0; i < keyFields.length; i++) {
+			keyFields[i] = record.getField(keyFieldsIndexes[i]);
+		}
+		return keyFields;
+	}
+
+	@Override
+	public boolean remove(DataRecord record) {
+		DataField[] key = new DataField[putKeyFields.length];
+		for (int i = 0; i < key.length; i++) {
+			key[i] = record.getField(putKeyFields[i]);
+		}
+		return removeForKey(key);
+	}
+
+	@Override
+	public boolean remove(RecordKey recordKey, DataRecord dataRecord) {
+		int[] removeKeys = recordKey.getKeyFields();
+		if (removeKeys.length != putKeyFields.length) {
+			return false;
+		}
+		DataField[] key = new DataField[putKeyFields.length];
+		for (int i = 0; i < key.length; i++) {
+			key[i] = dataRecord.getField(removeKeys[i]);
+		}
+		return removeForKey(key);
+	}
+
+	private boolean removeForKey(DataField[] key) {
+		int slot = findSlot(hash(key), key, mapReader);
+		if (slot < 0) {
+			return false;
+		}
+		size--;
+		for (long address = getNext(heads[slot]); address != NO_ENTRY; address = getNext(address)) {
+			duplicates--;
+		}
+
+		// backward shift deletion - move following entries of the cluster which can be moved closer to their ideal slot
+		int mask = heads.length - 1;
+		int free = slot;
+		for (int i = (slot + 1) & mask; heads[i] != NO_ENTRY; i = (i + 1) & mask) {
+			int ideal = hashes[i] & mask;
+			boolean movable = (i > free) ? (ideal <= free || ideal > i) : (ideal <= free && ideal > i);
+			if (movable) {
+				hashes[free] = hashes[i];
+				heads[free] = heads[i];
+				tails[free] = tails[i];
+				retrieved[free] = retrieved[i];
+				free = i;
+			}
+		}
+		heads[free] = NO_ENTRY;
+		return true;
+	}
+
+	@Override
+	public DataRecordLookup createDataRecordLookup(RecordKey key, DataRecord record) {
+		return new OffHeapDataRecordLookup(key, record);
+	}
+
+	@Override
+	public Iterator<DataRecord> getOrphanedIterator() {
+		return new EntryIterator(true);
+	}
+
+	@Override
+	public Iterator<DataRecord> valueIterator() {
+		return new EntryIterator(false);
+	}
+
+	/**
+	 * Clears the map. Memory slabs are kept and reused by subsequent puts,
+	 * they are released together with the map.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(heads, NO_ENTRY);
+		size = 0;
+		duplicates = 0;
+		currentSlab = null;
+		currentSlabIndex = -1;
+		slabsGeneration++;
+	}
+
+	@Override
+	public int size() {
+		if (duplicate) {
+			return size + duplicates;
+		}
+		return size;
+	}
+
+	/**
+	 * @return number of bytes of direct memory allocated for serialized records, including slabs kept by {@link #clear()}
+	 */
+	public long getAllocatedMemory() {
+		long result = 0;
+		for (ByteBuffer slab : slabs) {
+			result += slab.capacity();
+		}
+		return result;
+	}
+
+	/**
+	 * The same hash as {@link DataRecordMap} uses, computed without allocation of the key array.
+	 */
+	private static int hash(DataField[] key) {
+		int h = 1;
+		for (DataField field : key) {
+			h = 31 * h + (field == null ? 0 : field.hashCode());
+		}
+		return hash(h);
+	}
+
+	/**
+	 * Finds the slot of the given key. If the key is found, the first record stored under
+	 * the key is left loaded in the given reader.
+	 *
+	 * @return index of the slot with the given key or <code>-(insertion slot) - 1</code> if the key is not found
+	 */
+	private int findSlot(int hash, DataField[] key, EntryReader reader) {
+		int mask = heads.length - 1;
+		for (int i = hash & mask;; i = (i + 1) & mask) {
+			long address = heads[i];
+			if (address == NO_ENTRY) {
+				return -i - 1;
+			}
+			if (hashes[i] == hash && keyEquals(reader.load(address), key)) {
+				return i;
+			}
+		}
+	}
+
+	private boolean keyEquals(DataRecord record, DataField[] key) {
+		for (int i = 0; i < putKeyFields.length; i++) {
+			DataField field = record.getField(putKeyFields[i]);
+			if (!field.equals(key[i])) {
+				if (!(equalNULLs && field.isNull() && key[i].isNull())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private void resize(int newCapacity) {
+		int oldCapacity = heads.length;
+		if (oldCapacity == MAXIMUM_CAPACITY) {
+			if (size >= oldCapacity - 1) {
+				throw new IllegalStateException("Maximal capacity of the map exceeded.");
+			}
+			return;
+		}
+		int[] oldHashes = hashes;
+		long[] oldHeads = heads;
+		long[] oldTails = tails;
+		boolean[] oldRetrieved = retrieved;
+		allocateIndex(newCapacity);
+
+		int mask = newCapacity - 1;
+		for (int j = 0; j < oldCapacity; j++) {
+			if (oldHeads[j] != NO_ENTRY) {
+				int i = oldHashes[j] & mask;
+				while (heads[i] != NO_ENTRY) {
+					i = (i + 1) & mask;
+				}
+				hashes[i] = oldHashes[j];
+				heads[i] = oldHeads[j];
+				tails[i] = oldTails[j];
+				retrieved[i] = oldRetrieved[j];
+			}
+		}
+	}
+
+	/**
+	 * Serializes the record to the current slab.
+	 *
+	 * @return address of the stored record - index of the slab in upper and offset in lower 32 bits
+	 */
+	private long store(DataRecord record) {
+		serializationBuffer.clear();
+		record.serialize(serializationBuffer);
+		serializationBuffer.flip();
+
+		int entrySize = ENTRY_HEADER_SIZE + serializationBuffer.remaining();
+		if (currentSlab == null || currentSlab.remaining() < entrySize) {
+			nextSlab(entrySize);
+		}
+		long address = ((long) currentSlabIndex << 32) | currentSlab.position();
+		currentSlab.putLong(NO_ENTRY);
+		currentSlab.put(serializationBuffer.buf());
+		return address;
+	}
+
+	/**
+	 * Moves to the next slab kept since the last {@link #clear()} or allocates a new one
+	 * if the kept slab is too small for the entry.
+	 */
+	private void nextSlab(int entrySize) {
+		currentSlabIndex++;
+		if (currentSlabIndex < slabs.size() && slabs.get(currentSlabIndex).capacity() >= entrySize) {
+			currentSlab = slabs.get(currentSlabIndex);
+			currentSlab.clear();
+		} else {
+			currentSlab = ByteBuffer.allocateDirect(Math.max(SLAB_SIZE, entrySize)).order(serializationBuffer.order());
+			// following slabs are empty, so no stored address is shifted
+			slabs.add(currentSlabIndex, currentSlab);
+		}
+	}
+
+	private long getNext(long address) {
+		return slabs.get((int) (address >>> 32)).getLong((int) address);
+	}
+
+	private void setNext(long address, long next) {
+		slabs.get((int) (address >>> 32)).putLong((int) address, next);
+	}
+
+	/**
+	 * Deserializes stored records into its own record. Each reader has its own views of the slabs,
+	 * so more readers can be used concurrently.
+	 */
+	private class EntryReader {
+		private final DataRecord record;
+		private CloverBuffer[] views = new CloverBuffer[0];
+		private int generation = slabsGeneration;
+
+		EntryReader() {
+			record = DataRecordFactory.newRecord(metadata);
+		}
+
+		DataRecord load(long address) {
+			int slabIndex = (int) (address >>> 32);
+			if (generation != slabsGeneration) {
+				Arrays.fill(views, null);
+				generation = slabsGeneration;
+			}
+			if (slabIndex >= views.length) {
+				views = Arrays.copyOf(views, slabs.size());
+			}
+			CloverBuffer view = views[slabIndex];
+			if (view == null) {
+				ByteBuffer slab = slabs.get(slabIndex);
+				// byte order of a duplicate is not inherited
+				view = CloverBuffer.wrap(slab.duplicate().order(slab.order()));
+				views[slabIndex] = view;
+			}
+			view.position((int) address + ENTRY_HEADER_SIZE);
+			record.deserialize(view);
+			return record;
+		}
+	}
+
+	/**
+	 * Lookup with its own reader, the returned record is valid until the next call of this lookup
+	 * or of an iterator returned by this lookup.
+	 */
+	private class OffHeapDataRecordLookup extends DataRecordLookup {
+		private final EntryReader reader = new EntryReader();
+
+		OffHeapDataRecordLookup(RecordKey key, DataRecord record) {
+			super(key, record);
+		}
+
+		private int find() {
+			if (keyFields == null)
+				throw new IllegalStateException("No key data for performing lookup");
+			return findSlot(hash(keyFields), keyFields, reader);
+		}
+
+		@Override
+		public DataRecord get() {
+			return find() >= 0 ? reader.record : null;
+		}
+
+		@Override
+		public DataRecord getAndMark() {
+			int slot = find();
+			if (slot >= 0) {
+				retrieved[slot] = true;
+				return reader.record;
+			}
+			return null;
+		}
+
+		@Override
+		public DataRecordIterator getAll() {
+			int slot = find();
+			return slot >= 0 ? new OffHeapDataRecordIterator(reader, heads[slot]) : null;
+		}
+
+		@Override
+		public DataRecordIterator getAllAndMark() {
+			int slot = find();
+			if (slot >= 0) {
+				retrieved[slot] = true;
+				return new OffHeapDataRecordIterator(reader, heads[slot]);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Iterator over records stored under a single key. It is created just after the first record
+	 * has been loaded into the reader by {@link OffHeapDataRecordMap#findSlot(int, DataField[], EntryReader)}.
+	 */
+	private class OffHeapDataRecordIterator extends DataRecordIterator {
+		private final EntryReader reader;
+		private final long origin;
+		private long current;
+		private boolean currentLoaded = true;
+
+		OffHeapDataRecordIterator(EntryReader reader, long origin) {
+			super(null);
+			this.reader = reader;
+			this.origin = current = origin;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return current != NO_ENTRY;
+		}
+
+		@Override
+		public DataRecord next() {
+			if (current == NO_ENTRY)
+				throw new NoSuchElementException();
+			DataRecord ret = currentLoaded ? reader.record : reader.load(current);
+			currentLoaded = false;
+			current = getNext(current);
+			return ret;
+		}
+
+		@Override
+		public void reset() {
+			current = origin;
+			currentLoaded = false;
+		}
+
+		@Override
+		public int size() {
+			int result = 1;
+			for (long address = getNext(origin); address != NO_ENTRY; address = getNext(address)) {
+				result++;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Iterator over all stored records or over records which were not retrieved.
+	 */
+	private class EntryIterator implements Iterator<DataRecord> {
+		private final boolean orphanedOnly;
+		private final EntryReader reader = new EntryReader();
+		private int slot = -1;
+		private long next = NO_ENTRY;
+
+		EntryIterator(boolean orphanedOnly) {
+			this.orphanedOnly = orphanedOnly;
+			seekSlot();
+		}
+
+		private void seekSlot() {
+			while (++slot < heads.length) {
+				if (heads[slot] != NO_ENTRY && !(orphanedOnly && retrieved[slot])) {
+					next = heads[slot];
+					return;
+				}
+			}
+			next = NO_ENTRY;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != NO_ENTRY;
+		}
+
+		@Override
+		public DataRecord next() {
+			if (next == NO_ENTRY)
+				throw new NoSuchElementException();
+			DataRecord ret = reader.load(next);
+			next = getNext(next);
+			if (next == NO_ENTRY) {
+				seekSlot();
+			}
+			return ret;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
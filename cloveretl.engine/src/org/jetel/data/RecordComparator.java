@@ -18,6 +18,7 @@
  */
 package org.jetel.data;
 
+import java.text.CollationKey;
 import java.text.Collator;
 import java.text.RuleBasedCollator;
 import java.util.Arrays;
@@ -50,6 +51,8 @@ public class RecordComparator implements Comparator<DataRecord> {
     protected boolean useCollator = false;
     protected boolean equalNULLs = false; // specifies whether two NULLs are deemed equal
 	private boolean[] sortOrderings;
+	/** caches of collation keys for collators of key fields, created lazily */
+	private final CollationKeyCache.KeyFieldCaches collationKeyCaches = new CollationKeyCache.KeyFieldCaches();
 	
 	/**
 	 *  Constructor for the RecordComparator object
@@ -134,7 +137,7 @@ public class RecordComparator implements Comparator<DataRecord> {
                 final DataField field1 = record1.getField(keyFields[i]);
                 final DataField field2 = record2.getField(keyFields[i]);
                 if (collators[i] != null && field1.getMetadata().getDataType() == DataFieldType.STRING) {
-                    compResult = ((StringDataField) field1).compareTo(field2, collators[i]);
+                    compResult = compareCollated(i, (StringDataField) field1, field2);
                 } else {
                     compResult = field1.compareTo(field2);
                 }
@@ -171,6 +174,81 @@ public class RecordComparator implements Comparator<DataRecord> {
         // seem to be the same
     }
 
+	/**
+	 * Compares records using collation keys precomputed by {@link #getCollationKeys(DataRecord)}.
+	 * The result is the same as the result of {@link #compare(DataRecord, DataRecord)}, but no collator
+	 * is used, so the method can be called concurrently.
+	 * 
+	 * @param record1
+	 * @param collationKeys1 collation keys of the first record
+	 * @param record2
+	 * @param collationKeys2 collation keys of the second record
+	 * @return -1 ; 0 ; 1
+	 */
+	public int compare(DataRecord record1, CollationKey[] collationKeys1, DataRecord record2, CollationKey[] collationKeys2) {
+		for (int i = 0; i < keyFields.length; i++) {
+			final DataField field1 = record1.getField(keyFields[i]);
+			final DataField field2 = record2.getField(keyFields[i]);
+			int compResult;
+			if (isCollated(i, field1)) {
+				if (field1.isNull()) {
+					compResult = -1;
+				} else if (field2.isNull()) {
+					compResult = 1;
+				} else {
+					compResult = Integer.signum(collationKeys1[i].compareTo(collationKeys2[i]));
+				}
+			} else {
+				compResult = field1.compareTo(field2);
+			}
+			if (compResult != 0) {
+				if (equalNULLs && field1.isNull() && field2.isNull()) {
+					continue;
+				}
+				return orderCorrection(i, compResult);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Computes collation keys of key fields of the given record, so that the record can be compared
+	 * by {@link #compare(DataRecord, CollationKey[], DataRecord, CollationKey[])} without any collator.
+	 * Keys of repeated values are cached.
+	 * 
+	 * @param record
+	 * @return collation keys of key fields compared by a collator, <code>null</code> items for other key fields
+	 */
+	public CollationKey[] getCollationKeys(DataRecord record) {
+		CollationKey[] result = new CollationKey[keyFields.length];
+		for (int i = 0; i < keyFields.length; i++) {
+			final DataField field = record.getField(keyFields[i]);
+			if (isCollated(i, field) && !field.isNull()) {
+				result[i] = collationKeyCaches.get(collators, i).getCollationKey(((StringDataField) field).getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return <code>true</code> if string key fields are compared by a collator
+	 */
+	public boolean isUseCollator() {
+		return useCollator;
+	}
+
+	private boolean isCollated(int keyField, DataField field) {
+		return useCollator && collators[keyField] != null && field.getMetadata().getDataType() == DataFieldType.STRING;
+	}
+
+	/**
+	 * Compares string field by the collator of the given key field, collation keys of the values are cached.
+	 * The result is the same as the result of <code>field1.compareTo(field2, collators[keyField])</code>.
+	 */
+	protected int compareCollated(int keyField, StringDataField field1, Object field2) {
+		return collationKeyCaches.compare(collators, keyField, field1, field2);
+	}
+
 	/**
 	 * Turns the compare result sign if the sort ordering is descending.
 	 * @param keyField
@@ -205,8 +283,7 @@ public class RecordComparator implements Comparator<DataRecord> {
              for (int i = 0; i < keyFields.length; i++) {
                  final DataField field1 = record1.getField(keyFields[i]);
                  if (collators[i] != null && field1.getMetadata().getDataType() == DataFieldType.STRING) {
-                    compResult = ((StringDataField) field1).compareTo(
-                             record2.getField(record2KeyFields[i]),collators[i]);
+                    compResult = compareCollated(i, (StringDataField) field1, record2.getField(record2KeyFields[i]));
                  }else{
                      compResult = field1.compareTo(
                              record2.getField(record2KeyFields[i]));
@@ -77,6 +77,9 @@ public class RecordKey {
 	private boolean equalNULLs = false; // specifies whether two NULLs are deemed equal
 
 	private boolean comparedNulls = false; // XXX Temporary workaround until compareTo() will throw exception
+
+	/** caches of collation keys for collators of key fields, created lazily */
+	private final CollationKeyCache.KeyFieldCaches collationKeyCaches = new CollationKeyCache.KeyFieldCaches();
 	
 	/**
 	 *  Constructor for the RecordKey object
@@ -246,7 +249,7 @@ public class RecordKey {
 		    for (int i = 0; i < keyFields.length; i++) {
 		    	DataField field = record1.getField(keyFields[i]);
 				if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-			        compResult = ((StringDataField)field).compareTo(record2.getField(keyFields[i]), collators[i]);
+			        compResult = compareCollated(i, (StringDataField) field, record2.getField(keyFields[i]));
 				} else {
 					compResult = field.compareTo(record2.getField(keyFields[i]));
 				}
@@ -260,7 +263,7 @@ public class RecordKey {
 		    for (int i = 0; i < keyFields.length; i++) {
 		    	DataField field = record1.getField(keyFields[i]);
 				if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-			        compResult = ((StringDataField)field).compareTo(record2.getField(keyFields[i]), collators[i]);
+			        compResult = compareCollated(i, (StringDataField) field, record2.getField(keyFields[i]));
 				} else {
 					compResult = field.compareTo(record2.getField(keyFields[i]));
 				}
@@ -300,7 +303,7 @@ public class RecordKey {
 		    for (int i = 0; i < keyFields.length; i++) {
 		    	DataField field = record1.getField(keyFields[i]);
 				if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-			        compResult = ((StringDataField)field).compareTo(record2.getField(record2KeyFields[i]), collators[i]);
+			        compResult = compareCollated(i, (StringDataField) field, record2.getField(record2KeyFields[i]));
 				} else {
 					compResult = field.compareTo(record2.getField(record2KeyFields[i]));
 				}
@@ -314,7 +317,7 @@ public class RecordKey {
 		    for (int i = 0; i < keyFields.length; i++) {
 		    	DataField field = record1.getField(keyFields[i]);
 				if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-			        compResult = ((StringDataField)field).compareTo(record2.getField(record2KeyFields[i]), collators[i]);
+			        compResult = compareCollated(i, (StringDataField) field, record2.getField(record2KeyFields[i]));
 				} else {
 					compResult = field.compareTo(record2.getField(record2KeyFields[i]));
 				}
@@ -622,6 +625,22 @@ public class RecordKey {
 	public String[] getKeyFieldNames() {
 		return keyFieldNames;
 	}
+
+	/**
+	 * @return <code>true</code> if string key fields are compared by a collator,
+	 * either set from outside or derived from locale of the field metadata
+	 */
+	public boolean isUseCollator() {
+		return useCollator;
+	}
+
+	/**
+	 * Compares string field by the collator of the given key field, collation keys of the values are cached.
+	 * The result is the same as the result of <code>field1.compareTo(field2, collators[keyField])</code>.
+	 */
+	protected int compareCollated(int keyField, StringDataField field1, Object field2) {
+		return collationKeyCaches.compare(collators, keyField, field1, field2);
+	}
 	
 	@Deprecated
     public void setCollator(RuleBasedCollator collator) {
@@ -649,7 +668,7 @@ public class RecordKey {
 		    for (int i = 0; i < keyFields.length; i++) {
 		    	DataField field = record1.getField(keyFields[i]);
 				if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-			        compResult = ((StringDataField)field).compareTo(record2.getField(keyFields[i]), collators[i]);
+			        compResult = compareCollated(i, (StringDataField) field, record2.getField(keyFields[i]));
 				} else {
 					compResult = field.compareTo(record2.getField(keyFields[i]));
 				}
@@ -663,7 +682,7 @@ public class RecordKey {
 		    for (int i = 0; i < keyFields.length; i++) {
 		    	DataField field = record1.getField(keyFields[i]);
 				if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-			        compResult = ((StringDataField)field).compareTo(record2.getField(keyFields[i]), collators[i]);
+			        compResult = compareCollated(i, (StringDataField) field, record2.getField(keyFields[i]));
 				} else {
 					compResult = field.compareTo(record2.getField(keyFields[i]));
 				}
@@ -94,8 +94,7 @@ public class RecordOrderedComparator extends RecordComparator {
             for (int i = 0; i < keyFields.length; i++) {
                 final DataField field1 = record1.getField(keyFields[i]);
                 if (collators[i] != null && field1.getMetadata().getDataType() == DataFieldType.STRING) {
-                    compResult = ((StringDataField) field1).compareTo(
-                            record2.getField(keyFields[i]), collators[i]);
+                    compResult = compareCollated(i, (StringDataField) field1, record2.getField(keyFields[i]));
                 } else {
                     compResult = field1.compareTo(record2
                             .getField(keyFields[i]));
@@ -163,8 +162,7 @@ public class RecordOrderedComparator extends RecordComparator {
              for (int i = 0; i < keyFields.length; i++) {
                  final DataField field1 = record1.getField(keyFields[i]);
                  if (collators[i] != null && field1.getMetadata().getDataType() == DataFieldType.STRING) {
-                    compResult = ((StringDataField) field1).compareTo(
-                             record2.getField(record2KeyFields[i]),collators[i]);
+                    compResult = compareCollated(i, (StringDataField) field1, record2.getField(record2KeyFields[i]));
                  }else{
                      compResult = field1.compareTo(
                              record2.getField(record2KeyFields[i]));
@@ -212,5 +210,9 @@ public class RecordOrderedComparator extends RecordComparator {
 		// seem to be the same
 	}
 	
+	@Override
+	protected int orderCorrection(int keyField, int compResult) {
+		return keyOrderings[keyField] ? compResult : -compResult;
+	}
 
 }
@@ -222,7 +222,7 @@ public class RecordOrderedKey extends RecordKey {
 			for (int i = 0; i < keyFields.length; i++) {
 		        field = record1.getField(keyFields[i]);
 				if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-			        compResult = ((StringDataField)field).compareTo(record2.getField(keyFields[i]), collators[i]);
+			        compResult = compareCollated(i, (StringDataField) field, record2.getField(keyFields[i]));
 				} else {
 					compResult = field.compareTo(record2.getField(keyFields[i]));
 				}
@@ -238,7 +238,7 @@ public class RecordOrderedKey extends RecordKey {
 		    for (int i = 0; i < keyFields.length; i++) {
 		        field = record1.getField(keyFields[i]);
 				if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-			        compResult = ((StringDataField)field).compareTo(record2.getField(keyFields[i]), collators[i]);
+			        compResult = compareCollated(i, (StringDataField) field, record2.getField(keyFields[i]));
 				} else {
 					compResult = field.compareTo(record2.getField(keyFields[i]));
 				}
@@ -276,7 +276,7 @@ public class RecordOrderedKey extends RecordKey {
 		    for (int i = 0; i < keyFields.length; i++) {
 		    	field = record1.getField(keyFields[i]);
 		    	if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-		    		compResult = ((StringDataField)field).compareTo(record2.getField(record2KeyFields[i]), collators[i]);
+		    		compResult = compareCollated(i, (StringDataField) field, record2.getField(record2KeyFields[i]));
 		    	} else {
 		    		compResult = field.compareTo(record2.getField(record2KeyFields[i]));
 		    	}
@@ -293,7 +293,7 @@ public class RecordOrderedKey extends RecordKey {
 		    for (int i = 0; i < keyFields.length; i++) {
 		    	field = record1.getField(keyFields[i]);
 		    	if (useCollator && collators[i] != null && (field instanceof StringDataField)) {
-		    		compResult = ((StringDataField)field).compareTo(record2.getField(record2KeyFields[i]), collators[i]);
+		    		compResult = compareCollated(i, (StringDataField) field, record2.getField(record2KeyFields[i]));
 		    	} else {
 		    		compResult = field.compareTo(record2.getField(record2KeyFields[i]));
 		    	}
@@ -0,0 +1,166 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import org.jetel.data.primitive.IntegerDecimal;
+import org.jetel.metadata.DataFieldContainerType;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * Layout of leading fields of a record serialized by {@link DataRecord#serialize(CloverBuffer)}.
+ * Allows to find boundaries of the fields directly in the serialized record, provided that all
+ * the fields have a simple serialized form - either a fixed length or a value prefixed by its length.
+ *
+ * @created 17. 10. 2026
+ */
+class SerializedFieldLayout {
+
+	private static final int UNSUPPORTED_FIELD = -1;
+	/** serialized field starts with encoded length of its value */
+	private static final int VARIABLE_LENGTH_FIELD = -2;
+
+	/** serialized length of each field or one of the constants above */
+	private final int[] fieldLengths;
+	/** for variable length fields, number of bytes per one unit of encoded length */
+	private final int[] unitLengths;
+	private final boolean supported;
+
+	/**
+	 * @param metadata metadata of serialized records
+	 * @param fieldCount number of leading fields to be located
+	 */
+	SerializedFieldLayout(DataRecordMetadata metadata, int fieldCount) {
+		fieldLengths = new int[fieldCount];
+		unitLengths = new int[fieldCount];
+
+		boolean supported = true;
+		for (int i = 0; i < fieldCount; i++) {
+			fieldLengths[i] = UNSUPPORTED_FIELD;
+			DataFieldMetadata field = metadata.getField(i);
+			if (field.getContainerType() != DataFieldContainerType.SINGLE) {
+				supported = false;
+				continue;
+			}
+			switch (field.getDataType()) {
+			case BOOLEAN:
+				fieldLengths[i] = 1;
+				break;
+			case INTEGER:
+				fieldLengths[i] = 4;
+				break;
+			case LONG:
+			case NUMBER:
+			case DATE:
+			case DATETIME:
+				fieldLengths[i] = 8;
+				break;
+			case DECIMAL:
+				if (isIntegerDecimal(field)) {
+					fieldLengths[i] = 8;
+				} else {
+					supported = false;
+				}
+				break;
+			case STRING:
+				fieldLengths[i] = VARIABLE_LENGTH_FIELD;
+				unitLengths[i] = 2;
+				break;
+			case BYTE:
+				fieldLengths[i] = VARIABLE_LENGTH_FIELD;
+				unitLengths[i] = 1;
+				break;
+			default:
+				// compressed bytes have a more complex serialized form
+				supported = false;
+			}
+		}
+		this.supported = supported;
+	}
+
+	/**
+	 * @return <code>true</code> if decimal values of the given field are serialized as a single long,
+	 * see {@link IntegerDecimal#serialize(CloverBuffer)}
+	 */
+	static boolean isIntegerDecimal(DataFieldMetadata field) {
+		DataField dataField = DataFieldFactory.createDataField(field, true);
+		return ((DecimalDataField) dataField).getDecimal() instanceof IntegerDecimal;
+	}
+
+	/**
+	 * @return <code>true</code> if all the fields have a simple serialized form
+	 */
+	boolean isSupported() {
+		return supported;
+	}
+
+	/**
+	 * Finds start and end positions of the fields in the serialized record.
+	 * Position of the buffer is not changed.
+	 *
+	 * @param serializedRecord record serialized by {@link DataRecord#serialize(CloverBuffer)}
+	 * @param starts output array for absolute start positions of the fields
+	 * @param ends output array for absolute end positions of the fields
+	 */
+	void locate(CloverBuffer serializedRecord, int[] starts, int[] ends) {
+		int position = serializedRecord.position();
+		for (int i = 0; i < fieldLengths.length; i++) {
+			starts[i] = position;
+			if (fieldLengths[i] == VARIABLE_LENGTH_FIELD) {
+				int length = decodeLength(serializedRecord, position);
+				position += encodedLengthSize(serializedRecord, position);
+				if (length > 0) {
+					// non-null values have length incremented by one
+					position += (length - 1) * unitLengths[i];
+				}
+			} else {
+				position += fieldLengths[i];
+			}
+			ends[i] = position;
+		}
+	}
+
+	/**
+	 * Decodes length stored at the given position by <code>ByteBufferUtils.encodeLength()</code>.
+	 */
+	static int decodeLength(CloverBuffer buffer, int position) {
+		int length = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get(position++);
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return length;
+	}
+
+	/**
+	 * @return number of bytes of the length encoded at the given position
+	 */
+	static int encodedLengthSize(CloverBuffer buffer, int position) {
+		int size = 1;
+		while (buffer.get(position++) < 0) {
+			size++;
+		}
+		return size;
+	}
+
+}
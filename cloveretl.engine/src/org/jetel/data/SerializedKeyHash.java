@@ -0,0 +1,170 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * Hash of key fields computed from their serialized form (see {@link DataField#serialize(CloverBuffer)}).
+ * The hash can be calculated either from a {@link DataRecord} or directly from a record serialized
+ * by {@link DataRecord#serialize(CloverBuffer)}, e.g. read by <code>InputPortDirect.readRecordDirect()</code>,
+ * without deserialization of the record. Both ways give the same result for the same key values.
+ *
+ * Bytes of the key fields are hashed by MurmurHash3 (32 bit variant), so the hash is well-mixed
+ * and can be split into buckets by {@link #getBucket(int, int)}.
+ *
+ * Note that the hash depends on the serialized form of the key fields - equal values of different
+ * field types (e.g. integer and long) have different hashes. Instances are not thread safe.
+ *
+ * @created 17. 10. 2026
+ */
+public class SerializedKeyHash {
+
+	private static final int C1 = 0xcc9e2d51;
+	private static final int C2 = 0x1b873593;
+
+	private final int[] keyFields;
+
+	private final SerializedFieldLayout layout;
+	/** start and end of each serialized field, reused for all records */
+	private final int[] starts;
+	private final int[] ends;
+
+	private CloverBuffer keyBuffer;
+
+	/**
+	 * @param metadata metadata of hashed records
+	 * @param keyFields indices of key fields
+	 */
+	public SerializedKeyHash(DataRecordMetadata metadata, int[] keyFields) {
+		this.keyFields = keyFields;
+
+		int lastKeyField = -1;
+		for (int keyField : keyFields) {
+			lastKeyField = Math.max(lastKeyField, keyField);
+		}
+		layout = new SerializedFieldLayout(metadata, lastKeyField + 1);
+		starts = new int[lastKeyField + 1];
+		ends = new int[lastKeyField + 1];
+	}
+
+	/**
+	 * @return <code>true</code> if {@link #hash(CloverBuffer)} can be used for records of the given metadata,
+	 * i.e. all fields up to the last key field have a simple serialized form
+	 */
+	public boolean supportsSerializedRecord() {
+		return layout.isSupported();
+	}
+
+	/**
+	 * Calculates hash of key fields of the given record.
+	 *
+	 * @param record
+	 * @return hash of the key
+	 */
+	public int hash(DataRecord record) {
+		if (keyBuffer == null) {
+			keyBuffer = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+		}
+		int hash = 0;
+		for (int keyField : keyFields) {
+			keyBuffer.clear();
+			record.getField(keyField).serialize(keyBuffer);
+			hash = hash(keyBuffer, 0, keyBuffer.position(), hash);
+		}
+		return finish(hash);
+	}
+
+	/**
+	 * Calculates hash of key fields of the given serialized record.
+	 * Position of the buffer is not changed.
+	 *
+	 * @param serializedRecord record serialized by {@link DataRecord#serialize(CloverBuffer)}
+	 * @return hash of the key
+	 * @throws UnsupportedOperationException if {@link #supportsSerializedRecord()} is <code>false</code>
+	 */
+	public int hash(CloverBuffer serializedRecord) {
+		if (!layout.isSupported()) {
+			throw new UnsupportedOperationException("Key hash cannot be calculated from serialized record");
+		}
+		layout.locate(serializedRecord, starts, ends);
+
+		int hash = 0;
+		for (int keyField : keyFields) {
+			hash = hash(serializedRecord, starts[keyField], ends[keyField], hash);
+		}
+		return finish(hash);
+	}
+
+	/**
+	 * Splits hash values evenly to the given number of buckets.
+	 *
+	 * @param hash hash value, all bits are used
+	 * @param bucketCount
+	 * @return number from interval [0, bucketCount)
+	 */
+	public static int getBucket(int hash, int bucketCount) {
+		return (int) (((hash & 0xFFFFFFFFL) * bucketCount) >>> 32);
+	}
+
+	/**
+	 * MurmurHash3 body, processes bytes in the given interval of the buffer.
+	 */
+	private static int hash(CloverBuffer buffer, int start, int end, int seed) {
+		int h = seed;
+		int i = start;
+		for (; i + 4 <= end; i += 4) {
+			int k = (buffer.get(i) & 0xFF) | (buffer.get(i + 1) & 0xFF) << 8 | (buffer.get(i + 2) & 0xFF) << 16 | buffer.get(i + 3) << 24;
+			h ^= mixK(k);
+			h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+		}
+		int k = 0;
+		switch (end - i) {
+		case 3:
+			k ^= (buffer.get(i + 2) & 0xFF) << 16;
+		case 2:
+			k ^= (buffer.get(i + 1) & 0xFF) << 8;
+		case 1:
+			k ^= buffer.get(i) & 0xFF;
+			h ^= mixK(k);
+		}
+		// length of each field is mixed in, so that a key field boundary changes the hash
+		return h ^ (end - start);
+	}
+
+	private static int mixK(int k) {
+		k *= C1;
+		k = Integer.rotateLeft(k, 15);
+		return k * C2;
+	}
+
+	/**
+	 * MurmurHash3 finalization mix.
+	 */
+	private static int finish(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+}
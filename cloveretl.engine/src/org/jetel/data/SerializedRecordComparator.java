@@ -0,0 +1,275 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.util.Arrays;
+
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * Comparator of records serialized by {@link DataRecord#serialize(CloverBuffer)}, e.g. read by
+ * <code>InputPortDirect.readRecordDirect()</code>. Key fields are compared directly in the serialized form,
+ * no fields are materialized. The result is the same as the result of {@link RecordComparator}
+ * without collators - including handling of null values, see {@link #setEqualNULLs(boolean)}.
+ *
+ * Supported key types are integer, long, number, date, decimal serialized as a single long
+ * (precision and scale up to 18) and string, which is compared char by char. All fields preceding
+ * the key fields must have a simple serialized form, see {@link #isSupported()}.
+ *
+ * Instances are not thread safe.
+ *
+ * @created 17. 10. 2026
+ */
+public class SerializedRecordComparator {
+
+	private static final int INTEGER_KEY = 0;
+	private static final int LONG_KEY = 1;
+	private static final int NUMBER_KEY = 2;
+	private static final int STRING_KEY = 3;
+
+	private final int[] keyFields1;
+	private final int[] keyFields2;
+	private final int[] keyTypes;
+	private final boolean[] sortOrderings;
+	private boolean equalNULLs = false;
+
+	private final SerializedFieldLayout layout1;
+	private final SerializedFieldLayout layout2;
+	private final boolean supported;
+
+	/** start and end of each serialized field, reused for all records */
+	private final int[] starts1;
+	private final int[] ends1;
+	private final int[] starts2;
+	private final int[] ends2;
+
+	/**
+	 * Creates comparator of records with the same metadata, all key fields in ascending order.
+	 *
+	 * @param metadata
+	 * @param keyFields indices of key fields
+	 */
+	public SerializedRecordComparator(DataRecordMetadata metadata, int[] keyFields) {
+		this(metadata, keyFields, null);
+	}
+
+	/**
+	 * Creates comparator of records with the same metadata.
+	 *
+	 * @param metadata
+	 * @param keyFields indices of key fields
+	 * @param sortOrderings <code>true</code> for ascending key field, <code>null</code> for all ascending
+	 */
+	public SerializedRecordComparator(DataRecordMetadata metadata, int[] keyFields, boolean[] sortOrderings) {
+		this(metadata, keyFields, metadata, keyFields, sortOrderings);
+	}
+
+	/**
+	 * Creates comparator of records with different metadata, e.g. driver and slave records of a join.
+	 * Corresponding key fields must have the same type.
+	 *
+	 * @param metadata1 metadata of the first compared record
+	 * @param keyFields1 indices of key fields of the first record
+	 * @param metadata2 metadata of the second compared record
+	 * @param keyFields2 indices of key fields of the second record
+	 * @param sortOrderings <code>true</code> for ascending key field, <code>null</code> for all ascending
+	 */
+	public SerializedRecordComparator(DataRecordMetadata metadata1, int[] keyFields1,
+			DataRecordMetadata metadata2, int[] keyFields2, boolean[] sortOrderings) {
+		if (keyFields1.length != keyFields2.length) {
+			throw new IllegalArgumentException("Keys have different number of fields");
+		}
+		this.keyFields1 = keyFields1;
+		this.keyFields2 = keyFields2;
+		if (sortOrderings == null) {
+			sortOrderings = new boolean[keyFields1.length];
+			Arrays.fill(sortOrderings, true);
+		}
+		this.sortOrderings = sortOrderings;
+
+		layout1 = new SerializedFieldLayout(metadata1, lastField(keyFields1) + 1);
+		layout2 = new SerializedFieldLayout(metadata2, lastField(keyFields2) + 1);
+		starts1 = new int[lastField(keyFields1) + 1];
+		ends1 = new int[starts1.length];
+		starts2 = new int[lastField(keyFields2) + 1];
+		ends2 = new int[starts2.length];
+
+		keyTypes = new int[keyFields1.length];
+		boolean supported = layout1.isSupported() && layout2.isSupported();
+		for (int i = 0; i < keyFields1.length && supported; i++) {
+			DataFieldMetadata field1 = metadata1.getField(keyFields1[i]);
+			DataFieldMetadata field2 = metadata2.getField(keyFields2[i]);
+			keyTypes[i] = getKeyType(field1);
+			supported = keyTypes[i] >= 0 && keyTypes[i] == getKeyType(field2)
+					&& field1.getDataType() == field2.getDataType()
+					&& (field1.getDataType() != DataFieldType.DECIMAL || getScale(field1) == getScale(field2));
+		}
+		this.supported = supported;
+	}
+
+	private static int lastField(int[] keyFields) {
+		int lastField = -1;
+		for (int keyField : keyFields) {
+			lastField = Math.max(lastField, keyField);
+		}
+		return lastField;
+	}
+
+	/**
+	 * @return one of the key type constants or -1 for unsupported key field
+	 */
+	private static int getKeyType(DataFieldMetadata field) {
+		switch (field.getDataType()) {
+		case INTEGER:
+			return INTEGER_KEY;
+		case LONG:
+		case DATE:
+		case DATETIME:
+			return LONG_KEY;
+		case DECIMAL:
+			// unscaled values with the same scale are ordered as the decimals
+			return SerializedFieldLayout.isIntegerDecimal(field) ? LONG_KEY : -1;
+		case NUMBER:
+			return NUMBER_KEY;
+		case STRING:
+			return STRING_KEY;
+		default:
+			return -1;
+		}
+	}
+
+	private static int getScale(DataFieldMetadata field) {
+		return field.getFieldProperties().getIntProperty(DataFieldMetadata.SCALE_ATTR);
+	}
+
+	/**
+	 * @return <code>true</code> if {@link #compare(CloverBuffer, CloverBuffer)} can be used for records
+	 * of the given metadata, i.e. all key fields have a supported type and all fields up to the last key
+	 * field have a simple serialized form
+	 */
+	public boolean isSupported() {
+		return supported;
+	}
+
+	/**
+	 * @return <code>true</code> if two null values are deemed equal
+	 */
+	public boolean isEqualNULLs() {
+		return equalNULLs;
+	}
+
+	/**
+	 * @param equalNULLs <code>true</code> if two null values are deemed equal, see {@link RecordComparator#setEqualNULLs(boolean)}
+	 */
+	public void setEqualNULLs(boolean equalNULLs) {
+		this.equalNULLs = equalNULLs;
+	}
+
+	/**
+	 * Compares key fields of the given serialized records. Positions of the buffers are not changed.
+	 *
+	 * @param record1 record serialized by {@link DataRecord#serialize(CloverBuffer)}
+	 * @param record2 record serialized by {@link DataRecord#serialize(CloverBuffer)}
+	 * @return -1 ; 0 ; 1
+	 * @throws UnsupportedOperationException if {@link #isSupported()} is <code>false</code>
+	 */
+	public int compare(CloverBuffer record1, CloverBuffer record2) {
+		if (!supported) {
+			throw new UnsupportedOperationException("Key fields cannot be compared in serialized records");
+		}
+		layout1.locate(record1, starts1, ends1);
+		layout2.locate(record2, starts2, ends2);
+
+		for (int i = 0; i < keyTypes.length; i++) {
+			int start1 = starts1[keyFields1[i]];
+			int start2 = starts2[keyFields2[i]];
+			boolean isNull1;
+			boolean isNull2;
+			int compResult;
+			switch (keyTypes[i]) {
+			case INTEGER_KEY: {
+				int value1 = record1.getInt(start1);
+				int value2 = record2.getInt(start2);
+				isNull1 = value1 == Integer.MIN_VALUE;
+				isNull2 = value2 == Integer.MIN_VALUE;
+				compResult = value1 < value2 ? -1 : (value1 == value2 ? 0 : 1);
+				break;
+			}
+			case LONG_KEY: {
+				long value1 = record1.getLong(start1);
+				long value2 = record2.getLong(start2);
+				isNull1 = value1 == Long.MIN_VALUE;
+				isNull2 = value2 == Long.MIN_VALUE;
+				compResult = value1 < value2 ? -1 : (value1 == value2 ? 0 : 1);
+				break;
+			}
+			case NUMBER_KEY: {
+				double value1 = record1.getDouble(start1);
+				double value2 = record2.getDouble(start2);
+				isNull1 = Double.isNaN(value1);
+				isNull2 = Double.isNaN(value2);
+				compResult = Double.compare(value1, value2);
+				break;
+			}
+			default: {
+				int length1 = SerializedFieldLayout.decodeLength(record1, start1);
+				int length2 = SerializedFieldLayout.decodeLength(record2, start2);
+				isNull1 = length1 == 0;
+				isNull2 = length2 == 0;
+				compResult = isNull1 || isNull2 ? 0 : compareChars(
+						record1, start1 + SerializedFieldLayout.encodedLengthSize(record1, start1), length1 - 1,
+						record2, start2 + SerializedFieldLayout.encodedLengthSize(record2, start2), length2 - 1);
+			}
+			}
+			// the same as DataField.compareTo() - null is smaller than anything, even than another null
+			if (isNull1) {
+				compResult = -1;
+			} else if (isNull2) {
+				compResult = 1;
+			}
+
+			if (compResult != 0) {
+				if (equalNULLs && isNull1 && isNull2) {
+					continue;
+				}
+				return sortOrderings[i] ? compResult : -compResult;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Compares serialized chars as unsigned values, the same as <code>Compare.compare(CharSequence, CharSequence)</code>.
+	 */
+	private static int compareChars(CloverBuffer buffer1, int offset1, int length1, CloverBuffer buffer2, int offset2, int length2) {
+		int length = Math.min(length1, length2);
+		for (int i = 0; i < length; i++) {
+			char c1 = buffer1.getChar(offset1 + 2 * i);
+			char c2 = buffer2.getChar(offset2 + 2 * i);
+			if (c1 != c2) {
+				return c1 < c2 ? -1 : 1;
+			}
+		}
+		return length1 == length2 ? 0 : (length1 < length2 ? -1 : 1);
+	}
+
+}
@@ -268,10 +268,12 @@ public class CloverDataFormatter extends AbstractFormatter {
 			case LZ4:
 				this.output = new CloverDataStream.Output(out, CloverDataStream.Output.DEFAULT_BLOCK_SIZE, new CloverDataStream.CompressorLZ4());
 				this.output.setCompress(true);
+				this.output.setCompressionThreads(Defaults.DataFormatter.CLOVER_DATA_COMPRESSION_THREADS);
 				break;
 			case GZIP:
 				this.output = new CloverDataStream.Output(out, CloverDataStream.Output.DEFAULT_BLOCK_SIZE, new CloverDataStream.CompressorGZIP());
 				this.output.setCompress(true);
+				this.output.setCompressionThreads(Defaults.DataFormatter.CLOVER_DATA_COMPRESSION_THREADS);
 				break;
 			default:
 				throw new RuntimeException("Unsupported compression algorithm: " + compress);
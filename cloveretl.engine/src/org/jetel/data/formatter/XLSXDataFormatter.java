@@ -39,6 +39,7 @@ import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jetel.data.DataRecord;
 import org.jetel.data.Defaults;
@@ -163,6 +164,12 @@ public class XLSXDataFormatter extends XLSFormatter {
 			setKeyFields(fields);
 			sheetData = new HashMap<String, SheetData>();
         }
+
+		// a workbook without sheets is written by streaming, rows out of the row access window are flushed
+		// to temporary files; rows of existing sheets are not accessible in streaming workbook
+		if (Defaults.DataFormatter.XLSX_ROW_ACCESS_WINDOW > 0 && workbook.getNumberOfSheets() == 0 && !isAutoSizeColumns()) {
+			workbook = new SXSSFWorkbook((XSSFWorkbook) workbook, Defaults.DataFormatter.XLSX_ROW_ACCESS_WINDOW);
+		}
 	}
 
 	@Override
@@ -382,7 +389,7 @@ public class XLSXDataFormatter extends XLSFormatter {
 		if (workbook != null) {
 			try {
 				// CLO-717 - xlsx close can fail
-				if (metadata.getParsingType() == DataRecordParsingType.DELIMITED && sheetData != null) {
+				if (isAutoSizeColumns()) {
 					for (SheetData aSheetData : sheetData.values()) {
 						for (int i = 0; i < includedFieldIndices.length; i++) {
 							// https://issues.apache.org/bugzilla/show_bug.cgi?id=49940
@@ -399,12 +406,27 @@ public class XLSXDataFormatter extends XLSFormatter {
 					}
 				} catch (IOException exception) {
 					logger.error("Error closing the output stream!", exception);
+				} finally {
+					if (workbook instanceof SXSSFWorkbook) {
+						// delete temporary files of the flushed rows
+						((SXSSFWorkbook) workbook).dispose();
+					}
 				}
 				reset();
 			}
 		}
 	}
 
+	/**
+	 * Columns are auto-sized when the workbook is closed. Auto-size measures only the rows held in memory,
+	 * so such workbook is not written by streaming.
+	 * 
+	 * @return <code>true</code> if width of the written columns is set by their content
+	 */
+	private boolean isAutoSizeColumns() {
+		return metadata != null && metadata.getParsingType() == DataRecordParsingType.DELIMITED && sheetData != null;
+	}
+
 	@Override
 	public void reset() {
 		workbook = null;
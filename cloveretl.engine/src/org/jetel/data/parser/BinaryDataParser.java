@@ -20,10 +20,10 @@ package org.jetel.data.parser;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 
@@ -40,6 +40,7 @@ import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.util.bytes.ByteBufferUtils;
 import org.jetel.util.bytes.CloverBuffer;
 import org.jetel.util.file.FileUtils;
+import org.jetel.util.file.MappedFileChannel;
 
 /**
  * A simple class for retrieving records from binary files created by BinaryDataFormatter
@@ -58,6 +59,18 @@ public class BinaryDataParser extends AbstractParser {
 	private InputStream backendStream;
 	private DataRecordMetadata metadata;
 	private CloverBuffer buffer;
+	/*
+	 * Buffer allocated by this parser, the other buffer is used only for wrapping of a memory mapped file
+	 */
+	private CloverBuffer internalBuffer;
+	/*
+	 * The reader if it is a memory mapped file, records are deserialized directly from the mapped memory
+	 */
+	private MappedFileChannel mappedReader;
+	/*
+	 * Whether a file data source should be mapped into memory
+	 */
+	private boolean memoryMapped;
 	private IParserExceptionHandler exceptionHandler;
 	/*
 	 * aux variable
@@ -123,6 +136,17 @@ public class BinaryDataParser extends AbstractParser {
 		return unitaryDeserialization;
 	}
 
+	/**
+	 * Sets the parser to map a file data source into memory instead of reading it by a channel.
+	 */
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
+
+	public boolean isMemoryMapped() {
+		return memoryMapped;
+	}
+
 	public int getBufferLimit() {
 		return bufferLimit;
 	}
@@ -140,8 +164,9 @@ public class BinaryDataParser extends AbstractParser {
 				throw new JetelRuntimeException(e);
 			}
 		} else {
-			LogFactory.getLog(BinaryDataParser.class).debug("Reader is already closed when closing parser: " + reader);
+			LogFactory.getLog(BinaryDataParser.class).debug("Reader is already closed when closing parser: " + reader);
 		}
+		buffer = internalBuffer;
 		buffer.clear();
 		buffer.limit(0);
 	}
@@ -251,6 +276,18 @@ public class BinaryDataParser extends AbstractParser {
 		if (eofReached) {
 			return;
 		}
+		if (mappedReader != null) {
+			// no copy, the buffer just wraps the mapped window of the file
+			ByteBuffer mappedBuffer = mappedReader.getBuffer(requiredSize);
+			if (buffer.buf() != mappedBuffer) {
+				buffer = CloverBuffer.wrap(mappedBuffer);
+			}
+			if (mappedBuffer.remaining() < requiredSize) {
+				eofReached = true;
+			}
+			processedBytes = mappedReader.position() + mappedBuffer.remaining();
+			return;
+		}
 		int size;
 		buffer.compact();
 		//ensure that the buffer is big enough to bear 'requiredSize' bytes
@@ -291,7 +328,7 @@ public class BinaryDataParser extends AbstractParser {
 		int buffSize = bufferLimit > 0 ? Math.min(Defaults.Record.RECORDS_BUFFER_SIZE, bufferLimit)
 				: Defaults.Record.RECORDS_BUFFER_SIZE;
 		int limitSize = Math.max(Defaults.Record.RECORDS_BUFFER_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
-		buffer = CloverBuffer.allocate(buffSize, limitSize, useDirectBuffers);
+		buffer = internalBuffer = CloverBuffer.allocate(buffSize, limitSize, useDirectBuffers);
 		buffer.clear();
 		buffer.limit(0);
 
@@ -309,6 +346,7 @@ public class BinaryDataParser extends AbstractParser {
 
 	@Override
 	public void reset() throws ComponentNotReadyException {
+		buffer = internalBuffer;
 		buffer.clear();
 		buffer.limit(0);
 		close();
@@ -350,9 +388,14 @@ public class BinaryDataParser extends AbstractParser {
 		}
 		if (inputDataSource instanceof File) {
 			try {
-				backendStream = new FileInputStream((File) inputDataSource);
-				reader = Channels.newChannel(backendStream);
-			} catch (FileNotFoundException e) {
+				if (memoryMapped) {
+					backendStream = null;
+					reader = MappedFileChannel.open((File) inputDataSource);
+				} else {
+					backendStream = new FileInputStream((File) inputDataSource);
+					reader = Channels.newChannel(backendStream);
+				}
+			} catch (IOException e) {
 				throw new JetelRuntimeException(e);
 			}
 		} else if (inputDataSource instanceof InputStream) {
@@ -363,6 +406,13 @@ public class BinaryDataParser extends AbstractParser {
 		} else {
 			throw new JetelRuntimeException("Unsupported data source type " + inputDataSource.getClass().getName());
 		}
+		mappedReader = (reader instanceof MappedFileChannel) ? (MappedFileChannel) reader : null;
+		if (buffer != internalBuffer) {
+			// the previous data source was mapped into memory
+			buffer = internalBuffer;
+			buffer.clear();
+			buffer.limit(0);
+		}
 		
 		eofReached = false;
 		processedBytes = 0;
@@ -246,9 +246,11 @@ public class CloverDataParser extends AbstractParser implements ICloverDataParse
         	break;
         case LZ4:
         	this.input= new CloverDataStream.Input(inStream, new CloverDataStream.DecompressorLZ4());
+        	this.input.setDecompressionThreads(Defaults.DataParser.CLOVER_DATA_DECOMPRESSION_THREADS);
         	break;
         case GZIP:
         	this.input= new CloverDataStream.Input(inStream, new CloverDataStream.DecompressorGZIP());
+        	this.input.setDecompressionThreads(Defaults.DataParser.CLOVER_DATA_DECOMPRESSION_THREADS);
         	break;
         	default:
         		throw new RuntimeException("Unsupported compression algorithm: "+compress);
@@ -44,6 +44,7 @@ import org.jetel.metadata.DataFieldType;
 import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.util.bytes.ByteCharBuffer;
 import org.jetel.util.bytes.CloverBuffer;
+import org.jetel.util.file.MappedFileChannel;
 import org.jetel.util.string.QuotingDecoder;
 import org.jetel.util.string.StringUtils;
 
@@ -71,6 +72,9 @@ public class DataParser extends AbstractTextParser {
 
 	private ReadableByteChannel reader;
 
+	// the reader if it is a memory mapped file, bytes are decoded directly from the mapped memory
+	private MappedFileChannel mappedReader;
+
 	private CharBuffer charBuffer;
 
 	private ByteBuffer byteBuffer;
@@ -282,6 +286,7 @@ public class DataParser extends AbstractTextParser {
 		recordCounter = 0;// reset record counter
 		bytesProcessed = 0;
 
+		mappedReader = null;
 		if (inputDataSource == null) {
 			reader = null;
 			isEof = true;
@@ -297,6 +302,9 @@ public class DataParser extends AbstractTextParser {
 				charBuffer = byteCharBuffer.getCharBuffer();
 			} else if (inputDataSource instanceof ReadableByteChannel) {
 				reader = ((ReadableByteChannel)inputDataSource);
+				if (reader instanceof MappedFileChannel) {
+					mappedReader = (MappedFileChannel) reader;
+				}
 			} else {
 				reader = Channels.newChannel((InputStream)inputDataSource);
 			}
@@ -315,6 +323,10 @@ public class DataParser extends AbstractTextParser {
 				((FileChannel)reader).position(bytes);
 				return;
 			}
+			if (mappedReader != null) {
+				mappedReader.position(bytes);
+				return;
+			}
 			byteBuffer.clear();
 			if (bytes < Defaults.DEFAULT_INTERNAL_IO_BUFFER_SIZE) byteBuffer.limit(bytes);
 			try {
@@ -345,7 +357,8 @@ public class DataParser extends AbstractTextParser {
 			logger.warn("Failed to release data source", ioe);
 		}
 		
-		reader = null;		
+		reader = null;
+		mappedReader = null;
 	}
 
 	/**
@@ -601,6 +614,26 @@ public class DataParser extends AbstractTextParser {
         if (byteCharBuffer != null) {
         	//let's byteCharBuffer loads data to charBuffer
         	byteCharBuffer.readChars();
+        } else if (mappedReader != null) { // decode bytes directly from the mapped file, no copy to byteBuffer
+        	int required = 1;
+	        charBuffer.clear();
+	        do {
+	        	ByteBuffer mappedBuffer = mappedReader.getBuffer(required);
+	        	if (mappedBuffer.remaining() < required) {
+	        		isEof = true;
+	        	}
+	        	int position = mappedBuffer.position();
+	        	checkDecoderResult(decoder.decode(mappedBuffer, charBuffer, isEof));
+	        	bytesProcessed += mappedBuffer.position() - position;
+	        	// an incomplete multi-byte character may remain at the end of the mapped window
+	        	required = mappedBuffer.remaining() + 1;
+	        } while ((charBuffer.position() == 0) && !isEof);
+
+	        if (isEof) {
+	        	checkDecoderResult(decoder.flush(charBuffer));
+	        }
+
+	        charBuffer.flip();
         } else { //(reader != null) let's decode bytes from reader to charBuffer
         
     		int size;
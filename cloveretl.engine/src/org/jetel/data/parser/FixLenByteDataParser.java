@@ -19,6 +19,7 @@
 package org.jetel.data.parser;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.CharacterCodingException;
 
@@ -29,6 +30,8 @@ import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.JetelException;
 import org.jetel.metadata.DataFieldMetadata;
 import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.bytes.CloverBuffer;
+import org.jetel.util.file.MappedFileChannel;
 
 /**
  * Parser for sequence of records represented by fixed count of bytes
@@ -42,6 +45,12 @@ public class FixLenByteDataParser extends FixLenDataParser {
 	private int dataLim;
 	
 	private int remaining; 
+
+	// buffer allocated by the super class, byteBuffer only wraps the mapped file for memory mapped input
+	private final CloverBuffer internalBuffer = byteBuffer;
+
+	// the input channel if it is a memory mapped file, records are parsed directly from the mapped memory
+	private MappedFileChannel mappedChannel;
 		
 	/**
 	 * Create instance for specified charset.
@@ -80,7 +89,9 @@ public class FixLenByteDataParser extends FixLenDataParser {
 	 */
 	@Override
 	public void setDataSource(Object inputDataSource) {
+		byteBuffer = internalBuffer;
 		super.setDataSource(inputDataSource);
+		mappedChannel = (inputDataSource instanceof MappedFileChannel) ? (MappedFileChannel) inChannel : null;
 		dataPos = 0;
 		dataLim = 0;
 	}
@@ -98,6 +109,10 @@ public class FixLenByteDataParser extends FixLenDataParser {
 				((FileChannel)inChannel).position(bytes);
 				return;
 			}
+			if (mappedChannel != null) {
+				mappedChannel.position(bytes);
+				return;
+			}
 			byteBuffer.clear();
 			if (bytes < Defaults.DEFAULT_INTERNAL_IO_BUFFER_SIZE) byteBuffer.limit(bytes);
 			try {
@@ -185,20 +200,28 @@ public class FixLenByteDataParser extends FixLenDataParser {
 			return 0;
 		}
 
-		// set buffer scope so that it will cover all unprocessed data
-		byteBuffer.limit(dataLim);
-		byteBuffer.position(dataPos);
-
-		if (byteBuffer.remaining() < dataLen) {	// need to get more data from channel
-			byteBuffer.compact();
+		if (mappedChannel != null) {
 			try {
-				inChannel.read(byteBuffer.buf());				// write to buffer
-				byteBuffer.flip();						// prepare buffer for reading
+				getMappedData(dataLen);
 			} catch (IOException e) {
 				throw new JetelException(e);
 			}
-			dataPos = 0;
-			dataLim = byteBuffer.limit();
+		} else {
+			// set buffer scope so that it will cover all unprocessed data
+			byteBuffer.limit(dataLim);
+			byteBuffer.position(dataPos);
+
+			if (byteBuffer.remaining() < dataLen) {	// need to get more data from channel
+				byteBuffer.compact();
+				try {
+					inChannel.read(byteBuffer.buf());				// write to buffer
+					byteBuffer.flip();						// prepare buffer for reading
+				} catch (IOException e) {
+					throw new JetelException(e);
+				}
+				dataPos = 0;
+				dataLim = byteBuffer.limit();
+			}
 		}
 		if (byteBuffer.remaining() < dataLen) {	// not enough data available
 			eof = true;
@@ -214,12 +237,33 @@ public class FixLenByteDataParser extends FixLenDataParser {
 		return byteBuffer.remaining();
 	}
 
+	/**
+	 * Sets byteBuffer to the mapped window of the input file so that it covers all unprocessed data.
+	 * No bytes are copied, a new window is mapped only if the current one does not contain whole record.
+	 */
+	private void getMappedData(int dataLen) throws IOException {
+		ByteBuffer window = byteBuffer.buf();
+		if (window == mappedChannel.getBuffer(0)) {
+			// consume the previous record
+			window.limit(window.capacity());
+			window.position(dataPos);
+		}
+		window = mappedChannel.getBuffer(dataLen);
+		if (window != byteBuffer.buf()) {
+			byteBuffer = CloverBuffer.wrap(window);
+		}
+		dataPos = window.position();
+		dataLim = window.limit();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.jetel.data.parser.Parser#reset()
 	 */
 	@Override
 	public void reset() {
+		byteBuffer = internalBuffer;
+		mappedChannel = null;
 		super.reset();
 		dataPos = 0;
 		dataLim = 0;
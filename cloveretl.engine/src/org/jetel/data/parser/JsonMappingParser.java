@@ -0,0 +1,417 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jetel.data.DataField;
+import org.jetel.data.DataRecord;
+import org.jetel.data.Defaults;
+import org.jetel.data.ListDataField;
+import org.jetel.data.xml.mapping.runtime.XMLElementRuntimeMappingModel;
+import org.jetel.exception.BadDataFormatException;
+import org.jetel.exception.ComponentNotReadyException;
+import org.jetel.exception.JetelException;
+import org.jetel.graph.Node;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.metadata.DataFieldContainerType;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.util.formatter.DateFormatter;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Extracts data records from JSON data using the same mapping definition as {@link XmlSaxParser}.
+ * JSON tokens are mapped straight to the record fields, the JSON structure is understood as the XML
+ * elements produced by {@link JsonSaxParser} but no SAX events, attributes and escaped element names
+ * are created for every token.<br>
+ * Mappings which need the SAX events (element contents extracted as text, element value and ancestor
+ * field references, input field mapping, HTTP headers or mapping of the <code>arrayDepth</code> attribute)
+ * are processed by {@link JsonSaxParser} and the XML mapping handler.
+ *
+ * @created 17. 10. 2026
+ */
+public class JsonMappingParser extends XmlSaxParser {
+
+	private static final Log logger = LogFactory.getLog(JsonMappingParser.class);
+
+	/** augmented empty namespace of JSON elements */
+	private static final String NAMESPACE = "{}"; //$NON-NLS-1$
+
+	/** maximum number of cached element names, the names of JSON objects used as maps are not cached */
+	private static final int MAX_CACHED_NAMES = 1024;
+
+	private final Map<String, ElementName> elementNames = new HashMap<String, ElementName>();
+
+	/** true if the mapping can be processed without SAX events */
+	private boolean directMapping;
+
+	private XMLElementRuntimeMappingModel activeMapping;
+
+	/** depth of the current element */
+	private int level;
+
+	/** value is stored only directly inside of an element */
+	private boolean grabCharacters;
+
+	/** value of the current element, <code>null</code> if the element has no value */
+	private String characters;
+
+	public JsonMappingParser(TransformationGraph graph, Node parentComponent) {
+		super(graph, parentComponent, new JsonSaxParser());
+	}
+
+	@Override
+	public void init() throws ComponentNotReadyException {
+		super.init();
+
+		directMapping = Defaults.DataParser.JSON_DIRECT_MAPPING
+				&& isDirectMappingSupported(m_elementPortMap.values(), new HashSet<XMLElementRuntimeMappingModel>());
+		if (!directMapping && logger.isDebugEnabled()) {
+			logger.debug(parentComponent.getId() + ": JSON data are converted to SAX events to be mapped.");
+		}
+	}
+
+	/**
+	 * Checks that the mappings use only features available without SAX events.
+	 */
+	private static boolean isDirectMappingSupported(Collection<XMLElementRuntimeMappingModel> mappings, Set<XMLElementRuntimeMappingModel> checked) {
+		for (XMLElementRuntimeMappingModel mapping : mappings) {
+			if (!checked.add(mapping)) {
+				continue;
+			}
+			Map<String, String> headersToFields = mapping.getResponseHttpHeadersToOutputFields();
+			if (mapping.getSubtreeKeys().length > 0 || !mapping.getDescendantReferences().isEmpty()
+					|| mapping.hasFieldsFromAncestor() || mapping.getFieldTransformation() != null
+					|| (headersToFields != null && !headersToFields.isEmpty())) {
+				return false;
+			}
+			// array items are mapped to XML elements with arrayDepth attribute
+			DataRecord record = mapping.getOutputRecord();
+			if ((mapping.getFieldsMap() != null && mapping.getFieldsMap().containsKey(NAMESPACE + JsonSaxParser.XML_ARRAY_DEPTH))
+					|| (record != null && record.hasField(JsonSaxParser.XML_ARRAY_DEPTH))) {
+				return false;
+			}
+			if (mapping.getChildren() != null && !isDirectMappingSupported(mapping.getChildren().values(), checked)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void parse(InputSource inputSource) throws JetelException, SAXException {
+		if (!directMapping) {
+			super.parse(inputSource);
+			return;
+		}
+		try {
+			parse(inputSource.getCharacterStream());
+		} catch (IOException e) {
+			throw new JetelException(getParseErrorMessage(), e);
+		} catch (SAXException e) {
+			logger.error(getParseErrorMessage());
+			throw e;
+		}
+	}
+
+	/**
+	 * Walks the JSON tokens the same way as {@link JsonSaxParser#processToken(JsonToken, JsonParser, Deque, Deque, Deque)}
+	 * and maps the elements.
+	 */
+	private void parse(Reader reader) throws IOException, SAXException {
+		JsonParser parser = JsonSaxParser.JSON_FACTORY.createParser(reader);
+		Deque<JsonToken> tokens = new ArrayDeque<JsonToken>();
+		Deque<String> names = new ArrayDeque<String>();
+		Deque<Integer> depthCounter = new ArrayDeque<Integer>();
+		depthCounter.add(0);
+
+		activeMapping = null;
+		level = 0;
+		characters = null;
+
+		JsonToken token;
+		while ((token = parser.nextToken()) != null) {
+			switch (token) {
+			case FIELD_NAME: {
+				String lastButOneName = names.peekLast();
+				String lastName = parser.getCurrentName();
+				names.add(lastName);
+				tokens.add(token);
+				if (!depthCounter.isEmpty() && lastName.equals(lastButOneName)) {
+					depthCounter.add(depthCounter.peekLast() + 1);
+				} else {
+					depthCounter.add(0);
+				}
+				break;
+			}
+			case START_ARRAY: {
+				if (names.isEmpty()) {
+					// top level array
+					names.add(JsonSaxParser.XML_NAME_ARRAY);
+					if (depthCounter.size() == 1 && depthCounter.peek() == 0) {
+						tokens.addFirst(JsonToken.START_ARRAY);
+						depthCounter.add(1);
+						startElement(names.getFirst());
+					}
+				} else if (tokens.peekLast() == JsonToken.FIELD_NAME) {
+					// named array - remove field token
+					tokens.removeLast();
+				} else if (tokens.peekLast() == JsonToken.START_ARRAY) {
+					// nested array
+					depthCounter.add(depthCounter.pollLast() + 1);
+					startElement(names.getLast());
+				}
+				tokens.add(token);
+				break;
+			}
+			case START_OBJECT: {
+				if (names.isEmpty()) {
+					names.add(JsonSaxParser.XML_NAME_OBJECT);
+				} else if (tokens.peekLast() == JsonToken.FIELD_NAME) {
+					// named object - remove field token
+					tokens.removeLast();
+				}
+				tokens.add(token);
+				startElement(names.getLast());
+				break;
+			}
+			case END_ARRAY: {
+				tokens.removeLast();
+				String name = names.getLast();
+				int top = depthCounter.pollLast();
+				depthCounter.add(top > 0 ? top - 1 : top);
+				if (names.size() == 1) {
+					endElement(names.getFirst());
+					names.removeLast();
+					depthCounter.pollLast();
+				} else if (!tokens.isEmpty() && tokens.peekLast() == JsonToken.START_ARRAY) {
+					// end nested array
+					endElement(name);
+				} else {
+					// remove name if not inside array
+					names.removeLast();
+					depthCounter.pollLast();
+				}
+				break;
+			}
+			case END_OBJECT: {
+				tokens.removeLast();
+				endElement(names.getLast());
+				if (tokens.isEmpty() || tokens.peekLast() != JsonToken.START_ARRAY) {
+					// remove name if not inside array
+					names.removeLast();
+					depthCounter.pollLast();
+				}
+				break;
+			}
+			default:
+				if (token.isScalarValue() && !tokens.isEmpty()) {
+					String name = names.getLast();
+					JsonToken parent = tokens.getLast();
+					if (parent == JsonToken.FIELD_NAME || parent == JsonToken.START_ARRAY) {
+						startElement(name);
+						if (token != JsonToken.VALUE_NULL) {
+							characters(parser.getText());
+						}
+						endElement(name);
+					}
+					if (parent == JsonToken.FIELD_NAME) {
+						// simple property
+						tokens.removeLast();
+						names.removeLast();
+						depthCounter.pollLast();
+					}
+				}
+			}
+		}
+	}
+
+	private ElementName getElementName(String jsonName) {
+		ElementName name = elementNames.get(jsonName);
+		if (name == null) {
+			name = new ElementName(JsonSaxParser.normalizeElementName(jsonName));
+			if (elementNames.size() < MAX_CACHED_NAMES) {
+				elementNames.put(jsonName, name);
+			}
+		}
+		return name;
+	}
+
+	private void startElement(String jsonName) throws SAXException {
+		ElementName name = getElementName(jsonName);
+		level++;
+		grabCharacters = true;
+
+		if (activeMapping != null) {
+			activeMapping.getElementStack().addLast(name.localName);
+		}
+
+		XMLElementRuntimeMappingModel mapping = null;
+		if (activeMapping == null) {
+			mapping = m_elementPortMap.get(name.universalName);
+		} else if (isUseNestedNodes() || activeMapping.getLevel() == level - 1) {
+			mapping = activeMapping.getChildMapping(name.universalName);
+		}
+		if (mapping != null) {
+			activeMapping = mapping;
+			mapping.setLevel(level);
+			mapping.setCharactersProcessed(false);
+			startMapping(mapping);
+		}
+		characters = null;
+	}
+
+	private void characters(String value) {
+		if (activeMapping != null && grabCharacters) {
+			characters = value;
+		}
+	}
+
+	private void endElement(String jsonName) throws SAXException {
+		ElementName name = getElementName(jsonName);
+		if (activeMapping != null) {
+			XMLElementRuntimeMappingModel parentMapping = activeMapping.getParent();
+			if (parentMapping != null && level == activeMapping.getLevel()) {
+				// value of the mapped element can be mapped to a field of the parent record too (CLO-915)
+				Map<String, String> parentFields = parentMapping.getFieldsMap();
+				if (parentFields != null) {
+					String fieldName = parentFields.get(name.universalName);
+					if (fieldName == null && parentMapping.isImplicit()
+							&& !(activeMapping.isUsingParentRecord() && activeMapping.getExplicitCloverFields().contains(name.localName))) {
+						fieldName = name.localName;
+					}
+					if (isMappingPossible(parentMapping, fieldName, level - 1)) {
+						DataField field = parentMapping.getOutputRecord().getField(fieldName);
+						if (field.getMetadata().getContainerType() == DataFieldContainerType.LIST || field.isNull()) {
+							writeToOutput(parentMapping.getOutputRecord(), field);
+						}
+					}
+				}
+			}
+
+			Deque<String> elementStack = activeMapping.getElementStack();
+			if (!elementStack.isEmpty() && elementStack.peekLast().equals(name.localName)) {
+				elementStack.pollLast();
+				processCharacters(name);
+			}
+			characters = null;
+		}
+
+		if (activeMapping != null && level == activeMapping.getLevel()) {
+			// the closing element of the matched element that triggered the processing
+			finishMapping(activeMapping);
+			activeMapping = activeMapping.getParent();
+		}
+
+		grabCharacters = false;
+		level--;
+	}
+
+	/**
+	 * Stores value of the element into the field of active mapping.
+	 */
+	private void processCharacters(ElementName name) {
+		Map<String, String> fields = activeMapping.getFieldsMap();
+		String fieldName;
+		if (fields != null) {
+			fieldName = fields.get(name.universalName);
+			String sequenceField = activeMapping.getSequenceField();
+			if (sequenceField != null && (sequenceField.equals(name.localName) || sequenceField.equals(name.universalName))) {
+				// don't do implicit mapping for fields mapped to sequence
+				return;
+			}
+			if (fieldName == null && activeMapping.isImplicit()) {
+				fieldName = name.localName;
+			}
+		} else {
+			fieldName = name.localName;
+		}
+		if (isMappingPossible(activeMapping, fieldName, level)) {
+			writeToOutput(activeMapping.getOutputRecord(), activeMapping.getOutputRecord().getField(fieldName));
+		}
+	}
+
+	private boolean isMappingPossible(XMLElementRuntimeMappingModel mapping, String fieldName, int level) {
+		DataRecord record = mapping.getOutputRecord();
+		return record != null && fieldName != null && record.hasField(fieldName)
+				&& (isUseNestedNodes() || level - 1 <= mapping.getLevel());
+	}
+
+	private void writeToOutput(DataRecord record, DataField field) {
+		if (characters != null) {
+			try {
+				String value = isTrim() ? characters.trim() : characters;
+				// write the value - if the field value is not already set
+				if (isNotMappedTo(record, field) && field.getMetadata().getContainerType() == DataFieldContainerType.SINGLE) {
+					setFieldValue(field, value);
+				} else if (field.getMetadata().getContainerType() == DataFieldContainerType.LIST) {
+					setFieldValue(((ListDataField) field).addField(), value);
+				}
+			} catch (BadDataFormatException ex) {
+				int colon = characters.lastIndexOf(':');
+				if (field.getMetadata().getDataType() != DataFieldType.DATE || colon < 0) {
+					throw ex;
+				}
+				// XML dateTime time zone (-5:00) is not supported by clover date format (-500)
+				try {
+					String dateTime = characters.substring(0, colon) + characters.substring(colon + 1);
+					DateFormatter formatter = field.getMetadata().createDateFormatter();
+					field.setValue(formatter.parseDate(isTrim() ? dateTime.trim() : dateTime));
+				} catch (Exception ex2) {
+					throw ex;
+				}
+			}
+		} else if (field.getMetadata().getDataType() == DataFieldType.STRING) {
+			// empty element
+			if (field.getMetadata().getContainerType() == DataFieldContainerType.LIST) {
+				setFieldValue(((ListDataField) field).addField(), "");
+			} else if (field.getValue() == null || field.getValue().equals(field.getMetadata().getDefaultValueStr())) {
+				setFieldValue(field, "");
+			}
+		}
+	}
+
+	/**
+	 * Name of XML element corresponding to a JSON name.
+	 */
+	private static final class ElementName {
+		private final String localName;
+		private final String universalName;
+
+		private ElementName(String localName) {
+			this.localName = localName;
+			this.universalName = NAMESPACE + localName;
+		}
+	}
+
+}
@@ -55,14 +55,14 @@ public class JsonSaxParser extends SAXParser {
 	
 	
 	private static final String NAMESPACE_URI = ""; //$NON-NLS-1$
-	private static final String XML_NAME_OBJECT = "json_object"; //$NON-NLS-1$
-	private static final String XML_NAME_ARRAY = "json_array"; //$NON-NLS-1$
+	static final String XML_NAME_OBJECT = "json_object"; //$NON-NLS-1$
+	static final String XML_NAME_ARRAY = "json_array"; //$NON-NLS-1$
 	private static final String XML_NAME_EMPTY = "UNNAMED"; //$NON-NLS-1$
 	private static final String XML_NAME_INVALID = "__INVALID_ELEMENT_NAME"; //$NON-NLS-1$
 	public static final String XML_ARRAY_DEPTH = "arrayDepth"; //$NON-NLS-1$
 	public static final String XML_ARRAY_ELEM = "arrayElem"; //$NON-NLS-1$
 
-	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	static final JsonFactory JSON_FACTORY = new JsonFactory();
 	private static final Attributes EMPTY_ATTRIBUTES = new AttributesImpl();
 	
 	private DefaultHandler handler;
@@ -410,7 +410,7 @@ public class JsonSaxParser extends SAXParser {
 		}
 	}
 	
-	private static String normalizeElementName(String name) {
+	static String normalizeElementName(String name) {
 		if(!XMLChar.isValidName(name) || name.contains(":")) { //$NON-NLS-1$
             if (name.trim().length() == 0) {
                 return XML_NAME_EMPTY;
@@ -0,0 +1,689 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.Defaults;
+import org.jetel.exception.BadDataFormatException;
+import org.jetel.exception.ComponentNotReadyException;
+import org.jetel.exception.JetelException;
+import org.jetel.exception.ParserExceptionHandlerFactory;
+import org.jetel.exception.PolicyType;
+import org.jetel.graph.runtime.SharedTaskExecutor;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * Parses a local delimited text file by several threads.<br>
+ * The file is read sequentially and split into chunks of complete records, see {@link Defaults.DataParser#PARALLEL_CHUNK_SIZE}.
+ * Chunk boundaries are found by a lightweight byte scanner which recognizes record and field delimiters
+ * and quoted strings the same way as {@link DataParser} does. Each chunk is parsed by a separate
+ * {@link TextParser} instance and resulting records are returned either in the original order
+ * or in the order the chunks have been parsed.<br>
+ * Only configurations accepted by {@link #isSupported(TextParserConfiguration)} can be parsed:
+ * delimited metadata with a record delimiter and a charset where delimiters and quotes cannot
+ * be part of other characters (single byte charsets and UTF-8).
+ *
+ * Standard usage:
+ * <pre>
+ * parser.init();
+ * parser.setDataSource(file, skipRecords);
+ * while (parser.getNext(record) != null) {...}
+ * parser.close();
+ * parser.free();
+ * </pre>
+ *
+ * @created 17. 10. 2026
+ */
+public class ParallelTextFileParser {
+
+	private final static Log logger = LogFactory.getLog(ParallelTextFileParser.class);
+
+	private final TextParserConfiguration cfg;
+	private final String parserClassName;
+	private final ClassLoader parserClassLoader;
+	private final PolicyType policyType;
+	private final int parallelism;
+	private final boolean preserveOrder;
+	private final int chunkSize;
+
+	/** encoded delimiters sorted by length, the longest first */
+	private byte[][] delimiters;
+	/** recordDelimiters[i] is true if delimiters[i] terminates a record */
+	private boolean[] recordDelimiters;
+	/** bytes which start a delimiter */
+	private final boolean[] delimiterStart = new boolean[256];
+	/** number of bytes the scanner needs to look ahead to decide on a delimiter or quote */
+	private int lookahead;
+	private boolean quotedStrings;
+	/** encoded quote character, -1 for both single and double quote */
+	private int quoteChar;
+	private boolean skipLeadingBlanks;
+
+	/** parsers of idle workers */
+	private final Queue<TextParser> parsers = new ConcurrentLinkedQueue<TextParser>();
+	/** released chunk buffers for reuse */
+	private final Queue<byte[]> freeBuffers = new ConcurrentLinkedQueue<byte[]>();
+
+	private FileChannel channel;
+	private byte[] buffer;
+	private int bufferLimit;
+	private boolean eof;
+	/** position after the last complete record found by {@link #scanRecords(byte[], int, int, boolean, int)} */
+	private int scanEnd;
+	/** number of records in chunks submitted so far */
+	private int recordCounter;
+
+	/** submitted chunks in the original order, used if the order is preserved */
+	private final ArrayDeque<Future<Chunk>> pendingChunks = new ArrayDeque<Future<Chunk>>();
+	/** chunks in the order of completion, used if the order is not preserved */
+	private CompletionService<Chunk> completionService;
+	private int pendingCount;
+	private Chunk currentChunk;
+
+	private volatile boolean closed;
+
+	/**
+	 * @param cfg configuration of the parser, see {@link #isSupported(TextParserConfiguration)}
+	 * @param parserClassName class name of parsers of the chunks, can be null
+	 * @param parserClassLoader class loader of the parser class, can be null
+	 * @param policyType data policy
+	 * @param parallelism maximal number of chunks parsed concurrently
+	 * @param preserveOrder true if records should be returned in the original order
+	 */
+	public ParallelTextFileParser(TextParserConfiguration cfg, String parserClassName, ClassLoader parserClassLoader,
+			PolicyType policyType, int parallelism, boolean preserveOrder) {
+		this.cfg = cfg;
+		this.parserClassName = parserClassName;
+		this.parserClassLoader = parserClassLoader;
+		this.policyType = policyType != null ? policyType : PolicyType.STRICT;
+		this.parallelism = Math.max(parallelism, 1);
+		this.preserveOrder = preserveOrder;
+		this.chunkSize = Math.max(Defaults.DataParser.PARALLEL_CHUNK_SIZE, 1024);
+	}
+
+	/**
+	 * Checks whether the given configuration can be parsed in parallel.
+	 * Reason of a refusal is logged on debug level.
+	 */
+	public static boolean isSupported(TextParserConfiguration cfg) {
+		DataRecordMetadata metadata = cfg.getMetadata();
+		if (metadata == null) {
+			return false;
+		}
+		Charset charset = Charset.forName(cfg.getCharset());
+		if (!TextParserConfiguration.isSingleByteCharset(charset) && !charset.name().equals("UTF-8")) {
+			logger.debug("Parallel parsing is not available for charset " + charset.name());
+			return false;
+		}
+		if (cfg.isTreatMultipleDelimitersAsOne()) {
+			logger.debug("Parallel parsing is not available if multiple delimiters are treated as one");
+			return false;
+		}
+		for (DataFieldMetadata field : metadata.getFields()) {
+			if (field.isAutoFilled()) {
+				continue;
+			}
+			if (!field.isDelimited() || field.isByteBased()) {
+				logger.debug("Parallel parsing is not available for field '" + field.getName() + "', only delimited string based fields are supported");
+				return false;
+			}
+		}
+		if (getRecordDelimiters(metadata).isEmpty()) {
+			logger.debug("Parallel parsing is not available for metadata without record delimiter");
+			return false;
+		}
+		Set<String> fieldDelimiters = getFieldDelimiters(metadata);
+		for (String recordDelimiter : getRecordDelimiters(metadata)) {
+			if (fieldDelimiters.contains(recordDelimiter)) {
+				logger.debug("Parallel parsing is not available if record delimiter is used as field delimiter too");
+				return false;
+			}
+		}
+		Character quoteChar = getQuoteChar(cfg);
+		if (isQuotedStrings(cfg) && quoteChar != null && encode(String.valueOf(quoteChar), charset).length != 1) {
+			logger.debug("Parallel parsing is not available for multibyte quote character");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Creates parsers of the workers.
+	 */
+	public void init() throws ComponentNotReadyException {
+		DataRecordMetadata metadata = cfg.getMetadata();
+		Charset charset = Charset.forName(cfg.getCharset());
+
+		Set<String> recordDelimiterSet = getRecordDelimiters(metadata);
+		List<String> allDelimiters = new ArrayList<String>(recordDelimiterSet);
+		for (String fieldDelimiter : getFieldDelimiters(metadata)) {
+			if (!recordDelimiterSet.contains(fieldDelimiter)) {
+				allDelimiters.add(fieldDelimiter);
+			}
+		}
+		final Charset encoding = charset;
+		String[] sortedDelimiters = allDelimiters.toArray(new String[allDelimiters.size()]);
+		Arrays.sort(sortedDelimiters, new Comparator<String>() {
+			@Override
+			public int compare(String s1, String s2) {
+				return encode(s2, encoding).length - encode(s1, encoding).length;
+			}
+		});
+		delimiters = new byte[sortedDelimiters.length][];
+		recordDelimiters = new boolean[sortedDelimiters.length];
+		lookahead = 2; // a quote has to be followed by another byte to recognize escaped quote
+		for (int i = 0; i < sortedDelimiters.length; i++) {
+			delimiters[i] = encode(sortedDelimiters[i], charset);
+			recordDelimiters[i] = recordDelimiterSet.contains(sortedDelimiters[i]);
+			delimiterStart[delimiters[i][0] & 0xFF] = true;
+			lookahead = Math.max(lookahead, delimiters[i].length);
+		}
+
+		quotedStrings = isQuotedStrings(cfg);
+		Character quote = getQuoteChar(cfg);
+		quoteChar = quote != null ? encode(String.valueOf(quote), charset)[0] & 0xFF : -1;
+		skipLeadingBlanks = false;
+		for (DataFieldMetadata field : metadata.getFields()) {
+			skipLeadingBlanks |= isSkipLeadingBlanks(field);
+		}
+
+		for (int i = 0; i < parallelism; i++) {
+			TextParser parser = TextParserFactory.getParser(cfg, parserClassName, parserClassLoader);
+			parser.setExceptionHandler(ParserExceptionHandlerFactory.getHandler(policyType));
+			parser.init();
+			parsers.add(parser);
+		}
+	}
+
+	/**
+	 * Opens the given file.
+	 *
+	 * @param file local file
+	 * @param skipRecords number of records to skip at the beginning of the file
+	 */
+	public void setDataSource(File file, int skipRecords) throws IOException {
+		close();
+		channel = new FileInputStream(file).getChannel();
+		buffer = new byte[chunkSize];
+		bufferLimit = 0;
+		eof = false;
+		recordCounter = 0;
+		closed = false;
+		completionService = new ExecutorCompletionService<Chunk>(SharedTaskExecutor.getInstance());
+
+		int skipped = 0;
+		while (skipped < skipRecords) {
+			fillBuffer();
+			int records = scanRecords(buffer, 0, bufferLimit, eof, skipRecords - skipped);
+			skipped += records;
+			System.arraycopy(buffer, scanEnd, buffer, 0, bufferLimit - scanEnd);
+			bufferLimit -= scanEnd;
+			if (records == 0) {
+				if (eof) {
+					logger.warn("End of input reached while skipping records");
+					break;
+				}
+				growBuffer();
+			}
+		}
+	}
+
+	/**
+	 * Returns next parsed record. Records of a chunk are returned in the original order,
+	 * chunks are returned in the original order only if it has been requested.
+	 *
+	 * @return the given record populated with next record or null if there is no more record
+	 * @throws BadDataFormatException if the record is not valid, record number
+	 * of the exception is counted from the beginning of the file
+	 */
+	public DataRecord getNext(DataRecord record) throws JetelException, InterruptedException {
+		while (true) {
+			if (currentChunk != null) {
+				Exception error = currentChunk.nextError();
+				if (error != null) {
+					throwError(error);
+				}
+				if (currentChunk.emittedRecords < currentChunk.recordCount) {
+					record.deserialize(currentChunk.records);
+					currentChunk.emittedRecords++;
+					return record;
+				}
+				currentChunk = null;
+			}
+			try {
+				submitChunks();
+			} catch (IOException e) {
+				throw new JetelException("Reading of input file failed.", e);
+			}
+			currentChunk = takeChunk();
+			if (currentChunk == null) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Releases parsers of the workers.
+	 */
+	public void free() throws IOException {
+		close();
+		TextParser parser;
+		while ((parser = parsers.poll()) != null) {
+			parser.close();
+		}
+		freeBuffers.clear();
+	}
+
+	/**
+	 * Stops the workers and closes the input file.
+	 */
+	public void close() throws IOException {
+		closed = true;
+		for (Future<Chunk> future : pendingChunks) {
+			future.cancel(false);
+		}
+		pendingChunks.clear();
+		pendingCount = 0;
+		currentChunk = null;
+		buffer = null;
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	private void throwError(Exception error) throws JetelException {
+		if (error instanceof BadDataFormatException) {
+			throw (BadDataFormatException) error;
+		} else if (error instanceof JetelException) {
+			throw (JetelException) error;
+		} else if (error instanceof RuntimeException) {
+			throw (RuntimeException) error;
+		} else {
+			throw new JetelException("Parsing of input file failed.", error);
+		}
+	}
+
+	/**
+	 * Submits chunks to workers until all workers are busy.
+	 */
+	private void submitChunks() throws IOException {
+		while (channel != null && pendingCount < parallelism) {
+			Chunk chunk = nextChunk();
+			if (chunk == null) {
+				channel.close();
+				channel = null;
+				return;
+			}
+			if (preserveOrder) {
+				pendingChunks.add(SharedTaskExecutor.getInstance().submit(new ParseTask(chunk)));
+			} else {
+				completionService.submit(new ParseTask(chunk));
+			}
+			pendingCount++;
+		}
+	}
+
+	/**
+	 * @return next parsed chunk or null if all chunks have been returned
+	 */
+	private Chunk takeChunk() throws JetelException, InterruptedException {
+		if (pendingCount == 0) {
+			return null;
+		}
+		Future<Chunk> future = preserveOrder ? pendingChunks.poll() : completionService.take();
+		pendingCount--;
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw new JetelException("Parsing of input file failed.", e.getCause());
+		}
+	}
+
+	/**
+	 * Reads next chunk of complete records from the input file.
+	 *
+	 * @return the chunk or null if the end of file has been reached
+	 */
+	private Chunk nextChunk() throws IOException {
+		while (true) {
+			fillBuffer();
+			int records = scanRecords(buffer, 0, bufferLimit, eof, Integer.MAX_VALUE);
+			if (records > 0) {
+				Chunk chunk = new Chunk(buffer, scanEnd, recordCounter);
+				recordCounter += records;
+
+				// the rest of the buffer is the beginning of the next chunk
+				int rest = bufferLimit - scanEnd;
+				byte[] nextBuffer = freeBuffers.poll();
+				if (nextBuffer == null || nextBuffer.length < 2 * rest) {
+					nextBuffer = new byte[Math.max(chunkSize, 2 * rest)];
+				}
+				System.arraycopy(buffer, scanEnd, nextBuffer, 0, rest);
+				buffer = nextBuffer;
+				bufferLimit = rest;
+				return chunk;
+			}
+			if (eof) {
+				return null;
+			}
+			growBuffer();
+		}
+	}
+
+	private void fillBuffer() throws IOException {
+		if (eof) {
+			return;
+		}
+		ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, bufferLimit, buffer.length - bufferLimit);
+		while (byteBuffer.hasRemaining()) {
+			if (channel.read(byteBuffer) < 0) {
+				eof = true;
+				break;
+			}
+		}
+		bufferLimit = byteBuffer.position();
+	}
+
+	/**
+	 * Enlarges the buffer if it is full and does not contain a complete record.
+	 */
+	private void growBuffer() {
+		if (bufferLimit == buffer.length) {
+			buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+		}
+	}
+
+	/**
+	 * Scans records of the given data. Stops after <code>maxRecords</code> records or before
+	 * the first incomplete record. A record is complete if it is terminated by a record delimiter
+	 * which is not quoted; at the end of file the rest of data is a complete record too.
+	 * Position after the last complete record is stored to {@link #scanEnd}.
+	 *
+	 * @return number of complete records
+	 */
+	private int scanRecords(byte[] data, int from, int limit, boolean eof, int maxRecords) {
+		// near the end of data delimiters and quotes could be recognized incorrectly
+		int scanLimit = eof ? limit : limit - lookahead;
+		int records = 0;
+		int recordEnd = from;
+		boolean fieldStart = true;
+		boolean inQuote = false;
+		int startQuote = -1;
+		int i = from;
+		while (i < scanLimit && records < maxRecords) {
+			int b = data[i] & 0xFF;
+			if (inQuote) {
+				if (b == startQuote) {
+					if (i + 1 < limit && (data[i + 1] & 0xFF) == startQuote) {
+						// double quote is an escaped quote character
+						i += 2;
+						continue;
+					}
+					inQuote = false;
+				}
+				i++;
+				continue;
+			}
+			if (fieldStart && quotedStrings && isQuote(b)) {
+				inQuote = true;
+				startQuote = b;
+				fieldStart = false;
+				i++;
+				continue;
+			}
+			if (delimiterStart[b]) {
+				int delimiter = matchDelimiter(data, i, limit);
+				if (delimiter >= 0) {
+					i += delimiters[delimiter].length;
+					fieldStart = true;
+					if (recordDelimiters[delimiter]) {
+						recordEnd = i;
+						records++;
+					}
+					continue;
+				}
+			}
+			if (fieldStart && !(skipLeadingBlanks && (b == ' ' || b == '\t'))) {
+				fieldStart = false;
+			}
+			i++;
+		}
+		if (eof && i >= limit && recordEnd < limit && records < maxRecords) {
+			// the last record is not terminated by record delimiter
+			recordEnd = limit;
+			records++;
+		}
+		scanEnd = recordEnd;
+		return records;
+	}
+
+	private boolean isQuote(int b) {
+		return quoteChar == -1 ? (b == '"' || b == '\'') : b == quoteChar;
+	}
+
+	/**
+	 * @return index of the longest delimiter at the given position or -1
+	 */
+	private int matchDelimiter(byte[] data, int position, int limit) {
+		for (int i = 0; i < delimiters.length; i++) {
+			byte[] delimiter = delimiters[i];
+			if (position + delimiter.length > limit) {
+				continue;
+			}
+			int j = 0;
+			while (j < delimiter.length && data[position + j] == delimiter[j]) {
+				j++;
+			}
+			if (j == delimiter.length) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return delimiters which terminate a record - delimiters of the last parsed field and record delimiters
+	 */
+	private static Set<String> getRecordDelimiters(DataRecordMetadata metadata) {
+		Set<String> result = new LinkedHashSet<String>();
+		int lastField = getLastParsedField(metadata);
+		if (lastField >= 0 && metadata.getField(lastField).getDelimiters() != null) {
+			result.addAll(Arrays.asList(metadata.getField(lastField).getDelimiters()));
+		}
+		if (metadata.isSpecifiedRecordDelimiter()) {
+			result.addAll(Arrays.asList(metadata.getRecordDelimiters()));
+		}
+		return result;
+	}
+
+	/**
+	 * @return delimiters of parsed fields except the last one
+	 */
+	private static Set<String> getFieldDelimiters(DataRecordMetadata metadata) {
+		Set<String> result = new LinkedHashSet<String>();
+		int lastField = getLastParsedField(metadata);
+		for (int i = 0; i < lastField; i++) {
+			DataFieldMetadata field = metadata.getField(i);
+			if (!field.isAutoFilled() && field.getDelimiters() != null) {
+				result.addAll(Arrays.asList(field.getDelimiters()));
+			}
+		}
+		return result;
+	}
+
+	private static int getLastParsedField(DataRecordMetadata metadata) {
+		int lastField = metadata.getNumFields() - 1;
+		while (lastField >= 0 && metadata.getField(lastField).isAutoFilled()) {
+			lastField--;
+		}
+		return lastField;
+	}
+
+	private static boolean isQuotedStrings(TextParserConfiguration cfg) {
+		return cfg.isQuotedStringsOverride() ? cfg.isQuotedStrings() : cfg.getMetadata().isQuotedStrings();
+	}
+
+	private static Character getQuoteChar(TextParserConfiguration cfg) {
+		return cfg.isQuotedStringsOverride() ? cfg.getQuoteChar() : cfg.getMetadata().getQuoteChar();
+	}
+
+	private boolean isSkipLeadingBlanks(DataFieldMetadata field) {
+		if (cfg.getSkipLeadingBlanks() != null) {
+			return cfg.getSkipLeadingBlanks();
+		} else if (cfg.getTrim() != null) {
+			return cfg.getTrim();
+		} else {
+			return field.isSkipLeadingBlanks();
+		}
+	}
+
+	private static byte[] encode(String value, Charset charset) {
+		return value.getBytes(charset);
+	}
+
+
+	/**
+	 * Chunk of complete records of the input file and result of its parsing.
+	 */
+	private static final class Chunk {
+		/** raw data, released after parsing */
+		private byte[] data;
+		private final int length;
+		/** number of records in the file before this chunk */
+		private final int firstRecord;
+
+		/** serialized parsed records */
+		private CloverBuffer records;
+		private int recordCount;
+		private int emittedRecords;
+
+		/** errors and number of records parsed before each error */
+		private final List<Exception> errors = new ArrayList<Exception>();
+		private final List<Integer> errorPositions = new ArrayList<Integer>();
+		private int emittedErrors;
+
+		public Chunk(byte[] data, int length, int firstRecord) {
+			this.data = data;
+			this.length = length;
+			this.firstRecord = firstRecord;
+		}
+
+		public void addError(Exception error) {
+			errors.add(error);
+			errorPositions.add(recordCount);
+		}
+
+		/**
+		 * @return error which precedes next record or null
+		 */
+		public Exception nextError() {
+			if (emittedErrors < errors.size() && errorPositions.get(emittedErrors) == emittedRecords) {
+				return errors.get(emittedErrors++);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Parses one chunk by an idle parser.
+	 */
+	private final class ParseTask implements Callable<Chunk> {
+
+		private final Chunk chunk;
+
+		public ParseTask(Chunk chunk) {
+			this.chunk = chunk;
+		}
+
+		@Override
+		public Chunk call() {
+			CloverBuffer records = CloverBuffer.allocate(chunk.length + chunk.length / 2);
+			TextParser parser = parsers.poll();
+			try {
+				if (parser == null) {
+					parser = TextParserFactory.getParser(cfg, parserClassName, parserClassLoader);
+					parser.setExceptionHandler(ParserExceptionHandlerFactory.getHandler(policyType));
+					parser.init();
+				}
+				parser.setDataSource(Channels.newChannel(new ByteArrayInputStream(chunk.data, 0, chunk.length)));
+				DataRecord record = DataRecordFactory.newRecord(cfg.getMetadata());
+				while (!closed) {
+					try {
+						if (parser.getNext(record) == null) {
+							break;
+						}
+						record.serialize(records);
+						chunk.recordCount++;
+					} catch (BadDataFormatException e) {
+						if (e.getRecordNumber() > -1) {
+							e.setRecordNumber(chunk.firstRecord + e.getRecordNumber());
+						}
+						chunk.addError(e);
+						if (policyType == PolicyType.STRICT || e.isFatal()) {
+							break;
+						}
+					}
+				}
+			} catch (Exception e) {
+				chunk.addError(e);
+			} finally {
+				if (parser != null) {
+					parsers.add(parser);
+				}
+				if (chunk.data.length == chunkSize) {
+					freeBuffers.add(chunk.data);
+				}
+				chunk.data = null;
+			}
+			records.flip();
+			chunk.records = records;
+			return chunk;
+		}
+	}
+
+}
@@ -0,0 +1,808 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.jetel.data.DataRecord;
+import org.jetel.data.formatter.XLSFormatter;
+import org.jetel.data.formatter.XLSXDataFormatter;
+import org.jetel.exception.BadDataFormatException;
+import org.jetel.exception.ComponentNotReadyException;
+import org.jetel.exception.JetelException;
+import org.jetel.exception.JetelRuntimeException;
+import org.jetel.graph.ContextProvider;
+import org.jetel.graph.runtime.IAuthorityProxy;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.NumberIterator;
+import org.jetel.util.file.WcardPattern;
+import org.jetel.util.spreadsheet.SpreadsheetUtils;
+import org.jetel.util.spreadsheet.XSSFSheetRowReader;
+import org.jetel.util.spreadsheet.XSSFSheetRowReader.SheetRow;
+import org.jetel.util.stream.StreamUtils;
+import org.jetel.util.string.StringUtils;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheet;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+
+/**
+ * Represents a XLSX data parser which reads the sheets row by row from the sheet XML, unlike
+ * {@link XLSXDataParser} which builds the whole workbook in memory. Only the shared strings
+ * and the cell styles of the workbook are held in memory. The data source is copied
+ * into a temporary file, so that the workbook parts can be accessed randomly.
+ *
+ * @created 17. 10. 2026
+ */
+public class XLSXStreamingDataParser extends XLSParser {
+
+	/** the temporary copy of the data source */
+	private File tempFile;
+	/** the workbook package opened from the temporary file */
+	private OPCPackage opcPackage;
+	private XSSFReader xssfReader;
+	private ReadOnlySharedStringsTable sharedStrings;
+	private boolean use1904Windowing;
+
+	/** data format index of cell styles */
+	private short[] formatIndices;
+	/** data format string of cell styles */
+	private String[] formatStrings;
+
+	/** names of the sheets of the workbook */
+	private String[] sheetNames;
+	/** relationship ids of the sheet parts */
+	private String[] sheetIds;
+
+	/** index of currently parsed sheet */
+	private int sheetIndex = -1;
+	/** reader of currently parsed sheet */
+	private XSSFSheetRowReader rowReader;
+	/** the last row read by rowReader, <code>null</code> at the end of the sheet */
+	private SheetRow row;
+
+	public XLSXStreamingDataParser(DataRecordMetadata metadata) {
+		super(metadata);
+	}
+
+	@Override
+	protected void releaseDataSource() {
+		// not used, data source is closed immediately
+	}
+
+	@Override
+	public void setDataSource(Object dataSource) throws ComponentNotReadyException {
+		if (dataSource == null) {
+			throw new NullPointerException("dataSource");
+		}
+
+		InputStream dataInputStream = null;
+
+		if (dataSource instanceof InputStream) {
+			dataInputStream = (InputStream) dataSource;
+		} else if (dataSource instanceof ReadableByteChannel) {
+			dataInputStream = Channels.newInputStream((ReadableByteChannel) dataSource);
+		} else {
+			throw new IllegalArgumentException(dataSource.getClass() + " not supported as a data source");
+		}
+
+		close();
+
+		try {
+			tempFile = IAuthorityProxy.getAuthorityProxy(ContextProvider.getGraph()).newTempFile("cloveretl-xlsx-source", ".xlsx", -1);
+			OutputStream tempOutputStream = new FileOutputStream(tempFile);
+			try {
+				StreamUtils.copy(dataInputStream, tempOutputStream);
+			} finally {
+				tempOutputStream.close();
+			}
+			openWorkbook();
+		} catch (Exception exception) {
+			close();
+			throw new ComponentNotReadyException("Error opening the XLSX workbook!", exception);
+		} finally {
+			if (releaseDataSource) {
+				try {
+					dataInputStream.close();
+				} catch (IOException exception) {
+					throw new ComponentNotReadyException("Error releasing the data source!", exception);
+				}
+			}
+		}
+
+		if (sheetName == null && sheetNumber != null) {
+			sheetNumberIterator = new NumberIterator(sheetNumber, 0, Integer.MAX_VALUE);
+		}
+
+		sheetIndex = -1;
+		sheetCounter = -1;
+		currentRow = firstRow;
+
+		if (!getNextSheet()) {
+			throw new ComponentNotReadyException("There is no sheet conforming sheet name nor sheet number pattern");
+		}
+
+		if (metadata != null) {
+			fieldNumber = new int[metadata.getNumFields()][2];
+			mapFields();
+		}
+	}
+
+	/**
+	 * Reads shared strings, cell styles and the list of sheets of the workbook in the temporary file.
+	 */
+	private void openWorkbook() throws Exception {
+		opcPackage = OPCPackage.open(tempFile.getPath(), PackageAccess.READ);
+		xssfReader = new XSSFReader(opcPackage);
+		sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+		use1904Windowing = SpreadsheetUtils.get1904Windowing(xssfReader);
+
+		StylesTable styles = xssfReader.getStylesTable();
+		int numCellStyles = (styles != null) ? styles.getNumCellStyles() : 0;
+		formatIndices = new short[numCellStyles];
+		formatStrings = new String[numCellStyles];
+		for (int i = 0; i < numCellStyles; i++) {
+			XSSFCellStyle cellStyle = styles.getStyleAt(i);
+			formatIndices[i] = cellStyle.getDataFormat();
+			formatStrings[i] = cellStyle.getDataFormatString();
+		}
+
+		InputStream workbookData = xssfReader.getWorkbookData();
+		try {
+			CTSheet[] sheets = WorkbookDocument.Factory.parse(workbookData).getWorkbook().getSheets().getSheetArray();
+			sheetNames = new String[sheets.length];
+			sheetIds = new String[sheets.length];
+			for (int i = 0; i < sheets.length; i++) {
+				sheetNames[i] = sheets[i].getName();
+				sheetIds[i] = sheets[i].getId();
+			}
+		} finally {
+			workbookData.close();
+		}
+	}
+
+	/**
+	 * Starts reading of the sheet with the given index from its first row.
+	 */
+	private void openSheet(int index) throws Exception {
+		closeSheet();
+		rowReader = new XSSFSheetRowReader(xssfReader.getSheet(sheetIds[index]), sharedStrings);
+		sheetIndex = index;
+		row = rowReader.nextRow();
+	}
+
+	private void closeSheet() {
+		if (rowReader != null) {
+			try {
+				rowReader.close();
+			} catch (IOException e) {
+				logger.warn("Error closing the sheet!", e);
+			}
+			rowReader = null;
+		}
+		row = null;
+	}
+
+	@Override
+	protected boolean getNextSheet() {
+		if (useIncrementalReading && sheetIndex > -1) {
+			if (incremental == null) {
+				incremental = new Incremental();
+			}
+
+			incremental.setRow(sheetNames[sheetCounter], currentRow);
+		}
+
+		if (sheetNumberIterator != null) {
+			//
+			// get the next sheet corresponding to the value of the sheetNumber attribute
+			//
+
+			if (!sheetNumberIterator.hasNext()) {
+				return false;
+			}
+
+			sheetCounter = sheetNumberIterator.next().shortValue();
+
+			if (sheetCounter >= sheetNames.length) {
+				return false;
+			}
+		} else {
+			//
+			// get the next sheet corresponding to the value of the sheetName attribute
+			//
+
+			while (++sheetCounter < sheetNames.length) {
+				if (WcardPattern.checkName(sheetName, sheetNames[sheetCounter])) {
+					break;
+				}
+			}
+
+			if (sheetCounter >= sheetNames.length) {
+				return false;
+			}
+		}
+
+		try {
+			openSheet(sheetCounter);
+		} catch (Exception e) {
+			throw new JetelRuntimeException("Error reading sheet " + StringUtils.quote(sheetNames[sheetCounter]), e);
+		}
+
+		currentRow = firstRow;
+
+		// the number of rows is not known in advance, the end of the sheet is detected by the row reader
+		lastRow = (lastRowAttribute == -1) ? Integer.MAX_VALUE : lastRowAttribute;
+
+		discardBytes(autoFillingSheetName = sheetNames[sheetCounter]);
+		logger.info("Reading data from sheet " + sheetCounter + " (" + sheetNames[sheetCounter] + ").");
+
+		return true;
+	}
+
+	/**
+	 * Moves the row reader of current sheet to the row with the given number.
+	 *
+	 * @return the row or <code>null</code> if the row is missing in the sheet
+	 */
+	private SheetRow getRow(int rowNum) throws XMLStreamException {
+		while (row != null && row.getRowNum() < rowNum) {
+			row = rowReader.nextRow();
+		}
+
+		return (row != null && row.getRowNum() == rowNum) ? row : null;
+	}
+
+	/**
+	 * Reads the given rows of current sheet by a separate row reader, the position
+	 * of the parser is not affected.
+	 *
+	 * @return copies of the rows, missing rows are <code>null</code>
+	 */
+	private SheetRow[] readRows(int startRow, int length) {
+		SheetRow[] rows = new SheetRow[Math.max(length, 0)];
+
+		if (sheetIndex < 0 || length <= 0) {
+			return rows;
+		}
+
+		XSSFSheetRowReader reader = null;
+		try {
+			reader = new XSSFSheetRowReader(xssfReader.getSheet(sheetIds[sheetIndex]), sharedStrings);
+			SheetRow sheetRow;
+			while ((sheetRow = reader.nextRow()) != null && sheetRow.getRowNum() < startRow + length) {
+				if (sheetRow.getRowNum() >= startRow) {
+					rows[sheetRow.getRowNum() - startRow] = sheetRow.copy();
+				}
+			}
+		} catch (Exception e) {
+			throw new JetelRuntimeException("Error reading sheet " + StringUtils.quote(sheetNames[sheetIndex]), e);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+					logger.warn("Error closing the sheet!", e);
+				}
+			}
+		}
+
+		return rows;
+	}
+
+	private SheetRow readRow(int rowNum) {
+		return readRows(rowNum, 1)[0];
+	}
+
+	@Override
+	protected void cloverfieldsAndXlsNames(Map<String, Integer> fieldNames) throws ComponentNotReadyException {
+		if (fieldNames == null) {
+			throw new NullPointerException("fieldNames");
+		}
+
+		if (cloverFields.length != xlsFields.length) {
+			throw new ComponentNotReadyException("Number of clover fields and XLSX fields must be the same");
+		}
+
+		SheetRow namesRow = readMetadataRow();
+		int numberOfFoundFields = 0;
+
+		for (int i = 0; i < namesRow.getLastCellNum(); i++) {
+			if (namesRow.getCellType(i) != Cell.CELL_TYPE_BLANK) {
+				String cellValue = namesRow.getValue(i);
+				int xlsNumber = StringUtils.findString(cellValue, xlsFields);
+
+				if (xlsNumber > -1) {// string from cell found in xlsFields attribute
+					fieldNumber[numberOfFoundFields][XLS_NUMBER] = i;
+
+					try {
+						fieldNumber[numberOfFoundFields][CLOVER_NUMBER] = fieldNames.get(cloverFields[xlsNumber]);
+					} catch (NullPointerException ex) {
+						throw new ComponentNotReadyException("Clover field \"" + cloverFields[xlsNumber] + "\" not found");
+					}
+
+					numberOfFoundFields++;
+				} else {
+					logger.warn("There is no field corresponding to \"" + cellValue + "\" in output metadata");
+				}
+			}
+		}
+
+		if (numberOfFoundFields < cloverFields.length) {
+			logger.warn("Not all fields found");
+		}
+	}
+
+	@Override
+	protected void mapNames(Map<String, Integer> fieldNames) throws ComponentNotReadyException {
+		if (fieldNames == null) {
+			throw new NullPointerException("fieldNames");
+		}
+
+		SheetRow namesRow = readMetadataRow();
+		int numberOfFoundFields = 0;
+
+		for (int i = 0; i < namesRow.getLastCellNum(); i++) {
+			if (namesRow.getCellType(i) != Cell.CELL_TYPE_BLANK) {
+				String cellValue = namesRow.getValue(i);
+
+				if (fieldNames.containsKey(cellValue)) {// corresponding field in metadata found
+					fieldNumber[numberOfFoundFields][XLS_NUMBER] = i;
+					fieldNumber[numberOfFoundFields][CLOVER_NUMBER] = fieldNames.get(cellValue);
+					numberOfFoundFields++;
+
+					fieldNames.remove(cellValue);
+				} else {
+					logger.warn("There is no field \"" + cellValue + "\" in output metadata");
+				}
+			}
+		}
+
+		if (numberOfFoundFields < metadata.getNumFields()) {
+			logger.warn("Not all fields found:");
+
+			for (String fieldName : fieldNames.keySet()) {
+				logger.warn(fieldName);
+			}
+		}
+	}
+
+	private SheetRow readMetadataRow() throws ComponentNotReadyException {
+		SheetRow namesRow = readRow(metadataRow);
+
+		if (namesRow == null) {
+			throw new ComponentNotReadyException("Metadata row (" + metadataRow + ") doesn't exist in sheet "
+					+ StringUtils.quote(sheetNames[sheetIndex]) + "!");
+		}
+
+		return namesRow;
+	}
+
+	@Override
+	public String[] getNames() throws ComponentNotReadyException {
+		List<String> names = new ArrayList<String>();
+		int namesRowNum = (metadataRow > -1) ? metadataRow : firstRow;
+		SheetRow namesRow = readRow(namesRowNum);
+
+		if (namesRow == null) {
+			throw new ComponentNotReadyException("Metadata row (" + namesRowNum +
+					") doesn't exist in sheet " + StringUtils.quote(sheetNames[sheetIndex]) + "!");
+		}
+
+		for (int i = 0; i < namesRow.getLastCellNum(); i++) {
+			if (namesRow.getCellType(i) != Cell.CELL_TYPE_BLANK) {
+				String cellValue = formatCellValue(namesRow, i);
+				names.add(XLSFormatter.getCellCode(i) + " - " + cellValue.substring(0, Math.min(cellValue.length(), MAX_NAME_LENGTH)));
+			}
+		}
+
+		return names.toArray(new String[names.size()]);
+	}
+
+	@Override
+	public DataRecordMetadata createMetadata() {
+		if (sheetIndex < 0) {
+			return null;
+		}
+
+		DataRecordMetadata xlsMetadata = new DataRecordMetadata(DataRecordMetadata.EMPTY_NAME, DataRecordMetadata.DELIMITED_RECORD);
+		xlsMetadata.setLabel(sheetNames[sheetIndex]);
+		xlsMetadata.setFieldDelimiter(DEFAULT_FIELD_DELIMITER);
+		xlsMetadata.setRecordDelimiter(DEFAULT_RECORD_DELIMITER);
+
+		SheetRow namesRow = readRow((metadataRow > -1) ? metadataRow : firstRow);
+		SheetRow dataRow = readRow(firstRow);
+
+		if (dataRow == null) {
+			for (SheetRow sheetRow : readRows(0, 100)) {
+				if (sheetRow != null) {
+					dataRow = sheetRow;
+					break;
+				}
+			}
+		}
+
+		if (namesRow == null || dataRow == null) {
+			return xlsMetadata;
+		}
+
+		int maxNumberOfColumns = Math.max(namesRow.getLastCellNum(), dataRow.getLastCellNum());
+
+		for (int i = 0; i < maxNumberOfColumns; i++) {
+			int cellType = dataRow.getCellType(i);
+
+			if (namesRow.getRowNum() != dataRow.getRowNum()
+					&& namesRow.getCellType(i) == Cell.CELL_TYPE_BLANK
+					&& cellType == Cell.CELL_TYPE_BLANK) {
+				continue;
+			}
+
+			String cellName = (metadataRow > -1 && namesRow.getCellType(i) != Cell.CELL_TYPE_BLANK) ?
+					formatCellValue(namesRow, i) : XLSFormatter.getCellCode(i);
+
+			DataFieldMetadata dataField = null;
+
+			if (cellType == Cell.CELL_TYPE_BOOLEAN) {
+				dataField = new DataFieldMetadata(DataFieldMetadata.EMPTY_NAME, DataFieldMetadata.BOOLEAN_FIELD, null);
+			} else if (cellType == Cell.CELL_TYPE_NUMERIC) {
+				int styleIndex = dataRow.getStyleIndex(i);
+				dataField = new DataFieldMetadata(DataFieldMetadata.EMPTY_NAME, isDateFormatted(dataRow, i)
+						? DataFieldMetadata.DATE_FIELD : DataFieldMetadata.NUMERIC_FIELD, null);
+				String formatString = getFormatString(styleIndex);
+
+				if (formatString != null && !formatString.equals(XLSXDataFormatter.GENERAL_FORMAT_STRING)) {
+					dataField.setFormatStr(formatString);
+				}
+			} else {
+				dataField = new DataFieldMetadata(DataFieldMetadata.EMPTY_NAME, DataFieldMetadata.STRING_FIELD, null);
+			}
+
+			dataField.setLabel(cellName);
+			xlsMetadata.addField(dataField);
+		}
+
+		xlsMetadata.normalize();
+
+		return xlsMetadata;
+	}
+
+	@Override
+	public String[][] getPreview(int startRow, int length) {
+		if (sheetIndex < 0) {
+			return null;
+		}
+
+		SheetRow[] rows = readRows(startRow, length);
+		int resultLength = rows.length;
+
+		while (resultLength > 0 && rows[resultLength - 1] == null) {
+			resultLength--;
+		}
+
+		String[][] result = new String[resultLength][];
+
+		for (int i = 0; i < resultLength; i++) {
+			SheetRow sheetRow = rows[i];
+			if (sheetRow != null && sheetRow.getLastCellNum() > 0) {
+				result[i] = new String[sheetRow.getLastCellNum()];
+
+				for (int j = 0; j < sheetRow.getLastCellNum(); j++) {
+					if (sheetRow.getCellType(j) != Cell.CELL_TYPE_BLANK) {
+						String cellValue = formatCellValue(sheetRow, j);
+
+						if (cellValue.length() > MAX_NAME_LENGTH) {
+							cellValue = cellValue.substring(0, MAX_NAME_LENGTH) + "...";
+						}
+
+						result[i][j] = cellValue;
+					}
+				}
+			} else {
+				result[i] = new String[]{"", ""};
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public String[][] getPreview(int length) {
+		return getPreview(0, length);
+	}
+
+	@Override
+	public String[] getSheets() {
+		return (sheetNames != null) ? sheetNames.clone() : null;
+	}
+
+	@Override
+	public String getSheetName(int index) {
+		if (sheetNames == null) {
+			return null;
+		}
+
+		return sheetNames[index];
+	}
+
+	@Override
+	public boolean getSheet(int sheetNumber) {
+		if (sheetNumber >= sheetNames.length) {
+			return false;
+		}
+
+		try {
+			openSheet(sheetNumber);
+		} catch (Exception e) {
+			throw new JetelRuntimeException("Error reading sheet " + StringUtils.quote(sheetNames[sheetNumber]), e);
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean getSheet(String sheetName) {
+		for (int i = 0; i < sheetNames.length; i++) {
+			if (sheetNames[i].equals(sheetName)) {
+				return getSheet(i);
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public int skip(int nRec) {
+		int skipped = 0;
+
+		try {
+			while (skipped < nRec && currentRow < lastRow) {
+				getRow(currentRow);
+				if (row == null) {
+					break;
+				}
+				currentRow++;
+				skipped++;
+			}
+		} catch (XMLStreamException e) {
+			throw new JetelRuntimeException("Error reading sheet " + StringUtils.quote(sheetNames[sheetIndex]), e);
+		}
+
+		return skipped;
+	}
+
+	@Override
+	protected DataRecord parseNext(DataRecord record) throws JetelException {
+		if (record == null) {
+			throw new NullPointerException("record");
+		}
+
+		if (currentRow >= lastRow) {
+			return null;
+		}
+
+		SheetRow sheetRow;
+		try {
+			sheetRow = getRow(currentRow);
+		} catch (XMLStreamException e) {
+			throw new JetelException("Error reading sheet " + StringUtils.quote(sheetNames[sheetIndex]), e);
+		}
+
+		if (row == null) {
+			// end of the sheet
+			return null;
+		}
+
+		if (sheetRow != null) {
+			for (short i = 0; i < fieldNumber.length; i++) {
+				int cloverFieldIndex = fieldNumber[i][CLOVER_NUMBER];
+				// skip fields that are internally filled
+				// skip fields with no metadata attached
+				if (cloverFieldIndex == -1 || isAutoFilling[cloverFieldIndex]) {
+					continue;
+				}
+
+				setFieldValue(record, cloverFieldIndex, sheetRow, fieldNumber[i][XLS_NUMBER]);
+			}
+		} else {
+			for (int i = 0; i < record.getNumFields(); i++) {
+				try {
+					record.getField(i).setNull(true);
+				} catch (BadDataFormatException e) {
+					handleException(new BadDataFormatException("There is no data row for field. Moreover, cannot set default value or null", e), record, i, null);
+				}
+			}
+		}
+
+		currentRow++;
+		recordCounter++;
+
+		return record;
+	}
+
+	private void setFieldValue(DataRecord record, int cloverFieldIndex, SheetRow sheetRow, int column) {
+		int cellType = sheetRow.getCellType(column);
+
+		if (cellType == Cell.CELL_TYPE_BLANK) {
+			try {
+				record.getField(cloverFieldIndex).setNull(true);
+			} catch (BadDataFormatException e) {
+				handleException(new BadDataFormatException("There is no data cell for field. Moreover, cannot set default value or null", e), record, cloverFieldIndex, null);
+			}
+			return;
+		}
+
+		char type = metadata.getField(cloverFieldIndex).getType();
+
+		try {
+			switch (type) {
+				case DataFieldMetadata.DATE_FIELD:
+				case DataFieldMetadata.DATETIME_FIELD:
+					record.getField(cloverFieldIndex).setValue(DateUtil.getJavaDate(getNumericValue(sheetRow, column), use1904Windowing));
+					break;
+				case DataFieldMetadata.BYTE_FIELD:
+				case DataFieldMetadata.STRING_FIELD:
+					record.getField(cloverFieldIndex).fromString(formatCellValue(sheetRow, column));
+					break;
+				case DataFieldMetadata.DECIMAL_FIELD:
+				case DataFieldMetadata.INTEGER_FIELD:
+				case DataFieldMetadata.LONG_FIELD:
+				case DataFieldMetadata.NUMERIC_FIELD:
+					record.getField(cloverFieldIndex).setValue(getNumericValue(sheetRow, column));
+					break;
+				case DataFieldMetadata.BOOLEAN_FIELD:
+					if (cellType != Cell.CELL_TYPE_BOOLEAN) {
+						throw new IllegalStateException("Cannot get a boolean value from a non-boolean cell");
+					}
+					record.getField(cloverFieldIndex).setValue(Boolean.valueOf(sheetRow.getValue(column)));
+					break;
+			}
+		} catch (RuntimeException exception) { // exception when trying get date or number from a different cell type
+			try {
+				record.getField(cloverFieldIndex).fromString(formatCellValue(sheetRow, column));
+			} catch (Exception ex) {
+				BadDataFormatException bdfe;
+				if (ex instanceof BadDataFormatException) {
+					bdfe = (BadDataFormatException) ex;
+				} else {
+					bdfe = new BadDataFormatException(ex);
+				}
+				handleException(bdfe, record, cloverFieldIndex, sheetRow.getValue(column));
+			}
+		}
+	}
+
+	private static double getNumericValue(SheetRow sheetRow, int column) {
+		if (sheetRow.getCellType(column) != Cell.CELL_TYPE_NUMERIC) {
+			throw new IllegalStateException("Cannot get a numeric value from a non-numeric cell");
+		}
+
+		return Double.parseDouble(sheetRow.getValue(column));
+	}
+
+	/**
+	 * @return cell value formatted by the data format of the cell style, the same as the value
+	 * returned by the data formatter for a cell of the workbook
+	 */
+	private String formatCellValue(SheetRow sheetRow, int column) {
+		switch (sheetRow.getCellType(column)) {
+			case Cell.CELL_TYPE_NUMERIC:
+				int styleIndex = sheetRow.getStyleIndex(column);
+				return dataFormatter.formatRawCellContents(Double.parseDouble(sheetRow.getValue(column)),
+						getFormatIndex(styleIndex), getFormatString(styleIndex), use1904Windowing);
+			case Cell.CELL_TYPE_BLANK:
+				return "";
+			default:
+				return sheetRow.getValue(column);
+		}
+	}
+
+	private boolean isDateFormatted(SheetRow sheetRow, int column) {
+		int styleIndex = sheetRow.getStyleIndex(column);
+
+		return DateUtil.isValidExcelDate(Double.parseDouble(sheetRow.getValue(column)))
+				&& DateUtil.isADateFormat(getFormatIndex(styleIndex), getFormatString(styleIndex));
+	}
+
+	private int getFormatIndex(int styleIndex) {
+		return (styleIndex < formatIndices.length) ? formatIndices[styleIndex] : 0;
+	}
+
+	private String getFormatString(int styleIndex) {
+		String formatString = (styleIndex < formatStrings.length) ? formatStrings[styleIndex] : null;
+
+		return (formatString != null) ? formatString : XLSXDataFormatter.GENERAL_FORMAT_STRING;
+	}
+
+	private void handleException(BadDataFormatException bdfe, DataRecord record, int cloverFieldIndex, String cellValue) {
+		bdfe.setRecordNumber(currentRow + 1);
+		bdfe.setFieldNumber(cloverFieldIndex);
+
+		if (exceptionHandler != null) { // use handler only if configured
+			exceptionHandler.populateHandler(getErrorMessage(currentRow + 1,
+					cloverFieldIndex), record, currentRow + 1, cloverFieldIndex, cellValue, bdfe);
+		} else {
+			throw new RuntimeException(getErrorMessage(currentRow + 1, cloverFieldIndex), bdfe);
+		}
+	}
+
+	@Override
+	public void reset() throws ComponentNotReadyException {
+		super.reset();
+
+		close();
+	}
+
+	@Override
+	public void close() {
+		closeSheet();
+		sheetIndex = -1;
+
+		if (opcPackage != null) {
+			opcPackage.revert();
+			opcPackage = null;
+		}
+		xssfReader = null;
+		sharedStrings = null;
+		formatIndices = null;
+		formatStrings = null;
+		sheetNames = null;
+		sheetIds = null;
+
+		if (tempFile != null) {
+			if (!tempFile.delete()) {
+				logger.warn("Cannot delete temporary file " + tempFile);
+			}
+			tempFile = null;
+		}
+	}
+
+	@Override
+	public void preExecute() throws ComponentNotReadyException {
+		reset();
+	}
+
+	@Override
+	public void postExecute() throws ComponentNotReadyException {
+		close();
+	}
+
+	@Override
+	public void free() {
+		close();
+	}
+
+}
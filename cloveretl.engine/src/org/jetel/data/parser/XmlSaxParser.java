@@ -265,7 +265,7 @@ public class XmlSaxParser {
 		}
 	}
 
-	private String getParseErrorMessage() {
+	protected String getParseErrorMessage() {
 		String message = "Unexpected XML parsing exception";
 		InputPort inputPort = parentComponent.getInputPort(0);
 		if (inputPort != null) {
@@ -431,6 +431,202 @@ public class XmlSaxParser {
 		performMapping(transformation, inputRecord, record, "Input field transformation failed");
 	}
 
+	/**
+	 * Prepares the output record of the mapping whose element has just been matched - sets the sequence field, the
+	 * generated key and the fields from ancestors.
+	 * 
+	 * @param mapping the mapping of the started element
+	 * @throws SAXException
+	 */
+	protected void startMapping(XMLElementRuntimeMappingModel mapping) throws SAXException {
+		if (mapping.getOutputRecord() != null) {
+
+			if (mapping.getFieldTransformation() != null) {
+				applyInputFieldTransformation(mapping.getFieldTransformation(), mapping.getOutputRecord());
+			}
+
+			Map<String, String> headersToFields = mapping.getResponseHttpHeadersToOutputFields();
+							
+			if (headersToFields != null && !headersToFields.isEmpty()) {
+				for (Map.Entry<String, String> entry : headersToFields.entrySet()) {
+					//if there is a field with given name
+					if (mapping.getOutputRecord().hasField(entry.getValue())) {
+						//and if the given header was returned in the response
+						if (responseHttpHeaders.containsKey(entry.getKey())) {
+							//write the value to the output port	
+							DataField outField = mapping.getOutputRecord().getField(entry.getValue());
+							
+							if (outField.getMetadata().getDataType() == DataFieldType.STRING) {
+								outField.setValue(responseHttpHeaders.get(entry.getKey()));
+							}
+						}								
+					}
+				}
+			}
+
+			// sequence fields initialization
+			String sequenceFieldName = mapping.getSequenceField();
+			if (sequenceFieldName != null && mapping.getOutputRecord().hasField(sequenceFieldName)) {
+				Sequence sequence = mapping.getSequence();
+				DataField sequenceField = mapping.getOutputRecord().getField(sequenceFieldName);
+				if (sequenceField.getType() == DataFieldMetadata.INTEGER_FIELD) {
+					sequenceField.setValue(sequence.nextValueInt());
+				} else if (sequenceField.getType() == DataFieldMetadata.LONG_FIELD || sequenceField.getType() == DataFieldMetadata.DECIMAL_FIELD || sequenceField.getType() == DataFieldMetadata.NUMERIC_FIELD) {
+					sequenceField.setValue(sequence.nextValueLong());
+				} else {
+					sequenceField.fromString(sequence.nextValueString());
+				}
+			}
+			mapping.prepareDoMap();
+			mapping.incCurrentRecord4Mapping();
+
+			// This is the closing element of the matched element that
+			// triggered the processing
+			// That should be the end of this record so send it off to the
+			// next Node
+			if (parentComponent.runIt()) {
+				try {
+					DataRecord outRecord = mapping.getOutputRecord();
+					String[] generatedKey = mapping.getGeneratedKeyFields();
+					String[] parentKey = mapping.getParentKeyFields();
+					if (parentKey != null) {
+						// if generatedKey is a single array, all parent keys are concatenated into generatedKey
+						// field
+						// I know it is ugly code...
+						if (generatedKey.length != parentKey.length && generatedKey.length != 1) {
+							logger.warn(parentComponent.getId() + ": XML Extract Mapping's generatedKey and parentKey attribute has different number of field.");
+							mapping.setGeneratedKeyFields(null);
+							mapping.setParentKeyFields(null);
+						} else {
+							XMLElementRuntimeMappingModel parentKeyFieldsMapping = mapping.getParent();
+							while (parentKeyFieldsMapping != null && parentKeyFieldsMapping.getOutputRecord() == null) {
+								parentKeyFieldsMapping = parentKeyFieldsMapping.getParent();
+							}
+							for (int i = 0; i < parentKey.length; i++) {
+								boolean existGeneratedKeyField = (outRecord != null) && (generatedKey.length == 1 ? outRecord.hasField(generatedKey[0]) : outRecord.hasField(generatedKey[i]));
+								boolean existParentKeyField = parentKeyFieldsMapping != null && parentKeyFieldsMapping.getOutputRecord()!=null && parentKeyFieldsMapping.getOutputRecord().hasField(parentKey[i]);
+								if (!existGeneratedKeyField) {
+									logger.warn(parentComponent.getId() + ": XML Extract Mapping's generatedKey field was not found. generatedKey: " + (generatedKey.length == 1 ? generatedKey[0] : generatedKey[i]) + " of element " + mapping.getElementName() + ", outPort: " + mapping.getOutputPortNumber());
+									mapping.setGeneratedKeyFields(null);
+									mapping.setParentKeyFields(null);
+								} else if (!existParentKeyField) {
+									logger.warn(parentComponent.getId() + ": XML Extract Mapping's parentKey field was not found. parentKey: " + parentKey[i] + " of element " + mapping.getElementName() + ", outPort: " + mapping.getOutputPortNumber());
+									mapping.setGeneratedKeyFields(null);
+									mapping.setParentKeyFields(null);
+								} else {
+									// both outRecord and mapping.getParrent().getOutRecord are not null
+									// here, because of if-else if-else chain
+									DataField generatedKeyField = generatedKey.length == 1 ? outRecord.getField(generatedKey[0]) : outRecord.getField(generatedKey[i]);
+									DataField parentKeyField = parentKeyFieldsMapping.getOutputRecord().getField(parentKey[i]);
+									if (generatedKey.length != parentKey.length) {
+										if (generatedKeyField.getType() != DataFieldMetadata.STRING_FIELD) {
+											logger.warn(parentComponent.getId() + ": XML Extract Mapping's generatedKey field has to be String type (keys are concatened to this field).");
+											mapping.setGeneratedKeyFields(null);
+											mapping.setParentKeyFields(null);
+										} else {
+											((StringDataField) generatedKeyField).append(parentKeyField.toString());
+										}
+									} else {
+										generatedKeyField.setValue(parentKeyField.getValue());
+									}
+								}
+							}
+						}
+					}
+				} catch (Exception ex) {
+					String portNumber = "" + mapping.getOutputPortNumber();
+					if(mapping.isUsingParentRecord()) {
+						portNumber = "" + mapping.getProducingParent().getOutputPortNumber();
+					}
+					
+					throw new SAXException(" for output port number '" + portNumber + "' element '"+mapping.getElementName()+"'. Check also parent mapping. ", ex);
+				}
+
+				// Fill fields from parent record (if any mapped)
+				if (mapping.hasFieldsFromAncestor()) {
+					for (AncestorFieldMapping afm : mapping.getFieldsFromAncestor()) {
+						if (mapping.getOutputRecord().hasField(afm.getCurrentField()) && afm.getAncestor() != null) {
+							
+							Map<String, List<String>> descRef = afm.getAncestor().getDescendantReferences();
+							
+							if (mapping.getOutputRecord().getField(afm.getCurrentField()).getMetadata().getContainerType() == DataFieldContainerType.LIST) {
+								
+								ListDataField field = (ListDataField) mapping.getOutputRecord().getField(afm.getCurrentField());
+								List<String> valueList = descRef.get(afm.getAncestorField());
+								
+								if (valueList != null) { 
+									for (int i = 0; i < valueList.size(); i++) {
+										DataField myField = ((ListDataField) field).addField();
+										setFieldValue(myField, valueList.get(i));
+									} 
+								}
+							} else {
+								setFieldValue(mapping.getOutputRecord().getField(afm.getCurrentField()), descRef.get(afm.getAncestorField()) == null ? null : descRef.get(afm.getAncestorField()).get(0));	
+							}
+						}
+					}
+				}
+			} else {
+				throw new SAXException("Stop Signaled");
+			}
+		}
+	}
+
+	/**
+	 * Sends off the output record of the mapping whose element has just been closed.
+	 * 
+	 * @param mapping the mapping of the closed element
+	 * @throws SAXException
+	 */
+	protected void finishMapping(XMLElementRuntimeMappingModel mapping) throws SAXException {
+		// That should be the end of this record so send it off to the
+		// next Node
+		if (parentComponent.runIt()) {
+			try {
+				OutputPort outPort = getOutputPort(mapping.getOutputPortNumber());
+
+				if (outPort != null) {
+					// we just ignore creating output, if port is empty (without metadata) or not specified
+					DataRecord outRecord = mapping.getOutputRecord();
+
+					// skip or process row
+					if (skipRows > 0) {
+						if (mapping.getParent() == null)
+							skipRows--;
+					} else {
+						// check for index of last returned record
+						if (!(numRecords >= 0 && numRecords == autoFilling.getGlobalCounter())) {
+							// set autofilling
+							autoFilling.setAutoFillingFields(outRecord);
+
+							// can I do the map? it depends on skip and numRecords.
+							if (mapping.doMap() && !mapping.isUsingParentRecord()) {
+								// send off record
+								outPort.writeRecord(outRecord);
+							}
+							// if (mapping.getParent() == null) autoFilling.incGlobalCounter();
+						}
+					}
+
+					// resets all child's mappings for skip and numRecords
+					mapping.resetCurrentRecord4ChildMapping();
+					mapping.setCharactersProcessed(false);
+					// reset record
+					outRecord.reset();
+					//new record - clear info about mapped fields
+					Entry<DataRecord, ArrayList<DataField>> entry = getEntryFromMappedFields(outRecord);
+					if (entry != null) {
+						entry.getValue().clear();
+					}
+				}
+			} catch (Exception ex) {
+				throw new SAXException(ex);
+			}
+		} else {
+			throw new SAXException("Stop Signaled");
+		}
+	}
+
 	public void setMapping(String mapping) {
 		this.mapping = mapping;
 	}
@@ -594,137 +790,7 @@ public class XmlSaxParser {
 					e.setValue(null);
 				}
 
-				if (mapping.getOutputRecord() != null) {
-
-					if (mapping.getFieldTransformation() != null) {
-						applyInputFieldTransformation(mapping.getFieldTransformation(), mapping.getOutputRecord());
-					}
-
-					Map<String, String> headersToFields = m_activeMapping.getResponseHttpHeadersToOutputFields();
-									
-					if (headersToFields != null && !headersToFields.isEmpty()) {
-						for (Map.Entry<String, String> entry : headersToFields.entrySet()) {
-							//if there is a field with given name
-							if (m_activeMapping.getOutputRecord().hasField(entry.getValue())) {
-								//and if the given header was returned in the response
-								if (responseHttpHeaders.containsKey(entry.getKey())) {
-									//write the value to the output port	
-									DataField outField = m_activeMapping.getOutputRecord().getField(entry.getValue());
-									
-									if (outField.getMetadata().getDataType() == DataFieldType.STRING) {
-										outField.setValue(responseHttpHeaders.get(entry.getKey()));
-									}
-								}								
-							}
-						}
-					}
-
-					// sequence fields initialization
-					String sequenceFieldName = m_activeMapping.getSequenceField();
-					if (sequenceFieldName != null && m_activeMapping.getOutputRecord().hasField(sequenceFieldName)) {
-						Sequence sequence = m_activeMapping.getSequence();
-						DataField sequenceField = m_activeMapping.getOutputRecord().getField(sequenceFieldName);
-						if (sequenceField.getType() == DataFieldMetadata.INTEGER_FIELD) {
-							sequenceField.setValue(sequence.nextValueInt());
-						} else if (sequenceField.getType() == DataFieldMetadata.LONG_FIELD || sequenceField.getType() == DataFieldMetadata.DECIMAL_FIELD || sequenceField.getType() == DataFieldMetadata.NUMERIC_FIELD) {
-							sequenceField.setValue(sequence.nextValueLong());
-						} else {
-							sequenceField.fromString(sequence.nextValueString());
-						}
-					}
-					m_activeMapping.prepareDoMap();
-					m_activeMapping.incCurrentRecord4Mapping();
-
-					// This is the closing element of the matched element that
-					// triggered the processing
-					// That should be the end of this record so send it off to the
-					// next Node
-					if (parentComponent.runIt()) {
-						try {
-							DataRecord outRecord = m_activeMapping.getOutputRecord();
-							String[] generatedKey = m_activeMapping.getGeneratedKeyFields();
-							String[] parentKey = m_activeMapping.getParentKeyFields();
-							if (parentKey != null) {
-								// if generatedKey is a single array, all parent keys are concatenated into generatedKey
-								// field
-								// I know it is ugly code...
-								if (generatedKey.length != parentKey.length && generatedKey.length != 1) {
-									logger.warn(parentComponent.getId() + ": XML Extract Mapping's generatedKey and parentKey attribute has different number of field.");
-									m_activeMapping.setGeneratedKeyFields(null);
-									m_activeMapping.setParentKeyFields(null);
-								} else {
-									XMLElementRuntimeMappingModel parentKeyFieldsMapping = m_activeMapping.getParent();
-									while (parentKeyFieldsMapping != null && parentKeyFieldsMapping.getOutputRecord() == null) {
-										parentKeyFieldsMapping = parentKeyFieldsMapping.getParent();
-									}
-									for (int i = 0; i < parentKey.length; i++) {
-										boolean existGeneratedKeyField = (outRecord != null) && (generatedKey.length == 1 ? outRecord.hasField(generatedKey[0]) : outRecord.hasField(generatedKey[i]));
-										boolean existParentKeyField = parentKeyFieldsMapping != null && parentKeyFieldsMapping.getOutputRecord()!=null && parentKeyFieldsMapping.getOutputRecord().hasField(parentKey[i]);
-										if (!existGeneratedKeyField) {
-											logger.warn(parentComponent.getId() + ": XML Extract Mapping's generatedKey field was not found. generatedKey: " + (generatedKey.length == 1 ? generatedKey[0] : generatedKey[i]) + " of element " + m_activeMapping.getElementName() + ", outPort: " + m_activeMapping.getOutputPortNumber());
-											m_activeMapping.setGeneratedKeyFields(null);
-											m_activeMapping.setParentKeyFields(null);
-										} else if (!existParentKeyField) {
-											logger.warn(parentComponent.getId() + ": XML Extract Mapping's parentKey field was not found. parentKey: " + parentKey[i] + " of element " + m_activeMapping.getElementName() + ", outPort: " + m_activeMapping.getOutputPortNumber());
-											m_activeMapping.setGeneratedKeyFields(null);
-											m_activeMapping.setParentKeyFields(null);
-										} else {
-											// both outRecord and m_activeMapping.getParrent().getOutRecord are not null
-											// here, because of if-else if-else chain
-											DataField generatedKeyField = generatedKey.length == 1 ? outRecord.getField(generatedKey[0]) : outRecord.getField(generatedKey[i]);
-											DataField parentKeyField = parentKeyFieldsMapping.getOutputRecord().getField(parentKey[i]);
-											if (generatedKey.length != parentKey.length) {
-												if (generatedKeyField.getType() != DataFieldMetadata.STRING_FIELD) {
-													logger.warn(parentComponent.getId() + ": XML Extract Mapping's generatedKey field has to be String type (keys are concatened to this field).");
-													m_activeMapping.setGeneratedKeyFields(null);
-													m_activeMapping.setParentKeyFields(null);
-												} else {
-													((StringDataField) generatedKeyField).append(parentKeyField.toString());
-												}
-											} else {
-												generatedKeyField.setValue(parentKeyField.getValue());
-											}
-										}
-									}
-								}
-							}
-						} catch (Exception ex) {
-							String portNumber = "" + m_activeMapping.getOutputPortNumber();
-							if(m_activeMapping.isUsingParentRecord()) {
-								portNumber = "" + m_activeMapping.getProducingParent().getOutputPortNumber();
-							}
-							
-							throw new SAXException(" for output port number '" + portNumber + "' element '"+m_activeMapping.getElementName()+"'. Check also parent mapping. ", ex);
-						}
-
-						// Fill fields from parent record (if any mapped)
-						if (m_activeMapping.hasFieldsFromAncestor()) {
-							for (AncestorFieldMapping afm : m_activeMapping.getFieldsFromAncestor()) {
-								if (m_activeMapping.getOutputRecord().hasField(afm.getCurrentField()) && afm.getAncestor() != null) {
-									
-									Map<String, List<String>> descRef = afm.getAncestor().getDescendantReferences();
-									
-									if (m_activeMapping.getOutputRecord().getField(afm.getCurrentField()).getMetadata().getContainerType() == DataFieldContainerType.LIST) {
-										
-										ListDataField field = (ListDataField) m_activeMapping.getOutputRecord().getField(afm.getCurrentField());
-										List<String> valueList = descRef.get(afm.getAncestorField());
-										
-										if (valueList != null) { 
-											for (int i = 0; i < valueList.size(); i++) {
-												DataField myField = ((ListDataField) field).addField();
-												setFieldValue(myField, valueList.get(i));
-											} 
-										}
-									} else {
-										setFieldValue(m_activeMapping.getOutputRecord().getField(afm.getCurrentField()), descRef.get(afm.getAncestorField()) == null ? null : descRef.get(afm.getAncestorField()).get(0));	
-									}
-								}
-							}
-						}
-					} else {
-						throw new SAXException("Stop Signaled");
-					}
-				}
+				startMapping(mapping);
 			}
 
 
@@ -1042,54 +1108,8 @@ public class XmlSaxParser {
 			if (m_activeMapping != null && m_level == m_activeMapping.getLevel()) {
 				// This is the closing element of the matched element that
 				// triggered the processing
-				// That should be the end of this record so send it off to the
-				// next Node
-				if (parentComponent.runIt()) {
-					try {
-						OutputPort outPort = getOutputPort(m_activeMapping.getOutputPortNumber());
-
-						if (outPort != null) {
-							// we just ignore creating output, if port is empty (without metadata) or not specified
-							DataRecord outRecord = m_activeMapping.getOutputRecord();
-
-							// skip or process row
-							if (skipRows > 0) {
-								if (m_activeMapping.getParent() == null)
-									skipRows--;
-							} else {
-								// check for index of last returned record
-								if (!(numRecords >= 0 && numRecords == autoFilling.getGlobalCounter())) {
-									// set autofilling
-									autoFilling.setAutoFillingFields(outRecord);
-
-									// can I do the map? it depends on skip and numRecords.
-									if (m_activeMapping.doMap() && !m_activeMapping.isUsingParentRecord()) {
-										// send off record
-										outPort.writeRecord(outRecord);
-									}
-									// if (m_activeMapping.getParent() == null) autoFilling.incGlobalCounter();
-								}
-							}
-
-							// resets all child's mappings for skip and numRecords
-							m_activeMapping.resetCurrentRecord4ChildMapping();
-							m_activeMapping.setCharactersProcessed(false);
-							// reset record
-							outRecord.reset();
-							//new record - clear info about mapped fields
-							Entry<DataRecord, ArrayList<DataField>> entry = getEntryFromMappedFields(outRecord);
-							if (entry != null) {
-								entry.getValue().clear();
-							}
-						}
-
-						m_activeMapping = m_activeMapping.getParent();
-					} catch (Exception ex) {
-						throw new SAXException(ex);
-					}
-				} else {
-					throw new SAXException("Stop Signaled");
-				}
+				finishMapping(m_activeMapping);
+				m_activeMapping = m_activeMapping.getParent();
 			}
 
 			// text value immediately after end tag element should not be stored
@@ -1426,7 +1446,7 @@ public class XmlSaxParser {
 		}
 	}
 	
-	private void setFieldValue(DataField field, String currentValue) {
+	protected void setFieldValue(DataField field, String currentValue) {
 		// CLO-5793: XMLExtract - mapping of element content breaks functionality of empty string as value of empty element
 		if (field.getMetadata().getDataType() == DataFieldType.STRING) {
     		field.setValue(currentValue);
@@ -1438,7 +1458,7 @@ public class XmlSaxParser {
 	/**
 	 * checks if this field has already been mapped to (i.e. if its value is already set)
 	 */
-	private boolean isNotMappedTo(DataRecord record, DataField field) {
+	protected boolean isNotMappedTo(DataRecord record, DataField field) {
 		boolean notMapped = true;
 		Entry<DataRecord, ArrayList<DataField>> entry = getEntryFromMappedFields(record);
 		ArrayList<DataField> fieldList = null;
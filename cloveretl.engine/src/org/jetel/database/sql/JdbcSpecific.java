@@ -379,4 +379,22 @@ public interface JdbcSpecific {
 	 * @return true iff queries can be terminated by semicolon(s)
 	 */
 	public boolean supportsTerminatingSemicolons();
+
+	/**
+	 * Returns condition which matches rows of any of the given number of keys, it is used
+	 * to look up several keys by a single query. Parameters of the condition are expected
+	 * key by key, values of each key in the order of the given columns.
+	 * 
+	 * @param columns key columns
+	 * @param keyCount number of keys
+	 * @return condition usable in WHERE clause
+	 * @see #getMaxKeysCount(int)
+	 */
+	public String getKeysCondition(String[] columns, int keyCount);
+
+	/**
+	 * @param columnCount number of key columns
+	 * @return maximal number of keys accepted by a single condition created by {@link #getKeysCondition(String[], int)}
+	 */
+	public int getMaxKeysCount(int columnCount);
 }
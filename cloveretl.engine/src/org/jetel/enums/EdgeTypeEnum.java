@@ -22,6 +22,7 @@ import org.jetel.graph.BufferedEdge;
 import org.jetel.graph.BufferedFastPropagateEdge;
 import org.jetel.graph.DirectEdge;
 import org.jetel.graph.DirectEdgeFastPropagate;
+import org.jetel.graph.DirectEdgeLockFree;
 import org.jetel.graph.Edge;
 import org.jetel.graph.EdgeBase;
 import org.jetel.graph.LRemoteEdge;
@@ -33,6 +34,8 @@ public enum EdgeTypeEnum {
 	DIRECT("direct", DirectEdge.class, false, false),
 	/**  Proxy represents Direct Edge fast propagate */
 	DIRECT_FAST_PROPAGATE("directFastPropagate", DirectEdgeFastPropagate.class, false, true),
+	/**  Proxy represents Direct Edge backed by lock-free ring of records */
+	DIRECT_LOCK_FREE("directLockFree", DirectEdgeLockFree.class, false, true),
 	/**  Proxy represents Buffered Edge */
 	BUFFERED("buffered", BufferedEdge.class, true, false),
 	/**  Proxy represents Buffered fast propagate edge */
@@ -109,6 +109,8 @@ public class BufferedEdge extends EdgeBase {
 			//for single thread execution we can say that the usage of record buffer is sequential - first all write operation and then all read operations
 			recordBuffer.setSequentialReading(proxy.getGraph().getRuntimeContext().getExecutionType() == ExecutionType.SINGLE_THREAD_EXECUTION);
 		}
+		initSerializer();
+		recordBuffer.setSerializer(serializer);
 		recordBuffer.init();
 	}
 
@@ -144,6 +146,9 @@ public class BufferedEdge extends EdgeBase {
 
 	@Override
 	public boolean readRecordDirect(CloverBuffer record) throws IOException, InterruptedException {
+		if (serializer != null) {
+			return readRecordDirectTranscoded(record);
+		}
         boolean ret = recordBuffer.readRecord(record);
 
         if (ret) {
@@ -161,6 +166,10 @@ public class BufferedEdge extends EdgeBase {
 
 	@Override
 	public void writeRecordDirect(CloverBuffer record) throws IOException, InterruptedException {
+		if (serializer != null) {
+			writeRecordDirectTranscoded(record);
+			return;
+		}
 	    byteCounter += recordBuffer.writeRecord(record);
         outputRecordCounter++;
     }
@@ -32,7 +32,10 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 /**
  * A class that represents DirectEdge - data connection between two NODEs.<br>
  * This Edge is in-memory buffered for better performance, however the buffer is limited in size 
- * - the size is determined by Defaults.Data.DIRECT_EDGE_INTERNAL_BUFFER_SIZE constant.
+ * - the size is determined by Defaults.Data.DIRECT_EDGE_INTERNAL_BUFFER_SIZE constant.<br>
+ * If Defaults.Graph.DIRECT_EDGE_ADAPTIVE_BUFFER is on, the buffers grow when the reader and writer threads
+ * wait for each other alternately and shrink when the buffers are passed to the reader mostly empty.
+ * The growth is limited by memory budget shared by all edges of the graph, see {@link EdgeBufferBudget}.
  *
  * @author     D.Pavlis
  * @since    	April 2, 2002
@@ -72,6 +75,42 @@ public class DirectEdge extends EdgeBase {
 	 */
 	private volatile boolean forceBuffersSwitch;
 	
+	/**
+	 * Number of buffer switches after which the size of buffers is reconsidered.
+	 */
+	static final int ADAPTATION_WINDOW = 16;
+
+	/**
+	 * Memory budget shared with other edges of the graph, null if the buffers are not adaptive.
+	 */
+	private EdgeBufferBudget bufferBudget;
+	
+	/**
+	 * Memory reserved by this edge in the budget, negative if the buffers have been shrunk.
+	 */
+	private long reservedMemory;
+	
+	/**
+	 * Requested capacity of the reading and writing buffers.
+	 */
+	private int bufferSize;
+
+	/**
+	 * Number of buffers which still have to be reallocated to the requested capacity.
+	 */
+	private int pendingResizes;
+
+	//statistics of buffer switches, updated only in synchronized methods
+	private int windowSwitches;
+	private int windowReaderWaits;
+	private long windowFilledBytes;
+	private long windowCapacity;
+	private long totalFilledBytes;
+	private long totalCapacity;
+	
+	private long readerWaitingTime;
+	private long writerWaitingTime;
+	
 	/**
 	 *Constructor for the Edge object
 	 *
@@ -115,6 +154,22 @@ public class DirectEdge extends EdgeBase {
     	return writeBuffer.capacity() + readBuffer.capacity() + tmpDataRecord.capacity();
     }
     
+    @Override
+    public long getReaderWaitingTime() {
+    	return readerWaitingTime / 1000000;
+    }
+    
+    @Override
+    public long getWriterWaitingTime() {
+    	return writerWaitingTime / 1000000;
+    }
+    
+    @Override
+    public int getBufferFillLevel() {
+    	long capacity = totalCapacity;
+    	return capacity > 0 ? (int) (totalFilledBytes * 100 / capacity) : -1;
+    }
+    
 	/**
 	 *  Description of the Method
 	 *
@@ -125,8 +180,12 @@ public class DirectEdge extends EdgeBase {
 	public void init() throws IOException {
 		// initialize & open the data pipe
 		// we are ready to supply data
-		readBuffer = CloverBuffer.allocateDirect(Defaults.Graph.DIRECT_EDGE_INTERNAL_BUFFER_SIZE);
-		writeBuffer = CloverBuffer.allocateDirect(Defaults.Graph.DIRECT_EDGE_INTERNAL_BUFFER_SIZE);
+		bufferSize = Defaults.Graph.DIRECT_EDGE_INTERNAL_BUFFER_SIZE;
+		readBuffer = CloverBuffer.allocateDirect(bufferSize);
+		writeBuffer = CloverBuffer.allocateDirect(bufferSize);
+		if (Defaults.Graph.DIRECT_EDGE_ADAPTIVE_BUFFER && proxy != null && proxy.getGraph() != null) {
+			bufferBudget = proxy.getGraph().getEdgeBufferBudget();
+		}
 		inputRecordCounter = 0;
 		outputRecordCounter = 0;
         byteCounter=0;
@@ -136,6 +195,7 @@ public class DirectEdge extends EdgeBase {
 		isClosed=false;
 	    readerWait=false;
 	    writerWait=false;
+	    initSerializer();
 	}
 
 	@Override
@@ -154,6 +214,14 @@ public class DirectEdge extends EdgeBase {
 	    readerWait=false;
 	    writerWait=false;
 	    forceBuffersSwitch = false;
+	    windowSwitches = 0;
+	    windowReaderWaits = 0;
+	    windowFilledBytes = 0;
+	    windowCapacity = 0;
+	    totalFilledBytes = 0;
+	    totalCapacity = 0;
+	    readerWaitingTime = 0;
+	    writerWaitingTime = 0;
 	}
 	
 	// Operations
@@ -180,7 +248,11 @@ public class DirectEdge extends EdgeBase {
 	        	close();
 	            return null; // EOF
 	        }
-	        record.deserialize(readBuffer);
+	        if (serializer != null) {
+	        	record.deserialize(readBuffer, serializer);
+	        } else {
+	        	record.deserialize(readBuffer);
+	        }
 	    } catch(BufferUnderflowException ex) {
 	        throw new IOException("BufferUnderflow when reading/deserializing record. It can be caused by different metadata.");
 	    }
@@ -202,6 +274,9 @@ public class DirectEdge extends EdgeBase {
 	 */
 	@Override
 	public boolean readRecordDirect(CloverBuffer record) throws IOException, InterruptedException {
+	    if (serializer != null) {
+	    	return readRecordDirectTranscoded(record);
+	    }
 	    
 	    if (!readBuffer.hasRemaining()){
 	        if (!fillReadBuffer()){
@@ -233,11 +308,12 @@ public class DirectEdge extends EdgeBase {
 	private synchronized boolean fillReadBuffer() throws InterruptedException{
 	    if(isClosed) return false;
         if(writerWait) {
-            switchBuffers();
+            switchBuffers(false);
             writerWait = false;
             notify();
         } else {
             readerWait = true;
+            long startTime = verbose ? System.nanoTime() : 0;
     		wait(MAX_WAITING_TIME); //just wait 1 second
     		if (readerWait) { //it seems that 1 second is not enough
     			forceBuffersSwitch = true; //force buffers switch to get at least few records from writing buffer
@@ -245,6 +321,10 @@ public class DirectEdge extends EdgeBase {
                 	wait();
                 }
     		}
+    		if (verbose) {
+    			//readerWaitingTime is advanced only in verbose mode
+    			readerWaitingTime += System.nanoTime() - startTime;
+    		}
         }
 	    return true;
 	}
@@ -264,7 +344,11 @@ public class DirectEdge extends EdgeBase {
 
         tmpDataRecord.clear();
         try {
-            record.serialize(tmpDataRecord);
+            if (serializer != null) {
+            	record.serialize(tmpDataRecord, serializer);
+            } else {
+            	record.serialize(tmpDataRecord);
+            }
         } catch (BufferOverflowException ex) {
             throw new IOException(
                     "Internal buffer is not big enough to accomodate data record ! (See RECORD_LIMIT_SIZE parameter)"+
@@ -311,6 +395,10 @@ public class DirectEdge extends EdgeBase {
 	 */
 	@Override
 	public void writeRecordDirect(CloverBuffer record) throws IOException, InterruptedException {
+        if (serializer != null) {
+        	writeRecordDirectTranscoded(record);
+        	return;
+        }
         int dataLength = record.remaining();
 
         if ((dataLength + ByteBufferUtils.SIZEOF_INT) > writeBuffer.remaining() && writeBuffer.position() > 0) {
@@ -342,28 +430,104 @@ public class DirectEdge extends EdgeBase {
 
 	private synchronized void flushWriteBuffer() throws InterruptedException{
 	    if(readerWait) {
-	        switchBuffers();
+	        switchBuffers(true);
             readerWait = false;
             forceBuffersSwitch = false;
             notify();
         } else {
             writerWait = true;
+            long startTime = verbose ? System.nanoTime() : 0;
             while(writerWait) {
     	        wait();
     	    }
+            if (verbose) {
+            	//writerWaitingTime is advanced only in verbose mode
+            	writerWaitingTime += System.nanoTime() - startTime;
+            }
         }
 	}
 	
-	private final void switchBuffers(){
+	private final void switchBuffers(boolean readerWaited){
+		updateBufferStatistics(writeBuffer.position(), writeBuffer.capacity(), readerWaited);
 		CloverBuffer tmp;
 	    tmp=readBuffer;
 	    readBuffer=writeBuffer;
 	    writeBuffer=tmp;
+	    if (pendingResizes > 0) {
+	    	//the reading buffer has been consumed completely, so it can be reallocated
+	    	writeBuffer = CloverBuffer.allocateDirect(bufferSize);
+	    	pendingResizes--;
+	    }
 	    writeBuffer.clear();
 	    readBuffer.flip();
 	    readBufferLimit=readBuffer.limit(); // save readRecord limit
 	}
 
+	/**
+	 * Called on each buffers switch. Once in {@link #ADAPTATION_WINDOW} switches, the size of buffers is doubled
+	 * if the reader and the writer waited for each other alternately - larger buffers absorb fluctuations
+	 * of both sides. The size is halved if the switched buffers were mostly empty.
+	 * @param filledBytes number of bytes written into the switched buffer
+	 * @param capacity capacity of the switched buffer
+	 * @param readerWaited true if the reader waited for the switch, false if the writer waited
+	 */
+	void updateBufferStatistics(int filledBytes, int capacity, boolean readerWaited) {
+		totalFilledBytes += filledBytes;
+		totalCapacity += capacity;
+		if (bufferBudget == null) {
+			return;
+		}
+		windowSwitches++;
+		if (readerWaited) {
+			windowReaderWaits++;
+		}
+		windowFilledBytes += filledBytes;
+		windowCapacity += capacity;
+		if (windowSwitches < ADAPTATION_WINDOW) {
+			return;
+		}
+		
+		int writerWaits = windowSwitches - windowReaderWaits;
+		long fillLevel = windowFilledBytes * 100 / windowCapacity;
+		if (fillLevel >= 50 && Math.min(windowReaderWaits, writerWaits) >= ADAPTATION_WINDOW / 4) {
+			resizeBuffers(Math.min(bufferSize * 2, Defaults.Graph.DIRECT_EDGE_MAX_INTERNAL_BUFFER_SIZE));
+		} else if (fillLevel < 25) {
+			//a few records should always fit into the buffer
+			long averageRecordSize = outputRecordCounter > 0 ? byteCounter / outputRecordCounter : 0;
+			int minSize = (int) Math.max(Math.min(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Graph.DIRECT_EDGE_INTERNAL_BUFFER_SIZE),
+					Math.min(averageRecordSize * 8, Defaults.Graph.DIRECT_EDGE_INTERNAL_BUFFER_SIZE));
+			int newSize = Math.max(bufferSize / 2, minSize);
+			if (newSize < bufferSize) {
+				resizeBuffers(newSize);
+			}
+		}
+		windowSwitches = 0;
+		windowReaderWaits = 0;
+		windowFilledBytes = 0;
+		windowCapacity = 0;
+	}
+
+	private void resizeBuffers(int newSize) {
+		if (newSize == bufferSize) {
+			return;
+		}
+		//both buffers are reallocated
+		long newReservedMemory = reservedMemory + 2L * (newSize - bufferSize);
+		if (!bufferBudget.reserve(reservedMemory, newReservedMemory)) {
+			return;
+		}
+		reservedMemory = newReservedMemory;
+		bufferSize = newSize;
+		pendingResizes = 2;
+	}
+
+	/**
+	 * @return requested capacity of the reading and writing buffers
+	 */
+	int getBufferSize() {
+		return bufferSize;
+	}
+
 	/**
 	 *  Description of the Method
 	 * @throws InterruptedException 
@@ -383,7 +547,11 @@ public class DirectEdge extends EdgeBase {
 
     @Override
     public void free() {
-        //do nothing
+    	if (bufferBudget != null) {
+    		//adapted size of buffers is not used anymore
+    		bufferBudget.release(reservedMemory);
+    		reservedMemory = 0;
+    	}
     }
     
 	@Override
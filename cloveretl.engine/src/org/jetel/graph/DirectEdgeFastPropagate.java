@@ -110,6 +110,7 @@ public class DirectEdgeFastPropagate extends EdgeBase {
         bufferedRecords=new AtomicInteger(0);
 
         recordsBuffer.open();
+        initSerializer();
     }
 
     @Override
@@ -147,7 +148,11 @@ public class DirectEdgeFastPropagate extends EdgeBase {
             // no more data in a flow
         }
         // create the record/read it from buffer
-        record.deserialize(buffer);
+        if (serializer != null) {
+        	record.deserialize(buffer, serializer);
+        } else {
+        	record.deserialize(buffer);
+        }
         
         recordsBuffer.setFree(buffer);
         bufferedRecords.decrementAndGet();
@@ -168,6 +173,9 @@ public class DirectEdgeFastPropagate extends EdgeBase {
      */
     @Override
 	public boolean readRecordDirect(CloverBuffer record) throws IOException, InterruptedException {
+    	if (serializer != null) {
+    		return readRecordDirectTranscoded(record);
+    	}
     	CloverBuffer buffer;
 
         buffer = recordsBuffer.getFullBuffer();
@@ -206,7 +214,11 @@ public class DirectEdgeFastPropagate extends EdgeBase {
             throw new IOException("Output port closed !");
         }
         buffer.clear();
-        record.serialize(buffer);   // serialize the record
+        if (serializer != null) {
+        	record.serialize(buffer, serializer);
+        } else {
+        	record.serialize(buffer);   // serialize the record
+        }
         buffer.flip();
         
         byteCounter+=buffer.remaining();        
@@ -227,6 +239,10 @@ public class DirectEdgeFastPropagate extends EdgeBase {
      */
     @Override
 	public void writeRecordDirect(CloverBuffer record) throws IOException, InterruptedException {
+    	if (serializer != null) {
+    		writeRecordDirectTranscoded(record);
+    		return;
+    	}
     	CloverBuffer buffer;
 
         buffer = recordsBuffer.getFreeBuffer();
@@ -0,0 +1,395 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.Defaults;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * Direct edge implementation based on lock-free single-producer/single-consumer ring of record slots.
+ * Each slot holds exactly one serialized record. Writer publishes a slot by advancing the write sequence,
+ * reader releases the slot by advancing the read sequence - no monitor is involved in the data exchange.<br>
+ * A thread which has to wait (empty ring for reader, full ring for writer) spins for a while and then parks;
+ * the counterpart unparks it right after the sequence has been advanced. So a single record is delivered
+ * to the reader immediately, unlike {@link DirectEdge} which waits for whole buffer switch.<br>
+ * The edge is strictly single-producer/single-consumer, which is guaranteed by the graph topology.
+ *
+ * @created 17. 10. 2026
+ * @see DirectEdge
+ * @see DirectEdgeFastPropagate
+ */
+public class DirectEdgeLockFree extends EdgeBase {
+
+	/** Initial capacity of each ring slot, the slots grow up to RECORD_LIMIT_SIZE. */
+	private static final int INITIAL_SLOT_CAPACITY = 128;
+
+	/** Minimal number of slots in the ring. */
+	private static final int MIN_RING_SIZE = 2;
+
+	/** Number of busy-wait iterations before the waiting thread yields. */
+	private static final int SPIN_COUNT = 100;
+
+	/** Number of yield iterations before the waiting thread parks. */
+	private static final int YIELD_COUNT = 10;
+
+	/**
+	 * Maximal time (in nanoseconds) a waiting thread is parked without re-checking the ring.
+	 * This is only a safety net, the counterpart thread unparks the waiting thread explicitly.
+	 */
+	private static final long MAX_PARK_TIME = 10 * 1000000L; // 10ms
+
+	private CloverBuffer[] slots;
+	private int mask;
+
+	/** Sequence number of the next slot to be published by writer. */
+	private final AtomicLong writeSequence = new AtomicLong();
+	/** Sequence number of the next slot to be consumed by reader. */
+	private final AtomicLong readSequence = new AtomicLong();
+
+	/** Writer's cache of readSequence - reduces cross-core traffic when the ring is not full. */
+	private long cachedReadSequence;
+	/** Reader's cache of writeSequence - reduces cross-core traffic when the ring is not empty. */
+	private long cachedWriteSequence;
+
+	private volatile boolean closed;
+	private volatile boolean eofWasRead;
+
+	private volatile Thread parkedReader;
+	private volatile Thread parkedWriter;
+
+	private long inputRecordCounter;
+	private long outputRecordCounter;
+	private long byteCounter;
+
+	/** How long has been reader blocked on the edge (in nanoseconds). */
+	private long readerWaitingTime;
+	/** How long has been writer blocked on the edge (in nanoseconds). */
+	private long writerWaitingTime;
+
+	/**
+	 * Monitor for {@link #waitForEOF()}
+	 */
+	private final Object eofMonitor = new Object();
+
+	public DirectEdgeLockFree(Edge proxy) {
+		super(proxy);
+	}
+
+	@Override
+	public void init() throws IOException {
+		int ringSize = MIN_RING_SIZE;
+		while (ringSize < Defaults.Graph.DIRECT_EDGE_LOCK_FREE_RING_SIZE) {
+			ringSize <<= 1;
+		}
+		slots = new CloverBuffer[ringSize];
+		for (int i = 0; i < ringSize; i++) {
+			slots[i] = CloverBuffer.allocateDirect(INITIAL_SLOT_CAPACITY, Defaults.Record.RECORD_LIMIT_SIZE);
+		}
+		mask = ringSize - 1;
+		resetState();
+		initSerializer();
+	}
+
+	@Override
+	public void preExecute() {
+		super.preExecute();
+		resetState();
+	}
+
+	private void resetState() {
+		writeSequence.set(0);
+		readSequence.set(0);
+		cachedReadSequence = 0;
+		cachedWriteSequence = 0;
+		closed = false;
+		eofWasRead = false;
+		parkedReader = null;
+		parkedWriter = null;
+		inputRecordCounter = 0;
+		outputRecordCounter = 0;
+		byteCounter = 0;
+		readerWaitingTime = 0;
+		writerWaitingTime = 0;
+	}
+
+	@Override
+	public long getOutputRecordCounter() {
+		return outputRecordCounter;
+	}
+
+	@Override
+	public long getInputRecordCounter() {
+		return inputRecordCounter;
+	}
+
+	@Override
+	public long getOutputByteCounter() {
+		return byteCounter;
+	}
+
+	@Override
+	public long getInputByteCounter() {
+		return byteCounter;
+	}
+
+	@Override
+	public int getBufferedRecords() {
+		return (int) (writeSequence.get() - readSequence.get());
+	}
+
+	@Override
+	public int getUsedMemory() {
+		int result = 0;
+		for (CloverBuffer slot : slots) {
+			result += slot.capacity();
+		}
+		return result;
+	}
+
+	@Override
+	public long getReaderWaitingTime() {
+		return readerWaitingTime / 1000000;
+	}
+
+	@Override
+	public long getWriterWaitingTime() {
+		return writerWaitingTime / 1000000;
+	}
+
+	@Override
+	public DataRecord readRecord(DataRecord record) throws IOException, InterruptedException {
+		final CloverBuffer slot = acquireFullSlot();
+		if (slot == null) {
+			return null;
+		}
+		try {
+			if (serializer != null) {
+				record.deserialize(slot, serializer);
+			} else {
+				record.deserialize(slot);
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("BufferUnderflow when reading/deserializing record. It can be caused by different metadata.", e);
+		}
+		releaseFullSlot();
+		return record;
+	}
+
+	@Override
+	public boolean readRecordDirect(CloverBuffer record) throws IOException, InterruptedException {
+		if (serializer != null) {
+			return readRecordDirectTranscoded(record);
+		}
+		final CloverBuffer slot = acquireFullSlot();
+		if (slot == null) {
+			return false;
+		}
+		record.clear();
+		record.put(slot);
+		record.flip();
+		releaseFullSlot();
+		return true;
+	}
+
+	@Override
+	public void writeRecord(DataRecord record) throws IOException, InterruptedException {
+		final CloverBuffer slot = acquireFreeSlot();
+		slot.clear();
+		try {
+			if (serializer != null) {
+				record.serialize(slot, serializer);
+			} else {
+				record.serialize(slot);
+			}
+		} catch (BufferOverflowException e) {
+			throw new IOException("Internal buffer is not big enough to accomodate data record ! (See RECORD_LIMIT_SIZE parameter)"
+					+ "\n [actual record size: " + record.getSizeSerialized() + " bytes]", e);
+		}
+		slot.flip();
+		byteCounter += slot.remaining();
+		publishFreeSlot();
+	}
+
+	@Override
+	public void writeRecordDirect(CloverBuffer record) throws IOException, InterruptedException {
+		if (serializer != null) {
+			writeRecordDirectTranscoded(record);
+			return;
+		}
+		final CloverBuffer slot = acquireFreeSlot();
+
+		slot.clear();
+		slot.put(record);
+		slot.flip();
+		record.rewind();
+		byteCounter += slot.remaining();
+		publishFreeSlot();
+	}
+
+	/**
+	 * Waits for a free slot of the ring.
+	 * @return slot where the next record should be written
+	 */
+	private CloverBuffer acquireFreeSlot() throws IOException, InterruptedException {
+		if (closed) {
+			throw new IOException("Output port closed !");
+		}
+		final long sequence = writeSequence.get();
+		if (sequence - cachedReadSequence > mask) {
+			cachedReadSequence = readSequence.get();
+			if (sequence - cachedReadSequence > mask) {
+				final long startTime = verbose ? System.nanoTime() : 0;
+				int counter = 0;
+				while (sequence - (cachedReadSequence = readSequence.get()) > mask) {
+					if (counter < SPIN_COUNT) {
+						counter++;
+					} else if (counter < SPIN_COUNT + YIELD_COUNT) {
+						counter++;
+						Thread.yield();
+					} else {
+						parkedWriter = Thread.currentThread();
+						// re-check after the parking flag is visible to reader, otherwise the wake-up could be lost
+						if (sequence - readSequence.get() > mask) {
+							LockSupport.parkNanos(this, MAX_PARK_TIME);
+						}
+						parkedWriter = null;
+					}
+					if (Thread.interrupted()) {
+						throw new InterruptedException();
+					}
+				}
+				if (verbose) {
+					//writerWaitingTime is advanced only in verbose mode
+					writerWaitingTime += System.nanoTime() - startTime;
+				}
+			}
+		}
+		return slots[(int) sequence & mask];
+	}
+
+	private void publishFreeSlot() {
+		writeSequence.set(writeSequence.get() + 1);
+		outputRecordCounter++;
+		unpark(parkedReader);
+	}
+
+	/**
+	 * Waits for a slot with a record.
+	 * @return slot with the next record or null if the edge has been closed and no more records are available
+	 */
+	private CloverBuffer acquireFullSlot() throws InterruptedException {
+		final long sequence = readSequence.get();
+		if (sequence >= cachedWriteSequence) {
+			cachedWriteSequence = writeSequence.get();
+			if (sequence >= cachedWriteSequence) {
+				final long startTime = verbose ? System.nanoTime() : 0;
+				int counter = 0;
+				while (sequence >= (cachedWriteSequence = writeSequence.get())) {
+					if (closed) {
+						// closed flag is set after last record has been published, so check the sequence once more
+						if (sequence >= writeSequence.get()) {
+							close();
+							return null;
+						}
+						continue;
+					}
+					if (counter < SPIN_COUNT) {
+						counter++;
+					} else if (counter < SPIN_COUNT + YIELD_COUNT) {
+						counter++;
+						Thread.yield();
+					} else {
+						parkedReader = Thread.currentThread();
+						// re-check after the parking flag is visible to writer, otherwise the wake-up could be lost
+						if (sequence >= writeSequence.get() && !closed) {
+							LockSupport.parkNanos(this, MAX_PARK_TIME);
+						}
+						parkedReader = null;
+					}
+					if (Thread.interrupted()) {
+						throw new InterruptedException();
+					}
+				}
+				if (verbose) {
+					//readerWaitingTime is advanced only in verbose mode
+					readerWaitingTime += System.nanoTime() - startTime;
+				}
+			}
+		}
+		return slots[(int) sequence & mask];
+	}
+
+	private void releaseFullSlot() {
+		readSequence.set(readSequence.get() + 1);
+		inputRecordCounter++;
+		unpark(parkedWriter);
+	}
+
+	private static void unpark(Thread thread) {
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	@Override
+	public void eof() {
+		closed = true;
+		eofSent = true;
+		unpark(parkedReader);
+	}
+
+	@Override
+	public boolean isEOF() {
+		return eofWasRead;
+	}
+
+	@Override
+	public boolean hasData() {
+		return readSequence.get() < writeSequence.get() || (closed && !eofWasRead);
+	}
+
+	@Override
+	public void free() {
+		//do nothing
+	}
+
+	private void close() {
+		synchronized (eofMonitor) {
+			eofWasRead = true;
+			eofMonitor.notifyAll();
+		}
+	}
+
+	@Override
+	public void waitForEOF() throws InterruptedException {
+		synchronized (eofMonitor) {
+			while (!eofWasRead) {
+				eofMonitor.wait();
+			}
+		}
+	}
+
+}
@@ -80,6 +80,9 @@ public class Edge extends GraphElement implements InputPort, OutputPort, InputPo
     
 	protected EdgeTypeEnum edgeType;
 
+	/** Compact serialization of records on this edge, null means the graph setting is used. */
+	protected Boolean compactSerialization;
+
 	protected EdgeBase edge;
 
 	/**
@@ -152,6 +155,7 @@ public class Edge extends GraphElement implements InputPort, OutputPort, InputPo
 		this.debugFilterExpression = otherEdge.debugFilterExpression;
 		this.debugSampleData = otherEdge.debugSampleData;
 		this.edgeType = otherEdge.edgeType;
+		this.compactSerialization = otherEdge.compactSerialization;
 	}
 
     public void setDebugMode(EdgeDebugMode debugMode) {
@@ -201,6 +205,28 @@ public class Edge extends GraphElement implements InputPort, OutputPort, InputPo
 		return edgeType != null ? edgeType : EdgeTypeEnum.DIRECT;
 	}
 
+	/**
+	 * Sets compact serialization of records passed through this edge.
+	 * @param compactSerialization true for compact serialization, false for the default serialization,
+	 * null if the setting of the graph should be used
+	 * @see TransformationGraph#isCompactEdgeSerialization()
+	 */
+	public void setCompactSerialization(Boolean compactSerialization) {
+		this.compactSerialization = compactSerialization;
+	}
+
+	/**
+	 * Compact serialization stores strings in one byte per character if possible,
+	 * see {@link org.jetel.data.CompactDataRecordSerializer}. It is supported by direct and buffered edges.
+	 * @return true if records passed through this edge should be serialized in compact way
+	 */
+	public boolean isCompactSerialization() {
+		if (compactSerialization != null) {
+			return compactSerialization;
+		}
+		return getGraph() != null && getGraph().isCompactEdgeSerialization();
+	}
+
 	/**
 	 *  Gets the Metadata attribute of the Edge object
 	 *
@@ -310,6 +336,14 @@ public class Edge extends GraphElement implements InputPort, OutputPort, InputPo
 		return edge != null ? edge.getWriterWaitingTime() : 0;
 	}
 	
+	/**
+	 * @return average fill level of the edge buffer in percents, -1 if not available
+	 * @see EdgeBase#getBufferFillLevel()
+	 */
+	public int getBufferFillLevel() {
+		return edge != null ? edge.getBufferFillLevel() : -1;
+	}
+	
 	/**
 	 *  Gets the Reader attribute of the Edge object
 	 *
@@ -19,7 +19,10 @@
 package org.jetel.graph;
 import java.io.IOException;
 
+import org.jetel.data.CompactDataRecordSerializer;
 import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.DataRecordSerializer;
 import org.jetel.util.bytes.CloverBuffer;
 
 /**
@@ -44,6 +47,19 @@ public abstract class EdgeBase {
 	 */
 	protected volatile boolean eofSent;
 
+	/**
+	 * Serializer of records passed through this edge or null if the default record serialization is used.
+	 * Edge implementations which support custom serialization call {@link #initSerializer()} in init() method.
+	 * @see Edge#isCompactSerialization()
+	 */
+	protected DataRecordSerializer serializer;
+
+	/** Auxiliary record used by {@link #readRecordDirectTranscoded(CloverBuffer)}. */
+	private DataRecord directReadRecord;
+
+	/** Auxiliary record used by {@link #writeRecordDirectTranscoded(CloverBuffer)}. */
+	private DataRecord directWriteRecord;
+
 	/**
 	 *  Constructor for the Edge object
 	 *
@@ -69,6 +85,46 @@ public abstract class EdgeBase {
 	 */
 	public abstract void init() throws IOException, InterruptedException;
 
+	/**
+	 * Sets up {@link #serializer} according to settings of the graph edge.
+	 */
+	protected void initSerializer() {
+		if (proxy != null && proxy.isCompactSerialization() && proxy.getMetadata() != null) {
+			serializer = new CompactDataRecordSerializer();
+			directReadRecord = DataRecordFactory.newRecord(proxy.getMetadata());
+			directWriteRecord = DataRecordFactory.newRecord(proxy.getMetadata());
+		} else {
+			serializer = null;
+			directReadRecord = null;
+			directWriteRecord = null;
+		}
+	}
+
+	/**
+	 * Direct reading from an edge with custom {@link #serializer}. Callers of {@link #readRecordDirect(CloverBuffer)}
+	 * expect the default record serialization, so the record is deserialized by the edge serializer
+	 * and serialized back by the default serialization.
+	 */
+	protected boolean readRecordDirectTranscoded(CloverBuffer record) throws IOException, InterruptedException {
+		if (readRecord(directReadRecord) == null) {
+			return false;
+		}
+		record.clear();
+		directReadRecord.serialize(record);
+		record.flip();
+		return true;
+	}
+
+	/**
+	 * Direct writing to an edge with custom {@link #serializer}. The given record is serialized
+	 * by the default record serialization, so it is converted to the edge serialization.
+	 */
+	protected void writeRecordDirectTranscoded(CloverBuffer record) throws IOException, InterruptedException {
+		directWriteRecord.deserialize(record);
+		record.rewind();
+		writeRecord(directWriteRecord);
+	}
+
 	/**
 	 * @see GraphElement#preExecute()
 	 */
@@ -167,6 +223,14 @@ public abstract class EdgeBase {
     	return 0;
     }
     
+	/**
+	 * @return average fill level of the edge buffer in percents at the moment it is passed from the writer
+	 * to the reader, -1 if not available
+	 */
+    public int getBufferFillLevel() {
+    	return -1;
+    }
+    
 	/**
 	 *  Description of the Method
 	 *
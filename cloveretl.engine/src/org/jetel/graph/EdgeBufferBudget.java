@@ -0,0 +1,95 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph;
+
+import org.jetel.data.Defaults;
+import org.jetel.graph.runtime.MemoryManager;
+
+/**
+ * Memory budget shared by adaptive buffers of all edges of a graph, see {@link DirectEdge}.
+ * The budget limits memory allocated by the edges above the initial size of their buffers.
+ * Memory released by shrunk buffers can be used by other edges.
+ * Growth of each edge above its initial size is reserved also from the memory manager of the graph, if any.
+ *
+ * @see Defaults.Graph#EDGE_BUFFER_MEMORY_BUDGET
+ *
+ * @created 17. 10. 2026
+ */
+class EdgeBufferBudget {
+
+	private final long limit;
+
+	private long used;
+
+	private final MemoryManager memoryManager;
+
+	EdgeBufferBudget(long limit) {
+		this(limit, null);
+	}
+
+	EdgeBufferBudget(long limit, MemoryManager memoryManager) {
+		this.limit = limit;
+		this.memoryManager = memoryManager;
+	}
+
+	/**
+	 * Changes memory reserved by an edge. The reservation of an edge is negative if its buffers have been
+	 * shrunk below the initial size, this memory can be used by other edges of the budget. Only the positive
+	 * part of the reservation is reserved from the memory manager, memory which has never been reserved
+	 * is not passed to the manager.
+	 * @param reserved memory currently reserved by the edge
+	 * @param newReserved requested reservation of the edge
+	 * @return true if the reservation has been changed, growth fails if it fits neither into the budget nor into the manager
+	 */
+	synchronized boolean reserve(long reserved, long newReserved) {
+		long delta = newReserved - reserved;
+		if (delta > 0 && used + delta > limit) {
+			return false;
+		}
+		long managedDelta = Math.max(newReserved, 0) - Math.max(reserved, 0);
+		if (memoryManager != null) {
+			if (managedDelta > 0 && !memoryManager.reserve(managedDelta, null)) {
+				return false;
+			} else if (managedDelta < 0) {
+				memoryManager.release(-managedDelta);
+			}
+		}
+		used += delta;
+		return true;
+	}
+
+	/**
+	 * Returns whole reservation of an edge, whose buffers are not used anymore.
+	 * @param reserved memory reserved by the edge, may be negative
+	 */
+	synchronized void release(long reserved) {
+		used -= reserved;
+		if (memoryManager != null && reserved > 0) {
+			memoryManager.release(reserved);
+		}
+	}
+
+	/**
+	 * @return memory currently reserved in the budget, negative if the edges use less memory than initially
+	 */
+	synchronized long getUsed() {
+		return used;
+	}
+
+}
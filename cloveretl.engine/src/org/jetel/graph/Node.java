@@ -129,6 +129,9 @@ public abstract class Node extends GraphElement implements Runnable, CloverWorke
     
     private Properties attributes;
     
+    /** copy of the XML definition, kept only for components with {@link #XML_PARALLELISM_ATTRIBUTE} to create their clones */
+    private Element parallelismTemplate;
+    
     /** Subgraph only. Is this component part of debug input phase of the subgraph. */
     private boolean partOfDebugInput = false;
     
@@ -161,6 +164,12 @@ public abstract class Node extends GraphElement implements Runnable, CloverWorke
     public final static String XML_PART_OF_DEBUG_OUTPUT_ATTRIBUTE = "debugOutput";
     public final static String XML_PART_OF_REST_INPUT = "restJobInput";
     public final static String XML_PART_OF_REST_OUTPUT = "restJobOutput";
+    /** number of partitioned clones of the component, see {@link TransformationGraphAnalyzer#expandParallelNodes(TransformationGraph)} */
+    public final static String XML_PARALLELISM_ATTRIBUTE = "parallelism";
+    /** key used for hash partitioning of input records among the clones, round robin is used if not specified */
+    public final static String XML_PARALLELISM_KEY_ATTRIBUTE = "parallelismKey";
+    /** key used for merging of the sorted outputs of the clones, outputs are gathered unordered if not specified */
+    public final static String XML_PARALLELISM_MERGE_KEY_ATTRIBUTE = "parallelismMergeKey";
 
     /**
      *  Standard constructor.
@@ -1675,6 +1684,18 @@ public abstract class Node extends GraphElement implements Runnable, CloverWorke
 		this.attributes = attributes;
 	}
 
+	/**
+	 * @return copy of the XML definition of a component with {@link #XML_PARALLELISM_ATTRIBUTE} or null
+	 * @see TransformationGraphAnalyzer#expandParallelNodes(TransformationGraph)
+	 */
+	public Element getParallelismTemplate() {
+		return parallelismTemplate;
+	}
+
+	public void setParallelismTemplate(Element parallelismTemplate) {
+		this.parallelismTemplate = parallelismTemplate;
+	}
+
 	/**
      * This method blocks current thread until all input and output edges are
      * complete - last record is read, EOF indicator is reached.
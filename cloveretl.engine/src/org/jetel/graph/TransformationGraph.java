@@ -38,6 +38,7 @@ import java.util.Set;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jetel.ctl.debug.DebugJMX;
+import org.jetel.data.Defaults;
 import org.jetel.data.lookup.LookupTable;
 import org.jetel.data.sequence.Sequence;
 import org.jetel.database.IConnection;
@@ -55,6 +56,7 @@ import org.jetel.graph.rest.jaxb.RestJobResponseStatus;
 import org.jetel.graph.runtime.CloverPost;
 import org.jetel.graph.runtime.GraphRuntimeContext;
 import org.jetel.graph.runtime.IAuthorityProxy;
+import org.jetel.graph.runtime.MemoryManager;
 import org.jetel.graph.runtime.WatchDog;
 import org.jetel.graph.runtime.tracker.TokenTracker;
 import org.jetel.metadata.DataRecordMetadata;
@@ -116,6 +118,8 @@ public final class TransformationGraph extends GraphElement {
     
     private long debugMaxRecords = 0;
     
+    private boolean compactEdgeSerialization = false;
+    
 	static Log logger = LogFactory.getLog(TransformationGraph.class);
 
 	/** Time stamp of instance creation time. */
@@ -235,6 +239,16 @@ public final class TransformationGraph extends GraphElement {
 	
 	private String outputFormat;
 	
+	/**
+	 * Memory budget shared by adaptive buffers of all edges, lazily created.
+	 */
+	private EdgeBufferBudget edgeBufferBudget;
+
+	/**
+	 * Memory reserved by components and edges of this graph, lazily created.
+	 */
+	private MemoryManager memoryManager;
+	
 	public TransformationGraph() {
 		this(DEFAULT_GRAPH_ID);
 	}
@@ -371,6 +385,22 @@ public final class TransformationGraph extends GraphElement {
         return debugMaxRecords;
     }
 
+    /**
+     * Sets compact serialization of records on edges, which do not specify it explicitly.
+     * @param compactEdgeSerialization
+     * @see Edge#isCompactSerialization()
+     */
+    public void setCompactEdgeSerialization(boolean compactEdgeSerialization) {
+    	this.compactEdgeSerialization = compactEdgeSerialization;
+    }
+
+    /**
+     * @return true if records on edges, which do not specify it explicitly, are serialized in compact way
+     */
+    public boolean isCompactEdgeSerialization() {
+    	return compactEdgeSerialization;
+    }
+
 	/**
 	 *  Gets the IConnection object asssociated with the name provided
 	 *
@@ -1175,6 +1205,14 @@ public final class TransformationGraph extends GraphElement {
 	    		watchDog.free();
 	    		watchDog = null;
 	    	}
+	    	
+	    	synchronized (this) {
+	    		if (memoryManager != null) {
+	    			memoryManager.close();
+	    			memoryManager = null;
+	    			edgeBufferBudget = null;
+	    		}
+	    	}
 		} finally {
 			//unregister current thread from ContextProvider
 			ContextProvider.unregister(c);
@@ -1187,6 +1225,26 @@ public final class TransformationGraph extends GraphElement {
     	subgraphOutputComponent = null;
     }
     
+    /**
+     * @return memory budget shared by adaptive buffers of all edges of this graph
+     */
+    synchronized EdgeBufferBudget getEdgeBufferBudget() {
+    	if (edgeBufferBudget == null) {
+    		edgeBufferBudget = new EdgeBufferBudget(Defaults.Graph.EDGE_BUFFER_MEMORY_BUDGET, getMemoryManager());
+    	}
+    	return edgeBufferBudget;
+    }
+
+    /**
+     * @return memory manager which limits memory of this graph, its parent is the JVM-wide manager
+     */
+    public synchronized MemoryManager getMemoryManager() {
+    	if (memoryManager == null) {
+    		memoryManager = new MemoryManager(getId(), Defaults.Graph.MEMORY_LIMIT, MemoryManager.getJvmMemoryManager());
+    	}
+    	return memoryManager;
+    }
+    
     /**
      * @return list of all nodes in all phases of this graph
      */
@@ -28,6 +28,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Properties;
 import java.util.Queue;
 import java.util.Set;
 import java.util.Stack;
@@ -35,6 +36,7 @@ import java.util.Stack;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jetel.component.ComponentFactory;
+import org.jetel.enums.EdgeDebugMode;
 import org.jetel.enums.EdgeTypeEnum;
 import org.jetel.enums.EnabledEnum;
 import org.jetel.exception.ConfigurationStatus;
@@ -58,6 +60,8 @@ import org.jetel.util.GraphUtils;
 import org.jetel.util.Pair;
 import org.jetel.util.RestJobUtils;
 import org.jetel.util.SubgraphUtils;
+import org.jetel.util.property.PropertyRefResolver;
+import org.w3c.dom.Element;
 
 /*
  *  import org.apache.log4j.Logger;
@@ -148,6 +152,13 @@ public class TransformationGraphAnalyzer {
 			throw new JetelRuntimeException("Removing blocked nodes failed.", e);
 		}
 
+		//replace components with parallelism attribute by partitioned clones
+		try {
+			TransformationGraphAnalyzer.expandParallelNodes(graph);
+		} catch (GraphConfigurationException e) {
+			throw new JetelRuntimeException("Expanding parallel components failed.", e);
+		}
+
         //analyze type of edges - specially buffered and phase edges
         try {
         	TransformationGraphAnalyzer.analyseEdgeTypes(graph, runtimeContext);
@@ -832,6 +843,149 @@ public class TransformationGraphAnalyzer {
 		}
 	}
 	
+	/**
+	 * Replaces components with {@link Node#XML_PARALLELISM_ATTRIBUTE} by the given number of clones running in parallel.
+	 * Records from the single input port are routed to the clones by Partition component - hash partitioning
+	 * on {@link Node#XML_PARALLELISM_KEY_ATTRIBUTE} or round robin if the key is not specified. Records from each output port
+	 * of the clones are gathered by Merge component on {@link Node#XML_PARALLELISM_MERGE_KEY_ATTRIBUTE}, which preserves
+	 * order of sorted records, or by SimpleGather component in order of arrival if the merge key is not specified.
+	 * 
+	 * The component is responsible for being stateless or dependent only on records with the same partitioning key,
+	 * e.g. Reformat, ExtFilter, LookupJoin or Aggregate on the partitioning key.
+	 * 
+	 * @param graph
+	 * @throws GraphConfigurationException
+	 */
+	public static void expandParallelNodes(TransformationGraph graph) throws GraphConfigurationException {
+		PropertyRefResolver refResolver = new PropertyRefResolver(graph.getGraphParameters());
+		for (Phase phase : graph.getPhases()) {
+			List<Node> parallelNodes = new ArrayList<>();
+			List<Integer> parallelisms = new ArrayList<>();
+			for (Node node : phase.getNodes().values()) {
+				int parallelism = getParallelism(node, refResolver);
+				if (parallelism > 1) {
+					parallelNodes.add(node);
+					parallelisms.add(parallelism);
+				}
+			}
+			for (int i = 0; i < parallelNodes.size(); i++) {
+				expandParallelNode(phase, parallelNodes.get(i), parallelisms.get(i), refResolver);
+			}
+		}
+	}
+
+	private static int getParallelism(Node node, PropertyRefResolver refResolver) throws GraphConfigurationException {
+		String parallelism = getAttribute(node, Node.XML_PARALLELISM_ATTRIBUTE, refResolver);
+		if (parallelism == null) {
+			return 1;
+		}
+		try {
+			int result = Integer.parseInt(parallelism.trim());
+			if (result > 0) {
+				return result;
+			}
+		} catch (NumberFormatException e) {
+			//invalid value is reported below
+		}
+		throw new GraphConfigurationException("Invalid parallelism '" + parallelism + "' of component " + node + ".");
+	}
+
+	private static String getAttribute(Node node, String attributeName, PropertyRefResolver refResolver) {
+		Properties attributes = node.getAttributes();
+		String value = attributes != null ? attributes.getProperty(attributeName) : null;
+		return value != null ? refResolver.resolveRef(value) : null;
+	}
+
+	private static void expandParallelNode(Phase phase, Node node, int parallelism, PropertyRefResolver refResolver) throws GraphConfigurationException {
+		TransformationGraph graph = node.getGraph();
+		if (graph.getRuntimeJobType().isJobflow()) {
+			throw new GraphConfigurationException("Parallelism of component " + node + " is not supported in jobflows.");
+		}
+		InputPort inputPort = node.getInputPort(0);
+		if (inputPort == null || node.getInPorts().size() != 1) {
+			throw new GraphConfigurationException("Component " + node + " with parallelism has to have exactly one input port connected.");
+		}
+		String id = node.getId();
+		Edge inputEdge = inputPort.getEdge();
+
+		Properties routerAttributes = new Properties();
+		String partitionKey = getAttribute(node, Node.XML_PARALLELISM_KEY_ATTRIBUTE, refResolver);
+		if (partitionKey != null) {
+			routerAttributes.setProperty("partitionKey", partitionKey);
+		}
+		Node router = ComponentFactory.createComponent(graph, "PARTITION", id + "_PARTITION", routerAttributes);
+
+		Node[] clones = new Node[parallelism];
+		for (int i = 0; i < parallelism; i++) {
+			clones[i] = createClone(node, id + "_" + i);
+			clones[i].setEnabled(node.getEnabled());
+		}
+
+		String mergeKey = getAttribute(node, Node.XML_PARALLELISM_MERGE_KEY_ATTRIBUTE, refResolver);
+		List<Edge> outputEdges = new ArrayList<>();
+		List<Integer> outputPortNumbers = new ArrayList<>();
+		List<Node> gathers = new ArrayList<>();
+		for (OutputPort outputPort : node.getOutPorts()) {
+			Properties gatherAttributes = new Properties();
+			String gatherType = "SIMPLE_GATHER";
+			if (mergeKey != null) {
+				gatherAttributes.setProperty("mergeKey", mergeKey);
+				gatherType = "MERGE";
+			}
+			outputEdges.add(outputPort.getEdge());
+			outputPortNumbers.add(outputPort.getOutputPortNumber());
+			gathers.add(ComponentFactory.createComponent(graph, gatherType, id + "_GATHER" + outputPort.getOutputPortNumber(), gatherAttributes));
+		}
+
+		//the original edges are reconnected to the router and gathers, the original node is removed
+		phase.deleteNode(node);
+		phase.addNode(router);
+		phase.addNode(clones);
+		phase.addAllNodes(gathers);
+		router.addInputPort(0, inputEdge);
+		for (int i = 0; i < outputEdges.size(); i++) {
+			gathers.get(i).addOutputPort(0, outputEdges.get(i));
+		}
+
+		for (int i = 0; i < parallelism; i++) {
+			Edge edge = EdgeFactory.newEdge(id + "_PARTITION_" + i, inputEdge.getMetadata(), EdgeDebugMode.OFF);
+			router.addOutputPort(i, edge);
+			clones[i].addInputPort(0, edge);
+			graph.addEdge(edge);
+
+			for (int j = 0; j < outputEdges.size(); j++) {
+				int portNumber = outputPortNumbers.get(j);
+				edge = EdgeFactory.newEdge(id + "_GATHER" + portNumber + "_" + i, outputEdges.get(j).getMetadata(), EdgeDebugMode.OFF);
+				clones[i].addOutputPort(portNumber, edge);
+				gathers.get(j).addInputPort(i, edge);
+				graph.addEdge(edge);
+			}
+		}
+	}
+
+	/**
+	 * Creates a clone of the component with parallelism from its original XML definition, so child elements
+	 * (e.g. inlined transformations) are preserved. Components which have not been read from XML
+	 * are cloned from their attributes.
+	 */
+	private static Node createClone(Node node, String cloneId) {
+		String[] parallelismAttributes = {Node.XML_PARALLELISM_ATTRIBUTE, Node.XML_PARALLELISM_KEY_ATTRIBUTE, Node.XML_PARALLELISM_MERGE_KEY_ATTRIBUTE};
+		Element template = node.getParallelismTemplate();
+		if (template == null) {
+			Properties cloneAttributes = (Properties) node.getAttributes().clone();
+			for (String attribute : parallelismAttributes) {
+				cloneAttributes.remove(attribute);
+			}
+			return ComponentFactory.createComponent(node.getGraph(), node.getType(), cloneId, cloneAttributes);
+		}
+		Element cloneElement = (Element) template.cloneNode(true);
+		for (String attribute : parallelismAttributes) {
+			cloneElement.removeAttribute(attribute);
+		}
+		cloneElement.setAttribute(IGraphElement.XML_ID_ATTRIBUTE, cloneId);
+		return ComponentFactory.createComponent(node.getGraph(), node.getType(), cloneElement);
+	}
+
 	/**
 	 * Replaces given node by trashifier in its graph.
 	 * The edges are reconnected but the returned trashifier is not added to the graph and original node is not removed by this method.
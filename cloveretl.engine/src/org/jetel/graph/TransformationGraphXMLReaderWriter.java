@@ -103,7 +103,8 @@ import org.xml.sax.SAXParseException;
  * &lt;!ATTLIST Graph
  *		name ID #REQUIRED 
  *      debugMode NMTOKEN (true | false) #IMPLIED
- *      debugDirectory CDATE #IMPLIED&gt;
+ *      debugDirectory CDATE #IMPLIED
+ *      compactEdgeSerialization NMTOKEN (true | false) #IMPLIED&gt;
  *
  * &lt;!ELEMENT Global (Property*, Metadata+, Connection*, Sequence*, LookupTable*)&gt;
  *
@@ -154,7 +155,8 @@ import org.xml.sax.SAXParseException;
  *		fromNode NMTOKEN #REQUIRED
  *		toNode	NMTOKEN #REQUIRED
  *      debugMode NMTOKEN (true | false) #IMPLIED 
- *      fastPropagate NMTOKEN (true | false) #IMPLIED&gt;
+ *      fastPropagate NMTOKEN (true | false) #IMPLIED
+ *      compactSerialization NMTOKEN (true | false) #IMPLIED&gt;
  *
  *
  * </pre>
@@ -569,6 +571,8 @@ public class TransformationGraphXMLReaderWriter {
 	        graph.setEdgeDebugging(grfAttributes.getString("debugMode", "true"));
 	        //get debugMaxRecords
 	        graph.setDebugMaxRecords(grfAttributes.getLong("debugMaxRecords", 0));
+	        //get compact serialization of edges
+	        graph.setCompactEdgeSerialization(grfAttributes.getBoolean("compactEdgeSerialization", false));
 	        
 	        graph.setAuthor(grfAttributes.getString(AUTHOR_ATTRIBUTE, null));
 	        graph.setCreated(grfAttributes.getString(CREATED_ATTRIBUTE, null));
@@ -879,6 +883,7 @@ public class TransformationGraphXMLReaderWriter {
         boolean debugLastRecords = true;
         boolean debugSampleData = false;
         boolean fastPropagate = false;
+        Boolean compactSerialization = null;
 		String[] specNodePort;
 		int fromPort;
 		int toPort;
@@ -914,6 +919,7 @@ public class TransformationGraphXMLReaderWriter {
             debugFilterExpression = attributes.getString("debugFilterExpression", null);
             debugSampleData = attributes.getBoolean("debugSampleData", false);
             fastPropagate = attributes.getBoolean("fastPropagate", false);
+            compactSerialization = attributes.exists("compactSerialization") ? attributes.getBoolean("compactSerialization", false) : null;
             metadataRef = attributes.getString("metadataRef", null);
             metadataRefState = ReferenceState.fromString(attributes.getString("metadataRefState", ReferenceState.VALID_REFERENCE.toString()));
             
@@ -942,6 +948,8 @@ public class TransformationGraphXMLReaderWriter {
 			graphEdge.setDebugSampleData(debugSampleData);
 			graphEdge.setMetadataRef(metadataRef);
 			graphEdge.setMetadataReferenceState(metadataRefState);
+			graphEdge.setCompactSerialization(compactSerialization);
+
 			// set edge type
 			if (runtimeContext.getExecutionType() == ExecutionType.SINGLE_THREAD_EXECUTION) {
 				//in single thread execution all edges are buffered
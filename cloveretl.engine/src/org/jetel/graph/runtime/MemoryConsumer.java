@@ -0,0 +1,41 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph.runtime;
+
+/**
+ * Holder of memory reserved from a {@link MemoryManager}, which is able to release
+ * the memory under pressure, e.g. by spilling its data to disk.
+ *
+ * @created 17. 10. 2026
+ */
+public interface MemoryConsumer {
+
+	/**
+	 * @return number of bytes currently reserved by this consumer
+	 */
+	public long getReservedMemory();
+
+	/**
+	 * Asks the consumer to release its memory. The method is called by a thread of another
+	 * consumer, which failed to reserve memory, so the consumer should only take a note
+	 * and release the memory at its next safe point.
+	 */
+	public void spill();
+
+}
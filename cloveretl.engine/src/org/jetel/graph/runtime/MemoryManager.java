@@ -0,0 +1,202 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jetel.data.Defaults;
+
+/**
+ * Memory budget, which components reserve from before they allocate large buffers,
+ * sort or hash structures. Managers form a hierarchy - the JVM-wide manager limits
+ * all graphs running in the JVM and each graph has its own manager, see
+ * {@link org.jetel.graph.TransformationGraph#getMemoryManager()}. A reservation
+ * succeeds only if it fits into the manager and all its parents.
+ *
+ * If a reservation fails, registered {@link MemoryConsumer}s holding most memory
+ * are asked to spill, so the memory can be reserved later. The consumer which failed
+ * is expected to fall back to a cheaper strategy, e.g. to flush its data to disk.
+ *
+ * @see Defaults.Graph#MEMORY_LIMIT
+ * @see Defaults.Graph#JVM_MEMORY_LIMIT
+ *
+ * @created 17. 10. 2026
+ */
+public class MemoryManager implements MemoryConsumer {
+
+	private static MemoryManager jvmMemoryManager;
+
+	private final String name;
+
+	/** maximal memory in bytes, zero or negative value means no limit */
+	private final long limit;
+
+	private final MemoryManager parent;
+
+	private final AtomicLong used = new AtomicLong();
+
+	private final List<MemoryConsumer> consumers = new CopyOnWriteArrayList<MemoryConsumer>();
+
+	/** closed manager does not pass memory to the parent, it has been returned by {@link #close()} */
+	private volatile boolean closed;
+
+	/**
+	 * @param name name used in log messages
+	 * @param limit maximal memory in bytes, zero or negative value means no limit
+	 * @param parent manager which limits this one, can be null
+	 */
+	public MemoryManager(String name, long limit, MemoryManager parent) {
+		this.name = name;
+		this.limit = limit;
+		this.parent = parent;
+		if (parent != null) {
+			parent.register(this);
+		}
+	}
+
+	/**
+	 * @return manager shared by all graphs running in this JVM
+	 */
+	public static synchronized MemoryManager getJvmMemoryManager() {
+		if (jvmMemoryManager == null) {
+			jvmMemoryManager = new MemoryManager("JVM", Defaults.Graph.JVM_MEMORY_LIMIT, null);
+		}
+		return jvmMemoryManager;
+	}
+
+	/**
+	 * Reserves the given amount of memory if it fits into this manager and all its parents.
+	 * Otherwise the other consumers are asked to spill.
+	 *
+	 * @param bytes
+	 * @param requester consumer which reserves the memory, it is not asked to spill, can be null
+	 * @return true if the memory has been reserved
+	 */
+	public boolean reserve(long bytes, MemoryConsumer requester) {
+		if (!reserveLocally(bytes)) {
+			requestSpill(bytes, requester);
+			return false;
+		}
+		if (parent != null && !closed && !parent.reserve(bytes, requester)) {
+			used.addAndGet(-bytes);
+			return false;
+		}
+		return true;
+	}
+
+	private boolean reserveLocally(long bytes) {
+		while (true) {
+			long current = used.get();
+			if (limit > 0 && current + bytes > limit) {
+				return false;
+			}
+			if (used.compareAndSet(current, current + bytes)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the given amount of memory to this manager and all its parents.
+	 * @param bytes
+	 */
+	public void release(long bytes) {
+		if (bytes <= 0) {
+			// memory which has not been reserved cannot be returned
+			return;
+		}
+		used.addAndGet(-bytes);
+		if (parent != null && !closed) {
+			parent.release(bytes);
+		}
+	}
+
+	/**
+	 * Registers consumer, which can be asked to spill.
+	 * @param consumer
+	 */
+	public void register(MemoryConsumer consumer) {
+		consumers.add(consumer);
+	}
+
+	public void unregister(MemoryConsumer consumer) {
+		consumers.remove(consumer);
+	}
+
+	/**
+	 * Asks consumers with the most memory to spill until they hold the requested amount together.
+	 */
+	private void requestSpill(long bytes, MemoryConsumer requester) {
+		List<MemoryConsumer> candidates = new ArrayList<MemoryConsumer>(consumers);
+		candidates.remove(requester);
+		Collections.sort(candidates, new Comparator<MemoryConsumer>() {
+			@Override
+			public int compare(MemoryConsumer c1, MemoryConsumer c2) {
+				return Long.compare(c2.getReservedMemory(), c1.getReservedMemory());
+			}
+		});
+		long released = 0;
+		for (MemoryConsumer consumer : candidates) {
+			long reserved = consumer.getReservedMemory();
+			if (released >= bytes || reserved <= 0) {
+				break;
+			}
+			if (consumer instanceof MemoryManager) {
+				((MemoryManager) consumer).requestSpill(bytes - released, requester);
+			} else {
+				consumer.spill();
+			}
+			released += reserved;
+		}
+	}
+
+	@Override
+	public long getReservedMemory() {
+		return used.get();
+	}
+
+	@Override
+	public void spill() {
+		requestSpill(used.get(), null);
+	}
+
+	/**
+	 * Returns memory not released by the consumers to the parent and unregisters from the parent.
+	 * Later reservations and releases affect only this manager.
+	 */
+	public void close() {
+		closed = true;
+		if (parent != null) {
+			parent.release(used.getAndSet(0));
+			parent.unregister(this);
+		}
+		consumers.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "MemoryManager " + name + " (used: " + used.get() + (limit > 0 ? ", limit: " + limit : "") + ")";
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph.runtime;
+
+/**
+ * Memory consumer of a hash table or another in-memory structure, which is able to move
+ * its data to disk. The owner accounts estimated size of the stored data by {@link #add(long)}
+ * and spills its data once the method returns <code>false</code>, either because the memory
+ * manager refused the reservation or because it asked this consumer to spill.
+ * After spilling the owner calls {@link #release()}.
+ *
+ * The memory is reserved from the manager in chunks, so the manager is not
+ * called for each stored record.
+ *
+ * @created 17. 10. 2026
+ */
+public class MemoryReservation implements MemoryConsumer {
+
+	/** memory is reserved from the memory manager in chunks of this size at least */
+	private final static long RESERVATION_CHUNK = 1024 * 1024;
+
+	private final MemoryManager memoryManager;
+
+	/** estimated size of the stored data, accessed only by the owner thread */
+	private long usedMemory;
+
+	private volatile long reservedMemory;
+
+	private volatile boolean spillRequested;
+
+	/**
+	 * Creates the reservation and registers it in the given manager.
+	 * @param memoryManager
+	 */
+	public MemoryReservation(MemoryManager memoryManager) {
+		this.memoryManager = memoryManager;
+		memoryManager.register(this);
+	}
+
+	/**
+	 * Accounts data of the given size stored by the owner.
+	 * @param bytes
+	 * @return false if the owner should spill its data and call {@link #release()}
+	 */
+	public boolean add(long bytes) {
+		if (spillRequested) {
+			spillRequested = false;
+			return false;
+		}
+		usedMemory += bytes;
+		if (usedMemory > reservedMemory) {
+			long chunk = Math.max(RESERVATION_CHUNK, usedMemory - reservedMemory);
+			if (!memoryManager.reserve(chunk, this)) {
+				return false;
+			}
+			reservedMemory += chunk;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the whole reserved memory to the manager, the owner must not hold the data anymore.
+	 */
+	public void release() {
+		if (reservedMemory > 0) {
+			memoryManager.release(reservedMemory);
+		}
+		reservedMemory = 0;
+		usedMemory = 0;
+		spillRequested = false;
+	}
+
+	/**
+	 * Releases the memory and unregisters from the manager.
+	 */
+	public void close() {
+		release();
+		memoryManager.unregister(this);
+	}
+
+	@Override
+	public long getReservedMemory() {
+		return reservedMemory;
+	}
+
+	@Override
+	public void spill() {
+		spillRequested = true;
+	}
+
+}
@@ -0,0 +1,443 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph.runtime;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.jetel.data.Defaults;
+import org.jetel.exception.JetelRuntimeException;
+import org.jetel.graph.Phase;
+import org.jetel.graph.Result;
+
+/**
+ * Thread manager which recycles threads for components, watchdogs and auxiliary tasks.
+ * Unlike {@link SimpleThreadManager}, threads are not created per component and phase,
+ * idle threads are kept alive for {@link Defaults.WatchDog#THREAD_KEEP_ALIVE_TIME} and reused
+ * by subsequent phases and graphs.<br>
+ * Number of concurrently running component threads is limited by the given maximum. WatchDog
+ * waits in {@link #acquireNodeThreads(int)} until enough threads are released by other phases
+ * (of this or other graphs), so a JVM running many graphs does not explode in native thread count.
+ * The lock of this manager is held only for the accounting, components are started without it,
+ * since a single instance is usually shared by the whole JVM.
+ * Component threads cannot be queued - all components of a phase have to run concurrently -
+ * so the limit is an admission limit, not a size of a fixed pool. A graph with a phase bigger than
+ * the limit is refused.<br>
+ * Component threads are accounted per graph. A graph started from a component thread
+ * (e.g. by RunGraph, ExecuteGraph or Subgraph component) is nested - the component usually waits
+ * for its result while holding its own thread, so the nested graph is not limited, otherwise it could
+ * wait for threads held by its parent forever. Threads of nested graphs are still accounted,
+ * so other top-level graphs wait for them.<br>
+ * Single instance can be shared by all graphs running in the JVM, see {@link #getSharedInstance()}.
+ *
+ * @created 17. 10. 2026
+ * @see SimpleThreadManager
+ */
+public class PooledThreadManager implements IThreadManager {
+
+	private static final Logger logger = Logger.getLogger(PooledThreadManager.class);
+
+	private static PooledThreadManager sharedInstance;
+
+	/** Maximal number of concurrently running component threads. */
+	private final int maxNodeThreads;
+
+	/** Number of component threads currently accounted as used. */
+	private int usedNodeThreads;
+
+	/** Graph of the current watchdog or component thread, null for other threads. */
+	private final ThreadLocal<GraphThreads> currentGraph = new ThreadLocal<GraphThreads>();
+
+	private final ThreadPoolExecutor nodeExecutor;
+
+	private final ThreadPoolExecutor taskExecutor;
+
+	/**
+	 * @param maxNodeThreads maximal number of concurrently running component threads
+	 * @param keepAliveTime time (in milliseconds) an idle thread waits for a new task before termination
+	 */
+	public PooledThreadManager(int maxNodeThreads, long keepAliveTime) {
+		if (maxNodeThreads <= 0) {
+			throw new IllegalArgumentException("Maximal number of component threads has to be positive: " + maxNodeThreads);
+		}
+		this.maxNodeThreads = maxNodeThreads;
+		this.nodeExecutor = createExecutor("Node", Thread.MIN_PRIORITY, keepAliveTime);
+		this.taskExecutor = createExecutor("Task", Thread.NORM_PRIORITY, keepAliveTime);
+	}
+
+	/**
+	 * @return thread manager shared by all graphs in the JVM, sized by {@link Defaults.WatchDog#MAX_NODE_THREADS}
+	 */
+	public static synchronized PooledThreadManager getSharedInstance() {
+		if (sharedInstance == null) {
+			sharedInstance = new PooledThreadManager(Defaults.WatchDog.MAX_NODE_THREADS, Defaults.WatchDog.THREAD_KEEP_ALIVE_TIME);
+		}
+		return sharedInstance;
+	}
+
+	/**
+	 * Default thread manager for a graph execution. The shared pooled thread manager is used
+	 * if {@link Defaults.WatchDog#MAX_NODE_THREADS} is positive, {@link SimpleThreadManager} otherwise.
+	 * @return thread manager for a graph execution
+	 */
+	public static IThreadManager getDefaultThreadManager() {
+		if (Defaults.WatchDog.MAX_NODE_THREADS > 0) {
+			return getSharedInstance();
+		} else {
+			return new SimpleThreadManager();
+		}
+	}
+
+	private static ThreadPoolExecutor createExecutor(final String namePrefix, final int priority, long keepAliveTime) {
+		ThreadFactory threadFactory = new ThreadFactory() {
+			private final AtomicInteger threadCounter = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Pooled" + namePrefix + "Thread-" + threadCounter.incrementAndGet());
+				thread.setPriority(priority);
+				// pooled threads must not prevent JVM exit, graph callers wait for WatchDogFuture anyway
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		// hand-off queue - a task is never queued, an idle thread is reused or a new one is created
+		return new ThreadPoolExecutor(0, Integer.MAX_VALUE, keepAliveTime, TimeUnit.MILLISECONDS,
+				new SynchronousQueue<Runnable>(), threadFactory);
+	}
+
+	@Override
+	public void initWatchDog(WatchDog watchDog) {
+		watchDog.setThreadManager(this);
+		watchDog.init();
+	}
+
+	@Override
+	public WatchDogFuture executeWatchDog(WatchDog watchDog) {
+		GraphThreads graph = new GraphThreads(currentGraph.get() != null);
+		if (!graph.nested) {
+			for (Phase phase : watchDog.getGraph().getPhases()) {
+				if (phase.getNodes().size() > maxNodeThreads) {
+					throw new JetelRuntimeException("Phase " + phase.getLabel() + " has " + phase.getNodes().size()
+							+ " components, which exceeds the maximal number of component threads " + maxNodeThreads
+							+ ", see WatchDog.MAX_NODE_THREADS.");
+				}
+			}
+		}
+		WatchDogFutureImpl watchDogFuture = new WatchDogFutureImpl(watchDog);
+		executeGraph(graph, new RenamingRunnable(watchDogFuture, "WatchDog"));
+		return watchDogFuture;
+	}
+
+	/**
+	 * Executes the task which starts up components of a graph, typically the graph's watchdog.
+	 * Component threads started by the task are accounted to the graph.
+	 * @param graphTask
+	 */
+	void executeGraph(Runnable graphTask) {
+		executeGraph(new GraphThreads(currentGraph.get() != null), graphTask);
+	}
+
+	private void executeGraph(final GraphThreads graph, final Runnable graphTask) {
+		taskExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				currentGraph.set(graph);
+				try {
+					graphTask.run();
+				} finally {
+					currentGraph.remove();
+					releaseGraph(graph);
+				}
+			}
+		});
+	}
+
+	@Override
+	public void executeNode(final Runnable node) {
+		final GraphThreads graph = currentGraph.get();
+		synchronized (this) {
+			if (graph != null && graph.acquiredNodeThreads > 0) {
+				// already accounted by acquireNodeThreads()
+				graph.acquiredNodeThreads--;
+			} else {
+				usedNodeThreads++;
+				if (graph != null) {
+					graph.usedNodeThreads++;
+				}
+			}
+		}
+		// thread name and context classloader are set by the node itself, see Node.setNodeThread()
+		nodeExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				Thread thread = Thread.currentThread();
+				ClassLoader formerClassLoader = thread.getContextClassLoader();
+				// graphs started by the component are nested
+				currentGraph.set(graph != null ? graph : GraphThreads.UNKNOWN);
+				try {
+					node.run();
+				} finally {
+					currentGraph.remove();
+					// the thread is reused for next component
+					thread.setContextClassLoader(formerClassLoader);
+					Thread.interrupted();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Waits until the given number of component threads is free and accounts them to the graph
+	 * of the current thread. Following {@link #executeNode(Runnable)} calls of the graph use
+	 * the acquired threads. The lock of this manager is released while waiting,
+	 * so neither waiting graphs nor starting components block other graphs.
+	 * 
+	 * @param nodeThreadsToAcquire number of component threads
+	 * @throws InterruptedException
+	 */
+	public synchronized void acquireNodeThreads(int nodeThreadsToAcquire) throws InterruptedException {
+		GraphThreads graph = currentGraph.get();
+		if (graph == null || graph == GraphThreads.UNKNOWN) {
+			// watchdog not executed by this manager, nested if it runs in a component thread
+			graph = new GraphThreads(graph != null);
+			currentGraph.set(graph);
+		}
+		while (getFreeThreadsCount() < nodeThreadsToAcquire) {
+			wait();
+		}
+		usedNodeThreads += nodeThreadsToAcquire;
+		graph.usedNodeThreads += nodeThreadsToAcquire;
+		graph.acquiredNodeThreads += nodeThreadsToAcquire;
+	}
+
+	@Override
+	public void execute(Runnable runnable) {
+		taskExecutor.execute(new RenamingRunnable(runnable, runnable.getClass().getName()));
+	}
+
+	@Override
+	public <R extends Runnable> FutureOfRunnable<R> executeRunnable(R runnable) {
+		FutureOfRunnableImpl<R> futureTask = new FutureOfRunnableImpl<R>(runnable);
+		taskExecutor.execute(new RenamingRunnable(futureTask, runnable.getClass().getName()));
+		return futureTask;
+	}
+
+	@Override
+	public <C extends Callable<R>, R> FutureOfCallable<C, R> executeCallable(C callable) {
+		FutureOfCallableImpl<C, R> futureTask = new FutureOfCallableImpl<C, R>(callable);
+		taskExecutor.execute(new RenamingRunnable(futureTask, callable.getClass().getName()));
+		return futureTask;
+	}
+
+	/**
+	 * Unlimited number of threads is reported to nested graphs.
+	 */
+	@Override
+	public synchronized int getFreeThreadsCount() {
+		GraphThreads graph = currentGraph.get();
+		if (graph != null && graph.nested) {
+			return Integer.MAX_VALUE;
+		}
+		return Math.max(0, maxNodeThreads - usedNodeThreads);
+	}
+
+	@Override
+	public synchronized void releaseNodeThreads(int nodeThreadsToRelease) {
+		GraphThreads graph = currentGraph.get();
+		if (graph != null) {
+			if (nodeThreadsToRelease > graph.usedNodeThreads) {
+				logger.warn("More component threads released than acquired by the graph.");
+				nodeThreadsToRelease = graph.usedNodeThreads;
+			}
+			graph.usedNodeThreads -= nodeThreadsToRelease;
+			graph.acquiredNodeThreads = Math.min(graph.acquiredNodeThreads, graph.usedNodeThreads);
+		}
+		usedNodeThreads -= nodeThreadsToRelease;
+		if (usedNodeThreads < 0) {
+			logger.warn("More component threads released than acquired.");
+			usedNodeThreads = 0;
+		}
+		// wake up watchdogs waiting for free threads
+		notifyAll();
+	}
+
+	/**
+	 * Releases component threads the graph has not released itself, e.g. if its watchdog failed.
+	 */
+	private synchronized void releaseGraph(GraphThreads graph) {
+		if (graph.usedNodeThreads > 0) {
+			logger.warn("Releasing " + graph.usedNodeThreads + " component threads of a finished graph.");
+			usedNodeThreads = Math.max(0, usedNodeThreads - graph.usedNodeThreads);
+			graph.usedNodeThreads = 0;
+			graph.acquiredNodeThreads = 0;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * @return number of component threads currently accounted as used
+	 */
+	public synchronized int getUsedNodeThreads() {
+		return usedNodeThreads;
+	}
+
+	/**
+	 * @return maximal number of concurrently running component threads
+	 */
+	public int getMaxNodeThreads() {
+		return maxNodeThreads;
+	}
+
+	/**
+	 * @return number of currently pooled threads (both running and idle)
+	 */
+	public int getPoolSize() {
+		return nodeExecutor.getPoolSize() + taskExecutor.getPoolSize();
+	}
+
+	@Override
+	public void free() {
+		if (this == sharedInstance) {
+			// shared instance lives as long as the JVM
+			return;
+		}
+		shutdown(nodeExecutor, false);
+		shutdown(taskExecutor, false);
+	}
+
+	@Override
+	public void freeNow() {
+		if (this == sharedInstance) {
+			return;
+		}
+		shutdown(nodeExecutor, true);
+		shutdown(taskExecutor, true);
+	}
+
+	private static void shutdown(ExecutorService executor, boolean now) {
+		if (now) {
+			executor.shutdownNow();
+		} else {
+			executor.shutdown();
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Component threads accounted to one graph.
+	 */
+	private static class GraphThreads {
+		/** graph of components not started by a watchdog of this manager */
+		private static final GraphThreads UNKNOWN = new GraphThreads(false);
+
+		/** true if the graph has been started from a component thread */
+		private final boolean nested;
+
+		/** guarded by the lock of the thread manager */
+		private int usedNodeThreads;
+
+		/** threads accounted by acquireNodeThreads() and not yet used by executeNode(), guarded by the lock of the thread manager */
+		private int acquiredNodeThreads;
+
+		public GraphThreads(boolean nested) {
+			this.nested = nested;
+		}
+	}
+
+	/**
+	 * Names the pooled thread for the time of the task execution.
+	 */
+	private static class RenamingRunnable implements Runnable {
+		private final Runnable runnable;
+		private final String name;
+
+		public RenamingRunnable(Runnable runnable, String name) {
+			this.runnable = runnable;
+			this.name = name;
+		}
+
+		@Override
+		public void run() {
+			Thread thread = Thread.currentThread();
+			String formerName = thread.getName();
+			thread.setName(name);
+			try {
+				runnable.run();
+			} finally {
+				thread.setName(formerName);
+				// clear a possible interrupt flag, the thread is reused for next task
+				Thread.interrupted();
+			}
+		}
+	}
+
+	private static class FutureOfCallableImpl<C extends Callable<R>, R> extends FutureTask<R> implements FutureOfCallable<C, R> {
+		private C callable;
+
+		public FutureOfCallableImpl(C callable) {
+			super(callable);
+
+			this.callable = callable;
+		}
+
+		@Override
+		public C getCallable() {
+			return callable;
+		}
+	}
+
+	private static class WatchDogFutureImpl extends FutureOfCallableImpl<WatchDog, Result> implements WatchDogFuture {
+		public WatchDogFutureImpl(WatchDog watchDog) {
+			super(watchDog);
+		}
+
+		@Override
+		public WatchDog getWatchDog() {
+			return getCallable();
+		}
+	}
+
+	private static class FutureOfRunnableImpl<R extends Runnable> extends FutureTask<Object> implements FutureOfRunnable<R> {
+		private R runnable;
+
+		public FutureOfRunnableImpl(R runnable) {
+			super(runnable, new Object());
+
+			this.runnable = runnable;
+		}
+
+		@Override
+		public R getRunnable() {
+			return runnable;
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph.runtime;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetel.data.Defaults;
+
+/**
+ * Bounded pool of threads shared by all graphs in the JVM for short tasks of engine internals
+ * which split work of a single component - parallel sorting of in-memory buffers, parallel parsing
+ * or compression of clover data blocks.<br>
+ * Number of threads is limited by {@link Defaults.WatchDog#MAX_TASK_THREADS}, further tasks are queued.
+ * So a JVM running many graphs does not create a private thread for each task. Submitted tasks
+ * must not wait for other tasks of this pool, otherwise the pool could be exhausted by the waiting tasks.<br>
+ * Tasks blocked by I/O, e.g. background fetching of lookup records from a database, use the separate
+ * pool {@link #getIOInstance()}, so they do not hold the threads of CPU bound tasks.
+ *
+ * @created 17. 10. 2026
+ * @see PooledThreadManager
+ */
+public final class SharedTaskExecutor {
+
+	private static ExecutorService executor;
+
+	private static ExecutorService ioExecutor;
+
+	private SharedTaskExecutor() {
+	}
+
+	/**
+	 * @return executor shared by all graphs in the JVM, created lazily
+	 */
+	public static synchronized ExecutorService getInstance() {
+		if (executor == null) {
+			int threads = getMaxThreads();
+			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, Math.max(1, Defaults.WatchDog.THREAD_KEEP_ALIVE_TIME),
+					TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger threadCounter = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "SharedTaskThread-" + threadCounter.incrementAndGet());
+							// callers wait for results of their tasks, idle threads must not prevent JVM exit
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			// idle threads terminate after the keep-alive time and are created again on demand
+			threadPool.allowCoreThreadTimeOut(true);
+			executor = threadPool;
+		}
+		return executor;
+	}
+
+	/**
+	 * Pool for tasks waiting for I/O. Its threads are not limited, a thread is created whenever no idle
+	 * thread is available, the number of threads is given by the number of tasks the components wait for.
+	 * 
+	 * @return executor for tasks blocked by I/O shared by all graphs in the JVM, created lazily
+	 */
+	public static synchronized ExecutorService getIOInstance() {
+		if (ioExecutor == null) {
+			ioExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, Math.max(1, Defaults.WatchDog.THREAD_KEEP_ALIVE_TIME),
+					TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger threadCounter = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "SharedIOThread-" + threadCounter.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return ioExecutor;
+	}
+
+	/**
+	 * @return maximal number of threads of the shared pool
+	 */
+	public static int getMaxThreads() {
+		int threads = Defaults.WatchDog.MAX_TASK_THREADS;
+		return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+}
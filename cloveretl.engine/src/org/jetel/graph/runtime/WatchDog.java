@@ -150,9 +150,9 @@ public class WatchDog implements Callable<Result>, CloverPost {
 	 * WatchDog initialization.
 	 */
 	public void init() {
-		//at least simple thread manager will be used
+		//at least default thread manager will be used
 		if(threadManager == null) {
-			threadManager = new SimpleThreadManager();
+			threadManager = PooledThreadManager.getDefaultThreadManager();
 		}
 
 		//create token tracker if graph is jobflow type
@@ -650,6 +650,17 @@ public class WatchDog implements Callable<Result>, CloverPost {
 	 * @since                 July 31, 2002
 	 */
 	private void startUpNodes(Phase phase) {
+		if (threadManager instanceof PooledThreadManager) {
+			//the pooled thread manager is shared by all graphs in the JVM, so its lock is not held
+			//while the components are starting, the threads are acquired in advance
+			try {
+				((PooledThreadManager) threadManager).acquireNodeThreads(phase.getNodes().size());
+			} catch (InterruptedException e) {
+				throw new RuntimeException("WatchDog was interrupted while was waiting for free workers for nodes in phase " + phase.getLabel());
+			}
+			executeNodes(phase);
+			return;
+		}
 		synchronized(threadManager) {
 			while (threadManager.getFreeThreadsCount() < phase.getNodes().size()) { //it is sufficient, not necessary condition - so we have to time to time wake up and check it again
 				try {
@@ -658,27 +669,35 @@ public class WatchDog implements Callable<Result>, CloverPost {
 					throw new RuntimeException("WatchDog was interrupted while was waiting for free workers for nodes in phase " + phase.getLabel());
 				}
 			}
-			if (phase.getNodes().size() > 0) {
-				//this barrier can be broken only when all components and watchdog is waiting there
-				CyclicBarrier preExecuteBarrier = new CyclicBarrier(phase.getNodes().size() + 1);
-				//this barrier is used for synchronization of all components between pre-execute and execute
-				//it is necessary to finish all pre-execute's before execution
-				CyclicBarrier executeBarrier = new CyclicBarrier(phase.getNodes().size());
-				for (Node node: phase.getNodes().values()) {
-					node.setPreExecuteBarrier(preExecuteBarrier);
-					node.setExecuteBarrier(executeBarrier);
-					threadManager.executeNode(node);
-					logger.debug(node.getId()+ " ... starting");
-				}
-				try {
-					//now we will wait for all components are really alive - node.getNodeThread() return non-null value
-					preExecuteBarrier.await();
-					logger.debug("All components are ready to start.");
-				} catch (InterruptedException e) {
-					throw new RuntimeException("WatchDog was interrupted while was waiting for workers startup in phase " + phase.getLabel());
-				} catch (BrokenBarrierException e) {
-					throw new RuntimeException("WatchDog or a worker was interrupted while was waiting for nodes tartup in phase " + phase.getLabel());
-				}
+			executeNodes(phase);
+		}
+	}
+
+	/**
+	 * Starts all components of the phase and waits until they are alive.
+	 * @param phase
+	 */
+	private void executeNodes(Phase phase) {
+		if (phase.getNodes().size() > 0) {
+			//this barrier can be broken only when all components and watchdog is waiting there
+			CyclicBarrier preExecuteBarrier = new CyclicBarrier(phase.getNodes().size() + 1);
+			//this barrier is used for synchronization of all components between pre-execute and execute
+			//it is necessary to finish all pre-execute's before execution
+			CyclicBarrier executeBarrier = new CyclicBarrier(phase.getNodes().size());
+			for (Node node: phase.getNodes().values()) {
+				node.setPreExecuteBarrier(preExecuteBarrier);
+				node.setExecuteBarrier(executeBarrier);
+				threadManager.executeNode(node);
+				logger.debug(node.getId()+ " ... starting");
+			}
+			try {
+				//now we will wait for all components are really alive - node.getNodeThread() return non-null value
+				preExecuteBarrier.await();
+				logger.debug("All components are ready to start.");
+			} catch (InterruptedException e) {
+				throw new RuntimeException("WatchDog was interrupted while was waiting for workers startup in phase " + phase.getLabel());
+			} catch (BrokenBarrierException e) {
+				throw new RuntimeException("WatchDog or a worker was interrupted while was waiting for nodes tartup in phase " + phase.getLabel());
 			}
 		}
 	}
@@ -86,6 +86,7 @@ public class InputPortTrackingDetail extends PortTrackingDetail implements Input
 		
 		//gather memory usage
 		setUsedMemory(inputPort.getUsedMemory());
+		setBufferFillLevel(inputPort.getEdge().getBufferFillLevel());
 		
 		//aggregated time how long the reader thread waits for data
 		setReaderWaitingTime(inputPort.getReaderWaitingTime());
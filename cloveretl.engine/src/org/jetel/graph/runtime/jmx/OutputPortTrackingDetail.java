@@ -87,6 +87,7 @@ public class OutputPortTrackingDetail extends PortTrackingDetail implements Outp
 
 		//gather memory usage
 		setUsedMemory(outputPort.getUsedMemory());
+		setBufferFillLevel(outputPort.getEdge().getBufferFillLevel());
 
 		//aggregated time how long the writer thread waits for data
 		setWriterWaitingTime(outputPort.getWriterWaitingTime());
@@ -122,6 +122,11 @@ public interface PortTracking extends Serializable {
 	 */
 	int getUsedMemory();
 
+	/**
+	 * @return average fill level in percents of buffers of attached edge, -1 if not available
+	 */
+	int getBufferFillLevel();
+
 	/**
 	 * @return null for regular edges; remote edges return run identifier of graph on the opposite side of the attached edge  
 	 */
@@ -56,6 +56,8 @@ public abstract class PortTrackingDetail implements PortTracking {
 
 	protected int usedMemory;
 	
+	protected int bufferFillLevel = -1;
+	
 	protected long remoteRunId;
 	
     protected PortTrackingDetail(NodeTrackingDetail parentNodeDetail, int index) {
@@ -74,6 +76,7 @@ public abstract class PortTrackingDetail implements PortTracking {
     	this.waitingRecords= portDetail.waitingRecords;
     	this.averageWaitingRecords = portDetail.averageWaitingRecords;
     	this.usedMemory = portDetail.usedMemory;
+    	this.bufferFillLevel = portDetail.bufferFillLevel;
     }
     
 	/* (non-Javadoc)
@@ -153,6 +156,11 @@ public abstract class PortTrackingDetail implements PortTracking {
 	public int getUsedMemory() {
 		return usedMemory;
 	}
+
+	@Override
+	public int getBufferFillLevel() {
+		return bufferFillLevel;
+	}
 	
 	@Override
 	public long getRemoteRunId() {
@@ -199,6 +207,10 @@ public abstract class PortTrackingDetail implements PortTracking {
 		this.usedMemory = usedMemory;
 	}
 
+	public void setBufferFillLevel(int bufferFillLevel) {
+		this.bufferFillLevel = bufferFillLevel;
+	}
+
 	public void setRemoteRunId(long remoteRunId) {
 		this.remoteRunId = remoteRunId;
 	}
@@ -58,7 +58,7 @@ import org.jetel.graph.dictionary.UnsupportedDictionaryOperation;
 import org.jetel.graph.runtime.EngineInitializer;
 import org.jetel.graph.runtime.GraphRuntimeContext;
 import org.jetel.graph.runtime.IThreadManager;
-import org.jetel.graph.runtime.SimpleThreadManager;
+import org.jetel.graph.runtime.PooledThreadManager;
 import org.jetel.graph.runtime.WatchDog;
 import org.jetel.graph.runtime.WatchDogFuture;
 import org.jetel.util.ExceptionUtils;
@@ -498,7 +498,7 @@ public class runGraph {
 			graph.getDictionary().setValue(key, dictContainer.getValue(key));
 		}
 		
-        IThreadManager threadManager = new SimpleThreadManager();
+        IThreadManager threadManager = PooledThreadManager.getDefaultThreadManager();
         WatchDog watchDog = new WatchDog(graph, runtimeContext);
         threadManager.initWatchDog(watchDog);
 		return threadManager.executeWatchDog(watchDog);
@@ -333,6 +333,18 @@ public class GraphUtils {
 			 edgeCombinations[EdgeTypeEnum.BUFFERED_FAST_PROPAGATE.ordinal()][EdgeTypeEnum.PHASE_CONNECTION.ordinal()] = EdgeTypeEnum.PHASE_CONNECTION;
 			 edgeCombinations[EdgeTypeEnum.BUFFERED_FAST_PROPAGATE.ordinal()][EdgeTypeEnum.DIRECT_FAST_PROPAGATE.ordinal()] = EdgeTypeEnum.BUFFERED_FAST_PROPAGATE;
 			 edgeCombinations[EdgeTypeEnum.BUFFERED_FAST_PROPAGATE.ordinal()][EdgeTypeEnum.BUFFERED_FAST_PROPAGATE.ordinal()] = EdgeTypeEnum.BUFFERED_FAST_PROPAGATE;
+
+			 edgeCombinations[EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()][EdgeTypeEnum.DIRECT.ordinal()] = EdgeTypeEnum.DIRECT_LOCK_FREE;
+			 edgeCombinations[EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()][EdgeTypeEnum.BUFFERED.ordinal()] = EdgeTypeEnum.BUFFERED_FAST_PROPAGATE;
+			 edgeCombinations[EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()][EdgeTypeEnum.PHASE_CONNECTION.ordinal()] = EdgeTypeEnum.PHASE_CONNECTION;
+			 edgeCombinations[EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()][EdgeTypeEnum.DIRECT_FAST_PROPAGATE.ordinal()] = EdgeTypeEnum.DIRECT_LOCK_FREE;
+			 edgeCombinations[EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()][EdgeTypeEnum.BUFFERED_FAST_PROPAGATE.ordinal()] = EdgeTypeEnum.BUFFERED_FAST_PROPAGATE;
+			 edgeCombinations[EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()][EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()] = EdgeTypeEnum.DIRECT_LOCK_FREE;
+			 edgeCombinations[EdgeTypeEnum.DIRECT.ordinal()][EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()] = EdgeTypeEnum.DIRECT_LOCK_FREE;
+			 edgeCombinations[EdgeTypeEnum.BUFFERED.ordinal()][EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()] = EdgeTypeEnum.BUFFERED_FAST_PROPAGATE;
+			 edgeCombinations[EdgeTypeEnum.PHASE_CONNECTION.ordinal()][EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()] = EdgeTypeEnum.PHASE_CONNECTION;
+			 edgeCombinations[EdgeTypeEnum.DIRECT_FAST_PROPAGATE.ordinal()][EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()] = EdgeTypeEnum.DIRECT_LOCK_FREE;
+			 edgeCombinations[EdgeTypeEnum.BUFFERED_FAST_PROPAGATE.ordinal()][EdgeTypeEnum.DIRECT_LOCK_FREE.ordinal()] = EdgeTypeEnum.BUFFERED_FAST_PROPAGATE;
 		}
 		return edgeCombinations;
 	}
@@ -710,6 +722,8 @@ public class GraphUtils {
 	public static void setEdgeAsFastPropagate(Edge edge) {
 		if (edge.getEdgeType() == EdgeTypeEnum.DIRECT || edge.getEdgeType() == EdgeTypeEnum.DIRECT_FAST_PROPAGATE) {
 			edge.setEdgeType(EdgeTypeEnum.DIRECT_FAST_PROPAGATE);
+		} else if (edge.getEdgeType() == EdgeTypeEnum.DIRECT_LOCK_FREE) {
+			//lock-free edge propagates records immediately already
 		} else if (edge.getEdgeType() == EdgeTypeEnum.BUFFERED || edge.getEdgeType() == EdgeTypeEnum.BUFFERED_FAST_PROPAGATE) {
 			edge.setEdgeType(EdgeTypeEnum.BUFFERED_FAST_PROPAGATE);
 		} else {
@@ -95,6 +95,7 @@ public class MultiFileReader {
 	private boolean initializeDataDependentSource;
 	private boolean isSourceOpen;
 	private PropertyRefResolver propertyRefResolve;
+	private boolean memoryMapped;
     
     /**
 	 * Sole ctor.
@@ -148,6 +149,7 @@ public class MultiFileReader {
     	channelIterator.setDictionary(dictionary);
     	channelIterator.setPropertyRefResolver(propertyRefResolve);
 		channelIterator.setPreferredDataSourceType(parser.getPreferredDataSourceType());
+		channelIterator.setMemoryMapped(memoryMapped);
     }
     
     /**
@@ -669,6 +671,14 @@ public class MultiFileReader {
 		this.dictionary = dictionary;
 	}
 
+	/**
+	 * Local files are mapped into memory instead of being read by a channel, if set to true.
+	 * @param memoryMapped
+	 */
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
+
     public void setIncrementalFile(String incrementalFile) {
     	this.incrementalFile = incrementalFile;
     }
@@ -53,6 +53,7 @@ import org.jetel.graph.runtime.GraphRuntimeContext;
 import org.jetel.util.file.FileURLParser;
 import org.jetel.util.file.FileUtils;
 import org.jetel.util.file.HttpPartUrlUtils;
+import org.jetel.util.file.MappedFileChannel;
 import org.jetel.util.file.stream.Input;
 import org.jetel.util.file.stream.Wildcards;
 import org.jetel.util.file.stream.Wildcards.CheckConfigFilter;
@@ -111,6 +112,9 @@ public class ReadableChannelIterator implements Closeable {
 	// true if java.net.URI is preferred as a source provided by this iterator
 	private DataSourceType preferredDataSourceType = DataSourceType.CHANNEL;
 
+	// true if local files should be mapped into memory
+	private boolean memoryMapped;
+
 	// others
 	private int firstPortProtocolPosition;
 	private int firstDictProtocolPosition;
@@ -380,6 +384,12 @@ public class ReadableChannelIterator implements Closeable {
 			
 			try {
 				defaultLogger.debug("Opening input file " + currentFileName);
+				if (memoryMapped) {
+					ReadableByteChannel mappedInput = openMappedInput(currentFile);
+					if (mappedInput != null) {
+						return mappedInput;
+					}
+				}
 				Object preferredInput = currentFile.getPreferredInput(preferredDataSourceType);
 				if (preferredInput != null) {
 					return preferredInput;
@@ -394,6 +404,17 @@ public class ReadableChannelIterator implements Closeable {
 		return null;
 	}
 	
+	/**
+	 * @return memory mapped channel of the given input or null if the input is not a regular local file
+	 */
+	private static ReadableByteChannel openMappedInput(Input input) throws IOException {
+		Object file = input.getPreferredInput(DataSourceType.FILE);
+		if (file instanceof File && ((File) file).isFile()) {
+			return MappedFileChannel.open((File) file);
+		}
+		return null;
+	}
+
 	/**
 	 * @return first ReadableByteChannel in the queue of sources (the other types are skipped)
 	 * @throws JetelException
@@ -575,4 +596,12 @@ public class ReadableChannelIterator implements Closeable {
 		this.preferredDataSourceType = preferredDataSourceType;
 	}
 
+	/**
+	 * Local files are mapped into memory instead of being read by a channel, if set to true.
+	 * @param memoryMapped
+	 */
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
+
 }
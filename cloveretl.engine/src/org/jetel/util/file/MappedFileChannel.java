@@ -0,0 +1,175 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.util.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+
+import org.jetel.data.Defaults;
+
+/**
+ * Readable channel of a local file which is mapped into memory instead of being read by system calls.
+ * The file is mapped by windows of limited size (see {@link Defaults#MAX_MAPPED_FILE_WINDOW_SIZE}),
+ * the next window is mapped once the current one is consumed, so files bigger than 2GB are supported as well.<br>
+ * Besides the standard {@link #read(ByteBuffer)}, which copies the mapped bytes into the given buffer,
+ * parsers can process the mapped memory directly - see {@link #getBuffer(int)}.
+ *
+ * @created 17. 10. 2026
+ */
+public class MappedFileChannel implements ReadableByteChannel {
+
+	private final FileChannel channel;
+
+	private final long size;
+
+	private final int windowSize;
+
+	/** position of the current window in the file */
+	private long windowPosition;
+
+	private MappedByteBuffer window;
+
+	private boolean open = true;
+
+	/**
+	 * Opens memory mapped channel of the given file.
+	 */
+	public static MappedFileChannel open(File file) throws IOException {
+		FileChannel channel = new FileInputStream(file).getChannel();
+		try {
+			return new MappedFileChannel(channel, Defaults.MAX_MAPPED_FILE_WINDOW_SIZE);
+		} catch (IOException e) {
+			FileUtils.closeQuietly(channel);
+			throw e;
+		}
+	}
+
+	/**
+	 * @param channel mapped file channel, reading starts at its current position; the channel is closed with this channel
+	 * @param windowSize size of mapped windows in bytes
+	 */
+	public MappedFileChannel(FileChannel channel, int windowSize) throws IOException {
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("Window size has to be positive: " + windowSize);
+		}
+		this.channel = channel;
+		this.size = channel.size();
+		this.windowSize = windowSize;
+		map(channel.position(), 0);
+	}
+
+	/**
+	 * Maps a new window starting at the given position.
+	 */
+	private void map(long position, int minLength) throws IOException {
+		position = Math.min(position, size);
+		long length = Math.min(Math.max(windowSize, minLength), size - position);
+		window = channel.map(MapMode.READ_ONLY, position, length);
+		windowPosition = position;
+	}
+
+	private void checkOpen() throws ClosedChannelException {
+		if (!open) {
+			throw new ClosedChannelException();
+		}
+	}
+
+	/**
+	 * Returns the mapped window of the file. The position of the returned buffer is the current position
+	 * of this channel, bytes consumed from the buffer are consumed from this channel as well.
+	 * A new window is mapped if the current one has less than <code>minRemaining</code> bytes remaining,
+	 * the returned buffer can have less remaining bytes only at the end of the file.
+	 * The returned buffer must not be used after the next call of this method.
+	 *
+	 * @param minRemaining requested number of remaining bytes
+	 * @return read-only buffer with mapped content of the file
+	 */
+	public ByteBuffer getBuffer(int minRemaining) throws IOException {
+		checkOpen();
+		if (window.remaining() < minRemaining && windowPosition + window.limit() < size) {
+			map(position(), minRemaining);
+		}
+		return window;
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		checkOpen();
+		if (!window.hasRemaining()) {
+			if (position() >= size) {
+				return -1;
+			}
+			map(position(), 0);
+		}
+		int length = Math.min(dst.remaining(), window.remaining());
+		int limit = window.limit();
+		window.limit(window.position() + length);
+		dst.put(window);
+		window.limit(limit);
+		return length;
+	}
+
+	/**
+	 * @return current position in the file
+	 */
+	public long position() {
+		return windowPosition + window.position();
+	}
+
+	/**
+	 * Moves the current position in the file.
+	 */
+	public void position(long newPosition) throws IOException {
+		checkOpen();
+		if (newPosition >= windowPosition && newPosition <= windowPosition + window.limit()) {
+			window.position((int) (newPosition - windowPosition));
+		} else {
+			map(newPosition, 0);
+		}
+	}
+
+	/**
+	 * @return size of the file
+	 */
+	public long size() {
+		return size;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (open) {
+			open = false;
+			// the mapped memory is released by garbage collector together with this channel
+			channel.close();
+		}
+	}
+
+}
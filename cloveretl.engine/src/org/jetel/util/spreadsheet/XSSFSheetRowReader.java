@@ -0,0 +1,265 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.util.spreadsheet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+
+/**
+ * Pull counterpart of {@link XSSFSheetXMLHandler}. Reads the sheet#.xml part of a XSSF .xlsx file
+ * row by row, so that just a single row of the sheet is held in memory. Cell values are interpreted
+ * the same way as by {@link XSSFSheetXMLHandler} - formula "f" tags are ignored, cached formula result
+ * is returned, shared strings are resolved and missing "r" attributes of rows and cells are handled.
+ *
+ * @created 17. 10. 2026
+ */
+public class XSSFSheetRowReader {
+
+	private static final XMLInputFactory XML_INPUT_FACTORY;
+
+	static {
+		XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+	}
+
+	private final InputStream sheetData;
+	private final XMLStreamReader reader;
+	private final ReadOnlySharedStringsTable sharedStrings;
+
+	/** the row returned by {@link #nextRow()}, reused for all rows */
+	private final SheetRow row = new SheetRow();
+
+	private final StringBuilder value = new StringBuilder();
+
+	private boolean finished;
+
+	/**
+	 * @param sheetData content of the sheet part, closed by {@link #close()}
+	 * @param sharedStrings table of shared strings of the workbook
+	 * @throws XMLStreamException
+	 */
+	public XSSFSheetRowReader(InputStream sheetData, ReadOnlySharedStringsTable sharedStrings) throws XMLStreamException {
+		this.sheetData = sheetData;
+		this.reader = XML_INPUT_FACTORY.createXMLStreamReader(sheetData);
+		this.sharedStrings = sharedStrings;
+	}
+
+	/**
+	 * Reads the next row of the sheet. The returned instance is reused, its content is valid
+	 * until the next call of this method.
+	 *
+	 * @return next row of the sheet or <code>null</code> at the end of sheet
+	 * @throws XMLStreamException
+	 */
+	public SheetRow nextRow() throws XMLStreamException {
+		if (finished) {
+			return null;
+		}
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT && "row".equals(reader.getLocalName())) {
+				String r = reader.getAttributeValue(null, "r");
+				row.clear(r != null ? Integer.parseInt(r) - 1 : row.rowNum + 1);
+				readCells();
+				return row;
+			} else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(reader.getLocalName())) {
+				break;
+			}
+		}
+		finished = true;
+		return null;
+	}
+
+	/**
+	 * Reads cells of current row, stops at the end of the row element.
+	 */
+	private void readCells() throws XMLStreamException {
+		int lastColumn = -1;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT && "c".equals(reader.getLocalName())) {
+				String r = reader.getAttributeValue(null, "r"); // cell reference (coordinates, e.g. "A1")
+				// CLO-466 - cell element with no reference attribute "r" is the right neighbour of the last cell
+				int column = r != null ? SpreadsheetUtils.getColumnIndex(r) : lastColumn + 1;
+				lastColumn = column;
+				readCell(column, reader.getAttributeValue(null, "t"), reader.getAttributeValue(null, "s"));
+			} else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(reader.getLocalName())) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reads value of a cell, stops at the end of the cell element.
+	 */
+	private void readCell(int column, String cellType, String cellStyle) throws XMLStreamException {
+		boolean hasValue = false;
+		boolean inlineString = false;
+		value.setLength(0);
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String name = reader.getLocalName();
+				if ("v".equals(name) || (inlineString && "t".equals(name))) {
+					hasValue = true;
+					value.append(reader.getElementText());
+				} else if ("is".equals(name)) {
+					inlineString = true;
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(reader.getLocalName())) {
+				break;
+			}
+		}
+		if (!hasValue) {
+			// a cell without a value is blank, the same as a missing cell
+			return;
+		}
+
+		int styleIndex = cellStyle != null ? Integer.parseInt(cellStyle) : 0;
+		if ("b".equals(cellType)) {
+			row.setCell(column, Cell.CELL_TYPE_BOOLEAN, value.length() > 0 && value.charAt(0) == '1' ? "TRUE" : "FALSE", styleIndex);
+		} else if ("e".equals(cellType)) {
+			row.setCell(column, Cell.CELL_TYPE_ERROR, value.toString(), styleIndex);
+		} else if ("s".equals(cellType)) {
+			String sstIndex = value.toString();
+			try {
+				row.setCell(column, Cell.CELL_TYPE_STRING, sharedStrings.getEntryAt(Integer.parseInt(sstIndex.trim())), styleIndex);
+			} catch (NumberFormatException e) {
+				throw new XMLStreamException("Failed to parse SST index '" + sstIndex + "'", reader.getLocation(), e);
+			}
+		} else if ("inlineStr".equals(cellType) || "str".equals(cellType)) {
+			row.setCell(column, Cell.CELL_TYPE_STRING, value.toString(), styleIndex);
+		} else {
+			row.setCell(column, Cell.CELL_TYPE_NUMERIC, value.toString(), styleIndex);
+		}
+	}
+
+	public void close() throws IOException {
+		try {
+			reader.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} finally {
+			sheetData.close();
+		}
+	}
+
+	/**
+	 * A row of a sheet. The cells are indexed by zero based column index,
+	 * missing and blank cells have type {@link Cell#CELL_TYPE_BLANK}.
+	 */
+	public static class SheetRow {
+
+		private int rowNum = -1;
+		private int lastCellNum;
+		private int[] types = new int[16];
+		private String[] values = new String[16];
+		private int[] styles = new int[16];
+
+		private SheetRow() {
+			Arrays.fill(types, Cell.CELL_TYPE_BLANK);
+		}
+
+		private void clear(int rowNum) {
+			this.rowNum = rowNum;
+			Arrays.fill(types, 0, lastCellNum, Cell.CELL_TYPE_BLANK);
+			Arrays.fill(values, 0, lastCellNum, null);
+			Arrays.fill(styles, 0, lastCellNum, 0);
+			lastCellNum = 0;
+		}
+
+		private void setCell(int column, int type, String value, int styleIndex) {
+			if (column >= types.length) {
+				int length = Math.max(column + 1, types.length * 2);
+				int oldLength = types.length;
+				types = Arrays.copyOf(types, length);
+				values = Arrays.copyOf(values, length);
+				styles = Arrays.copyOf(styles, length);
+				Arrays.fill(types, oldLength, length, Cell.CELL_TYPE_BLANK);
+			}
+			types[column] = type;
+			values[column] = value;
+			styles[column] = styleIndex;
+			if (column >= lastCellNum) {
+				lastCellNum = column + 1;
+			}
+		}
+
+		/**
+		 * @return copy of the row which is not affected by reading of next rows
+		 */
+		public SheetRow copy() {
+			SheetRow copy = new SheetRow();
+			copy.rowNum = rowNum;
+			copy.lastCellNum = lastCellNum;
+			copy.types = Arrays.copyOf(types, lastCellNum);
+			copy.values = Arrays.copyOf(values, lastCellNum);
+			copy.styles = Arrays.copyOf(styles, lastCellNum);
+			return copy;
+		}
+
+		/**
+		 * @return zero based row number
+		 */
+		public int getRowNum() {
+			return rowNum;
+		}
+
+		/**
+		 * @return index of the last cell with a value plus one
+		 */
+		public int getLastCellNum() {
+			return lastCellNum;
+		}
+
+		/**
+		 * @return one of {@link Cell#CELL_TYPE_NUMERIC}, {@link Cell#CELL_TYPE_STRING}, {@link Cell#CELL_TYPE_BOOLEAN},
+		 * {@link Cell#CELL_TYPE_ERROR} or {@link Cell#CELL_TYPE_BLANK}
+		 */
+		public int getCellType(int column) {
+			return column < lastCellNum ? types[column] : Cell.CELL_TYPE_BLANK;
+		}
+
+		/**
+		 * @return unformatted value of the cell, "TRUE" or "FALSE" for boolean cells,
+		 * <code>null</code> for blank cells
+		 */
+		public String getValue(int column) {
+			return column < lastCellNum ? values[column] : null;
+		}
+
+		/**
+		 * @return index of the cell style
+		 */
+		public int getStyleIndex(int column) {
+			return column < lastCellNum ? styles[column] : 0;
+		}
+	}
+
+}
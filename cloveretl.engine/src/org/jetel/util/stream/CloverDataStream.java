@@ -22,6 +22,7 @@ import java.io.FilterInputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
@@ -29,7 +30,13 @@ import java.nio.ByteOrder;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.zip.Checksum;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
@@ -42,6 +49,7 @@ import net.jpountz.util.SafeUtils;
 import net.jpountz.xxhash.StreamingXXHash32;
 import net.jpountz.xxhash.XXHashFactory;
 
+import org.jetel.graph.runtime.SharedTaskExecutor;
 import org.jetel.util.LZ4Provider;
 import org.jetel.util.bytes.CloverBuffer;
 
@@ -83,11 +91,15 @@ public class CloverDataStream {
 		
 		abstract int compress(byte[] source, int sourceOffset, int length, byte[] target, int targetOffset);
 		abstract int maxCompressedLength(int sourceLength);
+		/** @return compressor with the same settings which can be used concurrently with this one */
+		abstract Compressor duplicate();
 		
 	}
 
 	static abstract class Decompressor {
 		abstract int decompress(byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetOffset, int rawDataLength);
+		/** @return decompressor which can be used concurrently with this one */
+		abstract Decompressor duplicate();
 	}
 
 	
@@ -116,6 +128,11 @@ public class CloverDataStream {
 		final int maxCompressedLength(int sourceLength){
 			return compressor.maxCompressedLength(sourceLength);
 		}
+		
+		@Override
+		final Compressor duplicate() {
+			return this; // LZ4 compressors are thread safe
+		}
 	}
 	
 	public static class DecompressorLZ4 extends Decompressor{
@@ -131,6 +148,11 @@ public class CloverDataStream {
 			return decompressor.decompress(source, sourceOffset, target,  targetOffset, rawDataLength);
 		}
 		
+		@Override
+		final Decompressor duplicate() {
+			return this; // LZ4 decompressors are thread safe
+		}
+		
 	}
 	
 	public static class CompressorGZIP extends Compressor {
@@ -158,6 +180,11 @@ public class CloverDataStream {
 			return sourceLength +
 			          ((sourceLength + 7) >> 3) + ((sourceLength + 63) >> 6) + 5;
 		}
+		
+		@Override
+		final Compressor duplicate() {
+			return new CompressorGZIP();
+		}
 	}
 	
 	public static class DecompressorGZIP extends Decompressor {
@@ -185,6 +212,11 @@ public class CloverDataStream {
 			return size;
 		}
 		
+		@Override
+		final Decompressor duplicate() {
+			return new DecompressorGZIP();
+		}
+		
 	}
 	
 	
@@ -216,6 +248,60 @@ public class CloverDataStream {
 	static final int DEFAULT_BLOCK_INDEX_SIZE = 128;
 	static final ByteOrder BUFFER_BYTE_ORDER = ByteOrder.BIG_ENDIAN;
 
+	/**
+	 * Data block compressed or decompressed by a worker thread, see {@link Output#setCompressionThreads(int)}
+	 * and {@link Input#setDecompressionThreads(int)}.
+	 */
+	private static final class DataBlock {
+		CloverBuffer data;
+		CloverBuffer compressedData;
+		int rawLength;
+		int compressedLength;
+		int firstRecordPosition;
+		/** running compression or decompression, null if the block is ready */
+		Future<?> task;
+
+		DataBlock(int rawCapacity, int compressedCapacity) {
+			data = CloverBuffer.wrap(new byte[rawCapacity]);
+			data.order(BUFFER_BYTE_ORDER);
+			compressedData = CloverBuffer.wrap(new byte[compressedCapacity]);
+			compressedData.order(BUFFER_BYTE_ORDER);
+		}
+
+		void ensureCapacity(int rawCapacity, int compressedCapacity) {
+			if (data.capacity() < rawCapacity) {
+				data = CloverBuffer.wrap(new byte[findNearestPow2(rawCapacity)]);
+				data.order(BUFFER_BYTE_ORDER);
+			}
+			if (compressedData.capacity() < compressedCapacity) {
+				compressedData = CloverBuffer.wrap(new byte[findNearestPow2(compressedCapacity)]);
+				compressedData.order(BUFFER_BYTE_ORDER);
+			}
+		}
+
+		/**
+		 * Waits for the running task.
+		 */
+		void await() throws IOException {
+			if (task == null) {
+				return;
+			}
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for data block");
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IOException(e.getCause());
+			} finally {
+				task = null;
+			}
+		}
+	}
+
 	public final static int findNearestPow2(int size) {
 		int value = 1;
 		while (value < size) {
@@ -275,6 +361,12 @@ public class CloverDataStream {
 		
 		private SeekableOutputStream seekableOut;
 		
+		/** blocks being compressed by worker threads in order of writing, null if blocks are compressed synchronously */
+		private ArrayDeque<DataBlock> pendingBlocks;
+		private ArrayDeque<DataBlock> freeBlocks;
+		private BlockingQueue<Compressor> compressors;
+		private int compressionThreads;
+		
 
 		/**
 		 * Create a new {@link OutputStream} with configurable block size. Large blocks require more memory at
@@ -366,6 +458,30 @@ public class CloverDataStream {
 			this.syncFlush = syncFlush;
 		}
 
+		/**
+		 * Turns on pipelined compression - full blocks are compressed by the given number of worker threads
+		 * while the writer fills next blocks. The blocks are written in the original order, so the format
+		 * of the stream is not changed. Value lower than 2 means the blocks are compressed synchronously.
+		 * Has to be called before any data are written.
+		 * 
+		 * @param compressionThreads
+		 */
+		public void setCompressionThreads(int compressionThreads) {
+			if (compressionThreads > 1) {
+				this.compressionThreads = compressionThreads;
+				pendingBlocks = new ArrayDeque<DataBlock>(compressionThreads);
+				freeBlocks = new ArrayDeque<DataBlock>(compressionThreads);
+				compressors = new ArrayBlockingQueue<Compressor>(compressionThreads);
+				compressors.add(compressor);
+				for (int i = 1; i < compressionThreads; i++) {
+					compressors.add(compressor.duplicate());
+				}
+			} else {
+				this.compressionThreads = 0;
+				pendingBlocks = null;
+			}
+		}
+
 		private final void ensureNotFinished() {
 			if (finished) {
 				throw new IllegalStateException("This stream is already closed");
@@ -481,6 +597,14 @@ public class CloverDataStream {
 		private void flushBufferedData() throws IOException {
 			if (buffer.position() == 0)
 				return;
+			if (pendingBlocks != null) {
+				if (compress) {
+					submitBlock();
+					return;
+				}
+				// compression has been switched off, preceding blocks have to be written first
+				writePendingBlocks(0);
+			}
 			// store index of new block which will be added (but only if it contains beginning of record
 			if (firstRecordPosition >= 0)
 				storeBlockIndex();
@@ -496,7 +620,94 @@ public class CloverDataStream {
 		}
 
 
+		/**
+		 * Hands the buffered data over to a worker thread for compression.
+		 */
+		private void submitBlock() throws IOException {
+			// at most one block per worker thread is being compressed
+			writePendingBlocks(compressionThreads - 1);
+			
+			final DataBlock block = freeBlocks.isEmpty() ? new DataBlock(buffer.capacity(), compressedBuffer.capacity()) : freeBlocks.poll();
+			block.rawLength = buffer.position();
+			block.firstRecordPosition = firstRecordPosition;
+			System.arraycopy(buffer.array(), 0, block.data.array(), 0, block.rawLength);
+			block.task = SharedTaskExecutor.getInstance().submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					Compressor blockCompressor = compressors.take();
+					try {
+						block.compressedLength = blockCompressor.compress(block.data.array(), 0, block.rawLength,
+								block.compressedData.array(), CLOVER_BLOCK_HEADER_LENGTH);
+					} finally {
+						compressors.add(blockCompressor);
+					}
+					return null;
+				}
+			});
+			pendingBlocks.add(block);
+			
+			buffer.clear();
+			firstRecordPosition = -1; // reset
+		}
+		
+		/**
+		 * Writes compressed blocks in order of their submission until at most the given number of blocks is pending.
+		 * Already compressed blocks are written in any case.
+		 */
+		private void writePendingBlocks(int maxPendingBlocks) throws IOException {
+			if (pendingBlocks == null) {
+				return;
+			}
+			while (!pendingBlocks.isEmpty() && (pendingBlocks.size() > maxPendingBlocks || pendingBlocks.peek().task.isDone())) {
+				DataBlock block = pendingBlocks.poll();
+				try {
+					block.await();
+					writeCompressedBlock(block);
+				} finally {
+					freeBlocks.add(block);
+				}
+			}
+		}
+		
+		/**
+		 * The same as {@link #flushBufferedData()} and {@link #flushCommon(boolean)} for a block compressed by a worker thread.
+		 */
+		private void writeCompressedBlock(DataBlock block) throws IOException {
+			if (block.compressedLength == -1) {
+				throw new IOException("Error when compressing datablock.");
+			}
+			// store index of new block which will be added (but only if it contains beginning of record
+			if (block.firstRecordPosition >= 0)
+				storeBlockIndex();
+
+			if (seekableOut != null) {
+				seekableOut.truncate(position);
+			}
+
+			double ratio = ((double) block.compressedLength) / block.rawLength;
+			if (ratio > MIN_COMPRESS_RATIO) {
+				if ((testRound++) > NO_TEST_ROUNDS) {
+					compress = false; // we are forcing switch off of compression
+				}
+			}
+
+			if (block.compressedLength < block.rawLength) {
+				fillBlockHeader(block.compressedData, DataBlockType.COMPRESSED, block.compressedLength, block.rawLength, 0, block.firstRecordPosition);
+				// write header+data
+				out.write(block.compressedData.array(), 0, CLOVER_BLOCK_HEADER_LENGTH + block.compressedLength);
+				position += CLOVER_BLOCK_HEADER_LENGTH + block.compressedLength;
+			} else {
+				fillBlockHeader(compressedBuffer, DataBlockType.RAW_DATA, block.rawLength, block.rawLength, 0, block.firstRecordPosition);
+				// write header
+				out.write(compressedBuffer.array(), 0, CLOVER_BLOCK_HEADER_LENGTH);
+				// write data
+				out.write(block.data.array(), 0, block.rawLength);
+				position += CLOVER_BLOCK_HEADER_LENGTH + block.rawLength;
+			}
+		}
+
 		private void softFlush() throws IOException {
+			writePendingBlocks(0);
 			if (buffer.position() == 0) {
 				return;
 			}
@@ -535,6 +746,7 @@ public class CloverDataStream {
 					softFlush();
 				} else {
 					flushBufferedData();
+					writePendingBlocks(0);
 				}
 			}
 			out.flush();
@@ -562,6 +774,7 @@ public class CloverDataStream {
 		public void writeIndexData() throws IOException {
 			ensureNotFinished();
 			flushBufferedData();
+			writePendingBlocks(0);
 			try {
 				for (long value : blocksIndex) {
 					if (value > 0) {
@@ -701,6 +914,17 @@ public class CloverDataStream {
 		
 		private SeekableByteChannel seekableChannel;
 
+		/** blocks read ahead and being decompressed by worker threads, null if blocks are decompressed synchronously */
+		private ArrayDeque<DataBlock> pendingBlocks;
+		private ArrayDeque<DataBlock> freeBlocks;
+		private BlockingQueue<Decompressor> decompressors;
+		private int decompressionThreads;
+		/** the block currently being read */
+		private DataBlock currentBlock;
+		/** no more data blocks can be read ahead */
+		private boolean readAheadFinished;
+		private CloverBuffer headerBuffer;
+
 		/**
 		 * Create a new {@link OutputStream} with configurable block size. Large blocks require more memory at
 		 * compression and decompression time but should improve the compression ratio.
@@ -751,6 +975,31 @@ public class CloverDataStream {
 			this.position = position;
 		}
 
+		/**
+		 * Turns on read-ahead decompression - the given number of following blocks is read ahead and decompressed
+		 * by worker threads while the current block is being read. Value lower than 2 means the blocks
+		 * are decompressed synchronously. Has to be called before any data are read.
+		 * 
+		 * @param decompressionThreads
+		 */
+		public void setDecompressionThreads(int decompressionThreads) {
+			if (decompressionThreads > 1) {
+				this.decompressionThreads = decompressionThreads;
+				pendingBlocks = new ArrayDeque<DataBlock>(decompressionThreads);
+				freeBlocks = new ArrayDeque<DataBlock>(decompressionThreads + 1);
+				decompressors = new ArrayBlockingQueue<Decompressor>(decompressionThreads);
+				decompressors.add(decompressor);
+				for (int i = 1; i < decompressionThreads; i++) {
+					decompressors.add(decompressor.duplicate());
+				}
+				headerBuffer = CloverBuffer.wrap(new byte[CLOVER_BLOCK_HEADER_LENGTH]);
+				headerBuffer.order(BUFFER_BYTE_ORDER);
+			} else {
+				this.decompressionThreads = 0;
+				pendingBlocks = null;
+			}
+		}
+
 		@Override
 		public int read() throws IOException {
 			if (!buffer.hasRemaining()) {
@@ -809,6 +1058,7 @@ public class CloverDataStream {
 
 		@Override
 		public void close() throws IOException {
+			discardPendingBlocks();
 			if (in != null) {
 				in.close();
 				in = null;
@@ -827,6 +1077,9 @@ public class CloverDataStream {
 				// CLO-5188
 				return false;
 			}
+			if (pendingBlocks != null) {
+				return readPendingBlock();
+			}
 			buffer.clear();
 			// store index of new block which will be added (but only if it contains beginning of record
 			// firstRecordPosition
@@ -883,6 +1136,114 @@ public class CloverDataStream {
 			return true;
 		}
 
+		/**
+		 * The same as {@link #readDataBlock()}, but the block is taken from the blocks read ahead.
+		 */
+		private boolean readPendingBlock() throws IOException {
+			if (currentBlock != null) {
+				freeBlocks.add(currentBlock);
+				currentBlock = null;
+			}
+			while (!readAheadFinished && pendingBlocks.size() < decompressionThreads) {
+				DataBlock block = readAheadBlock();
+				if (block == null) {
+					readAheadFinished = true;
+				} else {
+					pendingBlocks.add(block);
+				}
+			}
+			if (pendingBlocks.isEmpty()) {
+				eof = true;
+				// CLO-5188: mark the buffer as empty for reading
+				buffer.clear();
+				buffer.flip();
+				return false;
+			}
+			currentBlock = pendingBlocks.poll();
+			currentBlock.await();
+			firstRecordPosition = currentBlock.firstRecordPosition;
+			buffer = currentBlock.data;
+			buffer.position(0);
+			buffer.limit(currentBlock.rawLength);
+			return true;
+		}
+
+		/**
+		 * Reads next data block from the underlying stream, decompression of the block is handed over to a worker thread.
+		 * @return the block or <code>null</code> if there are no more data blocks
+		 */
+		private DataBlock readAheadBlock() throws IOException {
+			final int readin = StreamUtils.readBlocking(in, headerBuffer.array(), 0, CLOVER_BLOCK_HEADER_LENGTH);
+			if (readin == -1) {
+				return null;
+			}
+			if (readin != CLOVER_BLOCK_HEADER_LENGTH || !testBlockHeader(headerBuffer)) {
+				throw new IOException("Missing block header. Probably corrupted data !");
+			}
+			boolean compressed = false;
+			switch (DataBlockType.get(headerBuffer.get(CLOVER_BLOCK_MAGIC_LENGTH))) {
+			case COMPRESSED:
+				compressed = true;
+				break;
+			case RAW_DATA:
+				break;
+			case INDEX:
+				// no more data, the index block is always the last
+				return null;
+			}
+
+			final int rawLength = headerBuffer.getInt(CLOVER_BLOCK_MAGIC_LENGTH + 1);
+			final int compressedLength = headerBuffer.getInt(CLOVER_BLOCK_MAGIC_LENGTH + 5);
+			final DataBlock block = freeBlocks.isEmpty() ? new DataBlock(findNearestPow2(rawLength), findNearestPow2(compressedLength)) : freeBlocks.poll();
+			block.ensureCapacity(rawLength, compressedLength);
+			block.rawLength = rawLength;
+			block.compressedLength = compressedLength;
+			block.firstRecordPosition = headerBuffer.getInt(CLOVER_BLOCK_MAGIC_LENGTH + 13);
+			if (compressed) {
+				if (StreamUtils.readBlocking(in, block.compressedData.array(), 0, compressedLength) != compressedLength) {
+					throw new IOException("Unexpected end of file");
+				}
+				block.task = SharedTaskExecutor.getInstance().submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						Decompressor blockDecompressor = decompressors.take();
+						try {
+							if (blockDecompressor.decompress(block.compressedData.array(), 0, block.compressedLength, block.data.array(), 0, block.rawLength) < 0) {
+								throw new IOException("Error when decompressing datablock.");
+							}
+						} finally {
+							decompressors.add(blockDecompressor);
+						}
+						return null;
+					}
+				});
+			} else {
+				if (StreamUtils.readBlocking(in, block.data.array(), 0, rawLength) != rawLength) {
+					throw new IOException("Unexpected end of file");
+				}
+			}
+			return block;
+		}
+
+		/**
+		 * Throws away blocks read ahead, e.g. when the underlying channel is repositioned.
+		 */
+		private void discardPendingBlocks() {
+			if (pendingBlocks == null) {
+				return;
+			}
+			while (!pendingBlocks.isEmpty()) {
+				DataBlock block = pendingBlocks.poll();
+				try {
+					block.await(); // the block cannot be reused before the worker finishes
+					freeBlocks.add(block);
+				} catch (IOException e) {
+					// the block is not needed anymore, it is dropped since the worker can still use it
+				}
+			}
+			readAheadFinished = false;
+		}
+
 		private final long findNearestBlockIndex(long startAt) {
 			int pos = Arrays.binarySearch(blocksIndex, startAt);
 			if (pos < 0) {
@@ -946,6 +1307,7 @@ public class CloverDataStream {
 			long blockPosition = findNearestBlockIndex(position);
 			if (blockPosition==-1) return -1;
 			
+			discardPendingBlocks();
 			seekableChannel.position(blockPosition);
 			if(!readDataBlock()) throw new IOException("Unable to seek.");
 			if (firstRecordPosition>=0){
@@ -5,7 +5,10 @@ import java.util.List;
 import junit.framework.AssertionFailedError;
 
 import org.jetel.component.CTLRecordTransform;
+import org.jetel.ctl.ASTnode.CLVFAddNode;
 import org.jetel.ctl.ASTnode.CLVFFunctionDeclaration;
+import org.jetel.ctl.ASTnode.CLVFIfStatement;
+import org.jetel.ctl.ASTnode.Node;
 import org.jetel.data.DataRecord;
 import org.jetel.graph.TransformationGraph;
 import org.jetel.metadata.DataRecordMetadata;
@@ -101,6 +104,50 @@ public class InterpreterTest extends CompilerTestCase {
 		}
 	}
 
+	public void test_optimizer() {
+		String expStr = 
+			"integer i = 2 * 3 + 1;\n" +
+			"string s = 'a' + 'b' + i;\n" +
+			"boolean b = false && i > 0;\n" +
+			"integer zero = 0;\n" +
+			"function integer transform() {\n" +
+				"if (false) {\n" +
+					"i = 1 / zero;\n" +
+				"}\n" +
+				"return 0;\n" +
+			"}\n";
+
+		doCompile(expStr, "test_optimizer");
+		check("i", 7);
+		check("s", "ab7");
+		check("b", false);
+
+		TransformationGraph graph = createDefaultGraph();
+		DataRecordMetadata[] inMetadata = new DataRecordMetadata[] { graph.getDataRecordMetadata(INPUT_1) };
+		DataRecordMetadata[] outMetadata = new DataRecordMetadata[] { graph.getDataRecordMetadata(OUTPUT_1) };
+		TLCompiler compiler = new TLCompiler(graph, inMetadata, outMetadata);
+		compiler.compile(expStr, CTLRecordTransform.class, "test_optimizer");
+		assertEquals(0, compiler.errorCount());
+		// 2 * 3 + 1 and 'a' + 'b' are folded, the addition of variable i remains
+		assertEquals(1, countNodes(compiler.getStart(), CLVFAddNode.class));
+		assertEquals(0, countNodes(compiler.getStart(), CLVFIfStatement.class));
+
+		compiler = new TLCompiler(graph, inMetadata, outMetadata);
+		compiler.setOptimize(false);
+		compiler.compile(expStr, CTLRecordTransform.class, "test_optimizer");
+		assertEquals(0, compiler.errorCount());
+		assertEquals(3, countNodes(compiler.getStart(), CLVFAddNode.class));
+		assertEquals(1, countNodes(compiler.getStart(), CLVFIfStatement.class));
+	}
+	
+	private static int countNodes(Node node, Class<?> nodeClass) {
+		int count = nodeClass.isInstance(node) ? 1 : 0;
+		for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+			count += countNodes(node.jjtGetChild(i), nodeClass);
+		}
+		return count;
+	}
+
 	@Override
 	protected void tearDown() throws Exception {
 		super.tearDown();
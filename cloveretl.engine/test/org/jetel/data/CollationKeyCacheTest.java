@@ -0,0 +1,169 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.text.Collator;
+import java.text.RuleBasedCollator;
+import java.util.Random;
+
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.test.CloverTestCase;
+import org.jetel.util.MiscUtils;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class CollationKeyCacheTest extends CloverTestCase {
+
+	private static final String[] VALUES = { "chata", "cesta", "hrad", "čaj", "Čech", "abc", "Ábel", "chůze", "Hrad", "" };
+
+	private RuleBasedCollator collator;
+	private StringDataField field1;
+	private StringDataField field2;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		collator = (RuleBasedCollator) Collator.getInstance(MiscUtils.createLocale("cs.CZ"));
+		field1 = new StringDataField(new DataFieldMetadata("field1", DataFieldType.STRING, ";"));
+		field2 = new StringDataField(new DataFieldMetadata("field2", DataFieldType.STRING, ";"));
+	}
+
+	public void testConsistentWithCompareTo() {
+		checkConsistency(new CollationKeyCache(collator, 1000));
+	}
+
+	public void testConsistentWithCompareToWithoutCaching() {
+		CollationKeyCache cache = new CollationKeyCache(collator, 0);
+		assertFalse(cache.isCaching());
+		checkConsistency(cache);
+	}
+
+	public void testConsistentWithCompareToAfterEviction() {
+		CollationKeyCache cache = new CollationKeyCache(collator, 3);
+		checkConsistency(cache);
+		assertTrue(cache.size() <= 3);
+	}
+
+	public void testEviction() {
+		CollationKeyCache cache = new CollationKeyCache(collator, 5);
+		for (int i = 0; i < 100; i++) {
+			for (String value : VALUES) {
+				// each value is repeated, so the cache is hit often
+				for (int j = 0; j < 3; j++) {
+					assertEquals(collator.getCollationKey(value), cache.getCollationKey(value));
+					assertTrue(cache.size() <= 5);
+				}
+			}
+		}
+		assertTrue(cache.isCaching());
+		assertTrue(cache.size() > 0);
+	}
+
+	public void testWorkingSetLargerThanCapacityTurnsCachingOff() {
+		CollationKeyCache cache = new CollationKeyCache(collator, 5);
+		for (int i = 0; i < 100; i++) {
+			for (String value : VALUES) {
+				assertEquals(collator.getCollationKey(value), cache.getCollationKey(value));
+			}
+		}
+		assertFalse(cache.isCaching());
+	}
+
+	public void testUniqueValuesTurnCachingOff() {
+		CollationKeyCache cache = new CollationKeyCache(collator, 100);
+		for (int i = 0; i < 1000; i++) {
+			String value = "value" + i;
+			assertEquals(collator.getCollationKey(value), cache.getCollationKey(value));
+		}
+		assertFalse(cache.isCaching());
+		assertEquals(0, cache.size());
+
+		field1.setValue("value1");
+		field2.setValue("value2");
+		assertEquals(-1, cache.compare(field1, field2));
+		assertEquals(1, cache.compare(field2, field1));
+		assertEquals(0, cache.compare(field1, "value1"));
+	}
+
+	public void testNulls() {
+		CollationKeyCache cache = new CollationKeyCache(collator, 10);
+		assertNull(cache.getCollationKey(null));
+
+		field1.setNull(true);
+		field2.setValue("abc");
+		assertEquals(field1.compareTo(field2, collator), cache.compare(field1, field2));
+		assertEquals(-1, cache.compare(field1, field2));
+		assertEquals(-1, cache.compare(field1, null));
+
+		field2.setNull(true);
+		assertEquals(field1.compareTo(field2, collator), cache.compare(field1, field2));
+
+		field1.setValue("abc");
+		assertEquals(field1.compareTo(field2, collator), cache.compare(field1, field2));
+		assertEquals(1, cache.compare(field1, field2));
+		assertEquals(field1.compareTo(null, collator), cache.compare(field1, null));
+		assertEquals(1, cache.compare(field1, null));
+	}
+
+	public void testIncomparableObject() {
+		CollationKeyCache cache = new CollationKeyCache(collator, 10);
+		field1.setValue("abc");
+		try {
+			cache.compare(field1, Integer.valueOf(1));
+			fail();
+		} catch (ClassCastException e) {
+			// expected
+		}
+	}
+
+	public void testKeyFieldCaches() {
+		CollationKeyCache.KeyFieldCaches caches = new CollationKeyCache.KeyFieldCaches();
+		RuleBasedCollator[] collators = { collator, (RuleBasedCollator) Collator.getInstance(MiscUtils.createLocale("en.US")) };
+		CollationKeyCache cache = caches.get(collators, 0);
+		assertSame(collator, cache.getCollator());
+		assertSame(cache, caches.get(collators, 0));
+		assertSame(collators[1], caches.get(collators, 1).getCollator());
+
+		// a new collator of the key field replaces the cache
+		collators[0] = (RuleBasedCollator) Collator.getInstance(MiscUtils.createLocale("de.DE"));
+		assertNotSame(cache, caches.get(collators, 0));
+		assertSame(collators[0], caches.get(collators, 0).getCollator());
+
+		field1.setValue("čaj");
+		field2.setValue("cesta");
+		assertEquals(field1.compareTo(field2, collators[1]), caches.compare(collators, 1, field1, field2));
+	}
+
+	private void checkConsistency(CollationKeyCache cache) {
+		Random random = new Random(0);
+		for (int i = 0; i < 10000; i++) {
+			String value1 = VALUES[random.nextInt(VALUES.length)];
+			String value2 = VALUES[random.nextInt(VALUES.length)];
+			field1.setValue(value1);
+			field2.setValue(value2);
+			int expected = Integer.signum(field1.compareTo(field2, collator));
+			assertEquals(value1 + " x " + value2, expected, cache.compare(field1, field2));
+			assertEquals(value1 + " x " + value2, expected, cache.compare(field1, value2));
+			assertEquals(value1 + " x " + value2, expected, cache.compare(field1, new StringBuilder(value2)));
+		}
+	}
+
+}
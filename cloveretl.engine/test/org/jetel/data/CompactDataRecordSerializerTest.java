@@ -0,0 +1,117 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import org.jetel.metadata.DataFieldContainerType;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class CompactDataRecordSerializerTest extends CloverTestCase {
+
+	private static final String[] VALUES = new String[] {
+		null,
+		"",
+		"a",
+		"ASCII only value",
+		"Latin-1 value éàÿ",
+		"Unicode value ěščřž 不丰 😄",
+		createLongString('x', 1000),
+		createLongString('€', 1000)
+	};
+
+	private DataRecordMetadata metadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		metadata = new DataRecordMetadata("compactRecord");
+		metadata.addField(new DataFieldMetadata("stringField", DataFieldType.STRING, ";"));
+		metadata.addField(new DataFieldMetadata("integerField", DataFieldType.INTEGER, ";"));
+		DataFieldMetadata listField = new DataFieldMetadata("listField", DataFieldType.STRING, ";");
+		listField.setContainerType(DataFieldContainerType.LIST);
+		metadata.addField(listField);
+	}
+
+	public void testRoundTrip() {
+		CompactDataRecordSerializer serializer = new CompactDataRecordSerializer();
+		CloverBuffer buffer = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		DataRecord result = DataRecordFactory.newRecord(metadata);
+
+		for (String value : VALUES) {
+			record.reset();
+			record.getField(0).setValue(value);
+			record.getField(1).setValue(value != null ? value.length() : null);
+			ListDataField list = (ListDataField) record.getField(2);
+			list.setNull(false);
+			for (String listValue : VALUES) {
+				list.addField().setValue(listValue);
+			}
+
+			buffer.clear();
+			record.serialize(buffer, serializer);
+			buffer.flip();
+			result.deserialize(buffer, serializer);
+			assertFalse(buffer.hasRemaining());
+			assertEquals(record, result);
+			assertEquals(record.getField(0).isNull(), result.getField(0).isNull());
+			assertEquals(String.valueOf(record.getField(0).getValue()), String.valueOf(result.getField(0).getValue()));
+			assertEquals(String.valueOf(record.getField(2).getValue()), String.valueOf(result.getField(2).getValue()));
+		}
+	}
+
+	public void testSize() {
+		CompactDataRecordSerializer serializer = new CompactDataRecordSerializer();
+		CloverBuffer buffer = CloverBuffer.allocate(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE);
+		StringDataField field = new StringDataField(new DataFieldMetadata("stringField", DataFieldType.STRING, ";"));
+
+		for (String value : VALUES) {
+			field.setValue(value);
+			buffer.clear();
+			field.serialize(buffer);
+			int defaultSize = buffer.position();
+			buffer.clear();
+			field.serialize(buffer, serializer);
+			int compactSize = buffer.position();
+			assertTrue("compact serialization is bigger for '" + value + "'", compactSize <= defaultSize + 1);
+		}
+
+		field.setValue(createLongString('x', 1000));
+		buffer.clear();
+		field.serialize(buffer, serializer);
+		assertTrue(buffer.position() < 1010);
+	}
+
+	private static String createLongString(char c, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+}
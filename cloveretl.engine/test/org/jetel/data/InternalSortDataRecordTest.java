@@ -0,0 +1,124 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.text.Collator;
+import java.util.Random;
+
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+import org.jetel.util.MiscUtils;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class InternalSortDataRecordTest extends CloverTestCase {
+
+	private static final int NUM_REC = 200000;
+
+	private DataRecordMetadata metadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		metadata = new DataRecordMetadata("sorted");
+		metadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		metadata.addField(new DataFieldMetadata("order", DataFieldType.INTEGER, ";"));
+	}
+
+	public void testParallelSortIsStable() {
+		checkSort(true);
+	}
+
+	public void testParallelSortDescending() {
+		checkSort(false);
+	}
+
+	public void testCollatedSort() {
+		String[] values = { "chata", "cesta", "hrad", "\u010daj", "\u010cech", "abc", "\u00c1bel", "ch\u016fze", "Hrad", "", null };
+		DataRecordMetadata collatedMetadata = new DataRecordMetadata("collated");
+		collatedMetadata.addField(new DataFieldMetadata("name", DataFieldType.STRING, ";"));
+		collatedMetadata.addField(new DataFieldMetadata("order", DataFieldType.INTEGER, ";"));
+		collatedMetadata.getField(0).setLocaleStr("cs.CZ");
+		Collator collator = Collator.getInstance(MiscUtils.createLocale("cs.CZ"));
+		collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+
+		InternalSortDataRecord sorter = new InternalSortDataRecord(collatedMetadata, new String[] { "name" }, new boolean[] { true }, false, NUM_REC);
+		DataRecord record = DataRecordFactory.newRecord(collatedMetadata);
+		Random random = new Random(0);
+		for (int i = 0; i < NUM_REC; i++) {
+			record.getField(0).setValue(values[random.nextInt(values.length)]);
+			record.getField(1).setValue(i);
+			assertTrue(sorter.put(record));
+		}
+		sorter.sort();
+
+		int count = 0;
+		Object previousName = null;
+		int previousOrder = -1;
+		while ((record = sorter.get()) != null) {
+			Object name = record.getField(0).getValue();
+			int order = (Integer) record.getField(1).getValue();
+			if (count > 0) {
+				// nulls are the smallest values
+				int comparison = name == null ? (previousName == null ? 0 : 1)
+						: (previousName == null ? -1 : collator.compare(previousName.toString(), name.toString()));
+				assertTrue(previousName + " > " + name, comparison <= 0);
+				if (comparison == 0) {
+					assertTrue("sort is not stable", order > previousOrder);
+				}
+			}
+			previousName = name;
+			previousOrder = order;
+			count++;
+		}
+		assertEquals(NUM_REC, count);
+	}
+
+	private void checkSort(boolean ascending) {
+		InternalSortDataRecord sorter = new InternalSortDataRecord(metadata, new String[] { "key" }, new boolean[] { ascending }, false, NUM_REC);
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		Random random = new Random(0);
+		for (int i = 0; i < NUM_REC; i++) {
+			record.getField(0).setValue(random.nextInt(1000));
+			record.getField(1).setValue(i);
+			assertTrue(sorter.put(record));
+		}
+		sorter.sort();
+
+		int count = 0;
+		int previousKey = ascending ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+		int previousOrder = -1;
+		while ((record = sorter.get()) != null) {
+			int key = (Integer) record.getField(0).getValue();
+			int order = (Integer) record.getField(1).getValue();
+			assertTrue(ascending ? key >= previousKey : key <= previousKey);
+			if (key == previousKey) {
+				assertTrue("sort is not stable", order > previousOrder);
+			}
+			previousKey = key;
+			previousOrder = order;
+			count++;
+		}
+		assertEquals(NUM_REC, count);
+	}
+
+}
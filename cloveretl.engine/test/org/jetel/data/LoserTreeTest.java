@@ -0,0 +1,79 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class LoserTreeTest extends CloverTestCase {
+
+	public void testMerge() {
+		Random random = new Random(0);
+		for (int numSources = 1; numSources <= 17; numSources++) {
+			final int[][] sources = new int[numSources][];
+			int total = 0;
+			for (int i = 0; i < numSources; i++) {
+				// some sources are empty
+				sources[i] = new int[random.nextInt(4) == 0 ? 0 : random.nextInt(100)];
+				for (int j = 0; j < sources[i].length; j++) {
+					sources[i][j] = random.nextInt(50);
+				}
+				Arrays.sort(sources[i]);
+				total += sources[i].length;
+			}
+			final int[] positions = new int[numSources];
+			LoserTree tree = new LoserTree(numSources, new LoserTree.Sources() {
+				@Override
+				public boolean hasHead(int source) {
+					return positions[source] < sources[source].length;
+				}
+
+				@Override
+				public int compareHeads(int source1, int source2) {
+					return Integer.compare(sources[source1][positions[source1]], sources[source2][positions[source2]]);
+				}
+			});
+			tree.init();
+
+			int count = 0;
+			int previousValue = Integer.MIN_VALUE;
+			int previousSource = -1;
+			int winner;
+			while ((winner = tree.getWinner()) >= 0) {
+				int value = sources[winner][positions[winner]++];
+				assertTrue(value >= previousValue);
+				if (value == previousValue) {
+					// stable merge - equal items are taken from sources in order
+					assertTrue(winner >= previousSource);
+				}
+				previousValue = value;
+				previousSource = winner;
+				count++;
+				tree.replay(winner);
+			}
+			assertEquals(total, count);
+		}
+	}
+
+}
@@ -0,0 +1,241 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.jetel.data.DataRecordMap.DataRecordIterator;
+import org.jetel.data.DataRecordMap.DataRecordLookup;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class OffHeapDataRecordMapTest extends CloverTestCase {
+
+	private DataRecordMetadata metadata;
+	private RecordKey recordKey;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		metadata = new DataRecordMetadata("record");
+		metadata.addField(new DataFieldMetadata("key", DataFieldType.STRING, "|"));
+		metadata.addField(new DataFieldMetadata("data", DataFieldType.INTEGER, "|"));
+		recordKey = new RecordKey(new String[] {"key"}, metadata);
+		recordKey.setEqualNULLs(true);
+	}
+
+	private DataRecord createRecord(String key, int data) {
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		record.getField("key").setValue(key);
+		record.getField("data").setValue(data);
+		return record;
+	}
+
+	private int getData(DataRecord record) {
+		return (Integer) record.getField("data").getValue();
+	}
+
+	public void testPutAndGet() {
+		OffHeapDataRecordMap map = new OffHeapDataRecordMap(recordKey, false);
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		for (int i = 0; i < 10000; i++) {
+			// the same record instance is reused, the map must store a copy
+			record.getField("key").setValue("key" + i);
+			record.getField("data").setValue(i);
+			map.put(record);
+		}
+		assertEquals(10000, map.size());
+
+		for (int i = 0; i < 10000; i++) {
+			DataRecord result = map.get(recordKey, createRecord("key" + i, 0));
+			assertNotNull(result);
+			assertEquals(i, getData(result));
+		}
+		assertNull(map.get(recordKey, createRecord("missing", 0)));
+
+		// overwrite
+		map.put(createRecord("key5", -5));
+		assertEquals(10000, map.size());
+		assertEquals(-5, getData(map.get(recordKey, createRecord("key5", 0))));
+
+		// null key
+		map.put(createRecord(null, 42));
+		assertEquals(42, getData(map.get(recordKey, createRecord(null, 0))));
+	}
+
+	public void testDuplicates() {
+		OffHeapDataRecordMap map = new OffHeapDataRecordMap(recordKey, true);
+		for (int i = 0; i < 100; i++) {
+			map.put(createRecord("key" + (i % 10), i));
+		}
+		assertEquals(100, map.size());
+
+		DataRecordIterator iterator = map.getAll(recordKey, createRecord("key3", 0));
+		assertEquals(10, iterator.size());
+		for (int i = 3; i < 100; i += 10) {
+			assertTrue(iterator.hasNext());
+			assertEquals(i, getData(iterator.next()));
+		}
+		assertFalse(iterator.hasNext());
+
+		iterator.reset();
+		assertEquals(3, getData(iterator.next()));
+
+		// first record is kept if overwrite is off
+		OffHeapDataRecordMap noOverwriteMap = new OffHeapDataRecordMap(recordKey, false, 16, false);
+		noOverwriteMap.put(createRecord("a", 1));
+		noOverwriteMap.put(createRecord("a", 2));
+		assertEquals(1, noOverwriteMap.size());
+		assertEquals(1, getData(noOverwriteMap.get(recordKey, createRecord("a", 0))));
+	}
+
+	public void testRemove() {
+		OffHeapDataRecordMap map = new OffHeapDataRecordMap(recordKey, true);
+		for (int i = 0; i < 1000; i++) {
+			map.put(createRecord("key" + i, i));
+		}
+		map.put(createRecord("key7", 7));
+		assertEquals(1001, map.size());
+
+		for (int i = 0; i < 1000; i += 2) {
+			assertTrue(map.remove(createRecord("key" + i, 0)));
+		}
+		assertFalse(map.remove(createRecord("key0", 0)));
+		assertEquals(501, map.size());
+
+		// remaining keys have to be reachable after backward shift deletion
+		for (int i = 0; i < 1000; i++) {
+			DataRecord result = map.get(recordKey, createRecord("key" + i, 0));
+			if (i % 2 == 0) {
+				assertNull(result);
+			} else {
+				assertNotNull(result);
+				assertEquals(i, getData(result));
+			}
+		}
+		assertEquals(2, map.getAll(recordKey, createRecord("key7", 0)).size());
+	}
+
+	public void testLookupAndOrphanedIterator() {
+		OffHeapDataRecordMap map = new OffHeapDataRecordMap(recordKey, true);
+		for (int i = 0; i < 100; i++) {
+			map.put(createRecord("key" + i, i));
+		}
+
+		DataRecord keyRecord = createRecord(null, 0);
+		DataRecordLookup lookup = map.createDataRecordLookup(recordKey, keyRecord);
+		for (int i = 0; i < 100; i += 3) {
+			keyRecord.getField("key").setValue("key" + i);
+			DataRecordIterator iterator = lookup.getAllAndMark();
+			assertEquals(i, getData(iterator.next()));
+			assertFalse(iterator.hasNext());
+		}
+		keyRecord.getField("key").setValue("missing");
+		assertNull(lookup.getAndMark());
+
+		Set<Integer> orphaned = new HashSet<Integer>();
+		Iterator<DataRecord> iterator = map.getOrphanedIterator();
+		while (iterator.hasNext()) {
+			orphaned.add(getData(iterator.next()));
+		}
+		assertEquals(66, orphaned.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i % 3 != 0, orphaned.contains(i));
+		}
+	}
+
+	public void testClear() {
+		OffHeapDataRecordMap map = new OffHeapDataRecordMap(recordKey, false);
+		DataRecord keyRecord = createRecord("a", 0);
+		DataRecordLookup lookup = map.createDataRecordLookup(recordKey, keyRecord);
+		map.put(createRecord("a", 1));
+		assertEquals(1, getData(lookup.get()));
+		assertTrue(map.getAllocatedMemory() > 0);
+
+		long allocatedMemory = map.getAllocatedMemory();
+		map.clear();
+		assertEquals(0, map.size());
+		// the slab is kept for reuse
+		assertEquals(allocatedMemory, map.getAllocatedMemory());
+		assertNull(lookup.get());
+		assertFalse(map.valueIterator().hasNext());
+
+		// the lookup must not use views of released slabs
+		map.put(createRecord("a", 2));
+		assertEquals(2, getData(lookup.get()));
+
+		int count = 0;
+		for (Iterator<DataRecord> iterator = map.valueIterator(); iterator.hasNext(); iterator.next()) {
+			count++;
+		}
+		assertEquals(1, count);
+		assertEquals(allocatedMemory, map.getAllocatedMemory());
+	}
+
+	public void testSlabReuse() {
+		OffHeapDataRecordMap map = new OffHeapDataRecordMap(recordKey, false);
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			value.append('x');
+		}
+		String prefix = value.toString();
+
+		// several slabs are filled
+		fill(map, prefix, 3000);
+		long allocatedMemory = map.getAllocatedMemory();
+		assertTrue(allocatedMemory > 2 << 20);
+
+		for (int pass = 0; pass < 3; pass++) {
+			map.clear();
+			fill(map, prefix, 3000);
+			assertEquals(allocatedMemory, map.getAllocatedMemory());
+			for (int i = 0; i < 3000; i += 7) {
+				assertEquals(i, getData(map.get(recordKey, createRecord(prefix + i, 0))));
+			}
+		}
+
+		// record bigger than a slab gets its own slab, the kept slabs are used afterwards
+		map.clear();
+		for (int i = 0; i < 1000; i++) {
+			value.append(prefix);
+		}
+		map.put(createRecord(value.toString(), -1));
+		fill(map, prefix, 100);
+		assertTrue(map.getAllocatedMemory() > allocatedMemory);
+		assertEquals(-1, getData(map.get(recordKey, createRecord(value.toString(), 0))));
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, getData(map.get(recordKey, createRecord(prefix + i, 0))));
+		}
+	}
+
+	private void fill(OffHeapDataRecordMap map, String prefix, int count) {
+		for (int i = 0; i < count; i++) {
+			map.put(createRecord(prefix + i, i));
+		}
+		assertEquals(count, map.size());
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *  
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.util.Date;
+
+import org.jetel.metadata.DataFieldContainerType;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class SerializedKeyHashTest extends CloverTestCase {
+
+	private static final int RECORD_COUNT = 1000;
+
+	private DataRecordMetadata metadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		metadata = new DataRecordMetadata("test");
+		metadata.addField(new DataFieldMetadata("string", DataFieldType.STRING, ";"));
+		metadata.addField(new DataFieldMetadata("integer", DataFieldType.INTEGER, ";"));
+		metadata.addField(new DataFieldMetadata("bytes", DataFieldType.BYTE, ";"));
+		metadata.addField(new DataFieldMetadata("date", DataFieldType.DATE, ";"));
+		metadata.addField(new DataFieldMetadata("boolean", DataFieldType.BOOLEAN, ";"));
+		metadata.addField(new DataFieldMetadata("long", DataFieldType.LONG, ";"));
+		metadata.addField(new DataFieldMetadata("decimal", DataFieldType.DECIMAL, "\n"));
+		// precision too big for a decimal serialized as a single long
+		metadata.getField("decimal").setProperty(DataFieldMetadata.LENGTH_ATTR, "30");
+	}
+
+	private void populate(DataRecord record, int i) {
+		record.getField(0).setValue(i % 5 == 0 ? null : "value " + i);
+		record.getField(1).setValue(i);
+		record.getField(2).setValue(i % 7 == 0 ? null : new byte[] { (byte) i, 1, 2 });
+		record.getField(3).setValue(new Date(i * 1000L));
+		record.getField(4).setValue(i % 2 == 0);
+		record.getField(5).setValue((long) i);
+		record.getField(6).setValue(i);
+	}
+
+	public void testSerializedRecord() {
+		SerializedKeyHash keyHash = new SerializedKeyHash(metadata, new int[] { 5, 0, 2 });
+		assertTrue(keyHash.supportsSerializedRecord());
+
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		CloverBuffer buffer = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE);
+		for (int i = 0; i < RECORD_COUNT; i++) {
+			populate(record, i);
+			buffer.clear();
+			record.serialize(buffer);
+			buffer.flip();
+			int hash = keyHash.hash(buffer);
+			assertEquals(0, buffer.position());
+			assertEquals(keyHash.hash(record), hash);
+		}
+	}
+
+	public void testUnsupportedFields() {
+		assertFalse(new SerializedKeyHash(metadata, new int[] { 0, 6 }).supportsSerializedRecord());
+		assertTrue(new SerializedKeyHash(metadata, new int[] { 5 }).supportsSerializedRecord());
+
+		DataRecordMetadata decimalMetadata = metadata.duplicate();
+		decimalMetadata.getField("decimal").setProperty(DataFieldMetadata.LENGTH_ATTR, "10");
+		assertTrue(new SerializedKeyHash(decimalMetadata, new int[] { 0, 6 }).supportsSerializedRecord());
+
+		DataRecordMetadata listMetadata = metadata.duplicate();
+		listMetadata.getField(1).setContainerType(DataFieldContainerType.LIST);
+		assertFalse(new SerializedKeyHash(listMetadata, new int[] { 2 }).supportsSerializedRecord());
+		assertTrue(new SerializedKeyHash(listMetadata, new int[] { 0 }).supportsSerializedRecord());
+	}
+
+	public void testBuckets() {
+		SerializedKeyHash keyHash = new SerializedKeyHash(metadata, new int[] { 1 });
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		int bucketCount = 4;
+		int[] counts = new int[bucketCount];
+		for (int i = 0; i < RECORD_COUNT; i++) {
+			populate(record, i);
+			counts[SerializedKeyHash.getBucket(keyHash.hash(record), bucketCount)]++;
+		}
+		for (int count : counts) {
+			// well-mixed hash splits consecutive integers evenly
+			assertTrue(count > RECORD_COUNT / bucketCount / 2);
+		}
+	}
+
+}
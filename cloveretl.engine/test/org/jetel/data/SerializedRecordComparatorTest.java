@@ -0,0 +1,121 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data;
+
+import java.util.Date;
+
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class SerializedRecordComparatorTest extends CloverTestCase {
+
+	private static final int RECORD_COUNT = 60;
+
+	private static final String[] STRINGS = { null, "", "a", "ab", "b", "\u00e1", "\uffff", "a\uffff" };
+
+	private DataRecordMetadata metadata;
+	private DataRecord[] records;
+	private CloverBuffer[] buffers;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		metadata = new DataRecordMetadata("test");
+		metadata.addField(new DataFieldMetadata("boolean", DataFieldType.BOOLEAN, ";"));
+		metadata.addField(new DataFieldMetadata("string", DataFieldType.STRING, ";"));
+		metadata.addField(new DataFieldMetadata("integer", DataFieldType.INTEGER, ";"));
+		metadata.addField(new DataFieldMetadata("long", DataFieldType.LONG, ";"));
+		metadata.addField(new DataFieldMetadata("number", DataFieldType.NUMBER, ";"));
+		metadata.addField(new DataFieldMetadata("date", DataFieldType.DATE, ";"));
+		metadata.addField(new DataFieldMetadata("decimal", DataFieldType.DECIMAL, "\n"));
+
+		records = new DataRecord[RECORD_COUNT];
+		buffers = new CloverBuffer[RECORD_COUNT];
+		for (int i = 0; i < RECORD_COUNT; i++) {
+			records[i] = DataRecordFactory.newRecord(metadata);
+			records[i].getField(0).setValue(i % 2 == 0);
+			records[i].getField(1).setValue(STRINGS[i % STRINGS.length]);
+			records[i].getField(2).setValue(i % 11 == 0 ? null : Integer.valueOf(i % 5 - 2));
+			records[i].getField(3).setValue(i % 13 == 0 ? null : Long.valueOf((i % 3 - 1) * Long.MAX_VALUE));
+			records[i].getField(4).setValue(i % 9 == 0 ? null : Double.valueOf((i % 4 - 1.5) / 3));
+			records[i].getField(5).setValue(i % 7 == 0 ? null : new Date((i % 3) * 100000L));
+			records[i].getField(6).setValue(i % 10 == 0 ? null : Double.valueOf((i % 6 - 3) * 1.25));
+			buffers[i] = CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE);
+			records[i].serialize(buffers[i]);
+			buffers[i].flip();
+			// compare records in the same state as if they were read from an edge
+			records[i].deserialize(buffers[i]);
+			buffers[i].rewind();
+		}
+	}
+
+	private void checkKey(int[] keyFields, boolean[] sortOrderings, boolean equalNULLs) {
+		RecordComparator recordComparator = new RecordComparator(keyFields);
+		recordComparator.setEqualNULLs(equalNULLs);
+		SerializedRecordComparator serializedComparator = new SerializedRecordComparator(metadata, keyFields, sortOrderings);
+		serializedComparator.setEqualNULLs(equalNULLs);
+		if (sortOrderings != null) {
+			recordComparator.setSortOrderings(sortOrderings);
+		}
+		assertTrue(serializedComparator.isSupported());
+
+		for (int i = 0; i < RECORD_COUNT; i++) {
+			for (int j = 0; j < RECORD_COUNT; j++) {
+				int expected = Integer.signum(recordComparator.compare(records[i], records[j]));
+				assertEquals(records[i] + " x " + records[j], expected, serializedComparator.compare(buffers[i], buffers[j]));
+				assertEquals(0, buffers[i].position());
+			}
+		}
+	}
+
+	public void testSingleKeys() {
+		for (int field = 1; field < metadata.getNumFields(); field++) {
+			checkKey(new int[] { field }, null, false);
+			checkKey(new int[] { field }, null, true);
+		}
+	}
+
+	public void testCompositeKeys() {
+		checkKey(new int[] { 6, 1, 2 }, null, true);
+		checkKey(new int[] { 3, 5, 4 }, new boolean[] { true, false, true }, true);
+		checkKey(new int[] { 2, 1 }, new boolean[] { false, false }, false);
+	}
+
+	public void testUnsupportedKeys() {
+		assertFalse(new SerializedRecordComparator(metadata, new int[] { 0 }).isSupported());
+
+		DataRecordMetadata hugeDecimalMetadata = metadata.duplicate();
+		hugeDecimalMetadata.getField("decimal").setProperty(DataFieldMetadata.LENGTH_ATTR, "30");
+		assertFalse(new SerializedRecordComparator(hugeDecimalMetadata, new int[] { 6 }).isSupported());
+		assertTrue(new SerializedRecordComparator(hugeDecimalMetadata, new int[] { 2 }).isSupported());
+
+		DataRecordMetadata otherMetadata = metadata.duplicate();
+		otherMetadata.getField("decimal").setProperty(DataFieldMetadata.SCALE_ATTR, "3");
+		assertFalse(new SerializedRecordComparator(metadata, new int[] { 6 }, otherMetadata, new int[] { 6 }, null).isSupported());
+		assertTrue(new SerializedRecordComparator(metadata, new int[] { 3 }, otherMetadata, new int[] { 3 }, null).isSupported());
+		assertFalse(new SerializedRecordComparator(metadata, new int[] { 2 }, otherMetadata, new int[] { 3 }, null).isSupported());
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.Defaults;
+import org.jetel.exception.BadDataFormatException;
+import org.jetel.exception.PolicyType;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class ParallelTextFileParserTest extends CloverTestCase {
+
+	private static final int RECORDS = 5000;
+
+	private DataRecordMetadata metadata;
+	private File file;
+	private int oldChunkSize;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		metadata = new DataRecordMetadata("record", DataRecordMetadata.DELIMITED_RECORD);
+		metadata.setFieldDelimiter(";");
+		metadata.setRecordDelimiter("\n");
+		metadata.setQuotedStrings(true);
+		metadata.addField(new DataFieldMetadata("id", DataFieldType.INTEGER, null));
+		metadata.addField(new DataFieldMetadata("text", DataFieldType.STRING, null));
+
+		// small chunks, so the file is split many times
+		oldChunkSize = Defaults.DataParser.PARALLEL_CHUNK_SIZE;
+		Defaults.DataParser.PARALLEL_CHUNK_SIZE = 1024;
+
+		file = File.createTempFile("parallel", ".txt");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write("id;text\n");
+			for (int i = 0; i < RECORDS; i++) {
+				writer.write(i + ";" + getText(i) + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Defaults.DataParser.PARALLEL_CHUNK_SIZE = oldChunkSize;
+		file.delete();
+		super.tearDown();
+	}
+
+	/**
+	 * @return quoted values with delimiters, escaped quotes and multibyte characters
+	 */
+	private static String getText(int i) {
+		switch (i % 4) {
+		case 0:
+			return "plain" + i;
+		case 1:
+			return "\"quoted;" + i + "\nline\"";
+		case 2:
+			return "\"escaped \"\"" + i + "\"\"\"";
+		default:
+			return "žluťoučký " + i;
+		}
+	}
+
+	private TextParserConfiguration createConfiguration() {
+		TextParserConfiguration cfg = new TextParserConfiguration(metadata, "UTF-8");
+		cfg.setPolicyType(PolicyType.STRICT);
+		return cfg;
+	}
+
+	private List<String> parseSequentially() throws Exception {
+		TextParser parser = TextParserFactory.getParser(createConfiguration());
+		parser.init();
+		parser.setDataSource(new FileInputStream(file));
+		parser.skip(1);
+		List<String> result = new ArrayList<String>();
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		while (parser.getNext(record) != null) {
+			result.add(record.toString());
+		}
+		parser.close();
+		return result;
+	}
+
+	private List<String> parseInParallel(boolean preserveOrder) throws Exception {
+		ParallelTextFileParser parser = new ParallelTextFileParser(createConfiguration(), null, null, PolicyType.STRICT, 4, preserveOrder);
+		parser.init();
+		parser.setDataSource(file, 1);
+		List<String> result = new ArrayList<String>();
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		while (parser.getNext(record) != null) {
+			result.add(record.toString());
+		}
+		parser.close();
+		parser.free();
+		return result;
+	}
+
+	public void testIsSupported() {
+		assertTrue(ParallelTextFileParser.isSupported(createConfiguration()));
+		assertFalse(ParallelTextFileParser.isSupported(new TextParserConfiguration(metadata, "UTF-16")));
+
+		TextParserConfiguration cfg = createConfiguration();
+		cfg.setTreatMultipleDelimitersAsOne(true);
+		assertFalse(ParallelTextFileParser.isSupported(cfg));
+	}
+
+	public void testPreserveOrder() throws Exception {
+		List<String> expected = parseSequentially();
+		assertEquals(RECORDS, expected.size());
+		assertEquals(expected, parseInParallel(true));
+	}
+
+	public void testUnordered() throws Exception {
+		List<String> expected = parseSequentially();
+		List<String> result = parseInParallel(false);
+		Collections.sort(expected);
+		Collections.sort(result);
+		assertEquals(expected, result);
+	}
+
+	public void testErrors() throws Exception {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			for (int i = 0; i < RECORDS; i++) {
+				writer.write((i % 1000 == 999 ? "x" : String.valueOf(i)) + ";" + getText(i) + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+
+		ParallelTextFileParser parser = new ParallelTextFileParser(createConfiguration(), null, null, PolicyType.CONTROLLED, 4, true);
+		parser.init();
+		parser.setDataSource(file, 0);
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		List<Integer> errorRecords = new ArrayList<Integer>();
+		int records = 0;
+		while (true) {
+			try {
+				if (parser.getNext(record) == null) {
+					break;
+				}
+				records++;
+			} catch (BadDataFormatException e) {
+				errorRecords.add(e.getRecordNumber());
+			}
+		}
+		parser.close();
+		parser.free();
+
+		assertEquals(RECORDS - 5, records);
+		assertEquals(5, errorRecords.size());
+		for (int i = 0; i < 5; i++) {
+			// record numbers start with 1
+			assertEquals(Integer.valueOf(1000 * (i + 1)), errorRecords.get(i));
+		}
+	}
+
+}
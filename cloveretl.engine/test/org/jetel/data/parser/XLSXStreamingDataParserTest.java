@@ -0,0 +1,165 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.data.parser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.io.output.ByteArrayOutputStream;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.Defaults;
+import org.jetel.data.formatter.XLSXDataFormatter;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class XLSXStreamingDataParserTest extends AbstractParserTestCase {
+
+	private static final int RECORD_COUNT = 100;
+
+	private DataRecordMetadata metadata = null;
+	private byte[] bytes = null;
+	private int rowAccessWindow;
+
+	@Override
+	protected Parser createParser() throws Exception {
+		XLSXStreamingDataParser parser = new XLSXStreamingDataParser(getMetadata());
+		parser.setSheetNumber("*");
+		return parser;
+	}
+
+	protected DataRecordMetadata getMetadata() {
+		if (metadata == null) {
+			metadata = new DataRecordMetadata("metadata");
+			metadata.addField(new DataFieldMetadata("string", DataFieldType.STRING, ";"));
+			metadata.addField(new DataFieldMetadata("integer", DataFieldType.INTEGER, ";"));
+			metadata.addField(new DataFieldMetadata("number", DataFieldType.NUMBER, ";"));
+			metadata.addField(new DataFieldMetadata("date", DataFieldType.DATE, ";"));
+			metadata.addField(new DataFieldMetadata("boolean", DataFieldType.BOOLEAN, "\n"));
+		}
+
+		return metadata;
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		rowAccessWindow = Defaults.DataFormatter.XLSX_ROW_ACCESS_WINDOW;
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Defaults.DataFormatter.XLSX_ROW_ACCESS_WINDOW = rowAccessWindow;
+		super.tearDown();
+		this.metadata = null;
+		this.bytes = null;
+	}
+
+	@Override
+	protected byte[] getBytes() {
+		if (bytes == null) {
+			try {
+				XLSXDataFormatter formatter = new XLSXDataFormatter(false, false);
+				formatter.init(getMetadata());
+				ByteArrayOutputStream os = new ByteArrayOutputStream();
+				formatter.setDataTarget(Channels.newChannel(os));
+				formatter.prepareSheet();
+				formatter.writeHeader();
+				formatter.writeFooter();
+				formatter.close();
+				bytes = os.toByteArray();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		return bytes;
+	}
+
+	private byte[] writeRecords() throws Exception {
+		XLSXDataFormatter formatter = new XLSXDataFormatter(false, false);
+		formatter.init(getMetadata());
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		formatter.setDataTarget(Channels.newChannel(os));
+		formatter.prepareSheet();
+		formatter.writeHeader();
+		DataRecord record = DataRecordFactory.newRecord(getMetadata());
+		for (int i = 0; i < RECORD_COUNT; i++) {
+			record.getField(0).setValue(i % 7 == 0 ? null : "value " + i);
+			record.getField(1).setValue(i);
+			record.getField(2).setValue(i / 8.0);
+			record.getField(3).setValue(new Date(1000000000000L + i * 86400000L));
+			record.getField(4).setValue(i % 2 == 0);
+			formatter.write(record);
+		}
+		formatter.writeFooter();
+		formatter.close();
+		return os.toByteArray();
+	}
+
+	private List<String> readRecords(XLSParser parser, byte[] data) throws Exception {
+		parser.setSheetNumber("0");
+		parser.init();
+		parser.preExecute();
+		parser.setDataSource(new ByteArrayInputStream(data));
+		List<String> result = new ArrayList<String>();
+		DataRecord record = DataRecordFactory.newRecord(getMetadata());
+		while (parser.getNext(record) != null) {
+			result.add(record.toString());
+		}
+		parser.postExecute();
+		parser.free();
+		return result;
+	}
+
+	public void testStreamingReadAndWrite() throws Exception {
+		Defaults.DataFormatter.XLSX_ROW_ACCESS_WINDOW = 10;
+		byte[] streamed = writeRecords();
+		Defaults.DataFormatter.XLSX_ROW_ACCESS_WINDOW = 0;
+		byte[] inMemory = writeRecords();
+
+		List<String> expected = readRecords(new XLSXDataParser(getMetadata()), inMemory);
+		assertEquals(RECORD_COUNT, expected.size());
+		assertEquals(expected, readRecords(new XLSXDataParser(getMetadata()), streamed));
+		assertEquals(expected, readRecords(new XLSXStreamingDataParser(getMetadata()), inMemory));
+		assertEquals(expected, readRecords(new XLSXStreamingDataParser(getMetadata()), streamed));
+	}
+
+	public void testSkip() throws Exception {
+		XLSXStreamingDataParser parser = new XLSXStreamingDataParser(getMetadata());
+		parser.setSheetNumber("0");
+		parser.init();
+		parser.preExecute();
+		parser.setDataSource(new ByteArrayInputStream(writeRecords()));
+		assertEquals(RECORD_COUNT - 1, parser.skip(RECORD_COUNT - 1));
+		DataRecord record = DataRecordFactory.newRecord(getMetadata());
+		assertNotNull(parser.getNext(record));
+		assertEquals(Integer.valueOf(RECORD_COUNT - 1), record.getField(1).getValue());
+		assertEquals(0, parser.skip(5));
+		assertNull(parser.getNext(record));
+		parser.free();
+	}
+}
@@ -0,0 +1,241 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.Defaults;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * Tests of adaptive buffers of {@link DirectEdge}. Statistics of buffer switches are passed
+ * to the edge directly, so the resizing decisions do not depend on thread scheduling.
+ *
+ * @created 17. 10. 2026
+ */
+public class DirectEdgeAdaptiveBufferTest extends CloverTestCase {
+
+	private DataRecordMetadata metadata;
+	private TransformationGraph graph;
+	private int initialSize;
+	private boolean adaptiveBuffer;
+	private long memoryBudget;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		metadata = new DataRecordMetadata("record");
+		metadata.addField(new DataFieldMetadata("field", DataFieldType.INTEGER, null));
+		graph = new TransformationGraph("graph");
+		initialSize = Defaults.Graph.DIRECT_EDGE_INTERNAL_BUFFER_SIZE;
+		adaptiveBuffer = Defaults.Graph.DIRECT_EDGE_ADAPTIVE_BUFFER;
+		memoryBudget = Defaults.Graph.EDGE_BUFFER_MEMORY_BUDGET;
+		Defaults.Graph.DIRECT_EDGE_ADAPTIVE_BUFFER = true;
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Defaults.Graph.DIRECT_EDGE_ADAPTIVE_BUFFER = adaptiveBuffer;
+		Defaults.Graph.EDGE_BUFFER_MEMORY_BUDGET = memoryBudget;
+		super.tearDown();
+	}
+
+	public void testGrowth() throws Exception {
+		DirectEdge edge = createEdge();
+
+		// the reader and the writer waited alternately for full buffers
+		switchBuffers(edge, 100, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals(2 * initialSize, edge.getBufferSize());
+		assertEquals(2L * initialSize, graph.getEdgeBufferBudget().getUsed());
+		assertEquals(2L * initialSize, graph.getMemoryManager().getReservedMemory());
+
+		// the size is limited
+		for (int i = 0; i < 10; i++) {
+			switchBuffers(edge, 100, DirectEdge.ADAPTATION_WINDOW / 2);
+		}
+		int maxSize = Defaults.Graph.DIRECT_EDGE_MAX_INTERNAL_BUFFER_SIZE;
+		assertEquals(maxSize, edge.getBufferSize());
+		assertEquals(2L * (maxSize - initialSize), graph.getEdgeBufferBudget().getUsed());
+
+		edge.free();
+		assertEquals(0, graph.getEdgeBufferBudget().getUsed());
+		assertEquals(0, graph.getMemoryManager().getReservedMemory());
+	}
+
+	public void testNoGrowth() throws Exception {
+		DirectEdge edge = createEdge();
+
+		// only one side waits, larger buffers would not help
+		switchBuffers(edge, 100, DirectEdge.ADAPTATION_WINDOW);
+		assertEquals(initialSize, edge.getBufferSize());
+		switchBuffers(edge, 100, 0);
+		assertEquals(initialSize, edge.getBufferSize());
+		switchBuffers(edge, 100, DirectEdge.ADAPTATION_WINDOW / 4 - 1);
+		assertEquals(initialSize, edge.getBufferSize());
+
+		// buffers are not filled enough
+		switchBuffers(edge, 40, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals(initialSize, edge.getBufferSize());
+
+		// an incomplete window is not evaluated
+		for (int i = 0; i < DirectEdge.ADAPTATION_WINDOW - 1; i++) {
+			edge.updateBufferStatistics(initialSize, initialSize, i % 2 == 0);
+		}
+		assertEquals(initialSize, edge.getBufferSize());
+		edge.updateBufferStatistics(initialSize, initialSize, false);
+		assertEquals(2 * initialSize, edge.getBufferSize());
+		edge.free();
+	}
+
+	public void testShrinking() throws Exception {
+		DirectEdge edge = createEdge();
+
+		// sparse switches of mostly empty buffers
+		switchBuffers(edge, 10, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals(initialSize / 2, edge.getBufferSize());
+		assertEquals(-initialSize, graph.getEdgeBufferBudget().getUsed());
+		// memory below the initial size has never been reserved from the memory manager
+		assertEquals(0, graph.getMemoryManager().getReservedMemory());
+
+		// no record was written, so the buffers shrink down to the initial record size
+		for (int i = 0; i < 10; i++) {
+			switchBuffers(edge, 0, DirectEdge.ADAPTATION_WINDOW);
+		}
+		int minSize = Math.min(Defaults.Record.RECORD_INITIAL_SIZE, initialSize);
+		assertEquals(minSize, edge.getBufferSize());
+		assertEquals(2L * (minSize - initialSize), graph.getEdgeBufferBudget().getUsed());
+
+		// memory of the initial buffers is taken back
+		edge.free();
+		assertEquals(0, graph.getEdgeBufferBudget().getUsed());
+		assertEquals(0, graph.getMemoryManager().getReservedMemory());
+	}
+
+	public void testBudget() throws Exception {
+		// the budget is enough for the growth of a single edge
+		Defaults.Graph.EDGE_BUFFER_MEMORY_BUDGET = 3L * initialSize;
+		DirectEdge edge1 = createEdge();
+		DirectEdge edge2 = createEdge();
+
+		switchBuffers(edge1, 100, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals(2 * initialSize, edge1.getBufferSize());
+		switchBuffers(edge2, 100, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals(initialSize, edge2.getBufferSize());
+		assertEquals(2L * initialSize, graph.getEdgeBufferBudget().getUsed());
+
+		// the memory is returned by free()
+		edge1.free();
+		assertEquals(0, graph.getEdgeBufferBudget().getUsed());
+		switchBuffers(edge2, 100, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals(2 * initialSize, edge2.getBufferSize());
+
+		// memory released by a shrunk edge can be used by other edges
+		DirectEdge edge3 = createEdge();
+		DirectEdge edge4 = createEdge();
+		switchBuffers(edge4, 100, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals(initialSize, edge4.getBufferSize());
+		switchBuffers(edge3, 10, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals((long) initialSize, graph.getEdgeBufferBudget().getUsed());
+		switchBuffers(edge4, 100, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals(2 * initialSize, edge4.getBufferSize());
+		assertEquals(3L * initialSize, graph.getEdgeBufferBudget().getUsed());
+		// growth of both edges is reserved from the memory manager, the shrunk edge is not passed to it
+		assertEquals(4L * initialSize, graph.getMemoryManager().getReservedMemory());
+
+		edge3.free();
+		assertEquals(4L * initialSize, graph.getEdgeBufferBudget().getUsed());
+		edge2.free();
+		edge4.free();
+		assertEquals(0, graph.getEdgeBufferBudget().getUsed());
+		assertEquals(0, graph.getMemoryManager().getReservedMemory());
+	}
+
+	public void testReallocation() throws Exception {
+		final DirectEdge edge = createEdge();
+		int tmpCapacity = edge.getUsedMemory() - 2 * initialSize;
+		switchBuffers(edge, 100, DirectEdge.ADAPTATION_WINDOW / 2);
+		assertEquals(2 * initialSize, edge.getBufferSize());
+		// buffers are reallocated lazily by the next switches
+		assertEquals(2 * initialSize + tmpCapacity, edge.getUsedMemory());
+
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		record.getField(0).setValue(Integer.MAX_VALUE);
+		// enough data for two switches of the new buffers
+		final int numRecords = 4 * edge.getBufferSize() / record.getSizeSerialized();
+
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			Future<Void> writer = executorService.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					DataRecord record = DataRecordFactory.newRecord(metadata);
+					for (int i = 0; i < numRecords; i++) {
+						record.getField(0).setValue(i);
+						edge.writeRecord(record);
+					}
+					edge.eof();
+					return null;
+				}
+			});
+			int count = 0;
+			while (edge.readRecord(record) != null) {
+				assertEquals(count++, record.getField(0).getValue());
+			}
+			writer.get();
+			assertEquals(numRecords, count);
+		} finally {
+			executorService.shutdownNow();
+		}
+		assertEquals(4 * initialSize + tmpCapacity, edge.getUsedMemory());
+
+		edge.free();
+		assertEquals(0, graph.getEdgeBufferBudget().getUsed());
+	}
+
+	private DirectEdge createEdge() throws Exception {
+		Edge proxy = new Edge("edge", metadata);
+		proxy.setGraph(graph);
+		// the record size is known in the default serialization
+		proxy.setCompactSerialization(false);
+		DirectEdge edge = new DirectEdge(proxy);
+		edge.init();
+		return edge;
+	}
+
+	/**
+	 * Passes statistics of a whole adaptation window to the edge.
+	 * @param fillLevel percentage of the buffer capacity filled before each switch
+	 * @param readerWaits number of switches the reader waited for, the writer waited for the others
+	 */
+	private static void switchBuffers(DirectEdge edge, int fillLevel, int readerWaits) {
+		int capacity = edge.getBufferSize();
+		for (int i = 0; i < DirectEdge.ADAPTATION_WINDOW; i++) {
+			edge.updateBufferStatistics(capacity * fillLevel / 100, capacity, i < readerWaits);
+		}
+	}
+
+}
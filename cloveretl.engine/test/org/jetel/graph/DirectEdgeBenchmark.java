@@ -0,0 +1,117 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.Defaults;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+
+/**
+ * Compares throughput of {@link DirectEdge}, {@link DirectEdgeFastPropagate} and {@link DirectEdgeLockFree}.
+ * Each edge type transfers the same records from a writer thread to the reading thread, the first rounds
+ * are just warm-up. This is not a unit test, so it is not run by the test suite - run it by
+ * <pre>java org.jetel.graph.DirectEdgeBenchmark [records] [rounds]</pre>
+ *
+ * @created 17. 10. 2026
+ */
+public class DirectEdgeBenchmark {
+
+	private static final int DEFAULT_RECORDS = 10000000;
+	private static final int DEFAULT_ROUNDS = 5;
+	private static final int WARM_UP_ROUNDS = 2;
+
+	private final DataRecordMetadata metadata;
+	private final int numRecords;
+
+	public DirectEdgeBenchmark(int numRecords) {
+		this.numRecords = numRecords;
+		metadata = new DataRecordMetadata("benchmarkMetadata");
+		metadata.addField(new DataFieldMetadata("id", DataFieldType.INTEGER, null));
+		metadata.addField(new DataFieldMetadata("name", DataFieldType.STRING, null));
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RECORDS;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+		Defaults.init();
+
+		DirectEdgeBenchmark benchmark = new DirectEdgeBenchmark(numRecords);
+		for (int round = -WARM_UP_ROUNDS; round < rounds; round++) {
+			// a new edge in each round, the order of edge types is rotated
+			EdgeBase[] edges = new EdgeBase[] { new DirectEdge(null), new DirectEdgeFastPropagate(null), new DirectEdgeLockFree(null) };
+			for (int i = 0; i < edges.length; i++) {
+				EdgeBase edge = edges[(i + Math.max(round, 0)) % edges.length];
+				long elapsedTime = benchmark.transfer(edge);
+				if (round >= 0) {
+					System.out.println(String.format("round %d: %-24s %,d records in %,d ms (%,d records/s)", round,
+							edge.getClass().getSimpleName(), numRecords, elapsedTime / 1000000, numRecords * 1000000000L / Math.max(elapsedTime, 1)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends the records through the given edge from a separate thread.
+	 * @return time of the transfer in nanoseconds
+	 */
+	private long transfer(final EdgeBase edge) throws Exception {
+		edge.init();
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			long start = System.nanoTime();
+			Future<Void> writer = executorService.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					DataRecord record = DataRecordFactory.newRecord(metadata);
+					record.getField(1).setValue("benchmark record");
+					for (int i = 0; i < numRecords; i++) {
+						record.getField(0).setValue(i);
+						edge.writeRecord(record);
+					}
+					edge.eof();
+					return null;
+				}
+			});
+
+			DataRecord record = DataRecordFactory.newRecord(metadata);
+			int counter = 0;
+			while (edge.readRecord(record) != null) {
+				counter++;
+			}
+			writer.get();
+			long elapsedTime = System.nanoTime() - start;
+			if (counter != numRecords) {
+				throw new IllegalStateException(edge.getClass().getSimpleName() + " transferred " + counter + " of " + numRecords + " records");
+			}
+			return elapsedTime;
+		} finally {
+			executorService.shutdownNow();
+			edge.free();
+		}
+	}
+
+}
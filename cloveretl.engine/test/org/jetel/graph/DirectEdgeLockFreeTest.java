@@ -0,0 +1,169 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.IntegerDataField;
+import org.jetel.exception.ComponentNotReadyException;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+import org.jetel.util.bytes.CloverBuffer;
+
+/**
+ * Tests of {@link DirectEdgeLockFree}. The same transfer is checked also for {@link DirectEdge}
+ * and {@link DirectEdgeFastPropagate}, which the edge replaces.
+ * Throughput of the edge types is compared by {@link DirectEdgeBenchmark}.
+ *
+ * @created 17. 10. 2026
+ */
+public class DirectEdgeLockFreeTest extends CloverTestCase {
+
+	private static final int NUM_RECORDS = 1000000;
+
+	private static final long MAX_WAITING_TIME = 100 * 1000000l; //100 milliseconds
+
+	private static DataRecordMetadata metadata;
+
+	public void testOrderAndEOF() throws Exception {
+		final EdgeBase edge = new DirectEdgeLockFree(null);
+		edge.init();
+		assertFalse(edge.hasData());
+		assertFalse(edge.isEOF());
+
+		assertEquals(NUM_RECORDS, transfer(edge));
+
+		assertTrue(edge.isEOF());
+		assertFalse(edge.hasData());
+		assertEquals(NUM_RECORDS, edge.getInputRecordCounter());
+		assertEquals(NUM_RECORDS, edge.getOutputRecordCounter());
+		assertEquals(0, edge.getBufferedRecords());
+	}
+
+	public void testDirectReadWrite() throws Exception {
+		final EdgeBase edge = new DirectEdgeLockFree(null);
+		edge.init();
+
+		DataRecord record = DataRecordFactory.newRecord(getMetadata());
+		CloverBuffer buffer = CloverBuffer.allocate(100);
+		for (int i = 0; i < 3; i++) {
+			record.getField(0).setValue(i);
+			buffer.clear();
+			record.serialize(buffer);
+			buffer.flip();
+			edge.writeRecordDirect(buffer);
+		}
+		edge.eof();
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(edge.readRecordDirect(buffer));
+			record.deserialize(buffer);
+			assertEquals(Integer.valueOf(i), ((IntegerDataField) record.getField(0)).getValue());
+		}
+		assertFalse(edge.readRecordDirect(buffer));
+		assertTrue(edge.isEOF());
+	}
+
+	public void testSingleRecordLatency() throws Exception {
+		final EdgeBase edge = new DirectEdgeLockFree(null);
+		edge.init();
+
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			Future<Long> reader = executorService.submit(new Callable<Long>() {
+				@Override
+				public Long call() throws Exception {
+					DataRecord record = DataRecordFactory.newRecord(getMetadata());
+					edge.readRecord(record);
+					return System.nanoTime();
+				}
+			});
+			Thread.sleep(500); // let the reader park
+			DataRecord record = DataRecordFactory.newRecord(getMetadata());
+			record.getField(0).setValue(1);
+			long start = System.nanoTime();
+			edge.writeRecord(record);
+			long elapsedTime = reader.get() - start;
+			assertTrue("reader thread was not woken up in time " + elapsedTime, elapsedTime < MAX_WAITING_TIME);
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	public void testEdgeTypes() throws Exception {
+		EdgeBase[] edges = new EdgeBase[] { new DirectEdge(null), new DirectEdgeFastPropagate(null), new DirectEdgeLockFree(null) };
+		for (EdgeBase edge : edges) {
+			edge.init();
+			assertEquals(edge.getClass().getSimpleName(), NUM_RECORDS, transfer(edge));
+			assertTrue(edge.isEOF());
+			assertEquals(NUM_RECORDS, edge.getInputRecordCounter());
+			assertEquals(NUM_RECORDS, edge.getOutputRecordCounter());
+		}
+	}
+
+	/**
+	 * Sends {@link #NUM_RECORDS} records through the given edge from a separate thread
+	 * and checks their order on the reading side.
+	 * @return number of received records
+	 */
+	private static int transfer(final EdgeBase edge) throws Exception {
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			Future<Void> writer = executorService.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					DataRecord record = DataRecordFactory.newRecord(getMetadata());
+					for (int i = 0; i < NUM_RECORDS; i++) {
+						record.getField(0).setValue(i);
+						edge.writeRecord(record);
+					}
+					edge.eof();
+					return null;
+				}
+			});
+
+			DataRecord record = DataRecordFactory.newRecord(getMetadata());
+			int counter = 0;
+			while (edge.readRecord(record) != null) {
+				assertEquals("invalid record order", Integer.valueOf(counter), ((IntegerDataField) record.getField(0)).getValue());
+				counter++;
+			}
+			writer.get();
+			return counter;
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	private synchronized static DataRecordMetadata getMetadata() throws ComponentNotReadyException {
+		if (metadata == null) {
+			metadata = new DataRecordMetadata("simpleMetadata");
+			metadata.addField(new DataFieldMetadata("field1", DataFieldType.INTEGER, null));
+		}
+		return metadata;
+	}
+
+}
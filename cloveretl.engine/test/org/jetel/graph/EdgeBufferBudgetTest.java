@@ -0,0 +1,81 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph;
+
+import org.jetel.graph.runtime.MemoryManager;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class EdgeBufferBudgetTest extends CloverTestCase {
+
+	public void testReserveAndRelease() {
+		EdgeBufferBudget budget = new EdgeBufferBudget(1000);
+		assertTrue(budget.reserve(0, 600));
+		assertFalse(budget.reserve(0, 500));
+		assertEquals(600, budget.getUsed());
+		assertTrue(budget.reserve(0, 400));
+		assertFalse(budget.reserve(400, 401));
+
+		budget.release(600);
+		budget.release(400);
+		assertEquals(0, budget.getUsed());
+	}
+
+	public void testReleasedMemoryIsReusable() {
+		EdgeBufferBudget budget = new EdgeBufferBudget(1000);
+		//a shrunk edge makes room for others
+		assertTrue(budget.reserve(0, -500));
+		assertEquals(-500, budget.getUsed());
+		assertTrue(budget.reserve(0, 1500));
+		assertFalse(budget.reserve(1500, 1501));
+
+		//the shrunk edge is released while the other one still uses its memory
+		budget.release(-500);
+		assertEquals(1500, budget.getUsed());
+		budget.release(1500);
+		assertEquals(0, budget.getUsed());
+	}
+
+	public void testMemoryManager() {
+		MemoryManager memoryManager = new MemoryManager("test", 1000, null);
+		EdgeBufferBudget budget = new EdgeBufferBudget(2000, memoryManager);
+
+		//memory released by shrunk buffers has never been reserved from the manager
+		assertTrue(budget.reserve(0, -500));
+		assertEquals(0, memoryManager.getReservedMemory());
+		assertTrue(budget.reserve(0, 800));
+		assertEquals(800, memoryManager.getReservedMemory());
+
+		//the manager limits the growth even if the budget has enough memory
+		assertFalse(budget.reserve(800, 1100));
+		assertEquals(300, budget.getUsed());
+		assertTrue(budget.reserve(-500, 200));
+		assertEquals(1000, memoryManager.getReservedMemory());
+
+		assertTrue(budget.reserve(200, -100));
+		assertEquals(800, memoryManager.getReservedMemory());
+		budget.release(-100);
+		budget.release(800);
+		assertEquals(0, budget.getUsed());
+		assertEquals(0, memoryManager.getReservedMemory());
+	}
+
+}
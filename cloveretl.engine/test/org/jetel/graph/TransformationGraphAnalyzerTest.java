@@ -142,6 +142,90 @@ public class TransformationGraphAnalyzerTest extends CloverTestCase {
 		checkSortedNodes(sortedNodes, "DATA_GENERATOR2", "SIMPLE_COPY4", "SIMPLE_COPY5", "SIMPLE_GATHER1", "TRASH2");
 	}
 
+	public void testExpandParallelNodes_01() throws Exception {
+		TransformationGraph graph = loadGraph("data/graph/ParallelExpansion_01.grf", new GraphRuntimeContext());
+		TransformationGraphAnalyzer.expandParallelNodes(graph);
+		Phase phase = graph.getPhase(0);
+		assertNull(phase.getNodes().get("REFORMAT"));
+
+		//records are routed by the parallelism key
+		Node router = phase.getNodes().get("REFORMAT_PARTITION");
+		assertEquals("PARTITION", router.getType());
+		assertEquals("joinKey", router.getAttributes().getProperty("partitionKey"));
+		assertEquals("Edge0", router.getInputPort(0).getEdge().getId());
+		assertEquals(3, router.getOutPorts().size());
+
+		//outputs without merge key are gathered in order of arrival
+		Node gather0 = phase.getNodes().get("REFORMAT_GATHER0");
+		Node gather1 = phase.getNodes().get("REFORMAT_GATHER1");
+		assertEquals("SIMPLE_GATHER", gather0.getType());
+		assertEquals("SIMPLE_GATHER", gather1.getType());
+		assertEquals("Edge1", gather0.getOutputPort(0).getEdge().getId());
+		assertEquals("Edge2", gather1.getOutputPort(0).getEdge().getId());
+		assertSame(phase.getNodes().get("TRASH"), gather0.getOutputPort(0).getEdge().getReader());
+		assertSame(phase.getNodes().get("TRASH1"), gather1.getOutputPort(0).getEdge().getReader());
+
+		for (int i = 0; i < 3; i++) {
+			Node clone = phase.getNodes().get("REFORMAT_" + i);
+			assertEquals("REFORMAT", clone.getType());
+			assertSame(clone, router.getOutputPort(i).getEdge().getReader());
+			assertSame(clone, gather0.getInputPort(i).getEdge().getWriter());
+			assertSame(clone, gather1.getInputPort(i).getEdge().getWriter());
+			assertEquals(2, clone.getOutPorts().size());
+			//inlined transformation is kept, parallelism is not
+			assertTrue(clone.getAttributes().getProperty("transform").contains("$out.1.* = $in.0.*;"));
+			assertNull(clone.getAttributes().getProperty(Node.XML_PARALLELISM_ATTRIBUTE));
+			assertNull(clone.getAttributes().getProperty(Node.XML_PARALLELISM_KEY_ATTRIBUTE));
+		}
+		assertNull(phase.getNodes().get("REFORMAT_3"));
+	}
+
+	public void testExpandParallelNodes_02() throws Exception {
+		TransformationGraph graph = loadGraph("data/graph/ParallelExpansion_02.grf", new GraphRuntimeContext());
+		TransformationGraphAnalyzer.expandParallelNodes(graph);
+		Phase phase = graph.getPhase(0);
+
+		//records are routed round robin without the parallelism key
+		Node router = phase.getNodes().get("REFORMAT_PARTITION");
+		assertNull(router.getAttributes().getProperty("partitionKey"));
+		assertEquals(2, router.getOutPorts().size());
+
+		//outputs with merge key are merged
+		for (int i = 0; i < 2; i++) {
+			Node gather = phase.getNodes().get("REFORMAT_GATHER" + i);
+			assertEquals("MERGE", gather.getType());
+			assertEquals("joinKey", gather.getAttributes().getProperty("mergeKey"));
+			assertEquals(2, gather.getInPorts().size());
+		}
+	}
+
+	public void testExpandParallelNodes_invalidParallelism() throws Exception {
+		for (String parallelism : new String[] {"0", "-1", "abc"}) {
+			GraphRuntimeContext runtimeContext = new GraphRuntimeContext();
+			runtimeContext.addAdditionalProperty("PARALLELISM", parallelism);
+			TransformationGraph graph = loadGraph("data/graph/ParallelExpansion_01.grf", runtimeContext);
+			try {
+				TransformationGraphAnalyzer.expandParallelNodes(graph);
+				fail("Parallelism '" + parallelism + "' should be refused.");
+			} catch (GraphConfigurationException e) {
+				//expected
+			}
+		}
+
+		//parallelism 1 keeps the component as it is
+		GraphRuntimeContext runtimeContext = new GraphRuntimeContext();
+		runtimeContext.addAdditionalProperty("PARALLELISM", "1");
+		TransformationGraph graph = loadGraph("data/graph/ParallelExpansion_01.grf", runtimeContext);
+		TransformationGraphAnalyzer.expandParallelNodes(graph);
+		assertNotNull(graph.getPhase(0).getNodes().get("REFORMAT"));
+		assertNull(graph.getPhase(0).getNodes().get("REFORMAT_PARTITION"));
+	}
+
+	private TransformationGraph loadGraph(String fileName, GraphRuntimeContext runtimeContext) throws FileNotFoundException, XMLConfigurationException, GraphConfigurationException, MalformedURLException {
+		runtimeContext.setContextURL(new File("data").toURI().toURL());
+		return TransformationGraphXMLReaderWriter.loadGraph(new FileInputStream(fileName), runtimeContext);
+	}
+
 	private void checkSortedNodes(List<Node> sortedNodes, String... expectedNodeIds) {
 		List<String> nodeIds = expectedNodeIds != null ? Arrays.asList(expectedNodeIds) : new ArrayList<String>();
 		int i = 0;
@@ -0,0 +1,132 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph.runtime;
+
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class MemoryManagerTest extends CloverTestCase {
+
+	private static class TestConsumer implements MemoryConsumer {
+
+		private final MemoryManager manager;
+		private long reserved;
+		private int spillRequests;
+
+		public TestConsumer(MemoryManager manager) {
+			this.manager = manager;
+			manager.register(this);
+		}
+
+		public boolean reserve(long bytes) {
+			if (manager.reserve(bytes, this)) {
+				reserved += bytes;
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public long getReservedMemory() {
+			return reserved;
+		}
+
+		@Override
+		public void spill() {
+			spillRequests++;
+			manager.release(reserved);
+			reserved = 0;
+		}
+	}
+
+	public void testParentLimit() {
+		MemoryManager jvm = new MemoryManager("jvm", 1000, null);
+		MemoryManager graph1 = new MemoryManager("graph1", 800, jvm);
+		MemoryManager graph2 = new MemoryManager("graph2", 0, jvm);
+
+		assertTrue(graph1.reserve(700, null));
+		assertFalse(graph1.reserve(200, null));
+		assertFalse(graph2.reserve(400, null));
+		assertTrue(graph2.reserve(300, null));
+		assertEquals(1000, jvm.getReservedMemory());
+		assertEquals(300, graph2.getReservedMemory());
+
+		graph1.release(700);
+		assertEquals(0, graph1.getReservedMemory());
+		assertEquals(300, jvm.getReservedMemory());
+	}
+
+	public void testSpill() {
+		MemoryManager jvm = new MemoryManager("jvm", 1000, null);
+		MemoryManager graph1 = new MemoryManager("graph1", 0, jvm);
+		MemoryManager graph2 = new MemoryManager("graph2", 0, jvm);
+		TestConsumer small = new TestConsumer(graph1);
+		TestConsumer big = new TestConsumer(graph1);
+		TestConsumer requester = new TestConsumer(graph2);
+
+		assertTrue(small.reserve(100));
+		assertTrue(big.reserve(600));
+		assertTrue(requester.reserve(200));
+		//only the biggest consumer of the other graph is asked to spill
+		assertFalse(requester.reserve(200));
+		assertEquals(0, requester.spillRequests);
+		assertEquals(0, small.spillRequests);
+		assertEquals(1, big.spillRequests);
+		assertTrue(requester.reserve(200));
+		assertEquals(500, jvm.getReservedMemory());
+	}
+
+	public void testClose() {
+		MemoryManager jvm = new MemoryManager("jvm", 1000, null);
+		MemoryManager graph = new MemoryManager("graph", 0, jvm);
+		assertTrue(graph.reserve(600, null));
+		graph.close();
+		assertEquals(0, jvm.getReservedMemory());
+		//memory released after close is not returned twice
+		graph.release(600);
+		assertEquals(0, jvm.getReservedMemory());
+	}
+
+	public void testReservation() {
+		final long chunk = 1024 * 1024;
+		MemoryManager graph = new MemoryManager("graph", 3 * chunk, null);
+		MemoryReservation reservation = new MemoryReservation(graph);
+
+		//memory is reserved in chunks
+		assertTrue(reservation.add(100));
+		assertEquals(chunk, graph.getReservedMemory());
+		assertTrue(reservation.add(2 * chunk));
+		assertEquals(2 * chunk + 100, graph.getReservedMemory());
+		assertFalse(reservation.add(chunk));
+		reservation.release();
+		assertEquals(0, graph.getReservedMemory());
+
+		//spill request is reported by the next reservation
+		assertTrue(reservation.add(100));
+		graph.spill();
+		assertFalse(reservation.add(100));
+		assertTrue(reservation.add(100));
+
+		reservation.close();
+		assertEquals(0, graph.getReservedMemory());
+	}
+
+}
@@ -0,0 +1,303 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph.runtime;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class PooledThreadManagerTest extends CloverTestCase {
+
+	public void testNodeThreadsAccounting() throws InterruptedException {
+		PooledThreadManager threadManager = new PooledThreadManager(4, 1000);
+		try {
+			assertEquals(4, threadManager.getFreeThreadsCount());
+
+			final CountDownLatch finish = new CountDownLatch(1);
+			Runnable node = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						finish.await();
+					} catch (InterruptedException e) {
+						// finish
+					}
+				}
+			};
+			threadManager.executeNode(node);
+			threadManager.executeNode(node);
+			threadManager.executeNode(node);
+			assertEquals(1, threadManager.getFreeThreadsCount());
+
+			finish.countDown();
+			threadManager.releaseNodeThreads(3);
+			assertEquals(4, threadManager.getFreeThreadsCount());
+		} finally {
+			threadManager.freeNow();
+		}
+	}
+
+	public void testThreadsAreReused() throws InterruptedException {
+		PooledThreadManager threadManager = new PooledThreadManager(4, 10000);
+		try {
+			final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+			for (int i = 0; i < 20; i++) {
+				final CountDownLatch done = new CountDownLatch(1);
+				threadManager.executeNode(new Runnable() {
+					@Override
+					public void run() {
+						threads.add(Thread.currentThread());
+						done.countDown();
+					}
+				});
+				assertTrue(done.await(10, TimeUnit.SECONDS));
+				threadManager.releaseNodeThreads(1);
+				// give the worker a chance to return to the pool
+				Thread.sleep(10);
+			}
+			assertTrue("threads are not reused: " + threads.size(), threads.size() < 20);
+		} finally {
+			threadManager.freeNow();
+		}
+	}
+
+	public void testGraphWaitsForThreads() throws InterruptedException {
+		PooledThreadManager threadManager = new PooledThreadManager(2, 1000);
+		try {
+			final CountDownLatch release = new CountDownLatch(1);
+			Runnable blockingNode = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						// finish
+					}
+				}
+			};
+			CountDownLatch graph1Finished = new CountDownLatch(1);
+			CountDownLatch graph2Finished = new CountDownLatch(1);
+			threadManager.executeGraph(graph(threadManager, graph1Finished, blockingNode, blockingNode));
+			waitForUsedThreads(threadManager, 2);
+			threadManager.executeGraph(graph(threadManager, graph2Finished, IDLE_NODE));
+			assertFalse("limit exceeded", graph2Finished.await(200, TimeUnit.MILLISECONDS));
+
+			release.countDown();
+			assertTrue(graph1Finished.await(10, TimeUnit.SECONDS));
+			assertTrue(graph2Finished.await(10, TimeUnit.SECONDS));
+		} finally {
+			threadManager.freeNow();
+		}
+	}
+
+	public void testNestedGraph() throws InterruptedException {
+		final PooledThreadManager threadManager = new PooledThreadManager(2, 1000);
+		try {
+			final CountDownLatch childFinished = new CountDownLatch(1);
+			final Runnable childGraph = graph(threadManager, childFinished, IDLE_NODE, IDLE_NODE);
+			Runnable runGraphNode = new Runnable() {
+				@Override
+				public void run() {
+					// like RunGraph, the component waits for the graph it has started
+					threadManager.executeGraph(childGraph);
+					try {
+						childFinished.await();
+					} catch (InterruptedException e) {
+						// finish
+					}
+				}
+			};
+			CountDownLatch parentFinished = new CountDownLatch(1);
+			threadManager.executeGraph(graph(threadManager, parentFinished, runGraphNode, IDLE_NODE));
+			assertTrue("nested graph waits for threads of its parent", parentFinished.await(10, TimeUnit.SECONDS));
+			assertTrue(childFinished.await(10, TimeUnit.SECONDS));
+			waitForUsedThreads(threadManager, 0);
+		} finally {
+			threadManager.freeNow();
+		}
+	}
+
+	public void testThreadsOfFinishedGraphAreReleased() throws InterruptedException {
+		final PooledThreadManager threadManager = new PooledThreadManager(2, 1000);
+		try {
+			threadManager.executeGraph(new Runnable() {
+				@Override
+				public void run() {
+					// the graph fails without releasing its threads
+					threadManager.executeNode(IDLE_NODE);
+				}
+			});
+			waitForUsedThreads(threadManager, 0);
+			assertEquals(2, threadManager.getFreeThreadsCount());
+		} finally {
+			threadManager.freeNow();
+		}
+	}
+
+	public void testAcquiredThreadsAreNotCountedTwice() throws InterruptedException {
+		final PooledThreadManager threadManager = new PooledThreadManager(4, 1000);
+		try {
+			final CountDownLatch started = new CountDownLatch(1);
+			final CountDownLatch finish = new CountDownLatch(1);
+			threadManager.executeGraph(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						threadManager.acquireNodeThreads(3);
+						threadManager.executeNode(IDLE_NODE);
+						threadManager.executeNode(IDLE_NODE);
+						threadManager.executeNode(IDLE_NODE);
+						started.countDown();
+						finish.await();
+					} catch (InterruptedException e) {
+						// finish
+					}
+					threadManager.releaseNodeThreads(3);
+				}
+			});
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			assertEquals(3, threadManager.getUsedNodeThreads());
+			finish.countDown();
+			waitForUsedThreads(threadManager, 0);
+		} finally {
+			threadManager.freeNow();
+		}
+	}
+
+	public void testGraphStartsWhileOtherGraphRuns() throws InterruptedException {
+		final PooledThreadManager threadManager = new PooledThreadManager(2, 1000);
+		try {
+			final CountDownLatch release = new CountDownLatch(1);
+			Runnable blockingNode = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						// finish
+					}
+				}
+			};
+			CountDownLatch graphFinished = new CountDownLatch(1);
+			threadManager.executeGraph(graph(threadManager, graphFinished, blockingNode));
+			waitForUsedThreads(threadManager, 1);
+			// another graph is started while the components of the first one are running
+			CountDownLatch otherGraphFinished = new CountDownLatch(1);
+			threadManager.executeGraph(graph(threadManager, otherGraphFinished, IDLE_NODE));
+			assertTrue(otherGraphFinished.await(10, TimeUnit.SECONDS));
+			release.countDown();
+			assertTrue(graphFinished.await(10, TimeUnit.SECONDS));
+		} finally {
+			threadManager.freeNow();
+		}
+	}
+
+	public void testNodeThreadIsReset() throws InterruptedException {
+		PooledThreadManager threadManager = new PooledThreadManager(1, 10000);
+		try {
+			final ClassLoader componentClassLoader = new ClassLoader() {
+			};
+			final CountDownLatch firstDone = new CountDownLatch(1);
+			threadManager.executeNode(new Runnable() {
+				@Override
+				public void run() {
+					Thread.currentThread().setContextClassLoader(componentClassLoader);
+					Thread.currentThread().interrupt();
+					firstDone.countDown();
+				}
+			});
+			assertTrue(firstDone.await(10, TimeUnit.SECONDS));
+			threadManager.releaseNodeThreads(1);
+			// give the worker a chance to return to the pool
+			Thread.sleep(10);
+
+			final boolean[] interrupted = new boolean[1];
+			final ClassLoader[] contextClassLoader = new ClassLoader[1];
+			final CountDownLatch secondDone = new CountDownLatch(1);
+			threadManager.executeNode(new Runnable() {
+				@Override
+				public void run() {
+					interrupted[0] = Thread.currentThread().isInterrupted();
+					contextClassLoader[0] = Thread.currentThread().getContextClassLoader();
+					secondDone.countDown();
+				}
+			});
+			assertTrue(secondDone.await(10, TimeUnit.SECONDS));
+			assertFalse(interrupted[0]);
+			assertNotSame(componentClassLoader, contextClassLoader[0]);
+		} finally {
+			threadManager.freeNow();
+		}
+	}
+
+	private static final Runnable IDLE_NODE = new Runnable() {
+		@Override
+		public void run() {
+		}
+	};
+
+	/**
+	 * @return task which runs the given components the same way as WatchDog runs a phase
+	 */
+	private static Runnable graph(final PooledThreadManager threadManager, final CountDownLatch finished, final Runnable... nodes) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				final CountDownLatch nodesFinished = new CountDownLatch(nodes.length);
+				try {
+					threadManager.acquireNodeThreads(nodes.length);
+					for (final Runnable node : nodes) {
+						threadManager.executeNode(new Runnable() {
+							@Override
+							public void run() {
+								try {
+									node.run();
+								} finally {
+									nodesFinished.countDown();
+								}
+							}
+						});
+					}
+					nodesFinished.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				synchronized (threadManager) {
+					threadManager.releaseNodeThreads(nodes.length);
+				}
+				finished.countDown();
+			}
+		};
+	}
+
+	private static void waitForUsedThreads(PooledThreadManager threadManager, int expected) throws InterruptedException {
+		for (int i = 0; i < 1000 && threadManager.getUsedNodeThreads() != expected; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(expected, threadManager.getUsedNodeThreads());
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.graph.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class SharedTaskExecutorTest extends CloverTestCase {
+
+	public void testBoundedThreads() throws Exception {
+		ExecutorService executor = SharedTaskExecutor.getInstance();
+		assertSame(executor, SharedTaskExecutor.getInstance());
+
+		final int maxThreads = SharedTaskExecutor.getMaxThreads();
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		// more tasks than threads, the rest is queued
+		for (int i = 0; i < maxThreads * 4; i++) {
+			final int result = i;
+			futures.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					int current = running.incrementAndGet();
+					synchronized (maxRunning) {
+						maxRunning.set(Math.max(maxRunning.get(), current));
+					}
+					Thread.sleep(10);
+					running.decrementAndGet();
+					return result;
+				}
+			}));
+		}
+		for (int i = 0; i < futures.size(); i++) {
+			assertEquals(i, futures.get(i).get(10, TimeUnit.SECONDS).intValue());
+		}
+		assertTrue(maxRunning.get() >= 1);
+		assertTrue("Too many threads: " + maxRunning.get(), maxRunning.get() <= maxThreads);
+	}
+
+}
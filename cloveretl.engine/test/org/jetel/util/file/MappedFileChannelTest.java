@@ -0,0 +1,170 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.util.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.parser.DataParser;
+import org.jetel.data.parser.TextParserConfiguration;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class MappedFileChannelTest extends CloverTestCase {
+
+	private File file;
+	private byte[] content;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append(i).append(";žluťoučký kůň ").append(i).append('\n');
+		}
+		content = sb.toString().getBytes("UTF-8");
+		file = File.createTempFile("mapped", ".txt");
+		OutputStream os = new FileOutputStream(file);
+		try {
+			os.write(content);
+		} finally {
+			os.close();
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+		super.tearDown();
+	}
+
+	private MappedFileChannel open(int windowSize) throws Exception {
+		return new MappedFileChannel(new FileInputStream(file).getChannel(), windowSize);
+	}
+
+	public void testRead() throws Exception {
+		MappedFileChannel channel = open(1000);
+		assertEquals(content.length, channel.size());
+		ByteBuffer dst = ByteBuffer.allocate(content.length + 10);
+		ByteBuffer small = ByteBuffer.allocate(333);
+		int count;
+		while ((count = channel.read(small)) != -1) {
+			assertTrue(count > 0);
+			small.flip();
+			dst.put(small);
+			small.clear();
+		}
+		assertEquals(content.length, dst.position());
+		assertEquals(ByteBuffer.wrap(content), (ByteBuffer) dst.flip());
+		assertEquals(content.length, channel.position());
+
+		channel.close();
+		assertFalse(channel.isOpen());
+		try {
+			channel.read(small);
+			fail();
+		} catch (ClosedChannelException e) {
+			// expected
+		}
+	}
+
+	public void testGetBuffer() throws Exception {
+		MappedFileChannel channel = open(100);
+		ByteBuffer buffer = channel.getBuffer(1);
+		assertEquals(100, buffer.remaining());
+		buffer.position(95);
+		assertEquals(95, channel.position());
+
+		// window is remapped at the current position
+		buffer = channel.getBuffer(10);
+		assertEquals(100, buffer.remaining());
+		assertEquals(content[95], buffer.get());
+
+		// records longer than the window are mapped entirely
+		buffer = channel.getBuffer(250);
+		assertEquals(250, buffer.remaining());
+		assertEquals(content[96], buffer.get(buffer.position()));
+
+		channel.position(content.length - 5);
+		buffer = channel.getBuffer(10);
+		assertEquals(5, buffer.remaining());
+		channel.close();
+	}
+
+	public void testPosition() throws Exception {
+		MappedFileChannel channel = open(64);
+		channel.position(1000);
+		assertEquals(1000, channel.position());
+		ByteBuffer dst = ByteBuffer.allocate(10);
+		assertEquals(10, channel.read(dst));
+		for (int i = 0; i < 10; i++) {
+			assertEquals(content[1000 + i], dst.get(i));
+		}
+		channel.position(content.length);
+		assertEquals(-1, channel.read(dst));
+		channel.close();
+	}
+
+	/**
+	 * Multi-byte characters are split by window boundaries.
+	 */
+	public void testDataParser() throws Exception {
+		DataRecordMetadata metadata = new DataRecordMetadata("record", DataRecordMetadata.DELIMITED_RECORD);
+		metadata.setFieldDelimiter(";");
+		metadata.setRecordDelimiter("\n");
+		metadata.addField(new DataFieldMetadata("id", DataFieldType.INTEGER, null));
+		metadata.addField(new DataFieldMetadata("text", DataFieldType.STRING, null));
+
+		List<String> expected = parse(metadata, new ByteArrayInputStream(content));
+		assertEquals(1000, expected.size());
+		for (int windowSize : new int[] { 7, 100, 4096 }) {
+			assertEquals(expected, parse(metadata, open(windowSize)));
+		}
+	}
+
+	private static List<String> parse(DataRecordMetadata metadata, Object dataSource) throws Exception {
+		DataParser parser = new DataParser(new TextParserConfiguration(metadata, "UTF-8"));
+		parser.init();
+		parser.setDataSource(dataSource);
+		List<String> result = new ArrayList<String>();
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		while (parser.getNext(record) != null) {
+			result.add(record.toString());
+		}
+		parser.close();
+		return result;
+	}
+
+}
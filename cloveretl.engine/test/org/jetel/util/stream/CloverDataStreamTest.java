@@ -0,0 +1,89 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.util.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class CloverDataStreamTest extends CloverTestCase {
+
+	private static final int DATA_LENGTH = 3000000;
+
+	private byte[] data;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		Random random = new Random(1);
+		data = new byte[DATA_LENGTH];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) ('a' + random.nextInt(8));
+		}
+	}
+
+	private byte[] write(int compressionThreads) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CloverDataStream.Output output = new CloverDataStream.Output(bytes, CloverDataStream.Output.DEFAULT_BLOCK_SIZE,
+				new CloverDataStream.CompressorGZIP());
+		output.setCompress(true);
+		output.setCompressionThreads(compressionThreads);
+		Random random = new Random(2);
+		int offset = 0;
+		while (offset < data.length) {
+			int length = Math.min(1000 + random.nextInt(5000), data.length - offset);
+			output.markRecordStart();
+			output.write(data, offset, length);
+			offset += length;
+		}
+		output.close();
+		return bytes.toByteArray();
+	}
+
+	private byte[] read(byte[] file, int decompressionThreads) throws IOException {
+		CloverDataStream.Input input = new CloverDataStream.Input(new ByteArrayInputStream(file),
+				new CloverDataStream.DecompressorGZIP());
+		input.setDecompressionThreads(decompressionThreads);
+		byte[] result = new byte[DATA_LENGTH];
+		assertEquals(DATA_LENGTH, StreamUtils.readBlocking(input, result, 0, DATA_LENGTH));
+		assertEquals(-1, input.read());
+		input.close();
+		return result;
+	}
+
+	public void testParallelCompressionKeepsFormat() throws IOException {
+		byte[] serial = write(1);
+		byte[] parallel = write(4);
+		assertTrue(Arrays.equals(serial, parallel));
+	}
+
+	public void testReadAheadDecompression() throws IOException {
+		byte[] file = write(4);
+		assertTrue(Arrays.equals(data, read(file, 1)));
+		assertTrue(Arrays.equals(data, read(file, 3)));
+	}
+
+}
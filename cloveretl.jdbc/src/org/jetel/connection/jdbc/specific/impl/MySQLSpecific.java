@@ -164,4 +164,9 @@ public class MySQLSpecific extends AbstractJdbcSpecific {
 	public boolean isSchemaRequired() {
 		return true;
 	}
+
+	@Override
+	public String getKeysCondition(String[] columns, int keyCount) {
+		return getRowValueKeysCondition(columns, keyCount);
+	}
 }
@@ -140,4 +140,9 @@ public class PostgreSpecific extends AbstractJdbcSpecific {
 		// introduced by fix of issue #5711
 		return true;
 	}
+
+	@Override
+	public String getKeysCondition(String[] columns, int keyCount) {
+		return getRowValueKeysCondition(columns, keyCount);
+	}
 }
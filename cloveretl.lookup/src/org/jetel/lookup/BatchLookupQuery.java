@@ -0,0 +1,156 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.lookup;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jetel.database.sql.JdbcSpecific;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataRecordMetadata;
+
+/**
+ * Query looking up several keys at once. It is derived from a lookup query with simple WHERE clause
+ * <code>col1 = ? AND col2 = ?</code>, the clause is replaced by a condition matching any of the keys
+ * (see {@link JdbcSpecific#getKeysCondition(String[], int)}). Found rows are assigned back to the keys
+ * by values of the key columns, so the key columns have to be part of the result.
+ *
+ * @created 17. 10. 2026
+ */
+final class BatchLookupQuery {
+
+	private static final Pattern WHERE = Pattern.compile("\\bwhere\\b", Pattern.CASE_INSENSITIVE);
+
+	/** keywords terminating the WHERE clause */
+	private static final Pattern WHERE_END = Pattern.compile(
+			"\\b(?:group\\s+by|order\\s+by|having|union|intersect|except|minus|limit|offset|fetch|for\\s+update)\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern AND = Pattern.compile("\\s+and\\s+", Pattern.CASE_INSENSITIVE);
+
+	/** <code>column = ?</code>, the column can be qualified and quoted */
+	private static final Pattern CONDITION = Pattern.compile(
+			"\\s*((?:\"[^\"]*\"|`[^`]*`|\\[[^\\]]*\\]|[\\w$.])+)\\s*=\\s*\\?\\s*");
+
+	private final String prefix;
+	private final String suffix;
+	/** key columns as written in the query, in the order of parameters */
+	private final String[] columns;
+	/** indexes of the key columns in DB metadata, in the order of parameters */
+	private final int[] resultFields;
+
+	private BatchLookupQuery(String prefix, String suffix, String[] columns, int[] resultFields) {
+		this.prefix = prefix;
+		this.suffix = suffix;
+		this.columns = columns;
+		this.resultFields = resultFields;
+	}
+
+	/**
+	 * @param query lookup query with question marks
+	 * @param parameterCount number of parameters of the query
+	 * @param dbMetadata metadata of the query result
+	 * @return batch query or <code>null</code> if the query is too complex to be rewritten
+	 */
+	static BatchLookupQuery create(String query, int parameterCount, DataRecordMetadata dbMetadata) {
+		if (parameterCount == 0 || count(query, '?') != parameterCount) {
+			return null;
+		}
+		Matcher where = WHERE.matcher(query);
+		if (!where.find()) {
+			return null;
+		}
+		int whereStart = where.end();
+		if (where.find()) {
+			// subqueries are not supported
+			return null;
+		}
+		Matcher whereEnd = WHERE_END.matcher(query);
+		int whereEndIndex = whereEnd.find(whereStart) ? whereEnd.start() : query.length();
+
+		String[] conditions = AND.split(query.substring(whereStart, whereEndIndex));
+		if (conditions.length != parameterCount) {
+			return null;
+		}
+		String[] columns = new String[parameterCount];
+		int[] resultFields = new int[parameterCount];
+		for (int i = 0; i < parameterCount; i++) {
+			Matcher condition = CONDITION.matcher(conditions[i]);
+			if (!condition.matches()) {
+				return null;
+			}
+			columns[i] = condition.group(1);
+			resultFields[i] = getFieldPosition(dbMetadata, columns[i]);
+			if (resultFields[i] < 0) {
+				return null;
+			}
+		}
+		return new BatchLookupQuery(query.substring(0, whereStart), query.substring(whereEndIndex), columns, resultFields);
+	}
+
+	private static int count(String s, char c) {
+		int count = 0;
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) == c) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Finds field of the given column, the column qualifier and quotes are ignored.
+	 */
+	private static int getFieldPosition(DataRecordMetadata metadata, String column) {
+		String name = column.substring(column.lastIndexOf('.') + 1).replaceAll("[\"`\\[\\]]", "");
+		int position = metadata.getFieldPosition(name);
+		if (position < 0) {
+			for (DataFieldMetadata field : metadata.getFields()) {
+				if (field.getName().equalsIgnoreCase(name)) {
+					return field.getNumber();
+				}
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * @param jdbcSpecific specific of the database
+	 * @param keyCount number of looked up keys
+	 * @return query with <code>keyCount</code> times more parameters than the original query
+	 */
+	String getQuery(JdbcSpecific jdbcSpecific, int keyCount) {
+		return prefix + " (" + jdbcSpecific.getKeysCondition(columns, keyCount) + ") " + suffix;
+	}
+
+	/**
+	 * @return number of key columns
+	 */
+	int getColumnCount() {
+		return columns.length;
+	}
+
+	/**
+	 * @return indexes of the key columns in DB metadata, in the order of parameters
+	 */
+	int[] getResultFields() {
+		return resultFields;
+	}
+
+}
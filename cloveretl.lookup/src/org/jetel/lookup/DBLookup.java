@@ -18,13 +18,20 @@
  */
 package org.jetel.lookup;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.jetel.connection.jdbc.AbstractCopySQLData;
@@ -34,21 +41,24 @@ import org.jetel.data.DataRecord;
 import org.jetel.data.DataRecordFactory;
 import org.jetel.data.Defaults;
 import org.jetel.data.HashKey;
-import org.jetel.data.NullRecord;
 import org.jetel.data.RecordKey;
 import org.jetel.data.lookup.Lookup;
 import org.jetel.database.sql.CopySQLData;
 import org.jetel.database.sql.JdbcSpecific;
+import org.jetel.exception.BadDataFormatException;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.JetelRuntimeException;
+import org.jetel.graph.runtime.SharedTaskExecutor;
 import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
 import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.metadata.DataRecordParsingType;
-import org.jetel.util.primitive.SimpleCache;
 
 /**
  * DBLookup that performs data fetch at once in single connection-synchronized operation.
- * All fetched data is kept in memory.
+ * All fetched data is kept in memory.<br>
+ * Besides looking up the keys one by one, several keys can be fetched at once by {@link #fetch(List)}
+ * or in background by {@link #fetchAsync(List)}, see {@link DBLookupTable#setBatchSize(int)}.
  * 
  * @author jan.michalica (info@cloveretl.com)
  *         (c) Javlin, a.s. (www.cloveretl.com)
@@ -59,15 +69,25 @@ public final class DBLookup implements Lookup {
 
 	private static final Logger log = Logger.getLogger(DBLookup.class);
 	
-	private static final List<DataRecord> NEGATIVE_RESPONSE = Collections.singletonList(NullRecord.NULL_RECORD);
-	
 	private DBLookupTable lookupTable;
-	private SimpleCache<HashKey, DataRecord> recordCache;
+	private DBLookupCache recordCache;
 	private Iterator<DataRecord> currentIterator;
 	private int recordCount = -1;
 	private HashKey key;
 	private SQLCloverStatement statement;
 	private DataRecordMetadata dbMetadata;
+	/*
+	 * batched lookup, see fetch()
+	 */
+	private boolean batchQueryChecked;
+	private BatchLookupQuery batchQuery;
+	private PreparedStatement batchStatement;
+	private int batchKeyCount;
+	private CopySQLData[][] batchTransMap;
+	private int[] batchKeyFields;
+	private DataRecord batchKeyRecord;
+	private HashKey batchKey;
+	private HashKey fetchedKey;
 	/*
 	 * only for testing
 	 */
@@ -114,35 +134,49 @@ public final class DBLookup implements Lookup {
 		return key.getRecordKey();
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void seek() {
 		++allHits;
 		reset();
+		List<DataRecord> records = getCachedRecords(key);
+		if (records != null) {
+			++cacheHits;
+		} else {
+			synchronized (lookupTable.sqlConnection) {
+				records = fetchData();
+			}
+		}
+		recordCount = records.size();
+		currentIterator = records.iterator();
+	}
+	
+	/**
+	 * @return cached data records of the key or <code>null</code> if the key is not cached
+	 */
+	private List<DataRecord> getCachedRecords(HashKey key) {
 		if (isCached()) {
 			if (recordCache != null) {
-				List<DataRecord> records = recordCache.getAll(key);
-				if (records != null) {
-					if (NEGATIVE_RESPONSE.equals(records)) {
-						recordCount = 0;
-						currentIterator = Collections.<DataRecord>emptyList().iterator();
-					} else {
-						recordCount = records.size();
-						currentIterator = records.iterator();
-					}
-					++cacheHits;
-					return;
-				}
+				return recordCache.get(key);
 			} else {
-		        this.recordCache = new SimpleCache<HashKey, DataRecord>(1, lookupTable.maxCached);
+		        this.recordCache = lookupTable.createCache();
 			}
 		}
-		List<DataRecord> records;
-		synchronized (lookupTable.sqlConnection) {
-			records = fetchData();
+		return null;
+	}
+	
+	/**
+	 * Stores data records of the key into the cache, empty result is cached only if
+	 * the lookup table stores negative responses.
+	 * 
+	 * @param key key with its own copy of the key record
+	 */
+	private void cacheRecords(HashKey key, List<DataRecord> records) {
+		if (records.isEmpty() && !lookupTable.storeNulls) {
+			return;
+		}
+		if (!recordCache.put(key, records) && log.isDebugEnabled()) {
+			log.debug("Data records of key " + toString(key) + " have not been cached.");
 		}
-		recordCount = records.size();
-		currentIterator = records.iterator();
 	}
 
 	@Override
@@ -157,42 +191,249 @@ public final class DBLookup implements Lookup {
 		seek();
 	}
 	
+	/**
+	 * Moves this lookup to data records of the given key, which have been fetched by {@link #fetch(List)}
+	 * or {@link #fetchAsync(List)}.
+	 * 
+	 * @param keyRecord one of the key records passed to the fetch
+	 * @param fetched result of the fetch
+	 */
+	public void seek(DataRecord keyRecord, Map<HashKey, List<DataRecord>> fetched) {
+		reset();
+		if (fetchedKey == null) {
+			fetchedKey = new HashKey(key.getRecordKey(), keyRecord);
+		} else {
+			fetchedKey.setDataRecord(keyRecord);
+		}
+		List<DataRecord> records = fetched.get(fetchedKey);
+		if (records == null) {
+			throw new IllegalArgumentException("Key has not been fetched: " + toString(fetchedKey));
+		}
+		recordCount = records.size();
+		currentIterator = records.iterator();
+	}
+	
+	/**
+	 * Fetches data records of all the given keys in a single connection-synchronized operation.
+	 * Distinct keys which are not cached are looked up by a single query per
+	 * {@link DBLookupTable#getBatchSize()} keys if the lookup query has simple WHERE clause
+	 * (<code>col1 = ? AND col2 = ?</code>), the key columns are selected and all the key fields
+	 * are numeric or dates, otherwise one by one.<br>
+	 * Key records have to have metadata of the record this lookup was created with, they must not be changed
+	 * until the result is used. This method can be called from other thread than the thread iterating
+	 * the data records, but only one fetch can run at a time.
+	 * 
+	 * @param keyRecords key records
+	 * @return data records for each of the keys, see {@link #seek(DataRecord, Map)}
+	 */
+	public Map<HashKey, List<DataRecord>> fetch(List<DataRecord> keyRecords) {
+		RecordKey recordKey = key.getRecordKey();
+		Map<HashKey, List<DataRecord>> result = new HashMap<HashKey, List<DataRecord>>(keyRecords.size() * 2);
+		List<DataRecord> pending = new ArrayList<DataRecord>(keyRecords.size());
+		for (DataRecord keyRecord : keyRecords) {
+			allHits++;
+			HashKey hashKey = new HashKey(recordKey, keyRecord);
+			if (!result.containsKey(hashKey)) {
+				List<DataRecord> records = getCachedRecords(hashKey);
+				if (records != null) {
+					cacheHits++;
+					result.put(hashKey, records);
+				} else {
+					result.put(hashKey, new ArrayList<DataRecord>());
+					pending.add(keyRecord);
+				}
+			}
+		}
+		if (pending.isEmpty()) {
+			return result;
+		}
+		synchronized (lookupTable.sqlConnection) {
+			if (initBatchQuery()) {
+				for (int i = 0; i < pending.size(); i += batchKeyCount) {
+					fetchBatch(pending.subList(i, Math.min(i + batchKeyCount, pending.size())), result);
+				}
+				if (isCached()) {
+					for (DataRecord keyRecord : pending) {
+						HashKey hashKey = new HashKey(recordKey, keyRecord);
+						cacheRecords(new HashKey(recordKey, keyRecord.duplicate()), result.get(hashKey));
+					}
+				}
+			} else {
+				fetchOneByOne(pending, result);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Fetches data records of the given keys in background.
+	 * 
+	 * @see #fetch(List)
+	 */
+	public Future<Map<HashKey, List<DataRecord>>> fetchAsync(final List<DataRecord> keyRecords) {
+		// the query blocks the thread, so it is not run by the pool for CPU bound tasks
+		return SharedTaskExecutor.getIOInstance().submit(new Callable<Map<HashKey, List<DataRecord>>>() {
+			@Override
+			public Map<HashKey, List<DataRecord>> call() throws Exception {
+				return fetch(keyRecords);
+			}
+		});
+	}
+	
+	/**
+	 * Looks up the keys by the original query.
+	 */
+	private void fetchOneByOne(List<DataRecord> keyRecords, Map<HashKey, List<DataRecord>> result) {
+		DataRecord originalRecord = key.getDataRecord();
+		try {
+			for (DataRecord keyRecord : keyRecords) {
+				key.setDataRecord(keyRecord);
+				statement.setInRecord(keyRecord);
+				result.put(new HashKey(key.getRecordKey(), keyRecord), fetchData());
+			}
+		} catch (ComponentNotReadyException e) {
+			throw new JetelRuntimeException("Failed to update statement record.", e);
+		} finally {
+			key.setDataRecord(originalRecord);
+			try {
+				statement.setInRecord(originalRecord);
+			} catch (ComponentNotReadyException e) {
+				log.warn(e);
+			}
+		}
+	}
+	
+	/**
+	 * Prepares query looking up several keys at once.
+	 * 
+	 * @return <code>true</code> if the keys can be looked up by the batch query 
+	 */
+	private boolean initBatchQuery() {
+		if (batchQueryChecked) {
+			return batchQuery != null;
+		}
+		if (lookupTable.batchSize <= 1 || dbMetadata == null) {
+			// metadata are known after the first query if they are not defined
+			return false;
+		}
+		batchQueryChecked = true;
+		String[] inputFields = statement.getCloverInputFields();
+		if (inputFields == null || statement.getCloverOutputFields() != null || statement.getIncremental() != null) {
+			return false;
+		}
+		// the keys are assigned to found rows by the key fields only 
+		DataRecordMetadata keyMetadata = key.getDataRecord().getMetadata();
+		int[] keyFields = new int[inputFields.length];
+		for (int i = 0; i < inputFields.length; i++) {
+			keyFields[i] = keyMetadata.getFieldPosition(inputFields[i]);
+		}
+		int[] sortedKeyFields = keyFields.clone();
+		int[] sortedRecordKeyFields = key.getKeyFields().clone();
+		Arrays.sort(sortedKeyFields);
+		Arrays.sort(sortedRecordKeyFields);
+		if (!Arrays.equals(sortedKeyFields, sortedRecordKeyFields)) {
+			return false;
+		}
+		// database comparison of strings can differ from equality of key fields (collation, case, padding),
+		// so rows found by a string key could be assigned to no key
+		for (int keyField : keyFields) {
+			if (!isBatchKeyType(keyMetadata.getField(keyField).getDataType())) {
+				log.info("Keys of lookup table " + lookupTable.getId() + " are looked up one by one, only numeric and date keys can be used for batch lookup: " + statement);
+				return false;
+			}
+		}
+		batchQuery = BatchLookupQuery.create(statement.getQuery(), inputFields.length, dbMetadata);
+		if (batchQuery == null) {
+			log.info("Keys of lookup table " + lookupTable.getId() + " are looked up one by one, the query can't be used for batch lookup: " + statement);
+			return false;
+		}
+		JdbcSpecific jdbcSpecific = lookupTable.sqlConnection.getJdbcSpecific();
+		batchKeyCount = Math.max(1, Math.min(lookupTable.batchSize, jdbcSpecific.getMaxKeysCount(batchQuery.getColumnCount())));
+		try {
+			batchStatement = lookupTable.sqlConnection.prepareStatement(batchQuery.getQuery(jdbcSpecific, batchKeyCount));
+		} catch (SQLException e) {
+			throw new JetelRuntimeException("Failed to prepare batch lookup query.", e);
+		}
+		List<Integer> fieldTypes = SQLUtil.getFieldTypes(keyMetadata, inputFields, jdbcSpecific);
+		batchTransMap = new CopySQLData[batchKeyCount][inputFields.length];
+		for (int i = 0; i < batchKeyCount; i++) {
+			for (int j = 0; j < inputFields.length; j++) {
+				// parameters are ordered key by key
+				batchTransMap[i][j] = jdbcSpecific.createCopyObject(fieldTypes.get(j), keyMetadata.getField(keyFields[j]),
+						key.getDataRecord(), i * inputFields.length + j, keyFields[j]);
+			}
+		}
+		batchKeyFields = keyFields;
+		batchKeyRecord = DataRecordFactory.newRecord(keyMetadata);
+		batchKey = new HashKey(key.getRecordKey(), batchKeyRecord);
+		return true;
+	}
+	
+	/**
+	 * @return <code>true</code> if values of the type compare equally in database and in key fields
+	 */
+	private static boolean isBatchKeyType(DataFieldType type) {
+		return type.isNumeric() || type == DataFieldType.DATE || type == DataFieldType.DATETIME;
+	}
+	
+	/**
+	 * Looks up the keys by the batch query.
+	 */
+	private void fetchBatch(List<DataRecord> keyRecords, Map<HashKey, List<DataRecord>> result) {
+		ResultSet resultSet = null;
+		try {
+			for (int i = 0; i < batchKeyCount; i++) {
+				// unused parameters are filled by the last key
+				AbstractCopySQLData.resetDataRecord(batchTransMap[i], keyRecords.get(Math.min(i, keyRecords.size() - 1)));
+				for (CopySQLData copy : batchTransMap[i]) {
+					copy.jetel2sql(batchStatement);
+				}
+			}
+			JdbcSpecific jdbcSpecific = lookupTable.sqlConnection.getJdbcSpecific();
+			resultSet = jdbcSpecific.wrapResultSet(batchStatement.executeQuery());
+			DataRecord record = DataRecordFactory.newRecord(dbMetadata);
+			CopySQLData transMap[] = AbstractCopySQLData.sql2JetelTransMap(
+					SQLUtil.getFieldTypes(dbMetadata, jdbcSpecific), dbMetadata, record, jdbcSpecific);
+			int[] resultFields = batchQuery.getResultFields();
+			while (resultSet.next()) {
+				for (int i = 0; i < transMap.length; i++) {
+					transMap[i].sql2jetel(resultSet);
+				}
+				try {
+					for (int i = 0; i < resultFields.length; i++) {
+						batchKeyRecord.getField(batchKeyFields[i]).setValue(record.getField(resultFields[i]));
+					}
+				} catch (BadDataFormatException e) {
+					// value not convertible to the key field can't match any key
+					continue;
+				}
+				List<DataRecord> records = result.get(batchKey);
+				if (records != null) {
+					records.add(record.duplicate());
+				}
+			}
+		} catch (Exception e) {
+			throw new JetelRuntimeException(e);
+		} finally {
+			if (resultSet != null) {
+				try {
+					resultSet.close();
+				} catch (SQLException e) {
+					log.warn(e);
+				}
+			}
+		}
+	}
+	
+	
 	private List<DataRecord> fetchData() {
 		
 		ResultSet resultSet = null;
 		List<DataRecord> records = new LinkedList<DataRecord>();
 		try {
 			resultSet = statement.executeQuery();
-			if (dbMetadata == null) {
-				/*
-				 * TODO discover cases where metadata need to be defined from incoming result set
-				 * and move this logic in an appropriate unit
-				 */
-				if (statement.getCloverOutputFields() == null) {
-					dbMetadata = SQLUtil.dbMetadata2jetel(resultSet.getMetaData(), lookupTable.sqlConnection.getJdbcSpecific());
-				} else {
-					ResultSetMetaData dbMeta = resultSet.getMetaData();
-					JdbcSpecific jdbcSpecific = lookupTable.sqlConnection.getJdbcSpecific();
-					String[] fieldName = statement.getCloverOutputFields();
-					DataFieldMetadata fieldMetadata;
-					String tableName = dbMeta.getTableName(1);
-					dbMetadata = new DataRecordMetadata(DataRecordMetadata.EMPTY_NAME, DataRecordParsingType.DELIMITED);
-					dbMetadata.setLabel(tableName);
-					dbMetadata.setFieldDelimiter(Defaults.Component.KEY_FIELDS_DELIMITER);
-					dbMetadata.setRecordDelimiter("\n");
-					for (int i = 1; i <= dbMeta.getColumnCount(); i++) {
-						fieldMetadata = SQLUtil.dbMetadata2jetel(fieldName[i], dbMeta, i, jdbcSpecific);
-						dbMetadata.addField(fieldMetadata);
-					}
-					dbMetadata.normalize();
-				}
-			}
+			initMetadata(resultSet);
 			DataRecord record = DataRecordFactory.newRecord(dbMetadata);
-			HashKey key = null;
-			if (isCached()) {
-				key = new HashKey(this.key.getRecordKey(), this.key.getDataRecord().duplicate());
-			}
-			boolean recordsCached = true;
 			while (resultSet.next()) {
 				CopySQLData transMap[] = AbstractCopySQLData.sql2JetelTransMap(
 						SQLUtil.getFieldTypes(dbMetadata, lookupTable.sqlConnection.getJdbcSpecific()), 
@@ -201,21 +442,12 @@ public final class DBLookup implements Lookup {
 				for (int i = 0; i < transMap.length; i++) {
 					transMap[i].sql2jetel(resultSet);
 				}
-				DataRecord storedRecord = record.duplicate();
-				if (isCached()) {
-					recordsCached &= recordCache.put(key, storedRecord);
-				}
-				records.add(storedRecord);
+				records.add(record.duplicate());
 			}
-			if (isCached() && !recordsCached) {
-				log.warn("Too many data records for a single key: " + toString(key) +
-    				" Enlarge the cache size to accomodate more data records.");
-				recordCache.clear();
+			if (isCached()) {
+				cacheRecords(new HashKey(this.key.getRecordKey(), this.key.getDataRecord().duplicate()), records);
 			}
 			if (records.isEmpty()) {
-				if (isCached() && lookupTable.storeNulls) {
-					recordCache.put(key, NullRecord.NULL_RECORD);
-				}
 				return Collections.emptyList();
 			}
 			return records;
@@ -232,6 +464,33 @@ public final class DBLookup implements Lookup {
 		}
 	}
 	
+	private void initMetadata(ResultSet resultSet) throws SQLException {
+		if (dbMetadata == null) {
+			/*
+			 * TODO discover cases where metadata need to be defined from incoming result set
+			 * and move this logic in an appropriate unit
+			 */
+			if (statement.getCloverOutputFields() == null) {
+				dbMetadata = SQLUtil.dbMetadata2jetel(resultSet.getMetaData(), lookupTable.sqlConnection.getJdbcSpecific());
+			} else {
+				ResultSetMetaData dbMeta = resultSet.getMetaData();
+				JdbcSpecific jdbcSpecific = lookupTable.sqlConnection.getJdbcSpecific();
+				String[] fieldName = statement.getCloverOutputFields();
+				DataFieldMetadata fieldMetadata;
+				String tableName = dbMeta.getTableName(1);
+				dbMetadata = new DataRecordMetadata(DataRecordMetadata.EMPTY_NAME, DataRecordParsingType.DELIMITED);
+				dbMetadata.setLabel(tableName);
+				dbMetadata.setFieldDelimiter(Defaults.Component.KEY_FIELDS_DELIMITER);
+				dbMetadata.setRecordDelimiter("\n");
+				for (int i = 1; i <= dbMeta.getColumnCount(); i++) {
+					fieldMetadata = SQLUtil.dbMetadata2jetel(fieldName[i], dbMeta, i, jdbcSpecific);
+					dbMetadata.addField(fieldMetadata);
+				}
+				dbMetadata.normalize();
+			}
+		}
+	}
+	
 	private String toString(HashKey key) {
 		
 		StringBuilder sb = new StringBuilder();
@@ -264,12 +523,18 @@ public final class DBLookup implements Lookup {
 	}
 	
 	public void clear() {
-		if (isCached() && recordCache != null) {
+		if (recordCache != null) {
 			recordCache.clear();
 		}
 	}
 	
 	public void close() throws SQLException {
+		if (batchStatement != null) {
+			batchStatement.close();
+			batchStatement = null;
+		}
+		batchQueryChecked = false;
+		batchQuery = null;
 		statement.close();
 	}
 	
@@ -280,7 +545,7 @@ public final class DBLookup implements Lookup {
 	}
 	
 	private boolean isCached() {
-		return lookupTable.maxCached > 0;
+		return lookupTable.isCacheEnabled();
 	}
 	
 	int getTotalNumber() {
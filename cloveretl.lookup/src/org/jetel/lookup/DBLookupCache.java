@@ -0,0 +1,306 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.lookup;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.HashKey;
+
+/**
+ * Cache of data records found by {@link DBLookup}. Data records of a key are cached together,
+ * empty list of records is cached for keys without data (negative response).<br>
+ * The cache is limited by the number of cached keys (a key with negative response counts as well)
+ * and optionally by the approximate size of cached data records in bytes.
+ * The least recently used keys are evicted first. With {@link Policy#TINY_LFU} policy a new key is
+ * admitted into the full cache only if it is used more frequently than the key which would be evicted
+ * (the frequencies are estimated by a small count-min sketch), so a stream of unique keys doesn't flush
+ * the frequently used keys out of the cache.
+ *
+ * @created 17. 10. 2026
+ */
+public final class DBLookupCache {
+
+	public enum Policy {
+		/** least recently used key is evicted */
+		LRU,
+		/** least recently used key is evicted, but only for more frequent key */
+		TINY_LFU
+	}
+
+	/** approximate memory occupied by a cache entry besides the data records */
+	private static final int ENTRY_OVERHEAD = 96;
+
+	/** approximate memory occupied by a data record besides its serialized data */
+	private static final int RECORD_OVERHEAD = 48;
+
+	private final Map<HashKey, Entry> entries = new LinkedHashMap<HashKey, Entry>(16, 0.75f, true);
+
+	private final Policy policy;
+	private final int maxKeys;
+	private final long maxBytes;
+	private final long timeToLive;
+	private final DBLookupCacheStatistics statistics;
+
+	private FrequencySketch sketch;
+
+	private long byteCount;
+
+	/**
+	 * @param policy admission policy
+	 * @param maxKeys max number of cached keys, not limited if not positive
+	 * @param maxBytes max size of cached data records in bytes, not limited if not positive
+	 * @param timeToLive time to live of cached data records in milliseconds, not limited if not positive
+	 * @param statistics counters to be updated, can be <code>null</code>
+	 */
+	DBLookupCache(Policy policy, int maxKeys, long maxBytes, long timeToLive, DBLookupCacheStatistics statistics) {
+		this.policy = policy;
+		this.maxKeys = maxKeys > 0 ? maxKeys : Integer.MAX_VALUE;
+		this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+		this.timeToLive = timeToLive;
+		this.statistics = statistics != null ? statistics : new DBLookupCacheStatistics();
+		if (policy == Policy.TINY_LFU) {
+			long expectedKeys = maxKeys > 0 ? maxKeys : Math.max(1, maxBytes / 1024);
+			sketch = new FrequencySketch((int) Math.min(expectedKeys, 1 << 20));
+		}
+	}
+
+	/**
+	 * @return cached data records of the key, empty list for cached negative response
+	 * or <code>null</code> if the key is not cached
+	 */
+	List<DataRecord> get(HashKey key) {
+		if (sketch != null) {
+			sketch.increment(key);
+		}
+		Entry entry = entries.get(key);
+		if (entry != null && entry.isExpired()) {
+			remove(key, entry);
+			statistics.expired();
+			entry = null;
+		}
+		if (entry == null) {
+			statistics.miss();
+			return null;
+		}
+		statistics.hit(entry.records.isEmpty());
+		return entry.records;
+	}
+
+	/**
+	 * Stores data records of the key, the list must not be changed later.
+	 *
+	 * @param key key with its own copy of the key record
+	 * @param records data records of the key, empty list for negative response
+	 * @return <code>true</code> if the records have been cached
+	 */
+	boolean put(HashKey key, List<DataRecord> records) {
+		Entry entry = new Entry(records, getSize(records));
+		if (entry.size > maxBytes) {
+			// too large to be cached at all
+			return false;
+		}
+		Entry old = entries.remove(key);
+		if (old != null) {
+			release(old);
+		}
+		if (sketch != null && !admit(key, entry)) {
+			statistics.rejected();
+			return false;
+		}
+		evict(entry.size);
+		entries.put(key, entry);
+		byteCount += entry.size;
+		statistics.cached(entry.size);
+		return true;
+	}
+
+	/**
+	 * TinyLFU admission - the key is admitted if it is more frequent than all the keys
+	 * which have to be evicted to make room for it.
+	 */
+	private boolean admit(HashKey key, Entry entry) {
+		int frequency = sketch.frequency(key);
+		int freeKeys = maxKeys - entries.size();
+		long freeBytes = maxBytes - byteCount;
+		Iterator<Map.Entry<HashKey, Entry>> iterator = entries.entrySet().iterator();
+		while ((freeKeys < 1 || freeBytes < entry.size) && iterator.hasNext()) {
+			Map.Entry<HashKey, Entry> victim = iterator.next();
+			if (!victim.getValue().isExpired() && sketch.frequency(victim.getKey()) >= frequency) {
+				return false;
+			}
+			freeKeys++;
+			freeBytes += victim.getValue().size;
+		}
+		return true;
+	}
+
+	/**
+	 * Evicts the least recently used keys to make room for a new key with the given number of bytes.
+	 */
+	private void evict(long newBytes) {
+		Iterator<Entry> iterator = entries.values().iterator();
+		while ((entries.size() >= maxKeys || byteCount + newBytes > maxBytes) && iterator.hasNext()) {
+			Entry eldest = iterator.next();
+			iterator.remove();
+			release(eldest);
+			statistics.evicted();
+		}
+	}
+
+	private void remove(HashKey key, Entry entry) {
+		entries.remove(key);
+		release(entry);
+	}
+
+	private void release(Entry entry) {
+		byteCount -= entry.size;
+		statistics.released(entry.size);
+	}
+
+	void clear() {
+		statistics.released(byteCount);
+		entries.clear();
+		byteCount = 0;
+	}
+
+	/**
+	 * @return number of cached keys
+	 */
+	int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return approximate size of cached data in bytes
+	 */
+	long getSizeInBytes() {
+		return byteCount;
+	}
+
+	Policy getPolicy() {
+		return policy;
+	}
+
+	private static long getSize(List<DataRecord> records) {
+		long size = ENTRY_OVERHEAD;
+		for (DataRecord record : records) {
+			size += RECORD_OVERHEAD + record.getSizeSerialized();
+		}
+		return size;
+	}
+
+	private final class Entry {
+		private final List<DataRecord> records;
+		private final long size;
+		private final long expiration;
+
+		private Entry(List<DataRecord> records, long size) {
+			this.records = records;
+			this.size = size;
+			this.expiration = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : Long.MAX_VALUE;
+		}
+
+		private boolean isExpired() {
+			return expiration != Long.MAX_VALUE && System.currentTimeMillis() > expiration;
+		}
+	}
+
+	/**
+	 * Count-min sketch of 4-bit counters estimating frequency of keys. The counters are halved
+	 * periodically, so the estimation reflects recent usage of the keys.
+	 */
+	static final class FrequencySketch {
+
+		private static final int DEPTH = 4;
+		private static final int[] SEEDS = { 0x97cb3127, 0xb1ee3a41, 0x7ed55d16, 0x165667b1 };
+
+		/** 16 counters of 4 bits in each long */
+		private final long[] table;
+		private final int mask;
+		private final int sampleSize;
+		private int additions;
+
+		/**
+		 * @param expectedKeys expected number of cached keys, 16 counters (one long) are allocated for each key
+		 */
+		FrequencySketch(int expectedKeys) {
+			int length = Integer.highestOneBit(Math.max(4, expectedKeys) - 1) << 1;
+			table = new long[length];
+			mask = length * 16 - 1;
+			sampleSize = 10 * Math.max(4, expectedKeys);
+		}
+
+		void increment(HashKey key) {
+			int hash = spread(key.hashCode());
+			boolean added = false;
+			for (int i = 0; i < DEPTH; i++) {
+				added |= incrementAt(index(hash, i));
+			}
+			if (added && ++additions >= sampleSize) {
+				reset();
+			}
+		}
+
+		int frequency(HashKey key) {
+			int hash = spread(key.hashCode());
+			int frequency = Integer.MAX_VALUE;
+			for (int i = 0; i < DEPTH; i++) {
+				int index = index(hash, i);
+				frequency = Math.min(frequency, (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xfL));
+			}
+			return frequency;
+		}
+
+		private boolean incrementAt(int index) {
+			int shift = (index & 15) << 2;
+			long value = table[index >>> 4];
+			if (((value >>> shift) & 0xfL) == 0xfL) {
+				return false;
+			}
+			table[index >>> 4] = value + (1L << shift);
+			return true;
+		}
+
+		/**
+		 * Halves all the counters.
+		 */
+		private void reset() {
+			for (int i = 0; i < table.length; i++) {
+				table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+			}
+			additions /= 2;
+		}
+
+		private int index(int hash, int i) {
+			int h = (hash ^ SEEDS[i]) * 0x9e3779b9;
+			return (h ^ (h >>> 16)) & mask;
+		}
+
+		private static int spread(int hash) {
+			hash ^= hash >>> 17;
+			hash *= 0xed5ad4bb;
+			return hash ^ (hash >>> 11);
+		}
+	}
+
+}
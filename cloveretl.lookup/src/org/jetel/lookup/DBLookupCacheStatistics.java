@@ -0,0 +1,118 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.lookup;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache counters of a {@link DBLookupTable}, shared by caches of all its lookups.
+ *
+ * @created 17. 10. 2026
+ */
+public class DBLookupCacheStatistics implements DBLookupCacheStatisticsMBean {
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong negativeHits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+	private final AtomicLong rejections = new AtomicLong();
+	private final AtomicLong cachedBytes = new AtomicLong();
+
+	void hit(boolean negative) {
+		hits.incrementAndGet();
+		if (negative) {
+			negativeHits.incrementAndGet();
+		}
+	}
+
+	void miss() {
+		misses.incrementAndGet();
+	}
+
+	void evicted() {
+		evictions.incrementAndGet();
+	}
+
+	void expired() {
+		expirations.incrementAndGet();
+	}
+
+	void rejected() {
+		rejections.incrementAndGet();
+	}
+
+	void cached(long bytes) {
+		cachedBytes.addAndGet(bytes);
+	}
+
+	void released(long bytes) {
+		cachedBytes.addAndGet(-bytes);
+	}
+
+	@Override
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	@Override
+	public long getNegativeHitCount() {
+		return negativeHits.get();
+	}
+
+	@Override
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	@Override
+	public double getHitRatio() {
+		long hitCount = hits.get();
+		long total = hitCount + misses.get();
+		return total > 0 ? (double) hitCount / total : 0;
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	@Override
+	public long getExpirationCount() {
+		return expirations.get();
+	}
+
+	@Override
+	public long getRejectionCount() {
+		return rejections.get();
+	}
+
+	@Override
+	public long getCachedBytes() {
+		return cachedBytes.get();
+	}
+
+	@Override
+	public String toString() {
+		return "hits=" + getHitCount() + " (negative " + getNegativeHitCount() + "), misses=" + getMissCount()
+				+ ", evictions=" + getEvictionCount() + ", expirations=" + getExpirationCount()
+				+ ", rejections=" + getRejectionCount() + ", cached bytes=" + getCachedBytes();
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.lookup;
+
+/**
+ * JMX view of cache counters of a {@link DBLookupTable}.
+ *
+ * @created 17. 10. 2026
+ */
+public interface DBLookupCacheStatisticsMBean {
+
+	/**
+	 * @return number of keys found in the cache, including negative responses
+	 */
+	long getHitCount();
+
+	/**
+	 * @return number of keys found in the cache without data records
+	 */
+	long getNegativeHitCount();
+
+	/**
+	 * @return number of keys which had to be looked up in database
+	 */
+	long getMissCount();
+
+	/**
+	 * @return ratio of hits to all cache accesses
+	 */
+	double getHitRatio();
+
+	/**
+	 * @return number of keys evicted to make room for other keys
+	 */
+	long getEvictionCount();
+
+	/**
+	 * @return number of keys removed after their time to live elapsed
+	 */
+	long getExpirationCount();
+
+	/**
+	 * @return number of keys not admitted into the cache by the admission policy
+	 */
+	long getRejectionCount();
+
+	/**
+	 * @return approximate size of all cached data in bytes
+	 */
+	long getCachedBytes();
+
+}
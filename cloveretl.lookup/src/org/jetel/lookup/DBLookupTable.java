@@ -18,6 +18,7 @@
  */
 package org.jetel.lookup;
 
+import java.lang.management.ManagementFactory;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -28,6 +29,9 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.jetel.connection.jdbc.AbstractCopySQLData;
 import org.jetel.connection.jdbc.SQLCloverStatement;
 import org.jetel.connection.jdbc.SQLUtil;
@@ -52,6 +56,7 @@ import org.jetel.exception.NotInitializedException;
 import org.jetel.exception.XMLConfigurationException;
 import org.jetel.graph.GraphElement;
 import org.jetel.graph.TransformationGraph;
+import org.jetel.graph.runtime.WatchDog;
 import org.jetel.metadata.DataFieldMetadata;
 import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.metadata.DataRecordParsingType;
@@ -63,7 +68,10 @@ import org.w3c.dom.Element;
 /**
  *  Database table/SQLquery based lookup table which gets data by performing SQL
  *  query. Caching of found values can be provided - if the constructor with
- *  <code>numCached</code> parameter is used. 
+ *  <code>numCached</code> parameter is used or the cache size in bytes is set.
+ *  The cache evicts least recently used keys, optionally with TinyLFU admission
+ *  (see {@link DBLookupCache}). Cache counters are registered as JMX bean next
+ *  to the graph tracking bean if the graph provides JMX.
  * 
  * The XML DTD describing the internal structure is as follows:
  * 
@@ -75,6 +83,10 @@ import org.w3c.dom.Element;
  *              dbConnection CDATA #REQUIRED
  *              maxCached CDATA #IMPLIED&gt;
  *              storeNulls CDATA #IMPLIED&gt;
+ *              batchSize CDATA #IMPLIED&gt;
+ *              maxCachedSize CDATA #IMPLIED&gt;
+ *              cachePolicy (LRU | TINY_LFU) #IMPLIED&gt;
+ *              cacheTTL CDATA #IMPLIED&gt;
  * 
  *
  *@author     dpavlis
@@ -86,6 +98,10 @@ public class DBLookupTable extends GraphElement implements LookupTable {
     private static final String XML_SQL_QUERY = "sqlQuery";
     private static final String XML_LOOKUP_MAX_CACHE_SIZE = "maxCached";
     private static final String XML_STORE_NULL_RESPOND = "storeNulls";
+    private static final String XML_BATCH_SIZE = "batchSize";
+    private static final String XML_MAX_CACHED_SIZE = "maxCachedSize";
+    private static final String XML_CACHE_POLICY = "cachePolicy";
+    private static final String XML_CACHE_TTL = "cacheTTL";
     
     private final static String[] REQUESTED_ATTRIBUTE = {XML_ID_ATTRIBUTE, XML_TYPE_ATTRIBUTE, XML_DBCONNECTION,
     	XML_SQL_QUERY
@@ -104,6 +120,13 @@ public class DBLookupTable extends GraphElement implements LookupTable {
 	
 	protected int maxCached = 0;
 	protected boolean storeNulls = false;
+	protected int batchSize = 0;
+	protected long maxCachedSize = 0;
+	protected DBLookupCache.Policy cachePolicy = DBLookupCache.Policy.LRU;
+	protected long cacheTimeToLive = 0;
+	
+	private final DBLookupCacheStatistics cacheStatistics = new DBLookupCacheStatistics();
+	private ObjectName cacheStatisticsName;
 	
 	private List<DBLookup> activeLookups = Collections.synchronizedList(new ArrayList<DBLookup>());
 	
@@ -204,6 +227,39 @@ public class DBLookupTable extends GraphElement implements LookupTable {
 		} catch (JetelException e) {
 			throw new ComponentNotReadyException("Can't connect to database", e);
 		}
+		registerCacheStatistics();
+	}
+	
+	/**
+	 * Registers cache counters as JMX bean if the graph provides JMX.
+	 */
+	private void registerCacheStatistics() {
+		TransformationGraph graph = getGraph();
+		if (!isCacheEnabled() || cacheStatisticsName != null || graph == null || !graph.getRuntimeContext().useJMX()) {
+			return;
+		}
+		try {
+			String graphName = WatchDog.createMBeanName(graph.getId() != null ? graph.getId() : graph.getName(), graph.getRuntimeContext().getRunId());
+			ObjectName name = new ObjectName(graphName + ",lookupTable=" + ObjectName.quote(getId()));
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (!server.isRegistered(name)) {
+				server.registerMBean(cacheStatistics, name);
+				cacheStatisticsName = name;
+			}
+		} catch (Exception e) {
+			getLog().warn("Cache statistics of lookup table " + getId() + " can't be registered in JMX.", e);
+		}
+	}
+	
+	private void unregisterCacheStatistics() {
+		if (cacheStatisticsName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(cacheStatisticsName);
+			} catch (Exception e) {
+				getLog().debug("Cache statistics of lookup table " + getId() + " can't be unregistered from JMX.", e);
+			}
+			cacheStatisticsName = null;
+		}
 	}
     
     @Override
@@ -220,6 +276,9 @@ public class DBLookupTable extends GraphElement implements LookupTable {
 		} finally {
 			activeLookups.clear();
 		}
+		if (isCacheEnabled()) {
+			getLog().info("Cache of lookup table " + getId() + ": " + cacheStatistics);
+		}
 		connection.closeConnection(getId(), OperationType.READ);
 	}
 	
@@ -251,6 +310,18 @@ public class DBLookupTable extends GraphElement implements LookupTable {
         if (properties.containsKey(XML_STORE_NULL_RESPOND)){
         	lookupTable.setStoreNulls(properties.getBooleanProperty(XML_STORE_NULL_RESPOND));
         }
+        if (properties.containsKey(XML_BATCH_SIZE)){
+        	lookupTable.setBatchSize(properties.getIntProperty(XML_BATCH_SIZE));
+        }
+        if (properties.containsKey(XML_MAX_CACHED_SIZE)){
+        	lookupTable.setMaxCachedSize(parseCacheSize(properties.getStringProperty(XML_MAX_CACHED_SIZE)));
+        }
+        if (properties.containsKey(XML_CACHE_POLICY)){
+        	lookupTable.setCachePolicy(DBLookupCache.Policy.valueOf(properties.getStringProperty(XML_CACHE_POLICY).toUpperCase()));
+        }
+        if (properties.containsKey(XML_CACHE_TTL)){
+        	lookupTable.setCacheTimeToLive(properties.getLongProperty(XML_CACHE_TTL) * 1000);
+        }
         
         return lookupTable;
     }
@@ -286,10 +357,30 @@ public class DBLookupTable extends GraphElement implements LookupTable {
         if (xattribs.exists(XML_STORE_NULL_RESPOND)) {
         	lookupTable.setStoreNulls(xattribs.getBoolean(XML_STORE_NULL_RESPOND));
         }
+        if (xattribs.exists(XML_BATCH_SIZE)) {
+        	lookupTable.setBatchSize(xattribs.getInteger(XML_BATCH_SIZE));
+        }
+        if (xattribs.exists(XML_MAX_CACHED_SIZE)) {
+        	lookupTable.setMaxCachedSize(parseCacheSize(xattribs.getString(XML_MAX_CACHED_SIZE)));
+        }
+        if (xattribs.exists(XML_CACHE_POLICY)) {
+        	lookupTable.setCachePolicy(DBLookupCache.Policy.valueOf(xattribs.getString(XML_CACHE_POLICY).toUpperCase()));
+        }
+        if (xattribs.exists(XML_CACHE_TTL)) {
+        	lookupTable.setCacheTimeToLive(xattribs.getLong(XML_CACHE_TTL) * 1000);
+        }
         
         return lookupTable;
     }
     
+    /**
+     * Parses cache size in bytes, units k, m and g are accepted.
+     */
+    private static long parseCacheSize(String size) {
+    	long bytes = StringUtils.parseMemory(size);
+    	return bytes >= 0 ? bytes : Long.parseLong(size.trim());
+    }
+    
     @Override
     public synchronized void clear() {
     	synchronized (activeLookups) {
@@ -314,12 +405,13 @@ public class DBLookupTable extends GraphElement implements LookupTable {
                 throw new RuntimeException(e);
             } finally {
                 activeLookups.clear();
+                unregisterCacheStatistics();
             }
         }
     }
 	
 	/**
-	 * Set max number of records stored in cache
+	 * Set max number of keys stored in cache
 	 * 
 	 * @param numCached
 	 */
@@ -337,6 +429,72 @@ public class DBLookupTable extends GraphElement implements LookupTable {
 		this.storeNulls = storeNulls;
 	}
 
+	/**
+	 * Sets max number of keys looked up by a single query, when the keys are fetched
+	 * by {@link DBLookup#fetch(List)}. Values less than 2 switch the batch lookup off.
+	 * Only numeric and date keys are looked up in batches.
+	 * 
+	 * @param batchSize max number of keys in a single query
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @return max number of keys looked up by a single query
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets max approximate size of cached data records in bytes.
+	 * 
+	 * @param maxCachedSize max size in bytes, 0 means unlimited size (the number of keys can be still limited)
+	 */
+	public void setMaxCachedSize(long maxCachedSize) {
+		this.maxCachedSize = maxCachedSize;
+	}
+
+	/**
+	 * Sets policy of the cache.
+	 * 
+	 * @param cachePolicy
+	 */
+	public void setCachePolicy(DBLookupCache.Policy cachePolicy) {
+		this.cachePolicy = cachePolicy;
+	}
+
+	/**
+	 * Sets time after which cached data records are looked up in database again.
+	 * 
+	 * @param cacheTimeToLive time to live in milliseconds, 0 means unlimited
+	 */
+	public void setCacheTimeToLive(long cacheTimeToLive) {
+		this.cacheTimeToLive = cacheTimeToLive;
+	}
+
+	/**
+	 * @return <code>true</code> if found data records are cached
+	 */
+	public boolean isCacheEnabled() {
+		return maxCached > 0 || maxCachedSize > 0;
+	}
+
+	/**
+	 * @return counters of caches of all lookups of this lookup table
+	 */
+	public DBLookupCacheStatistics getCacheStatistics() {
+		return cacheStatistics;
+	}
+
+	/**
+	 * @return new cache for a lookup
+	 */
+	DBLookupCache createCache() {
+		return new DBLookupCache(cachePolicy, maxCached, maxCachedSize, cacheTimeToLive, cacheStatistics);
+	}
+
     @Override
     public ConfigurationStatus checkConfig(ConfigurationStatus status) {
         super.checkConfig(status);
@@ -0,0 +1,172 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.lookup;
+
+import java.text.RuleBasedCollator;
+import java.util.Comparator;
+
+import org.jetel.data.DataField;
+import org.jetel.data.DataRecord;
+import org.jetel.data.StringDataField;
+import org.jetel.metadata.DataFieldMetadata;
+
+/**
+ * Immutable index of intervals of {@link RangeLookupTable}, which can be shared by any number
+ * of concurrent lookups without locking.
+ *
+ * Records are kept in an array in the order given by {@link IntervalRecordComparator}, i.e. sorted
+ * by end points of the first interval. A lookup finds the first record, which can contain the key,
+ * by binary search. Following records are filtered by a segment tree holding the minimal start point
+ * of the first interval for each range of the array, so the records, which start after the key,
+ * are skipped in whole subtrees instead of being compared one by one.
+ *
+ * @created 17. 10. 2026
+ */
+final class RangeLookupIndex {
+
+	private final DataRecord[] records;
+
+	private final int startField;
+
+	private final RuleBasedCollator collator;
+
+	/** number of leaves of the segment tree, power of two */
+	private final int leaves;
+
+	/** index of the record with minimal start point in the node's range, -1 for empty node */
+	private final int[] minStart;
+
+	/**
+	 * @param records records in the {@link IntervalRecordComparator} order
+	 * @param startField index of the start field of the first interval
+	 * @param collator collator for the start field, can be null
+	 */
+	RangeLookupIndex(DataRecord[] records, int startField, RuleBasedCollator collator) {
+		this.records = records;
+		this.startField = startField;
+		this.collator = collator;
+		int size = 1;
+		while (size < records.length) {
+			size <<= 1;
+		}
+		leaves = size;
+		minStart = new int[2 * leaves];
+		for (int i = 0; i < leaves; i++) {
+			minStart[leaves + i] = i < records.length ? i : -1;
+		}
+		for (int node = leaves - 1; node > 0; node--) {
+			int left = minStart[2 * node];
+			int right = minStart[2 * node + 1];
+			if (left < 0 || (right >= 0 && compareStarts(right, left) < 0)) {
+				minStart[node] = right;
+			} else {
+				minStart[node] = left;
+			}
+		}
+	}
+
+	int size() {
+		return records.length;
+	}
+
+	DataRecord get(int index) {
+		return records[index];
+	}
+
+	/**
+	 * @param key record with the key in both start and end fields
+	 * @param comparator comparator used for the records ordering, the instance must not be shared between threads
+	 * @return index of the first record, which is not lower than the key record
+	 */
+	int firstCandidate(DataRecord key, Comparator<DataRecord> comparator) {
+		int low = 0;
+		int high = records.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (comparator.compare(records[mid], key) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds next record, which starts before the given value in the first interval.
+	 *
+	 * @param from the lowest index to search
+	 * @param value key value of the first interval
+	 * @param startInclude whether start points belong to the intervals
+	 * @return index of the found record or -1
+	 */
+	int nextCandidate(int from, DataField value, boolean startInclude) {
+		if (from >= records.length) {
+			return -1;
+		}
+		return nextCandidate(1, 0, leaves, from, value, startInclude);
+	}
+
+	private int nextCandidate(int node, int low, int high, int from, DataField value, boolean startInclude) {
+		if (high <= from || minStart[node] < 0 || !startsBefore(minStart[node], value, startInclude)) {
+			return -1;
+		}
+		if (high - low == 1) {
+			return low;
+		}
+		int mid = (low + high) >>> 1;
+		int result = nextCandidate(2 * node, low, mid, from, value, startInclude);
+		if (result < 0) {
+			result = nextCandidate(2 * node + 1, mid, high, from, value, startInclude);
+		}
+		return result;
+	}
+
+	private boolean startsBefore(int index, DataField value, boolean startInclude) {
+		DataField start = records[index].getField(startField);
+		if (start.isNull()) {
+			return true;
+		}
+		int comparison = compare(value, start);
+		return comparison > 0 || (comparison == 0 && startInclude);
+	}
+
+	/**
+	 * Null start point is lower than any other.
+	 */
+	private int compareStarts(int index1, int index2) {
+		DataField start1 = records[index1].getField(startField);
+		DataField start2 = records[index2].getField(startField);
+		if (start1.isNull()) {
+			return start2.isNull() ? 0 : -1;
+		}
+		if (start2.isNull()) {
+			return 1;
+		}
+		return compare(start1, start2);
+	}
+
+	private int compare(DataField field1, DataField field2) {
+		if (collator != null && field2.getMetadata().getType() == DataFieldMetadata.STRING_FIELD) {
+			return ((StringDataField) field1).compareTo(field2, collator);
+		}
+		return field1.compareTo(field2);
+	}
+
+}
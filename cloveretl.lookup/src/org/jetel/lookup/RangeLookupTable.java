@@ -31,6 +31,7 @@ import java.util.NoSuchElementException;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import org.jetel.data.DataField;
 import org.jetel.data.DataRecord;
 import org.jetel.data.DataRecordFactory;
 import org.jetel.data.Defaults;
@@ -101,11 +102,18 @@ public class RangeLookupTable extends GraphElement implements LookupTable {
 
     public static final boolean DEFAULT_START_INCLUDE = true;
 	public static final boolean DEFAULT_END_INCLUDE = false;
+
+	/** number of lookups without a modification of the table after which the index of intervals is built again */
+	static final int INDEX_REBUILD_LOOKUPS = 16;
 	
     protected DataRecordMetadata metadata;//defines lookup table
     protected String metadataId;
 	protected Parser dataParser;
 	protected SortedSet<DataRecord> sortedDataRecordSet;//set of intervals
+	// immutable index of the intervals shared by all lookups, null while the table is being modified
+	private volatile RangeLookupIndex index;
+	// lookups since the last modification of the table, guarded by sortedDataRecordSet
+	private int lookupsSinceModification;
 	protected RecordKey startKey;
 	protected String[] startFields;
 	protected int[] startField;
@@ -329,12 +337,16 @@ public class RangeLookupTable extends GraphElement implements LookupTable {
 				}
 			}
 		}
+		// build the index before the lookups start
+		synchronized (sortedDataRecordSet) {
+			index = createIndex();
+		}
 	}
 	
 	@Override
 	public void postExecute() throws ComponentNotReadyException {
 		super.postExecute();
-		sortedDataRecordSet.clear();
+		clear();
 	}
 
 	@Override
@@ -344,7 +356,10 @@ public class RangeLookupTable extends GraphElement implements LookupTable {
 	
 	@Override
 	public synchronized void clear() {
-		sortedDataRecordSet.clear();
+		synchronized (sortedDataRecordSet) {
+			sortedDataRecordSet.clear();
+			invalidateIndex();
+		}
 	}
 
     @Override
@@ -376,7 +391,10 @@ public class RangeLookupTable extends GraphElement implements LookupTable {
             throw new NotInitializedException(this);
         }
 
-		sortedDataRecordSet.add(dataRecord.duplicate());
+		synchronized (sortedDataRecordSet) {
+			sortedDataRecordSet.add(dataRecord.duplicate());
+			invalidateIndex();
+		}
 
 		return true;
 	}
@@ -387,7 +405,13 @@ public class RangeLookupTable extends GraphElement implements LookupTable {
             throw new NotInitializedException(this);
         }
 
-	    return sortedDataRecordSet.remove(dataRecord);
+		synchronized (sortedDataRecordSet) {
+			if (sortedDataRecordSet.remove(dataRecord)) {
+				invalidateIndex();
+				return true;
+			}
+			return false;
+		}
 	}
 
 	@Override
@@ -628,6 +652,41 @@ public class RangeLookupTable extends GraphElement implements LookupTable {
 		return collators;
 	}
 
+	/**
+	 * The index is not rebuilt after each modification of the table, that would cost O(n log n) per lookup
+	 * if the table is modified between lookups. Lookups scan the sorted set of intervals instead
+	 * and the index is built again once {@link #INDEX_REBUILD_LOOKUPS} lookups have been performed
+	 * without a modification in between, so a batch of modifications is indexed at once.
+	 * 
+	 * @return index of the current content of the table or <code>null</code> if the table
+	 * has been modified recently and {@link #sortedDataRecordSet} has to be scanned
+	 */
+	RangeLookupIndex getIndex() {
+		RangeLookupIndex result = index;
+		if (result == null) {
+			synchronized (sortedDataRecordSet) {
+				result = index;
+				if (result == null && ++lookupsSinceModification >= INDEX_REBUILD_LOOKUPS) {
+					index = result = createIndex();
+				}
+			}
+		}
+		return result;
+	}
+
+	private RangeLookupIndex createIndex() {
+		return new RangeLookupIndex(sortedDataRecordSet.toArray(new DataRecord[sortedDataRecordSet.size()]),
+				startField[0], collators[startField[0]]);
+	}
+
+	/**
+	 * Called with the lock of {@link #sortedDataRecordSet} after a modification of the table.
+	 */
+	private void invalidateIndex() {
+		index = null;
+		lookupsSinceModification = 0;
+	}
+
 
 	@Override
 	public Lookup createLookup(RecordKey key) {
@@ -669,15 +728,17 @@ public class RangeLookupTable extends GraphElement implements LookupTable {
 
 class RangeLookup implements Lookup{
 	
-	private SortedSet<DataRecord> sortedDataRecordSet;
 	private RangeLookupTable lookupTable;
+	private RangeLookupIndex index;
+	private IntervalRecordComparator comparator;
 	private DataRecord tmpRecord;
 	private int[] startField;
 	private int[] endField;
 	private RecordKey key;
 	private DataRecord inRecord;
 	private int[] keyFields;
-	private SortedSet<DataRecord> subTable;
+	private int position;//position of the next candidate in the index
+	private SortedSet<DataRecord> subTable;//scanned instead of the index while the table is being modified
 	private Iterator<DataRecord> subTableIterator;
 	private DataRecord next;
 	private RuleBasedCollator[] collators;
@@ -700,7 +761,8 @@ class RangeLookup implements Lookup{
 	    		break;
 	    	}
 	    }
-	    this.sortedDataRecordSet = lookupTable.sortedDataRecordSet;
+	    //own instance, the comparator is not thread safe
+	    comparator = new IntervalRecordComparator(lookupTable.getMetadata(), startField, endField, lookupTable.getCollator());
 		this.key = key;
 		this.inRecord = record;
 		this.keyFields = key.getKeyFields();
@@ -719,11 +781,17 @@ class RangeLookup implements Lookup{
 	@Override
 	public synchronized int getNumFound() {
 		int alreadyFound = numFound;
+		int currentPosition = position;
 		while (getNext() != null) {};
 		int tmp = numFound;
-		subTableIterator = subTable.iterator();
-		for (int i=0;i<alreadyFound;i++){
-			getNext();
+		numFound = alreadyFound;
+		position = currentPosition;
+		if (subTable != null) {
+			subTableIterator = subTable.iterator();
+			numFound = 0;
+			for (int i = 0; i < alreadyFound; i++) {
+				getNext();
+			}
 		}
 		return tmp;
 	}
@@ -735,9 +803,16 @@ class RangeLookup implements Lookup{
 			tmpRecord.getField(startField[i]).setValue(inRecord.getField(keyFields[i]));
 			tmpRecord.getField(endField[i]).setValue(inRecord.getField(keyFields[i]));
 		}
-		synchronized (sortedDataRecordSet) {
-			subTable = sortedDataRecordSet.tailSet(tmpRecord);
-			subTableIterator = subTable.iterator();
+		index = lookupTable.getIndex();
+		if (index != null) {
+			position = index.firstCandidate(tmpRecord, comparator);
+			subTable = null;
+			subTableIterator = null;
+		} else {
+			synchronized (lookupTable.sortedDataRecordSet) {
+				subTable = lookupTable.sortedDataRecordSet.tailSet(tmpRecord);
+				subTableIterator = subTable.iterator();
+			}
 		}
 		numFound = 0;
 		next = getNext();
@@ -750,39 +825,44 @@ class RangeLookup implements Lookup{
 	}
 
 	private DataRecord getNext(){
-		if (subTableIterator == null) {
-			return null;
-		}
-		boolean[] ok = new boolean[startField.length];
-		Arrays.fill(ok, false);
-		boolean allOK = false;
-		DataRecord result = null;
-		nextCandidate: while (!(allOK = checkAll(ok)) && subTableIterator.hasNext()){
-			Arrays.fill(ok, false);
-			result = subTableIterator.next();
-			for (int i = 0; i < startField.length; i++) {
-				comparison = compare(tmpRecord, result, i);
-				if ((comparison[0] < 0 || (comparison[0] == 0 && !startInclude[i])) || (comparison[1] > 0 || (comparison[1] == 0 && !endInclude[i]))) {
-					//if value is not in interval try next
-					continue nextCandidate;
-				} else {
-					ok[i] = true;
-				}
-			}
-		};
-		if (!allOK) {
-			return null;
-		}
-		numFound++;
-		return result;
+		if (subTableIterator != null) {
+			while (subTableIterator.hasNext()) {
+				DataRecord result = subTableIterator.next();
+				if (contains(result)) {
+					numFound++;
+					return result;
+				}
+			}
+			return null;
+		}
+		if (index == null) {
+			return null;
+		}
+		//candidates start before the key in the first interval, all intervals are checked here
+		DataField value = tmpRecord.getField(startField[0]);
+		int candidate;
+		while ((candidate = index.nextCandidate(position, value, startInclude[0])) >= 0) {
+			position = candidate + 1;
+			DataRecord result = index.get(candidate);
+			if (contains(result)) {
+				numFound++;
+				return result;
+			}
+		}
+		position = index.size();
+		return null;
+	}
+	
+	private boolean contains(DataRecord lookupRecord) {
+		for (int i = 0; i < startField.length; i++) {
+			comparison = compare(tmpRecord, lookupRecord, i);
+			if ((comparison[0] < 0 || (comparison[0] == 0 && !startInclude[i])) || (comparison[1] > 0 || (comparison[1] == 0 && !endInclude[i]))) {
+				//value is not in interval
+				return false;
+			}
+		}
+		return true;
 	}
-	
-	private boolean checkAll(boolean[] value) {
-		for (boolean b : value) {
-			if (!b) return false;
-		}
-		return true;
-	}
 	
 	@Override
 	public boolean hasNext() {
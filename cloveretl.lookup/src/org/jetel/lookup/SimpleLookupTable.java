@@ -29,6 +29,7 @@ import org.jetel.data.DataRecordMap;
 import org.jetel.data.DataRecordMap.DataRecordIterator;
 import org.jetel.data.Defaults;
 import org.jetel.data.HashKey;
+import org.jetel.data.OffHeapDataRecordMap;
 import org.jetel.data.RecordKey;
 import org.jetel.data.lookup.Lookup;
 import org.jetel.data.lookup.LookupTable;
@@ -63,7 +64,8 @@ import org.w3c.dom.Element;
  *              dataType NMTOKEN (delimited | fixed) #REQUIRED
  *              fileURL CDATA #REQUIRED
  *              charset CDATA #IMPLIED
- *              initialSize CDATA #IMPLIED&gt;
+ *              initialSize CDATA #IMPLIED
+ *              offHeap (true | false) #IMPLIED&gt;
  *              
  * @author     dpavlis
  * @since    May 2, 2002
@@ -78,6 +80,7 @@ public class SimpleLookupTable extends GraphElement implements LookupTable {
 	private static final String XML_CHARSET = "charset";
 	private static final String XML_DATA_ATTRIBUTE = "data";
 	private static final String XML_KEY_DUPLICATES_ATTRIBUTE = "keyDuplicates";
+	private static final String XML_OFF_HEAP_ATTRIBUTE = "offHeap";
 
 	private final static String[] REQUESTED_ATTRIBUTE = { XML_ID_ATTRIBUTE, XML_TYPE_ATTRIBUTE, XML_METADATA_ID, XML_LOOKUP_KEY };
 
@@ -91,6 +94,8 @@ public class SimpleLookupTable extends GraphElement implements LookupTable {
 	protected RecordKey indexKey;
 	protected int tableInitialSize = DEFAULT_INITIAL_CAPACITY;
 	protected boolean keyDuplicates = false;
+	// records are stored serialized in off-heap memory
+	protected boolean offHeap = false;
 
 	// data of the lookup table, can be used instead of an input file
 	protected String data;
@@ -197,7 +202,11 @@ public class SimpleLookupTable extends GraphElement implements LookupTable {
 		indexKey.setEqualNULLs(true);
 
 		if (lookupTable == null) {
-			lookupTable = new DataRecordMap(indexKey, keyDuplicates, tableInitialSize);
+			if (offHeap) {
+				lookupTable = new OffHeapDataRecordMap(indexKey, keyDuplicates, tableInitialSize, true);
+			} else {
+				lookupTable = new DataRecordMap(indexKey, keyDuplicates, tableInitialSize);
+			}
 		}
 
 		if (charset == null) {
@@ -249,7 +258,7 @@ public class SimpleLookupTable extends GraphElement implements LookupTable {
 					dataParser.skip(metadata.getSkipSourceRows());
 				}
 				while (dataParser.getNext(record) != null) {
-					lookupTable.put(record.duplicate());
+					lookupTable.putCopy(record);
 				}
 			} catch (Exception e) {
 				throw new ComponentNotReadyException(this, e);
@@ -298,6 +307,9 @@ public class SimpleLookupTable extends GraphElement implements LookupTable {
 		if (properties.containsKey(XML_KEY_DUPLICATES_ATTRIBUTE)) {
 			lookupTable.setKeyDuplicates(properties.getBooleanProperty(XML_KEY_DUPLICATES_ATTRIBUTE));
 		}
+		if (properties.containsKey(XML_OFF_HEAP_ATTRIBUTE)) {
+			lookupTable.setOffHeap(properties.getBooleanProperty(XML_OFF_HEAP_ATTRIBUTE));
+		}
 		if (properties.containsKey(XML_DATA_ATTRIBUTE)) {
 			lookupTable.setData(properties.getStringProperty(XML_DATA_ATTRIBUTE));
 		}
@@ -341,6 +353,9 @@ public class SimpleLookupTable extends GraphElement implements LookupTable {
 		if (xattribs.exists(XML_KEY_DUPLICATES_ATTRIBUTE)) {
 			lookupTable.setKeyDuplicates(xattribs.getBoolean(XML_KEY_DUPLICATES_ATTRIBUTE));
 		}
+		if (xattribs.exists(XML_OFF_HEAP_ATTRIBUTE)) {
+			lookupTable.setOffHeap(xattribs.getBoolean(XML_OFF_HEAP_ATTRIBUTE));
+		}
 		if (xattribs.exists(XML_DATA_ATTRIBUTE)) {
 			lookupTable.setData(xattribs.getString(XML_DATA_ATTRIBUTE));
 		}
@@ -426,7 +441,7 @@ public class SimpleLookupTable extends GraphElement implements LookupTable {
 		if (!isInitialized()) {
 			throw new NotInitializedException(this);
 		}
-		lookupTable.put(dataRecord.duplicate());
+		lookupTable.putCopy(dataRecord);
 
 		return true;
 	}
@@ -448,6 +463,11 @@ public class SimpleLookupTable extends GraphElement implements LookupTable {
 		return lookupTable.remove(key.getRecordKey(), key.getDataRecord());
 	}
 
+	/**
+	 * Iterates over all records of the lookup table. If the records are stored off-heap,
+	 * the iterator deserializes each record into the same instance, so a returned record is valid
+	 * only until the next call of {@link Iterator#next()} - copy it if it has to be kept.
+	 */
 	@Override
 	public Iterator<DataRecord> iterator() {
 		if (!isInitialized()) {
@@ -488,6 +508,17 @@ public class SimpleLookupTable extends GraphElement implements LookupTable {
 		this.keyDuplicates = keyDuplicates;
 	}
 
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	/**
+	 * @param offHeap true if records should be stored serialized in off-heap memory, see {@link OffHeapDataRecordMap}
+	 */
+	public void setOffHeap(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+
 	@Override
 	public DataRecordMetadata getKeyMetadata() throws ComponentNotReadyException {
 		if (!isInitialized()) {
@@ -0,0 +1,77 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.lookup;
+
+import org.jetel.connection.jdbc.specific.impl.DefaultJdbcSpecific;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class BatchLookupQueryTest extends CloverTestCase {
+
+	private DataRecordMetadata metadata;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		metadata = new DataRecordMetadata("employee", DataRecordMetadata.DELIMITED_RECORD);
+		metadata.addField(new DataFieldMetadata("employee_id", DataFieldType.INTEGER, ";"));
+		metadata.addField(new DataFieldMetadata("last_name", DataFieldType.STRING, ";"));
+		metadata.addField(new DataFieldMetadata("dept", DataFieldType.STRING, "\n"));
+	}
+
+	public void testSingleColumn() {
+		BatchLookupQuery query = BatchLookupQuery.create("select * from employee where last_name = ?", 1, metadata);
+		assertNotNull(query);
+		assertEquals(1, query.getColumnCount());
+		assertEquals(1, query.getResultFields()[0]);
+		assertEquals("select * from employee where (last_name IN (?, ?, ?)) ",
+				query.getQuery(DefaultJdbcSpecific.getInstance(), 3));
+	}
+
+	public void testMultipleColumns() {
+		BatchLookupQuery query = BatchLookupQuery.create(
+				"select * from employee e WHERE e.\"DEPT\"=? and e.employee_id = ? order by last_name", 2, metadata);
+		assertNotNull(query);
+		assertEquals(2, query.getResultFields()[0]);
+		assertEquals(0, query.getResultFields()[1]);
+		assertEquals("select * from employee e WHERE ((e.\"DEPT\" = ? AND e.employee_id = ?) OR (e.\"DEPT\" = ? AND e.employee_id = ?)) order by last_name",
+				query.getQuery(DefaultJdbcSpecific.getInstance(), 2));
+	}
+
+	public void testUnsupported() {
+		// missing key column
+		assertNull(BatchLookupQuery.create("select * from employee where salary = ?", 1, metadata));
+		// other conditions
+		assertNull(BatchLookupQuery.create("select * from employee where last_name = ? or dept = ?", 2, metadata));
+		assertNull(BatchLookupQuery.create("select * from employee where last_name = ? and dept > 'A'", 1, metadata));
+		assertNull(BatchLookupQuery.create("select * from employee where last_name like ?", 1, metadata));
+		// subquery
+		assertNull(BatchLookupQuery.create("select * from employee where dept = ? and employee_id in (select id from x where y = 1)", 1, metadata));
+		// parameter outside of the WHERE clause
+		assertNull(BatchLookupQuery.create("select ? as x, employee.* from employee where dept = ?", 2, metadata));
+	}
+
+}
@@ -0,0 +1,188 @@
+/*
+ * jETeL/CloverETL - Java based ETL application framework.
+ * Copyright (c) Javlin, a.s. (info@cloveretl.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package org.jetel.lookup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.HashKey;
+import org.jetel.data.RecordKey;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.test.CloverTestCase;
+
+/**
+ * @created 17. 10. 2026
+ */
+public class DBLookupCacheTest extends CloverTestCase {
+
+	private DataRecordMetadata metadata;
+	private RecordKey recordKey;
+	private DBLookupCacheStatistics statistics;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		initEngine();
+
+		metadata = new DataRecordMetadata("record", DataRecordMetadata.DELIMITED_RECORD);
+		metadata.addField(new DataFieldMetadata("key", DataFieldType.INTEGER, ";"));
+		metadata.addField(new DataFieldMetadata("value", DataFieldType.STRING, "\n"));
+		recordKey = new RecordKey(new String[] { "key" }, metadata);
+		recordKey.init();
+		statistics = new DBLookupCacheStatistics();
+	}
+
+	private HashKey key(int key) {
+		DataRecord record = DataRecordFactory.newRecord(metadata);
+		record.getField(0).setValue(key);
+		return new HashKey(recordKey, record);
+	}
+
+	private List<DataRecord> records(int key, int count) {
+		List<DataRecord> records = new ArrayList<DataRecord>();
+		for (int i = 0; i < count; i++) {
+			DataRecord record = DataRecordFactory.newRecord(metadata);
+			record.getField(0).setValue(key);
+			record.getField(1).setValue("value" + i);
+			records.add(record);
+		}
+		return records;
+	}
+
+	public void testLRU() {
+		DBLookupCache cache = new DBLookupCache(DBLookupCache.Policy.LRU, 2, 0, 0, statistics);
+		assertTrue(cache.put(key(1), records(1, 2)));
+		assertTrue(cache.put(key(2), records(2, 2)));
+		assertNotNull(cache.get(key(1)));
+		// key 2 is the least recently used
+		assertTrue(cache.put(key(3), records(3, 1)));
+		assertNull(cache.get(key(2)));
+		assertEquals(2, cache.get(key(1)).size());
+		assertEquals(1, cache.get(key(3)).size());
+		assertEquals(1, statistics.getEvictionCount());
+
+		// the limit is the number of keys, not the number of records
+		assertTrue(cache.put(key(4), records(4, 5)));
+		assertEquals(2, cache.size());
+		assertEquals(5, cache.get(key(4)).size());
+	}
+
+	public void testNegativeResponsesLimited() {
+		// cache created as by DBJoin with its defaults
+		DBLookupTable lookupTable = new DBLookupTable("lookup", null, metadata, "select * from dual", 100);
+		lookupTable.setStoreNulls(true);
+		DBLookupCache cache = lookupTable.createCache();
+		for (int i = 0; i < 10000; i++) {
+			assertTrue(cache.put(key(i), Collections.<DataRecord>emptyList()));
+			assertTrue(cache.size() <= 100);
+		}
+		assertEquals(100, cache.size());
+		assertEquals(9900, lookupTable.getCacheStatistics().getEvictionCount());
+		assertNotNull(cache.get(key(9999)));
+		assertNull(cache.get(key(0)));
+	}
+
+	public void testNegativeResponse() {
+		DBLookupCache cache = new DBLookupCache(DBLookupCache.Policy.LRU, 10, 0, 0, statistics);
+		assertNull(cache.get(key(1)));
+		assertTrue(cache.put(key(1), Collections.<DataRecord>emptyList()));
+		assertTrue(cache.get(key(1)).isEmpty());
+		assertEquals(1, statistics.getHitCount());
+		assertEquals(1, statistics.getNegativeHitCount());
+		assertEquals(1, statistics.getMissCount());
+	}
+
+	public void testSizeInBytes() {
+		long entrySize;
+		DBLookupCache cache = new DBLookupCache(DBLookupCache.Policy.LRU, 0, 0, 0, statistics);
+		cache.put(key(0), records(0, 10));
+		entrySize = cache.getSizeInBytes();
+		assertEquals(entrySize, statistics.getCachedBytes());
+
+		cache = new DBLookupCache(DBLookupCache.Policy.LRU, 0, 3 * entrySize, 0, new DBLookupCacheStatistics());
+		for (int i = 0; i < 10; i++) {
+			assertTrue(cache.put(key(i), records(i, 10)));
+			assertTrue(cache.getSizeInBytes() <= 3 * entrySize);
+		}
+		assertEquals(3, cache.size());
+		assertNotNull(cache.get(key(9)));
+		assertNull(cache.get(key(6)));
+	}
+
+	public void testTimeToLive() throws InterruptedException {
+		DBLookupCache cache = new DBLookupCache(DBLookupCache.Policy.LRU, 10, 0, 50, statistics);
+		cache.put(key(1), records(1, 1));
+		assertNotNull(cache.get(key(1)));
+		Thread.sleep(100);
+		assertNull(cache.get(key(1)));
+		assertEquals(1, statistics.getExpirationCount());
+		assertEquals(0, cache.size());
+	}
+
+	public void testTinyLFU() {
+		DBLookupCache cache = new DBLookupCache(DBLookupCache.Policy.TINY_LFU, 10, 0, 0, statistics);
+		// frequently used keys
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 10; i++) {
+				if (cache.get(key(i)) == null) {
+					cache.put(key(i), records(i, 1));
+				}
+			}
+		}
+		// stream of unique keys doesn't flush the frequent keys
+		for (int i = 100; i < 200; i++) {
+			if (cache.get(key(i)) == null) {
+				cache.put(key(i), records(i, 1));
+			}
+		}
+		for (int i = 0; i < 10; i++) {
+			assertNotNull(cache.get(key(i)));
+		}
+		assertEquals(100, statistics.getRejectionCount());
+
+		// LRU would keep just the unique keys
+		cache = new DBLookupCache(DBLookupCache.Policy.LRU, 10, 0, 0, null);
+		for (int i = 0; i < 10; i++) {
+			cache.put(key(i), records(i, 1));
+		}
+		for (int i = 100; i < 200; i++) {
+			cache.put(key(i), records(i, 1));
+		}
+		assertNull(cache.get(key(0)));
+	}
+
+	public void testFrequencySketch() {
+		DBLookupCache.FrequencySketch sketch = new DBLookupCache.FrequencySketch(100);
+		HashKey frequent = key(1);
+		for (int i = 0; i < 20; i++) {
+			sketch.increment(frequent);
+		}
+		sketch.increment(key(2));
+		// 4-bit counters
+		assertEquals(15, sketch.frequency(frequent));
+		assertTrue(sketch.frequency(key(2)) >= 1);
+		assertTrue(sketch.frequency(key(3)) < 15);
+	}
+
+}
@@ -1,5 +1,8 @@
 package org.jetel.lookup;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.log4j.Logger;
@@ -7,6 +10,7 @@ import org.jetel.connection.jdbc.DBConnectionImpl;
 import org.jetel.connection.jdbc.SQLDataParser;
 import org.jetel.data.DataRecord;
 import org.jetel.data.DataRecordFactory;
+import org.jetel.data.HashKey;
 import org.jetel.data.RecordKey;
 import org.jetel.data.lookup.Lookup;
 import org.jetel.database.sql.DBConnection;
@@ -210,6 +214,42 @@ public class DBLookupTest extends CloverTestCase {
 		log.info("Timing: " + (System.currentTimeMillis() - start));
 	}
 	
+	public void testBatch() throws Exception {
+		lookupTable.setBatchSize(50);
+		lookupTable.preExecute();
+		DBLookup dbLookup = (DBLookup) lookupTable.createLookup(recordKey, customer);
+		DataRecord inRecord = DataRecordFactory.newRecord(customer.getMetadata());
+		Lookup lookup2 = lookupTable.createLookup(new RecordKey(recordKey.getKeyFields(), customer.getMetadata()), inRecord);
+		List<DataRecord> batch = new ArrayList<DataRecord>();
+		int found = 0;
+		while (true) {
+			DataRecord record = parser.getNext(customer);
+			if (record != null) {
+				batch.add(record.duplicate());
+			}
+			if (batch.size() == 100 || (record == null && !batch.isEmpty())) {
+				Map<HashKey, List<DataRecord>> fetched = dbLookup.fetchAsync(batch).get();
+				for (DataRecord keyRecord : batch) {
+					dbLookup.seek(keyRecord, fetched);
+					inRecord.copyFrom(keyRecord);
+					lookup2.seek();
+					assertEquals(lookup2.getNumFound(), dbLookup.getNumFound());
+					while (dbLookup.hasNext()) {
+						employee = dbLookup.next();
+						assertEquals(keyRecord.getField("lname"), employee.getField("last_name"));
+						found++;
+					}
+				}
+				batch.clear();
+			}
+			if (record == null) {
+				break;
+			}
+		}
+		log.info("Found " + found + " records by batch lookup");
+		lookupTable.postExecute();
+	}
+	
 	public void testClear() throws ComponentNotReadyException, JetelException {
 		lookupTable.setNumCached(1000);
 		lookupTable.setStoreNulls(true);
@@ -714,6 +714,108 @@ public class RangeLookupTest extends CloverTestCase {
 		lookup.postExecute();
 	}
 
+	public void test_overlappingIntervals() throws ComponentNotReadyException {
+		lookupMetadata = new DataRecordMetadata("lookupTest", DataRecordMetadata.DELIMITED_RECORD);
+		lookupMetadata.addField(new DataFieldMetadata("name", DataFieldMetadata.STRING_FIELD, ";"));
+		lookupMetadata.addField(new DataFieldMetadata("start", DataFieldMetadata.INTEGER_FIELD, ";"));
+		lookupMetadata.addField(new DataFieldMetadata("end", DataFieldMetadata.INTEGER_FIELD, ";"));
+		lookup = (RangeLookupTable) LookupTableFactory.createLookupTable(null, "rangeLookup", new Object[] { "RangeLookup", lookupMetadata, new String[] { "start" }, new String[] { "end" }, null }, new Class[] { String.class, DataRecordMetadata.class, String[].class, String[].class, Parser.class });
+		lookup.init();
+		lookup.preExecute();
+		record = DataRecordFactory.newRecord(lookupMetadata);
+		for (int i = 0; i < 2000; i++) {
+			int start = random.nextInt(1000);
+			record.getField("name").setValue("interval" + i);
+			record.getField("start").setValue(start);
+			record.getField("end").setValue(start + 1 + random.nextInt(i % 10 == 0 ? 1000 : 20));
+			lookup.put(record);
+		}
+
+		metadata = new DataRecordMetadata("in", DataRecordMetadata.DELIMITED_RECORD);
+		metadata.addField(new DataFieldMetadata("id", DataFieldMetadata.INTEGER_FIELD, ";"));
+		DataRecord keyRecord = DataRecordFactory.newRecord(metadata);
+		lookupResult = lookup.createLookup(new RecordKey(new int[]{0}, metadata), keyRecord);
+
+		for (int round = 0; round < 2; round++) {
+			for (int value = -1; value <= 2001; value += 7) {
+				keyRecord.getField(0).setValue(value);
+				lookupResult.seek();
+				int found = 0;
+				while (lookupResult.hasNext()) {
+					DataRecord interval = lookupResult.next();
+					assertTrue(value >= (Integer) interval.getField("start").getValue());
+					assertTrue(value < (Integer) interval.getField("end").getValue());
+					found++;
+				}
+				int expected = 0;
+				for (Iterator<DataRecord> iter = lookup.iterator(); iter.hasNext();) {
+					DataRecord interval = iter.next();
+					if (value >= (Integer) interval.getField("start").getValue() && value < (Integer) interval.getField("end").getValue()) {
+						expected++;
+					}
+				}
+				assertEquals(expected, found);
+			}
+			// the index has to reflect modifications of the table
+			for (int i = 0; i < 500; i++) {
+				record.getField("start").setValue(random.nextInt(1000));
+				record.getField("end").setValue(1000 + random.nextInt(1000));
+				lookup.put(record);
+			}
+			Iterator<DataRecord> iter = lookup.iterator();
+			DataRecord removed = iter.next().duplicate();
+			assertTrue(lookup.remove(removed));
+		}
+		lookup.postExecute();
+	}
+
+	public void test_indexRebuiltAfterModifications() throws ComponentNotReadyException {
+		lookupMetadata = new DataRecordMetadata("lookupTest", DataRecordMetadata.DELIMITED_RECORD);
+		lookupMetadata.addField(new DataFieldMetadata("name", DataFieldMetadata.STRING_FIELD, ";"));
+		lookupMetadata.addField(new DataFieldMetadata("start", DataFieldMetadata.INTEGER_FIELD, ";"));
+		lookupMetadata.addField(new DataFieldMetadata("end", DataFieldMetadata.INTEGER_FIELD, ";"));
+		lookup = (RangeLookupTable) LookupTableFactory.createLookupTable(null, "rangeLookup", new Object[] { "RangeLookup", lookupMetadata, new String[] { "start" }, new String[] { "end" }, null }, new Class[] { String.class, DataRecordMetadata.class, String[].class, String[].class, Parser.class });
+		lookup.init();
+		lookup.preExecute();
+		assertNotNull(lookup.getIndex());
+
+		metadata = new DataRecordMetadata("in", DataRecordMetadata.DELIMITED_RECORD);
+		metadata.addField(new DataFieldMetadata("id", DataFieldMetadata.INTEGER_FIELD, ";"));
+		DataRecord keyRecord = DataRecordFactory.newRecord(metadata);
+		keyRecord.getField(0).setValue(5);
+		lookupResult = lookup.createLookup(new RecordKey(new int[]{0}, metadata), keyRecord);
+
+		// the table modified between lookups is scanned, the index is not built for each lookup
+		record = DataRecordFactory.newRecord(lookupMetadata);
+		for (int i = 0; i < 10; i++) {
+			record.getField("name").setValue("interval" + i);
+			record.getField("start").setValue(i);
+			record.getField("end").setValue(i + 3);
+			lookup.put(record);
+			assertNull(lookup.getIndex());
+			lookupResult.seek();
+			// intervals [3, 6), [4, 7) and [5, 8) contain the key
+			assertEquals(Math.max(0, Math.min(i, 5) - 2), lookupResult.getNumFound());
+		}
+		for (int i = 0; i < RangeLookupTable.INDEX_REBUILD_LOOKUPS; i++) {
+			lookupResult.seek();
+			assertEquals(3, lookupResult.getNumFound());
+			lookupResult.next();
+			assertEquals(3, lookupResult.getNumFound());
+			assertTrue(lookupResult.hasNext());
+		}
+		assertNotNull(lookup.getIndex());
+		lookupResult.seek();
+		assertEquals(3, lookupResult.getNumFound());
+
+		record.getField("start").setValue(0);
+		record.getField("end").setValue(100);
+		lookup.put(record);
+		lookupResult.seek();
+		assertEquals(4, lookupResult.getNumFound());
+		lookup.postExecute();
+	}
+
 	private boolean checkOrder(DataRecord previous, DataRecord following) {
 		int startComparison;
 		int endComparison;